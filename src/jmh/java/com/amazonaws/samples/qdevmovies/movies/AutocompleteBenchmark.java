@@ -0,0 +1,69 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link MovieService#completeMovies(String, String, int)} for eight completions over a
+ * 1,000,000-movie catalog, from a one-letter prefix shared by a tenth of the titles to one
+ * shared by about a thousand. Run with {@code -prof gc} to see the allocation per lookup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@State(Scope.Benchmark)
+public class AutocompleteBenchmark {
+
+    MovieService movieService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        movieService = new MovieService(SyntheticCatalog.movies(1_000_000));
+    }
+
+    /**
+     * 100,000 titles start with "t".
+     */
+    @Benchmark
+    public List<MovieCompletion> oneLetter() {
+        return movieService.completeMovies("t", null, 8);
+    }
+
+    /**
+     * About 20,000 titles and no directors start with "the h".
+     */
+    @Benchmark
+    public List<MovieCompletion> twoWords() {
+        return movieService.completeMovies("the h", null, 8);
+    }
+
+    /**
+     * About 1,100 titles start with "the heist 12".
+     */
+    @Benchmark
+    public List<MovieCompletion> nearlyTyped() {
+        return movieService.completeMovies("the heist 12", null, 8);
+    }
+
+    /**
+     * About 11,000 of the 50,000 directors start with "director 4".
+     */
+    @Benchmark
+    public List<MovieCompletion> directorsOnly() {
+        return movieService.completeMovies("director 4", MovieMatch.DIRECTOR, 8);
+    }
+}
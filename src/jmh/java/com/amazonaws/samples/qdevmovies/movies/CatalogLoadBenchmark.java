@@ -0,0 +1,46 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to turn an in-memory movies.json document into a ready {@link MovieService},
+ * including building its indexes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx6g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@State(Scope.Benchmark)
+public class CatalogLoadBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int catalogSize;
+
+    byte[] moviesJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        moviesJson = SyntheticCatalog.moviesJson(SyntheticCatalog.movies(catalogSize));
+    }
+
+    @Benchmark
+    public MovieService loadCatalog() throws IOException {
+        return MovieService.builder().catalog(MovieService.readCatalog(new ByteArrayInputStream(moviesJson))).build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording {@link CatalogMetrics} on the search and lookup paths: the same calls with
+ * no-op meters and with a Prometheus registry. Run with {@code -prof gc} to confirm that
+ * recording allocates nothing per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+public class CatalogMetricsBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({"noop", "prometheus"})
+        String metrics;
+
+        MovieService movieService;
+        String title;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            CatalogMetrics catalogMetrics = "noop".equals(metrics)
+                ? CatalogMetrics.NOOP
+                : new CatalogMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+            movieService = MovieService.builder().catalog(ColumnarCatalog.of(SyntheticCatalog.movies(100_000))).metrics(catalogMetrics).build();
+            title = movieService.getMovieById(50_000L).get().getMovieName();
+        }
+    }
+
+    @Benchmark
+    public List<Movie> searchMovies(Catalog catalog) {
+        return catalog.movieService.searchMovies(catalog.title, null, null);
+    }
+
+    @Benchmark
+    public Optional<Movie> getMovieById(Catalog catalog) {
+        return catalog.movieService.getMovieById(50_000L);
+    }
+}
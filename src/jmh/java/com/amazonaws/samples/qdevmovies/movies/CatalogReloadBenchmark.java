@@ -0,0 +1,104 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request latency while the catalog is reloaded back to back on another thread, against the
+ * same requests with no reloads. Each reload indexes a full catalog of the same size and swaps
+ * it in; the reload times are printed when the trial ends.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 4, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@Threads(2)
+@State(Scope.Benchmark)
+public class CatalogReloadBenchmark {
+
+    private static final MovieSort BY_RATING = new MovieSort(MovieSort.Field.RATING, true);
+
+    @Param({"100000", "1000000"})
+    int catalogSize;
+
+    @Param({"false", "true"})
+    boolean reloading;
+
+    MovieService movieService;
+    MovieFilter drama;
+    private volatile boolean running;
+    private Thread reloader;
+    private final List<CatalogReload> reloads = Collections.synchronizedList(new ArrayList<>());
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Movie> movies = SyntheticCatalog.movies(catalogSize);
+        MovieCatalog first = ColumnarCatalog.of(movies);
+        // the same movies with one rating changed, so every reload publishes a new version
+        List<Movie> changed = new ArrayList<>(movies);
+        Movie movie = changed.get(0);
+        changed.set(0, new Movie(movie.getId(), movie.getMovieName(), movie.getDirector(), movie.getYear(), movie.getGenre(),
+            movie.getDescription(), movie.getDuration(), movie.getImdbRating() == 5.0 ? 1.0 : 5.0));
+        MovieCatalog second = ColumnarCatalog.of(changed);
+
+        movieService = MovieService.builder().catalog(first).build();
+        drama = new MovieFilter();
+        drama.setGenres(Collections.singletonList("Drama"));
+        movieService.searchMoviesFaceted(drama, BY_RATING, 0, 1, null);
+        if (reloading) {
+            running = true;
+            reloader = new Thread(() -> {
+                for (int i = 0; running; i++) {
+                    reloads.add(movieService.publish(i % 2 == 0 ? second : first, 0));
+                }
+            }, "catalog-reloader");
+            reloader.setDaemon(true);
+            reloader.start();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        if (reloader == null) {
+            return;
+        }
+        reloader.join();
+        long total = 0;
+        long max = 0;
+        for (CatalogReload reload : reloads) {
+            total += reload.getIndexMillis();
+            max = Math.max(max, reload.getIndexMillis());
+        }
+        System.out.printf("%n%d reloads of %d movies, mean %d ms, max %d ms%n",
+            reloads.size(), catalogSize, total / Math.max(1, reloads.size()), max);
+    }
+
+    @Benchmark
+    public FacetedSearchResult topDramaByRating() {
+        return movieService.searchMoviesFaceted(drama, BY_RATING, 0, MovieService.DEFAULT_PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public Object lookupById() {
+        return movieService.getMovieById(1L + (System.nanoTime() & 0xFFFF) % catalogSize);
+    }
+}
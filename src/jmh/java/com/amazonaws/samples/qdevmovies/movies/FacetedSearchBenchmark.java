@@ -0,0 +1,74 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of {@link MovieService#searchMoviesFaceted(MovieFilter, int, int, String)}
+ * over synthetic catalogs, including every facet count.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@State(Scope.Benchmark)
+public class FacetedSearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    int catalogSize;
+
+    /**
+     * none: no filter; genre: one genre component; ranges: two genre components with year
+     * and rating ranges; name: a title word with a duration range.
+     */
+    @Param({"none", "genre", "ranges", "name"})
+    String filter;
+
+    MovieService movieService;
+    MovieFilter movieFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        movieService = new MovieService(SyntheticCatalog.movies(catalogSize));
+        movieFilter = new MovieFilter();
+        switch (filter) {
+            case "none":
+                break;
+            case "genre":
+                movieFilter.setGenres(Collections.singletonList("Drama"));
+                break;
+            case "ranges":
+                movieFilter.setGenres(Arrays.asList("Crime", "Sci-Fi"));
+                movieFilter.setYearFrom(1990);
+                movieFilter.setYearTo(2009);
+                movieFilter.setMinRating(4.0);
+                break;
+            case "name":
+                movieFilter.setName("Golden");
+                movieFilter.setMinDuration(120);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown filter " + filter);
+        }
+    }
+
+    @Benchmark
+    public FacetedSearchResult searchMoviesFaceted() {
+        return movieService.searchMoviesFaceted(movieFilter, 0, MovieService.DEFAULT_PAGE_SIZE, null);
+    }
+}
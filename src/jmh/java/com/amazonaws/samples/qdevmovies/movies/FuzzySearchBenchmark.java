@@ -0,0 +1,73 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of {@link MovieService#searchMoviesFuzzy(String, int)} over synthetic catalogs.
+ * Sample-time mode reports percentiles, which is what the fixed latency budget is about.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@State(Scope.Benchmark)
+public class FuzzySearchBenchmark {
+
+    @Param({"100000", "1000000"})
+    int catalogSize;
+
+    /**
+     * title: one title with a transposition and a dropped letter; words: two misspelled
+     * common title words; director: a misspelled director; miss: nothing similar exists.
+     */
+    @Param({"title", "words", "director", "miss"})
+    String query;
+
+    MovieService movieService;
+    String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        movieService = new MovieService(SyntheticCatalog.movies(catalogSize));
+        Movie movie = movieService.getMovieById((long) catalogSize / 2).get();
+        switch (query) {
+            case "title": text = misspell(movie.getMovieName()); break;
+            case "words": text = "Goldne Harbr"; break;
+            case "director": text = "Dirctor " + movie.getDirector().substring("Director ".length()); break;
+            case "miss": text = "zzyzx qwerty"; break;
+            default: throw new IllegalArgumentException("Unknown query " + query);
+        }
+    }
+
+    @Benchmark
+    public List<MovieMatch> searchMoviesFuzzy() {
+        return movieService.searchMoviesFuzzy(text, MovieService.DEFAULT_FUZZY_LIMIT);
+    }
+
+    /** "Golden Harbor 42" becomes "Gloden Harbr 42". */
+    private static String misspell(String title) {
+        String[] words = title.split(" ");
+        char[] first = words[0].toCharArray();
+        char swapped = first[1];
+        first[1] = first[2];
+        first[2] = swapped;
+        words[0] = new String(first);
+        words[1] = words[1].substring(0, words[1].length() - 2) + words[1].charAt(words[1].length() - 1);
+        return String.join(" ", words);
+    }
+}
@@ -0,0 +1,57 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of a logged search under contention, with the development console
+ * configuration and with the asynchronous production configuration.
+ * <p>
+ * Each {@code logConfig} value runs in its own fork, and the configuration is selected before
+ * Log4j2 initializes. Sample-time mode reports p50, p99 and p99.9 per configuration. Log lines go
+ * to the fork's stdout as they would in a container, so run with {@code -o <file>} to keep the
+ * report readable.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx1g"})
+public class LoggingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({"log4j2.xml", "log4j2-prod.xml"})
+        String logConfig;
+
+        MovieService movieService;
+        String title;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            System.setProperty("log4j.configurationFile", logConfig);
+            movieService = new MovieService(SyntheticCatalog.movies(10_000));
+            title = movieService.getMovieById(5_000L).get().getMovieName();
+        }
+    }
+
+    @Benchmark
+    public List<Movie> searchMovies(Catalog catalog) {
+        return catalog.movieService.searchMovies(catalog.title, null, null);
+    }
+}
@@ -0,0 +1,36 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.MovieIconUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of resolving a title to its icon, for titles with and without a dedicated icon.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@State(Scope.Thread)
+public class MovieIconBenchmark {
+
+    private final String[] titles = {
+        "The Prison Escape", "Dream Heist", "Space Wars: The Beginning", "Golden Harbor 4711", "Silent Voyage 18"
+    };
+    private int next;
+
+    @Benchmark
+    public String getMovieIcon() {
+        return MovieIconUtils.getMovieIcon(titles[next++ % titles.length]);
+    }
+}
@@ -0,0 +1,85 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link MovieService} lookups over synthetic catalogs.
+ * The {@code selectivity} parameter picks a query mix, from a single-title match up to
+ * criteria that match a large share of the catalog.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+public class MovieServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Catalog {
+        @Param({"1000", "100000", "1000000"})
+        int catalogSize;
+
+        MovieService movieService;
+        long[] ids;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            movieService = new MovieService(SyntheticCatalog.movies(catalogSize));
+            ids = new long[1024];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = 1 + (i * 7919L) % catalogSize;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Query {
+        /**
+         * unique: one title; word: a title word; genre: genre only; combined: word and genre;
+         * fragment: a two-letter fragment that no trigram postings can answer.
+         */
+        @Param({"unique", "word", "genre", "combined", "fragment"})
+        String selectivity;
+
+        String name;
+        String genre;
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(Catalog catalog) {
+            switch (selectivity) {
+                case "unique": name = catalog.movieService.getMovieById((long) catalog.catalogSize / 2).get().getMovieName(); break;
+                case "word": name = "Harbor"; break;
+                case "genre": genre = "drama/thriller"; break;
+                case "combined": name = "golden"; genre = "Comedy"; break;
+                case "fragment": name = "rb"; break;
+                default: throw new IllegalArgumentException("Unknown selectivity " + selectivity);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Movie> searchMovies(Catalog catalog, Query query) {
+        return catalog.movieService.searchMovies(query.name, null, query.genre);
+    }
+
+    @Benchmark
+    public Optional<Movie> getMovieById(Catalog catalog, Query query) {
+        return catalog.movieService.getMovieById(catalog.ids[query.next++ & (catalog.ids.length - 1)]);
+    }
+}
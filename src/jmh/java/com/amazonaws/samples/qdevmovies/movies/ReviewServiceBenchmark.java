@@ -0,0 +1,66 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ReviewService#getReviewsForMovie(long)} with reviews for synthetic catalogs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@State(Scope.Benchmark)
+public class ReviewServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int catalogSize;
+
+    ReviewService reviewService;
+    long[] ids;
+    Path reviewsFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        reviewsFile = Files.createTempFile("benchmark-reviews-", ".json");
+        SyntheticCatalog.writeReviewsJson(SyntheticCatalog.movies(catalogSize), reviewsFile);
+        reviewService = new ReviewService(new ReviewRepository(reviewsFile.toString(), false));
+        ids = new long[1024];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1 + (i * 7919L) % catalogSize;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(reviewsFile);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public List<Review> getReviewsForMovie(Cursor cursor) {
+        return reviewService.getReviewsForMovie(ids[cursor.next++ & (ids.length - 1)]);
+    }
+}
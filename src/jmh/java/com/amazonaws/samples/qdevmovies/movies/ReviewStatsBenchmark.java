@@ -0,0 +1,127 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Precomputed review statistics against computing the same numbers from the raw reviews per
+ * request: a movie's summary and rank, and the cost of a new review to the statistics.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@State(Scope.Benchmark)
+public class ReviewStatsBenchmark {
+
+    private static final MovieSort BY_REVIEW_SCORE = new MovieSort(MovieSort.Field.REVIEW_SCORE, true);
+
+    @Param({"100000", "1000000"})
+    int catalogSize;
+
+    ReviewRepository reviews;
+    ReviewService reviewService;
+    MovieService movieService;
+    List<Movie> movies;
+    long[] ids;
+    Path reviewsFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        movies = SyntheticCatalog.movies(catalogSize);
+        reviewsFile = Files.createTempFile("benchmark-reviews-", ".json");
+        SyntheticCatalog.writeReviewsJson(movies, reviewsFile);
+        reviews = new ReviewRepository(reviewsFile.toString(), false);
+        reviewService = new ReviewService(reviews);
+        movieService = MovieService.builder().catalog(ColumnarCatalog.of(movies)).reviews(reviews).build();
+        ids = new long[1024];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1 + (i * 7919L) % catalogSize;
+        }
+        movieService.getMoviesPage(0, MovieService.DEFAULT_PAGE_SIZE, null, BY_REVIEW_SCORE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(reviewsFile);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        long next(long[] ids) {
+            return ids[next++ & (ids.length - 1)];
+        }
+    }
+
+    @Benchmark
+    public ReviewStats reviewStats(Cursor cursor) {
+        return reviewService.getReviewStats(cursor.next(ids));
+    }
+
+    /**
+     * Summary computed from the movie's reviews on every request.
+     */
+    @Benchmark
+    public ReviewSummary summaryByRescan(Cursor cursor) {
+        return ReviewSummary.of(reviews.findByMovieId(cursor.next(ids)).toArray(new Review[0]));
+    }
+
+    /**
+     * Rank computed by scoring every movie in the catalog on every request.
+     */
+    @Benchmark
+    public int rankByRescan(Cursor cursor) {
+        double score = reviews.getScore(cursor.next(ids));
+        int rank = 1;
+        for (Movie movie : movies) {
+            if (reviews.getScore(movie.getId()) > score) {
+                rank++;
+            }
+        }
+        return rank;
+    }
+
+    @Benchmark
+    public ReviewSummary addReview(Cursor cursor) {
+        long id = cursor.next(ids);
+        reviews.add(id, new Review("Benchmark", "🎬", 1 + (id % 9) * 0.5, "another review"));
+        return reviews.getSummary(id);
+    }
+
+    @Benchmark
+    public ReviewStats addReviewThenStats(Cursor cursor) {
+        long id = cursor.next(ids);
+        reviews.add(id, new Review("Benchmark", "🎬", 1 + (id % 9) * 0.5, "another review"));
+        return reviewService.getReviewStats(id);
+    }
+
+    /**
+     * A new review followed by the first page sorted by review score, which rebuilds that sort order.
+     */
+    @Benchmark
+    public MoviePage addReviewThenSortedPage(Cursor cursor) {
+        long id = cursor.next(ids);
+        reviews.add(id, new Review("Benchmark", "🎬", 1 + (id % 9) * 0.5, "another review"));
+        return movieService.getMoviesPage(0, MovieService.DEFAULT_PAGE_SIZE, null, BY_REVIEW_SCORE);
+    }
+}
@@ -0,0 +1,85 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable review submissions per second, each waiting until its review is synced to the review
+ * log, with group commit against a sync per review. Run with {@code -t} set to the number of
+ * concurrent submitters, e.g. {@code -t 64}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@State(Scope.Benchmark)
+public class ReviewSubmitBenchmark {
+
+    private static final int MOVIES = 100_000;
+
+    /** Most reviews per sync: {@link ReviewLog#MAX_BATCH} for group commit, 1 for a sync per review. */
+    @Param({"1024", "1"})
+    int maxBatch;
+
+    Path directory;
+    ReviewIndex index;
+    ReviewLog log;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("benchmark-review-log-");
+        index = ReviewIndex.empty();
+        log = ReviewLog.open(directory.resolve("reviews.log"), index::add, maxBatch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Submitter {
+        long next = Thread.currentThread().getId() * 7919;
+
+        long nextMovie() {
+            return 1 + (next++ * 7919) % MOVIES;
+        }
+    }
+
+    @Benchmark
+    public void submitDurable(Submitter submitter) {
+        long id = submitter.nextMovie();
+        log.append(id, new Review("Benchmark", "🎬", 1 + (id % 9) * 0.5, "a review of moderate length")).join();
+    }
+
+    /**
+     * The index update alone, with nothing written to disk.
+     */
+    @Benchmark
+    public void addInMemory(Submitter submitter) {
+        long id = submitter.nextMovie();
+        index.add(id, new Review("Benchmark", "🎬", 1 + (id % 9) * 0.5, "a review of moderate length"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of repeated {@link MovieService#searchMovies(String, Long, String)} calls over a
+ * 1,000,000-movie catalog, without the search result cache ({@code maxBytes=0}) and with it.
+ * Every query is repeated, so with the cache each one is a hit after the first iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@State(Scope.Benchmark)
+public class SearchCacheBenchmark {
+
+    @Param({"0", "16777216"})
+    long maxBytes;
+
+    MovieService movieService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        movieService = MovieService.builder()
+            .catalog(ColumnarCatalog.of(SyntheticCatalog.movies(1_000_000))).resultCache(new SearchResultCache(maxBytes)).build();
+    }
+
+    /**
+     * One title: the search checks a short postings list, so building the movie dominates.
+     */
+    @Benchmark
+    public List<Movie> selectiveTitle() {
+        return movieService.searchMovies("Heist 424242", null, null);
+    }
+
+    /**
+     * A title whose rarest trigram appears in a tenth of the catalog, matching about 2% of it.
+     */
+    @Benchmark
+    public List<Movie> commonTrigram() {
+        return movieService.searchMovies("the h", null, null);
+    }
+
+    /**
+     * A two-letter fragment within one genre: every movie in the genre is checked.
+     */
+    @Benchmark
+    public List<Movie> shortFragmentInGenre() {
+        return movieService.searchMovies(" AR", null, "comedy");
+    }
+
+    /**
+     * Exact genre, answered from its bitset, with 100,000 matches to build.
+     */
+    @Benchmark
+    public List<Movie> genreOnly() {
+        return movieService.searchMovies(null, null, "Comedy");
+    }
+}
@@ -0,0 +1,85 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the top page by rating from {@link MovieService#searchMoviesFaceted(MovieFilter, MovieSort, int, int, String)},
+ * against copying and fully sorting the same matches per request.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Dlog4j.configurationFile=log4j2-benchmark.xml"})
+@State(Scope.Benchmark)
+public class SortedSearchBenchmark {
+
+    private static final MovieSort BY_RATING = new MovieSort(MovieSort.Field.RATING, true);
+    private static final Comparator<Movie> RATING_DESC = Comparator.comparingDouble(Movie::getImdbRating).reversed();
+
+    @Param({"100000", "1000000"})
+    int catalogSize;
+
+    /**
+     * none: the whole catalog; genre: the Drama component (half the catalog);
+     * narrow: Drama within one year (under 1% of the catalog).
+     */
+    @Param({"none", "genre", "narrow"})
+    String filter;
+
+    MovieService movieService;
+    MovieFilter movieFilter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        movieService = new MovieService(SyntheticCatalog.movies(catalogSize));
+        movieFilter = new MovieFilter();
+        if (!filter.equals("none")) {
+            movieFilter.setGenres(Collections.singletonList("Drama"));
+        }
+        if (filter.equals("narrow")) {
+            movieFilter.setYearFrom(1994);
+            movieFilter.setYearTo(1994);
+        }
+        // build the order outside the measurement, as the first sorted request would
+        movieService.searchMoviesFaceted(movieFilter, BY_RATING, 0, 1, null);
+    }
+
+    @Benchmark
+    public MoviePage topByRating() {
+        return movieService.searchMoviesFaceted(movieFilter, BY_RATING, 0, MovieService.DEFAULT_PAGE_SIZE, null).getPage();
+    }
+
+    /**
+     * What a request would cost without the sort orders: collect every match, sort, and cut the page.
+     */
+    @Benchmark
+    public List<Movie> fullSortBaseline() {
+        List<Movie> matches = new ArrayList<>();
+        for (Movie movie : movieService.getAllMovies()) {
+            if (filter.equals("none") || (movie.getGenre().contains("Drama")
+                    && (filter.equals("genre") || movie.getYear() == 1994))) {
+                matches.add(movie);
+            }
+        }
+        matches.sort(RATING_DESC);
+        return matches.subList(0, Math.min(MovieService.DEFAULT_PAGE_SIZE, matches.size()));
+    }
+}
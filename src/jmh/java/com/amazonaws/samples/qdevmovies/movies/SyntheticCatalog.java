@@ -0,0 +1,112 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic generator of movie catalogs and reviews for benchmarks.
+ * Titles combine a small vocabulary with the movie id, so common words match broad
+ * slices of the catalog while the numeric suffix identifies a single movie.
+ */
+final class SyntheticCatalog {
+
+    static final String[] GENRES = {
+        "Drama", "Crime/Drama", "Action/Crime", "Drama/Romance", "Action/Sci-Fi",
+        "Adventure/Fantasy", "Adventure/Sci-Fi", "Drama/History", "Drama/Thriller", "Comedy"
+    };
+    static final String[] ADJECTIVES = {
+        "The", "Dark", "Silent", "Golden", "Lost", "Final", "Hidden", "Broken", "Crimson", "Endless"
+    };
+    static final String[] NOUNS = {
+        "Escape", "Heist", "Journey", "Empire", "Garden", "Frontier", "Legacy", "Harbor", "Signal", "Voyage"
+    };
+
+    private SyntheticCatalog() {
+    }
+
+    static List<Movie> movies(int count) {
+        Random random = new Random(count);
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            String title = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)] + " " + i;
+            movies.add(new Movie(
+                i,
+                title,
+                "Director " + random.nextInt(Math.max(1, count / 20)),
+                1950 + random.nextInt(75),
+                GENRES[random.nextInt(GENRES.length)],
+                "A generated description for " + title + ".",
+                80 + random.nextInt(100),
+                1 + random.nextInt(9) * 0.5));
+        }
+        return movies;
+    }
+
+    /**
+     * @return the catalog encoded in the movies.json format
+     */
+    static byte[] moviesJson(List<Movie> movies) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(movies.size() * 256);
+        try (Writer writer = new OutputStreamWriter(bytes, StandardCharsets.UTF_8)) {
+            writer.write('[');
+            for (int i = 0; i < movies.size(); i++) {
+                Movie movie = movies.get(i);
+                JSONObject movieObj = new JSONObject();
+                movieObj.put("id", movie.getId());
+                movieObj.put("movieName", movie.getMovieName());
+                movieObj.put("director", movie.getDirector());
+                movieObj.put("year", movie.getYear());
+                movieObj.put("genre", movie.getGenre());
+                movieObj.put("description", movie.getDescription());
+                movieObj.put("duration", movie.getDuration());
+                movieObj.put("imdbRating", movie.getImdbRating());
+                if (i > 0) {
+                    writer.write(",\n");
+                }
+                writer.write(movieObj.toString());
+            }
+            writer.write(']');
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a reviews file in the mock-reviews.json format with up to five reviews per movie.
+     */
+    static void writeReviewsJson(List<Movie> movies, Path file) throws IOException {
+        Random random = new Random(movies.size());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write('{');
+            for (int i = 0; i < movies.size(); i++) {
+                JSONArray reviews = new JSONArray();
+                int reviewCount = random.nextInt(6);
+                for (int r = 0; r < reviewCount; r++) {
+                    JSONObject review = new JSONObject();
+                    review.put("userName", "Viewer" + random.nextInt(100_000));
+                    review.put("avatarEmoji", "👤");
+                    review.put("rating", 1 + random.nextInt(9) * 0.5);
+                    review.put("comment", "Generated review " + r);
+                    reviews.put(review);
+                }
+                if (i > 0) {
+                    writer.write(",\n");
+                }
+                writer.write(JSONObject.quote(String.valueOf(movies.get(i).getId())));
+                writer.write(':');
+                writer.write(reviews.toString());
+            }
+            writer.write('}');
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sheds movie details and search requests with a fast 503 once their endpoint is saturated.
+ * <p>
+ * Each endpoint has its own {@link ConcurrencyLimit}, which adapts to the latency its requests
+ * actually see. A request over the limit is answered at once with {@code Retry-After: 1} and a
+ * fixed body, before any controller, service or template work, so under overload the accepted
+ * requests keep their latency instead of every request slowing down together. The filter runs
+ * after the {@link RenderedPageCacheFilter}, so cached pages and requests coalesced onto another
+ * one's render are served without taking a slot. Streamed JSON bodies hold their slot until the
+ * body is written.
+ */
+@Component
+@Order(AdmissionControlFilter.ORDER)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final Logger logger = LogManager.getLogger(AdmissionControlFilter.class);
+
+    static final int ORDER = Ordered.LOWEST_PRECEDENCE;
+    static final String DETAILS = "details";
+    static final String SEARCH = "search";
+
+    private final boolean enabled;
+    private final ConcurrencyLimit detailsLimit;
+    private final ConcurrencyLimit searchLimit;
+
+    @Autowired
+    public AdmissionControlFilter(CatalogMetrics metrics,
+                                  @Value("${movies.admission.enabled:true}") boolean enabled,
+                                  @Value("${movies.admission.initial-limit:20}") int initialLimit,
+                                  @Value("${movies.admission.max-limit:200}") int maxLimit,
+                                  @Value("${movies.admission.latency-threshold-ms:250}") long latencyThresholdMillis) {
+        this.enabled = enabled;
+        long thresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.detailsLimit = new ConcurrencyLimit(initialLimit, maxLimit, thresholdNanos);
+        this.searchLimit = new ConcurrencyLimit(initialLimit, maxLimit, thresholdNanos);
+        metrics.bindAdmission(DETAILS, detailsLimit);
+        metrics.bindAdmission(SEARCH, searchLimit);
+    }
+
+    ConcurrencyLimit getLimit(String endpoint) {
+        return DETAILS.equals(endpoint) ? detailsLimit : searchLimit;
+    }
+
+    /**
+     * @return {@link #DETAILS} or {@link #SEARCH} for the paths this filter limits, otherwise null
+     */
+    static String endpoint(String path) {
+        if (path.equals("/movies/search") || path.equals("/api/movies/search")
+                || path.equals("/api/movies/search/fuzzy") || path.equals("/api/movies/search/faceted")) {
+            return SEARCH;
+        }
+        if (path.startsWith("/movies/") && path.endsWith("/details") && path.indexOf('/', 8) == path.length() - 8) {
+            return DETAILS;
+        }
+        if (path.startsWith("/api/movies/") && path.length() > 12) {
+            for (int i = 12; i < path.length(); i++) {
+                if (!Character.isDigit(path.charAt(i))) {
+                    return null;
+                }
+            }
+            return DETAILS;
+        }
+        return null;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"GET".equals(request.getMethod()) || endpoint(pathOf(request)) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = pathOf(request);
+        String endpoint = endpoint(path);
+        ConcurrencyLimit limit = getLimit(endpoint);
+        if (!limit.tryAcquire()) {
+            logger.debug("Shedding {} request {}: {} in flight at limit {}", endpoint, path, limit.getInFlight(), limit.getLimit());
+            reject(path, endpoint, response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (!failed && request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new Release(limit, start, response));
+            } else {
+                limit.release(start, System.nanoTime(), failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private static void reject(String path, String endpoint, HttpServletResponse response) throws IOException {
+        boolean api = path.startsWith("/api/");
+        byte[] body = (api
+            ? "{\"status\":503,\"error\":\"Service Unavailable\",\"message\":\"Too many concurrent " + endpoint + " requests, retry shortly\"}"
+            : "<!DOCTYPE html><html><body><p>Too many concurrent " + endpoint + " requests, please retry in a moment.</p></body></html>")
+            .getBytes(StandardCharsets.UTF_8);
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setContentType(api ? MediaType.APPLICATION_JSON_VALUE : MediaType.TEXT_HTML_VALUE + ";charset=UTF-8");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    /**
+     * Releases the slot of a request whose response is written asynchronously once it completes.
+     */
+    private static final class Release implements AsyncListener {
+        private final ConcurrencyLimit limit;
+        private final long start;
+        private final HttpServletResponse response;
+        private volatile boolean failed;
+
+        Release(ConcurrencyLimit limit, long start, HttpServletResponse response) {
+            this.limit = limit;
+            this.start = start;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limit.release(start, System.nanoTime(), failed || response.getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // starting async processing again drops the listeners registered so far
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
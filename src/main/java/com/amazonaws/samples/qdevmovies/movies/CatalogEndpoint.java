@@ -0,0 +1,40 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/catalog}: GET describes the catalog being served, POST reloads it from the
+ * configured source and swaps it in without interrupting requests.
+ * The endpoint is not authenticated, so only the {@code ops} profile exposes it, on a management
+ * port bound to the loopback interface.
+ */
+@Component
+@Endpoint(id = "catalog")
+public class CatalogEndpoint {
+
+    private final MovieService movieService;
+
+    public CatalogEndpoint(MovieService movieService) {
+        this.movieService = movieService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> catalog() {
+        Map<String, Object> catalog = new LinkedHashMap<>();
+        catalog.put("movieCount", movieService.getAllMovies().size());
+        catalog.put("catalogVersion", Long.toHexString(movieService.getCatalogVersion()));
+        catalog.put("lastReload", movieService.getLastReload());
+        return catalog;
+    }
+
+    @WriteOperation
+    public CatalogReload reload() {
+        return movieService.reloadCatalog();
+    }
+}
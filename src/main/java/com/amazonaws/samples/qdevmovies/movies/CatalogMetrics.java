@@ -0,0 +1,219 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for the movie catalog hot paths.
+ * <p>
+ * Every meter is registered once up front, and callers pass elapsed nanoseconds taken from
+ * {@link System#nanoTime()}, so recording is a few adder and histogram bucket updates with no
+ * allocation and no registry lookup. Latency timers publish fixed histogram buckets from
+ * 500 ns to 1 s, so Prometheus can compute any percentile across instances. Client-side
+ * percentiles are left off because they roughly double the cost of each recording.
+ */
+@Component
+class CatalogMetrics {
+
+    /** Meters that are registered nowhere and record nothing, for services built outside Spring. */
+    static final CatalogMetrics NOOP = new CatalogMetrics(new CompositeMeterRegistry());
+
+    private final MeterRegistry registry;
+    private final Timer searchTimer;
+    private final Timer searchPageTimer;
+    private final Timer fuzzySearchTimer;
+    private final Timer facetedSearchTimer;
+    private final Timer completionTimer;
+    private final DistributionSummary searchResults;
+    private final Timer lookupFoundTimer;
+    private final Timer lookupMissingTimer;
+    private final Timer batchLookupTimer;
+    private final DistributionSummary batchLookupSize;
+    private final Timer reviewLookupTimer;
+    private final DistributionSummary reviewResults;
+    private final Timer reviewSubmitTimer;
+    private final Timer loadTimer;
+    private final Timer reloadTimer;
+
+    CatalogMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.searchTimer = latency("movies.search", "Movie search latency").tag("operation", "list").register(registry);
+        this.searchPageTimer = latency("movies.search", "Movie search latency").tag("operation", "page").register(registry);
+        this.fuzzySearchTimer = latency("movies.search", "Movie search latency").tag("operation", "fuzzy").register(registry);
+        this.facetedSearchTimer = latency("movies.search", "Movie search latency").tag("operation", "faceted").register(registry);
+        this.completionTimer = latency("movies.search", "Movie search latency").tag("operation", "complete").register(registry);
+        this.searchResults = size("movies.search.results", "Movies returned per search").register(registry);
+        this.lookupFoundTimer = latency("movies.lookup", "Movie lookups by id").tag("result", "found").register(registry);
+        this.lookupMissingTimer = latency("movies.lookup", "Movie lookups by id").tag("result", "missing").register(registry);
+        this.batchLookupTimer = latency("movies.lookup.batch", "Batch movie lookups by id").register(registry);
+        this.batchLookupSize = size("movies.lookup.batch.size", "Ids requested per batch lookup").register(registry);
+        this.reviewLookupTimer = latency("movies.reviews.lookup", "Review lookups for one movie").register(registry);
+        this.reviewResults = size("movies.reviews.lookup.results", "Reviews returned per lookup").register(registry);
+        this.reviewSubmitTimer = latency("movies.reviews.submit", "Review submissions, until the review is durable").register(registry);
+        this.loadTimer = Timer.builder("movies.catalog.load")
+            .description("Time to read and index the movie catalog")
+            .register(registry);
+        this.reloadTimer = Timer.builder("movies.catalog.reload")
+            .description("Time to read and index a replacement catalog before it is swapped in")
+            .register(registry);
+    }
+
+    /**
+     * Registers a gauge reading the catalog size at scrape time.
+     */
+    void bindCatalog(MovieService movieService) {
+        Gauge.builder("movies.catalog.size", movieService, service -> service.getAllMovies().size())
+            .description("Movies in the loaded catalog")
+            .register(registry);
+    }
+
+    void bindReviews(ReviewService reviewService) {
+        Gauge.builder("movies.reviews.movies", reviewService, ReviewService::getReviewedMovieCount)
+            .description("Movies with at least one loaded review")
+            .register(registry);
+        FunctionCounter.builder("movies.reviews.log.syncs", reviewService, ReviewService::getReviewLogSyncCount)
+            .description("Review log syncs, each making a batch of submitted reviews durable")
+            .register(registry);
+        FunctionCounter.builder("movies.reviews.log.records", reviewService, ReviewService::getLoggedReviewCount)
+            .description("Reviews written to the review log")
+            .register(registry);
+    }
+
+    void bindPageCache(RenderedPageCache cache) {
+        FunctionCounter.builder("movies.page.cache.requests", cache, RenderedPageCache::getHitCount)
+            .description("Rendered page cache lookups")
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("movies.page.cache.requests", cache, RenderedPageCache::getMissCount)
+            .description("Rendered page cache lookups")
+            .tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder("movies.page.cache.requests", cache, RenderedPageCache::getCoalescedCount)
+            .description("Rendered page cache lookups")
+            .tag("result", "coalesced")
+            .register(registry);
+        FunctionCounter.builder("movies.page.cache.evictions", cache, RenderedPageCache::getEvictionCount)
+            .description("Pages evicted to stay within the byte budget")
+            .register(registry);
+        Gauge.builder("movies.page.cache.size", cache, RenderedPageCache::getTotalBytes)
+            .description("Bytes held by cached pages, plain and gzip copies included")
+            .baseUnit("bytes")
+            .register(registry);
+    }
+
+    void bindSearchCache(SearchResultCache cache) {
+        FunctionCounter.builder("movies.search.cache.requests", cache, SearchResultCache::getHitCount)
+            .description("Search result cache lookups")
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder("movies.search.cache.requests", cache, SearchResultCache::getMissCount)
+            .description("Search result cache lookups")
+            .tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder("movies.search.cache.requests", cache, SearchResultCache::getCoalescedCount)
+            .description("Search result cache lookups")
+            .tag("result", "coalesced")
+            .register(registry);
+        FunctionCounter.builder("movies.search.cache.evictions", cache, SearchResultCache::getEvictionCount)
+            .description("Search results evicted to stay within the byte budget")
+            .register(registry);
+        Gauge.builder("movies.search.cache.size", cache, SearchResultCache::getTotalBytes)
+            .description("Bytes held by cached search results")
+            .baseUnit("bytes")
+            .register(registry);
+    }
+
+    void bindAdmission(String endpoint, ConcurrencyLimit limit) {
+        FunctionCounter.builder("movies.admission.requests", limit, ConcurrencyLimit::getAcceptedCount)
+            .description("Requests admitted or shed by the adaptive concurrency limit")
+            .tags("endpoint", endpoint, "result", "accepted")
+            .register(registry);
+        FunctionCounter.builder("movies.admission.requests", limit, ConcurrencyLimit::getRejectedCount)
+            .description("Requests admitted or shed by the adaptive concurrency limit")
+            .tags("endpoint", endpoint, "result", "rejected")
+            .register(registry);
+        Gauge.builder("movies.admission.limit", limit, ConcurrencyLimit::getLimit)
+            .description("Current adaptive concurrency limit")
+            .tag("endpoint", endpoint)
+            .register(registry);
+        Gauge.builder("movies.admission.inflight", limit, ConcurrencyLimit::getInFlight)
+            .description("Requests currently admitted")
+            .tag("endpoint", endpoint)
+            .register(registry);
+    }
+
+    void recordSearch(long elapsedNanos, int resultCount) {
+        searchTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        searchResults.record(resultCount);
+    }
+
+    void recordSearchPage(long elapsedNanos, int resultCount) {
+        searchPageTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        searchResults.record(resultCount);
+    }
+
+    void recordFuzzySearch(long elapsedNanos, int resultCount) {
+        fuzzySearchTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        searchResults.record(resultCount);
+    }
+
+    void recordFacetedSearch(long elapsedNanos, int resultCount) {
+        facetedSearchTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        searchResults.record(resultCount);
+    }
+
+    void recordCompletion(long elapsedNanos, int resultCount) {
+        completionTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        searchResults.record(resultCount);
+    }
+
+    void recordLookup(long elapsedNanos, boolean found) {
+        (found ? lookupFoundTimer : lookupMissingTimer).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordBatchLookup(long elapsedNanos, int idCount) {
+        batchLookupTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        batchLookupSize.record(idCount);
+    }
+
+    void recordReviewLookup(long elapsedNanos, int reviewCount) {
+        reviewLookupTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        reviewResults.record(reviewCount);
+    }
+
+    void recordReviewSubmit(long elapsedNanos) {
+        reviewSubmitTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordLoad(long elapsedNanos) {
+        loadTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordReload(long elapsedNanos) {
+        reloadTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static Timer.Builder latency(String name, String description) {
+        return Timer.builder(name)
+            .description(description)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofNanos(500))
+            .maximumExpectedValue(Duration.ofSeconds(1));
+    }
+
+    private static DistributionSummary.Builder size(String name, String description) {
+        return DistributionSummary.builder(name)
+            .description(description)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1.0)
+            .maximumExpectedValue(100_000.0);
+    }
+}
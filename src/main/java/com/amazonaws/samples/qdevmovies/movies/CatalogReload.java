@@ -0,0 +1,58 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+/**
+ * Outcome of one catalog reload: whether a new catalog was published, its size and version,
+ * and how long reading and indexing it took. Requests kept being served from the previous
+ * catalog for the whole of that time.
+ */
+public class CatalogReload {
+    private final boolean published;
+    private final int movieCount;
+    private final int previousMovieCount;
+    private final String catalogVersion;
+    private final long loadMillis;
+    private final long indexMillis;
+
+    public CatalogReload(boolean published, int movieCount, int previousMovieCount, long catalogVersion,
+                         long loadMillis, long indexMillis) {
+        this.published = published;
+        this.movieCount = movieCount;
+        this.previousMovieCount = previousMovieCount;
+        this.catalogVersion = Long.toHexString(catalogVersion);
+        this.loadMillis = loadMillis;
+        this.indexMillis = indexMillis;
+    }
+
+    /**
+     * @return false if the source was unchanged, so the current catalog was kept
+     */
+    public boolean isPublished() {
+        return published;
+    }
+
+    public int getMovieCount() {
+        return movieCount;
+    }
+
+    public int getPreviousMovieCount() {
+        return previousMovieCount;
+    }
+
+    public String getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    /**
+     * @return time spent reading or mapping the catalog source
+     */
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * @return time spent building the search, facet and sort indexes before the swap
+     */
+    public long getIndexMillis() {
+        return indexMillis;
+    }
+}
@@ -0,0 +1,333 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary catalog snapshot format, its writer, and a command-line converter from {@code movies.json}.
+ * <p>
+ * A snapshot is a little-endian file made of a fixed header followed by 8-byte aligned sections:
+ * one primitive array per numeric column, int code columns for genre, director and icon, UTF-8
+ * text stored as an offsets array plus a byte blob, and an open-addressing id table. Every
+ * section is laid out exactly as {@link MappedCatalog} reads it, so opening a snapshot maps the
+ * file and reads only the header, whatever the catalog size:
+ * <pre>
+ * java -cp target/sample-qdev-movies-0.1.0.jar -Dloader.main=com.amazonaws.samples.qdevmovies.movies.CatalogSnapshot \
+ *     org.springframework.boot.loader.PropertiesLauncher movies.json movies.snapshot
+ * </pre>
+ */
+public final class CatalogSnapshot {
+
+    static final long MAGIC = 0x31504e53564d4451L; // "QDMVSNP1" read little-endian
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 512;
+
+    static final int IDS = 0;
+    static final int YEARS = 1;
+    static final int DURATIONS = 2;
+    static final int RATINGS = 3;
+    static final int GENRE_CODES = 4;
+    static final int DIRECTOR_CODES = 5;
+    static final int ICON_CODES = 6;
+    static final int NAME_OFFSETS = 7;
+    static final int NAME_BYTES = 8;
+    static final int DESCRIPTION_OFFSETS = 9;
+    static final int DESCRIPTION_BYTES = 10;
+    static final int GENRE_OFFSETS = 11;
+    static final int GENRE_BYTES = 12;
+    static final int DIRECTOR_OFFSETS = 13;
+    static final int DIRECTOR_BYTES = 14;
+    static final int ICON_OFFSETS = 15;
+    static final int ICON_BYTES = 16;
+    static final int ID_KEYS = 17;
+    static final int ID_VALUES = 18;
+    static final int SECTION_COUNT = 19;
+
+    // header fields; section offset and length pairs follow at SECTIONS
+    static final int MOVIE_COUNT = 12;
+    static final int VERSION = 16;
+    static final int FLAGS = 24;
+    static final int ID_TABLE_CAPACITY = 28;
+    static final int SECTIONS = 32;
+
+    static final int FLAG_UNIQUE_IDS = 1;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Converts a movies JSON file to a snapshot: {@code CatalogSnapshot <movies.json> <snapshot>}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: CatalogSnapshot <movies.json> <snapshot>");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        MovieCatalog catalog;
+        try (InputStream inputStream = Files.newInputStream(Paths.get(args[0]))) {
+            catalog = MovieService.readCatalog(inputStream);
+        }
+        Path snapshot = Paths.get(args[1]);
+        write(catalog, snapshot);
+        System.out.printf("Wrote %d movies (%d bytes) to %s in %d ms%n",
+            catalog.size(), Files.size(snapshot), snapshot, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Writes the catalog to a temporary file next to the target and then moves it into place,
+     * so a process mapping the target never sees a partially written snapshot.
+     */
+    static void write(MovieCatalog catalog, Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                new Writer(catalog, channel).write();
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Maps a snapshot file.
+     * @throws IOException if the file cannot be read or is not a snapshot of this format version
+     */
+    static MappedCatalog open(Path file) throws IOException {
+        return MappedCatalog.open(file);
+    }
+
+    /**
+     * Slot for an id in an open-addressing table of the given power-of-two capacity.
+     * Shared by the writer and {@link MappedCatalog}, which probe the same layout.
+     */
+    static int slotOf(long id, int capacity) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (capacity - 1);
+    }
+
+    static int idTableCapacity(int movieCount) {
+        // load factor at most 0.5, as in LongIntHashIndex
+        return Integer.highestOneBit(Math.max(2, movieCount) * 2 - 1) << 1;
+    }
+
+    private static final class Writer {
+        private final MovieCatalog catalog;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private final long[] sectionOffsets = new long[SECTION_COUNT];
+        private final long[] sectionLengths = new long[SECTION_COUNT];
+        private long written = HEADER_BYTES;
+        private int section = -1;
+        private long sectionStart;
+
+        Writer(MovieCatalog catalog, FileChannel channel) {
+            this.catalog = catalog;
+            this.channel = channel;
+        }
+
+        void write() throws IOException {
+            int size = catalog.size();
+            channel.position(HEADER_BYTES);
+
+            begin(IDS);
+            for (int i = 0; i < size; i++) {
+                putLong(catalog.idAt(i));
+            }
+            begin(YEARS);
+            for (int i = 0; i < size; i++) {
+                putInt(catalog.yearAt(i));
+            }
+            begin(DURATIONS);
+            for (int i = 0; i < size; i++) {
+                putInt(catalog.durationAt(i));
+            }
+            begin(RATINGS);
+            for (int i = 0; i < size; i++) {
+                putDouble(catalog.ratingAt(i));
+            }
+
+            Map<String, Integer> genres = new HashMap<>();
+            Map<String, Integer> directors = new HashMap<>();
+            Map<String, Integer> icons = new HashMap<>();
+            begin(GENRE_CODES);
+            for (int i = 0; i < size; i++) {
+                putInt(codeOf(genres, catalog.genreAt(i)));
+            }
+            begin(DIRECTOR_CODES);
+            for (int i = 0; i < size; i++) {
+                putInt(codeOf(directors, catalog.directorAt(i)));
+            }
+            begin(ICON_CODES);
+            for (int i = 0; i < size; i++) {
+                putInt(codeOf(icons, catalog.iconAt(i)));
+            }
+
+            String[] names = new String[size];
+            for (int i = 0; i < size; i++) {
+                names[i] = catalog.nameAt(i);
+            }
+            writeText(NAME_OFFSETS, NAME_BYTES, names);
+            names = null;
+            String[] descriptions = new String[size];
+            for (int i = 0; i < size; i++) {
+                descriptions[i] = catalog.descriptionAt(i);
+            }
+            writeText(DESCRIPTION_OFFSETS, DESCRIPTION_BYTES, descriptions);
+            descriptions = null;
+            writeText(GENRE_OFFSETS, GENRE_BYTES, dictionary(genres));
+            writeText(DIRECTOR_OFFSETS, DIRECTOR_BYTES, dictionary(directors));
+            writeText(ICON_OFFSETS, ICON_BYTES, dictionary(icons));
+
+            int capacity = idTableCapacity(size);
+            long[] keys = new long[capacity];
+            int[] values = new int[capacity];
+            boolean unique = true;
+            for (int position = 0; position < size; position++) {
+                long id = catalog.idAt(position);
+                int slot = slotOf(id, capacity);
+                while (values[slot] != 0 && keys[slot] != id) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                if (values[slot] != 0) {
+                    unique = false;
+                    continue;
+                }
+                keys[slot] = id;
+                values[slot] = position + 1;
+            }
+            begin(ID_KEYS);
+            for (long key : keys) {
+                putLong(key);
+            }
+            begin(ID_VALUES);
+            for (int value : values) {
+                putInt(value);
+            }
+            begin(-1);
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(0, MAGIC);
+            header.putInt(8, FORMAT_VERSION);
+            header.putInt(MOVIE_COUNT, size);
+            header.putLong(VERSION, catalog.version());
+            header.putInt(FLAGS, unique ? FLAG_UNIQUE_IDS : 0);
+            header.putInt(ID_TABLE_CAPACITY, capacity);
+            for (int i = 0; i < SECTION_COUNT; i++) {
+                header.putLong(SECTIONS + i * 16, sectionOffsets[i]);
+                header.putLong(SECTIONS + i * 16 + 8, sectionLengths[i]);
+            }
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        }
+
+        private void writeText(int offsetsSection, int bytesSection, String[] values) throws IOException {
+            begin(offsetsSection);
+            long offset = 0;
+            putLong(0);
+            for (String value : values) {
+                offset += value == null ? 0 : value.getBytes(StandardCharsets.UTF_8).length;
+                putLong(offset);
+            }
+            begin(bytesSection);
+            for (String value : values) {
+                if (value != null) {
+                    putBytes(value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        /**
+         * Closes the current section, pads to an 8-byte boundary and opens the next one.
+         */
+        private void begin(int nextSection) throws IOException {
+            if (section >= 0) {
+                sectionOffsets[section] = sectionStart;
+                sectionLengths[section] = written - sectionStart;
+            }
+            while ((written & 7) != 0) {
+                ensure(1);
+                buffer.put((byte) 0);
+                written++;
+            }
+            section = nextSection;
+            sectionStart = written;
+        }
+
+        private void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+            written += 8;
+        }
+
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+            written += 4;
+        }
+
+        private void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+            written += 8;
+        }
+
+        private void putBytes(byte[] bytes) throws IOException {
+            int copied = 0;
+            while (copied < bytes.length) {
+                ensure(1);
+                int count = Math.min(bytes.length - copied, buffer.remaining());
+                buffer.put(bytes, copied, count);
+                copied += count;
+            }
+            written += bytes.length;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private static int codeOf(Map<String, Integer> codes, String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        private static String[] dictionary(Map<String, Integer> codes) {
+            String[] values = new String[codes.size()];
+            for (Map.Entry<String, Integer> entry : codes.entrySet()) {
+                values[entry.getValue()] = entry.getKey();
+            }
+            return values;
+        }
+    }
+}
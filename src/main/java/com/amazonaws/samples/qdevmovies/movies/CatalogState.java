@@ -0,0 +1,80 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * One loaded catalog together with everything derived from it: the search index, the sort
+ * orders and the genre list.
+ * <p>
+ * {@link MovieService} reads its current state once per request and publishes a reloaded
+ * catalog by replacing the whole state with a single volatile write, so a request never mixes
+ * positions from one catalog with the index or sort order of another. Requests that started
+ * before a reload finish against the state they read, which stays reachable until they return.
+ */
+final class CatalogState {
+    private static final Logger logger = LogManager.getLogger(CatalogState.class);
+
+    final MovieCatalog catalog;
+    final long version;
+    final List<String> genres;
+    final SortIndex sortIndex;
+    volatile MovieSearchIndex searchIndex;
+    // facet counts over the whole catalog, shown beside every plain listing; computed on first use
+    volatile Map<String, List<FacetCount>> unfilteredFacets;
+
+    private CatalogState(MovieCatalog catalog, MovieSearchIndex searchIndex) {
+        this.catalog = catalog;
+        this.version = catalog.version();
+        this.genres = distinctGenres(catalog);
+        this.sortIndex = new SortIndex(catalog);
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Builds every index before returning, so the state is fully indexed from its first request.
+     */
+    static CatalogState indexed(MovieCatalog catalog) {
+        return new CatalogState(catalog, new MovieSearchIndex(catalog));
+    }
+
+    /**
+     * A memory-mapped catalog is served as soon as it is opened: searches scan the mapped
+     * columns while the search index is built on a background thread, then switch to it.
+     * Other catalogs are indexed before returning.
+     */
+    static CatalogState serving(MovieCatalog catalog) {
+        if (!catalog.isMemoryMapped()) {
+            return indexed(catalog);
+        }
+        CatalogState state = new CatalogState(catalog, MovieSearchIndex.unindexed(catalog));
+        Thread indexer = new Thread(state::buildSearchIndex, "catalog-indexer");
+        indexer.setDaemon(true);
+        indexer.start();
+        return state;
+    }
+
+    private void buildSearchIndex() {
+        long start = System.nanoTime();
+        try {
+            searchIndex = new MovieSearchIndex(catalog);
+            logger.info("Built search index over {} mapped movies in {} ms", catalog.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build search index, searches keep scanning the catalog: {}", e.getMessage(), e);
+        }
+    }
+
+    private static List<String> distinctGenres(MovieCatalog catalog) {
+        TreeMap<String, String> genres = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String genre : catalog.genreDictionary()) {
+            genres.putIfAbsent(genre, genre);
+        }
+        return Collections.unmodifiableList(new ArrayList<>(genres.values()));
+    }
+}
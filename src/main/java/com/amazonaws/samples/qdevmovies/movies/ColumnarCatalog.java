@@ -0,0 +1,247 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.LongIntHashIndex;
+import com.amazonaws.samples.qdevmovies.utils.Utf8Column;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable on-heap movie catalog stored column by column, in catalog order.
+ * <p>
+ * Ids, years, durations and ratings live in primitive arrays indexed by catalog position.
+ * Genres, directors and icons repeat heavily, so each position stores an int code into a
+ * small dictionary of distinct strings. Titles and descriptions are pooled as UTF-8 in a
+ * {@link Utf8Column}. Ids map to positions through a primitive {@link LongIntHashIndex}.
+ * No {@link Movie} objects are kept: {@link #movieAt(int)} builds a short-lived view on demand.
+ */
+final class ColumnarCatalog extends MovieCatalog {
+
+    static final ColumnarCatalog EMPTY = new Builder(0).build();
+
+    private final int size;
+    private final long[] ids;
+    private final int[] years;
+    private final int[] durations;
+    private final double[] ratings;
+    private final Utf8Column names;
+    private final Utf8Column descriptions;
+    private final int[] genreCodes;
+    private final String[] genres;
+    private final int[] directorCodes;
+    private final String[] directors;
+    private final int[] iconCodes;
+    private final String[] icons;
+    private final LongIntHashIndex idPositions;
+    private final boolean uniqueIds;
+    private final long version;
+
+    private ColumnarCatalog(Builder builder) {
+        this.size = builder.size;
+        this.ids = Arrays.copyOf(builder.ids, size);
+        this.years = Arrays.copyOf(builder.years, size);
+        this.durations = Arrays.copyOf(builder.durations, size);
+        this.ratings = Arrays.copyOf(builder.ratings, size);
+        this.names = builder.names.build();
+        this.descriptions = builder.descriptions.build();
+        this.genreCodes = Arrays.copyOf(builder.genreCodes, size);
+        this.genres = builder.genres.values();
+        this.directorCodes = Arrays.copyOf(builder.directorCodes, size);
+        this.directors = builder.directors.values();
+        this.iconCodes = Arrays.copyOf(builder.iconCodes, size);
+        this.icons = builder.icons.values();
+
+        this.idPositions = new LongIntHashIndex(size);
+        boolean unique = true;
+        for (int position = 0; position < size; position++) {
+            if (idPositions.containsKey(ids[position])) {
+                unique = false;
+            } else {
+                idPositions.put(ids[position], position);
+            }
+        }
+        this.uniqueIds = unique;
+        this.version = contentHash(this);
+    }
+
+    static ColumnarCatalog of(List<Movie> movies) {
+        Builder builder = new Builder(movies.size());
+        for (Movie movie : movies) {
+            builder.add(movie);
+        }
+        return builder.build();
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    long idAt(int position) {
+        return ids[position];
+    }
+
+    @Override
+    String nameAt(int position) {
+        return names.get(position);
+    }
+
+    @Override
+    String directorAt(int position) {
+        return directors[directorCodes[position]];
+    }
+
+    @Override
+    int directorCodeAt(int position) {
+        return directorCodes[position];
+    }
+
+    @Override
+    String[] directorDictionary() {
+        return directors.clone();
+    }
+
+    @Override
+    int yearAt(int position) {
+        return years[position];
+    }
+
+    @Override
+    String genreAt(int position) {
+        return genres[genreCodes[position]];
+    }
+
+    @Override
+    int genreCodeAt(int position) {
+        return genreCodes[position];
+    }
+
+    @Override
+    String[] genreDictionary() {
+        return genres.clone();
+    }
+
+    @Override
+    String descriptionAt(int position) {
+        return descriptions.get(position);
+    }
+
+    @Override
+    int durationAt(int position) {
+        return durations[position];
+    }
+
+    @Override
+    double ratingAt(int position) {
+        return ratings[position];
+    }
+
+    @Override
+    String iconAt(int position) {
+        return icons[iconCodes[position]];
+    }
+
+    @Override
+    int positionOf(long id) {
+        return idPositions.get(id);
+    }
+
+    @Override
+    boolean hasUniqueIds() {
+        return uniqueIds;
+    }
+
+    @Override
+    long version() {
+        return version;
+    }
+
+    /**
+     * Appends movies in catalog order. Only the columns are retained, so callers can stream
+     * movies in without ever holding the whole catalog as objects.
+     */
+    static final class Builder {
+        private int size;
+        private long[] ids;
+        private int[] years;
+        private int[] durations;
+        private double[] ratings;
+        private int[] genreCodes;
+        private int[] directorCodes;
+        private int[] iconCodes;
+        private final Utf8Column.Builder names;
+        private final Utf8Column.Builder descriptions;
+        private final Dictionary genres = new Dictionary();
+        private final Dictionary directors = new Dictionary();
+        private final Dictionary icons = new Dictionary();
+
+        Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            this.ids = new long[capacity];
+            this.years = new int[capacity];
+            this.durations = new int[capacity];
+            this.ratings = new double[capacity];
+            this.genreCodes = new int[capacity];
+            this.directorCodes = new int[capacity];
+            this.iconCodes = new int[capacity];
+            this.names = new Utf8Column.Builder(expectedSize);
+            this.descriptions = new Utf8Column.Builder(expectedSize);
+        }
+
+        Builder add(Movie movie) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                years = Arrays.copyOf(years, capacity);
+                durations = Arrays.copyOf(durations, capacity);
+                ratings = Arrays.copyOf(ratings, capacity);
+                genreCodes = Arrays.copyOf(genreCodes, capacity);
+                directorCodes = Arrays.copyOf(directorCodes, capacity);
+                iconCodes = Arrays.copyOf(iconCodes, capacity);
+            }
+            ids[size] = movie.getId();
+            years[size] = movie.getYear();
+            durations[size] = movie.getDuration();
+            ratings[size] = movie.getImdbRating();
+            genreCodes[size] = genres.codeOf(movie.getGenre());
+            directorCodes[size] = directors.codeOf(movie.getDirector());
+            iconCodes[size] = icons.codeOf(movie.getIcon());
+            names.add(movie.getMovieName());
+            descriptions.add(movie.getDescription());
+            size++;
+            return this;
+        }
+
+        ColumnarCatalog build() {
+            return new ColumnarCatalog(this);
+        }
+    }
+
+    /**
+     * Assigns dense int codes to distinct strings in first-seen order.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] values = new String[16];
+
+        int codeOf(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                codes.put(value, code);
+                if (code == values.length) {
+                    values = Arrays.copyOf(values, code * 2);
+                }
+                values[code] = value;
+            }
+            return code;
+        }
+
+        String[] values() {
+            return Arrays.copyOf(values, codes.size());
+        }
+    }
+}
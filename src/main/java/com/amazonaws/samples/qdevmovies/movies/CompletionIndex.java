@@ -0,0 +1,266 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Arrays;
+
+/**
+ * Prefix completion over one catalog field, ranked by movie rating.
+ * <p>
+ * Each distinct lower-cased value is stored once, in sorted order, together with its weight
+ * and the catalog position of its best rated movie. This is a trie flattened into arrays: the
+ * values starting with any prefix form one contiguous range, found by two binary searches that
+ * compare the prefix in place. The best values of a range come from a tree of precomputed
+ * top-{@link #MAX_LIMIT} lists. Leaf blocks cover {@link #BLOCK} consecutive values and each
+ * level above covers {@link #FANOUT} blocks of the level below. A range is read as at most two
+ * partial leaf blocks plus a few whole blocks per level, and each list is visited best first
+ * and abandoned once it cannot improve the result. A lookup therefore touches a few hundred
+ * entries however many values share the prefix, and allocates nothing besides its result.
+ * The lists add about three bytes per value.
+ */
+final class CompletionIndex {
+
+    /** Most completions one lookup can return. */
+    static final int MAX_LIMIT = 20;
+    static final int BLOCK = 32;
+    static final int FANOUT = 8;
+
+    static final CompletionIndex EMPTY = new CompletionIndex(new String[0], new int[0], new float[0]);
+
+    // sorted distinct values, and per value its best movie's position and rating
+    private final String[] values;
+    private final int[] positions;
+    private final float[] weights;
+    // per level, the best MAX_LIMIT value ranks of each block, best first, padded with -1
+    private final int[][] tops;
+    private final int[] blockSizes;
+
+    private CompletionIndex(String[] values, int[] positions, float[] weights) {
+        this.values = values;
+        this.positions = positions;
+        this.weights = weights;
+        int levels = 0;
+        for (long size = BLOCK; size < values.length; size *= FANOUT) {
+            levels++;
+        }
+        this.tops = new int[levels][];
+        this.blockSizes = new int[levels];
+        for (int level = 0; level < levels; level++) {
+            blockSizes[level] = level == 0 ? BLOCK : blockSizes[level - 1] * FANOUT;
+            tops[level] = level == 0 ? leafTops() : parentTops(tops[level - 1]);
+        }
+    }
+
+    /**
+     * @param titles lower-cased titles by catalog position
+     * @return completions over the distinct titles, each pointing at its best rated movie
+     */
+    static CompletionIndex titles(MovieCatalog catalog, String[] titles) {
+        int[] candidates = new int[catalog.size()];
+        Arrays.setAll(candidates, position -> position);
+        return build(catalog, candidates, titles);
+    }
+
+    /**
+     * @return completions over the distinct directors, each pointing at their best rated movie
+     */
+    static CompletionIndex directors(MovieCatalog catalog) {
+        String[] dictionary = catalog.directorDictionary();
+        int[] best = new int[dictionary.length];
+        Arrays.fill(best, -1);
+        for (int position = 0; position < catalog.size(); position++) {
+            int code = catalog.directorCodeAt(position);
+            if (best[code] < 0 || catalog.ratingAt(position) > catalog.ratingAt(best[code])) {
+                best[code] = position;
+            }
+        }
+        String[] directors = new String[catalog.size()];
+        int count = 0;
+        for (int code = 0; code < best.length; code++) {
+            if (best[code] >= 0) {
+                directors[best[code]] = dictionary[code].toLowerCase();
+                best[count++] = best[code];
+            }
+        }
+        return build(catalog, Arrays.copyOf(best, count), directors);
+    }
+
+    /**
+     * @param candidates catalog positions to offer
+     * @param keys lower-cased value by catalog position
+     */
+    private static CompletionIndex build(MovieCatalog catalog, int[] candidates, String[] keys) {
+        Integer[] boxed = new Integer[candidates.length];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = candidates[i];
+        }
+        // the sort is stable, so equal values end up adjacent in ascending position order
+        Arrays.sort(boxed, (a, b) -> keys[a].compareTo(keys[b]));
+        String[] values = new String[boxed.length];
+        int[] positions = new int[boxed.length];
+        float[] weights = new float[boxed.length];
+        int count = 0;
+        for (Integer boxedPosition : boxed) {
+            int position = boxedPosition;
+            float weight = (float) catalog.ratingAt(position);
+            if (count > 0 && values[count - 1].equals(keys[position])) {
+                if (weight > weights[count - 1]) {
+                    positions[count - 1] = position;
+                    weights[count - 1] = weight;
+                }
+                continue;
+            }
+            values[count] = keys[position];
+            positions[count] = position;
+            weights[count] = weight;
+            count++;
+        }
+        return new CompletionIndex(Arrays.copyOf(values, count), Arrays.copyOf(positions, count), Arrays.copyOf(weights, count));
+    }
+
+    private int[] leafTops() {
+        int blocks = (values.length + BLOCK - 1) / BLOCK;
+        int[] leaves = new int[blocks * MAX_LIMIT];
+        Arrays.fill(leaves, -1);
+        int[] best = new int[MAX_LIMIT];
+        for (int block = 0; block < blocks; block++) {
+            int count = 0;
+            for (int rank = block * BLOCK; rank < Math.min(values.length, (block + 1) * BLOCK); rank++) {
+                count = offer(rank, best, count, MAX_LIMIT);
+            }
+            System.arraycopy(best, 0, leaves, block * MAX_LIMIT, count);
+        }
+        return leaves;
+    }
+
+    private int[] parentTops(int[] children) {
+        int childBlocks = children.length / MAX_LIMIT;
+        int blocks = (childBlocks + FANOUT - 1) / FANOUT;
+        int[] parents = new int[blocks * MAX_LIMIT];
+        Arrays.fill(parents, -1);
+        int[] best = new int[MAX_LIMIT];
+        for (int block = 0; block < blocks; block++) {
+            int count = 0;
+            for (int child = block * FANOUT; child < Math.min(childBlocks, (block + 1) * FANOUT); child++) {
+                count = offerAll(children, child * MAX_LIMIT, best, count, MAX_LIMIT);
+            }
+            System.arraycopy(best, 0, parents, block * MAX_LIMIT, count);
+        }
+        return parents;
+    }
+
+    /**
+     * Finds the best rated values starting with the prefix.
+     *
+     * @param prefix lower-cased prefix
+     * @param limit maximum number of completions, at most {@link #MAX_LIMIT}
+     * @param ranks receives the ranks of the completions, best first; at least {@code limit} long
+     * @return the number of completions found
+     */
+    int complete(String prefix, int limit, int[] ranks) {
+        int from = lowerBound(prefix, false);
+        int to = lowerBound(prefix, true);
+        int count = 0;
+        int rank = from;
+        while (rank < to) {
+            int level = -1;
+            while (level + 1 < blockSizes.length && rank % blockSizes[level + 1] == 0 && rank + blockSizes[level + 1] <= to) {
+                level++;
+            }
+            if (level < 0) {
+                count = offer(rank, ranks, count, limit);
+                rank++;
+            } else {
+                count = offerAll(tops[level], rank / blockSizes[level] * MAX_LIMIT, ranks, count, limit);
+                rank += blockSizes[level];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the catalog position of the best rated movie with the value at this rank
+     */
+    int positionAt(int rank) {
+        return positions[rank];
+    }
+
+    float weightAt(int rank) {
+        return weights[rank];
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    /**
+     * @param past whether to find the first value after every value starting with the prefix,
+     *             rather than the first value not before the prefix
+     */
+    private int lowerBound(String prefix, boolean past) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int cmp = comparePrefix(values[middle], prefix);
+            if (cmp < 0 || (past && cmp == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return 0 if the value starts with the prefix, otherwise how the value orders against it
+     */
+    private static int comparePrefix(String value, String prefix) {
+        for (int i = 0; i < prefix.length(); i++) {
+            if (i == value.length()) {
+                return -1;
+            }
+            int diff = value.charAt(i) - prefix.charAt(i);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Offers a best-first list of ranks, stopping at its padding or once it cannot improve the result.
+     */
+    private int offerAll(int[] list, int offset, int[] best, int count, int limit) {
+        for (int i = offset; i < offset + MAX_LIMIT && list[i] >= 0; i++) {
+            if (count == limit && !better(list[i], best[count - 1])) {
+                break;
+            }
+            count = offer(list[i], best, count, limit);
+        }
+        return count;
+    }
+
+    /**
+     * Inserts a rank into a best-first array of at most {@code limit} ranks.
+     *
+     * @return the new number of ranks in the array
+     */
+    private int offer(int rank, int[] best, int count, int limit) {
+        if (count == limit && !better(rank, best[count - 1])) {
+            return count;
+        }
+        int i = count == limit ? count - 1 : count++;
+        while (i > 0 && better(rank, best[i - 1])) {
+            best[i] = best[i - 1];
+            i--;
+        }
+        best[i] = rank;
+        return count;
+    }
+
+    /**
+     * Higher weight first, then alphabetical.
+     */
+    private boolean better(int rank, int other) {
+        return weights[rank] > weights[other] || (weights[rank] == weights[other] && rank < other);
+    }
+}
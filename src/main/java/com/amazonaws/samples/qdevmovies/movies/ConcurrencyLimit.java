@@ -0,0 +1,103 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive limit on the number of requests one endpoint works on at a time.
+ * <p>
+ * The limit follows additive increase, multiplicative decrease, as TCP congestion control
+ * does. A request that completes within the latency threshold while the endpoint is at least
+ * half busy raises the limit by {@code 1 / limit}, so a full limit of fast requests raises it
+ * by one. A request slower than the threshold, or one that failed with a server error, cuts
+ * the limit by {@link #BACKOFF}. Requests that started before the last cut ran against the old
+ * limit and cannot tell whether the cut was enough, so their signal is ignored: the limit drops
+ * at most once per round of requests rather than once per slow request. Requests over the
+ * limit are refused at once instead of queued, so the requests that are accepted keep their
+ * latency when load outgrows what the endpoint can serve.
+ */
+final class ConcurrencyLimit {
+
+    /** Factor the limit is multiplied by when a request signals overload. */
+    static final double BACKOFF = 0.9;
+
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile double limit;
+    // requests that started before this instant were admitted under a higher limit
+    private long lastDecreaseNanos;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    ConcurrencyLimit(int initialLimit, int maxLimit, long latencyThresholdNanos) {
+        if (initialLimit < 1 || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= initial <= max, got "
+                + initialLimit + " and " + maxLimit);
+        }
+        if (latencyThresholdNanos <= 0) {
+            throw new IllegalArgumentException("Latency threshold must be positive, got " + latencyThresholdNanos + " ns");
+        }
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.limit = initialLimit;
+        this.lastDecreaseNanos = System.nanoTime();
+    }
+
+    /**
+     * Admits a request if the endpoint is under its limit. Every admitted request must be
+     * followed by exactly one {@link #release(long, long, boolean)}.
+     *
+     * @return whether the request was admitted
+     */
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        accepted.increment();
+        return true;
+    }
+
+    /**
+     * @param startNanos {@link System#nanoTime()} when the request was admitted
+     * @param endNanos {@link System#nanoTime()} when it completed
+     * @param failed whether it ended in a server error, which counts as a sign of overload
+     */
+    void release(long startNanos, long endNanos, boolean failed) {
+        int busy = inFlight.getAndDecrement();
+        boolean overloaded = failed || endNanos - startNanos > latencyThresholdNanos;
+        synchronized (this) {
+            double current = limit;
+            if (overloaded) {
+                if (startNanos - lastDecreaseNanos >= 0) {
+                    limit = Math.max(1, current * BACKOFF);
+                    lastDecreaseNanos = endNanos;
+                }
+            } else if (busy * 2 >= (int) current) {
+                limit = Math.min(maxLimit, current + 1 / current);
+            }
+        }
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    long getAcceptedCount() {
+        return accepted.sum();
+    }
+
+    long getRejectedCount() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,49 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+/**
+ * One facet value with the number of movies a search would return if it were selected.
+ * Genre facets carry a {@link #getValue() value}; year, duration and rating facets carry an
+ * inclusive {@link #getMin() min} and {@link #getMax() max}, where a null max is open-ended.
+ */
+public class FacetCount {
+
+    private final String label;
+    private final String value;
+    private final String min;
+    private final String max;
+    private final int count;
+    private final boolean selected;
+
+    public FacetCount(String label, String value, String min, String max, int count, boolean selected) {
+        this.label = label;
+        this.value = value;
+        this.min = min;
+        this.max = max;
+        this.count = count;
+        this.selected = selected;
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+
+    public String getValue() {
+        return this.value;
+    }
+
+    public String getMin() {
+        return this.min;
+    }
+
+    public String getMax() {
+        return this.max;
+    }
+
+    public int getCount() {
+        return this.count;
+    }
+
+    public boolean isSelected() {
+        return this.selected;
+    }
+}
@@ -0,0 +1,351 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bitmaps for faceted search, built once over a movie catalog.
+ * <p>
+ * Every genre component, decade, duration band and rating band owns a bitmap of catalog
+ * positions, one bit per movie in a {@code long[]}. Range filters with arbitrary bounds are
+ * answered from {@link SortedColumn}s, touching only the movies inside the range. A query
+ * ANDs the filter bitmaps together and counts each facet value with a popcount over its
+ * intersection with the other filters, so facet counts never rescan the catalog. Each facet
+ * ignores its own filter, which keeps sibling values selectable with accurate counts.
+ */
+final class FacetIndex {
+
+    static final String GENRE = "genre";
+    static final String YEAR = "year";
+    static final String DURATION = "duration";
+    static final String RATING = "rating";
+
+    /** Duration bands in minutes as inclusive bounds; the last band is open-ended. */
+    private static final int[][] DURATION_BANDS = {{0, 89}, {90, 119}, {120, 149}, {150, 179}, {180, Integer.MAX_VALUE}};
+    /**
+     * Lower bounds of the rating bands, best first. Each band runs up to but excluding the next
+     * higher bound, and the best band up to and including {@link #MAX_RATING}, so every rating
+     * from 0 to 5 falls in exactly one band.
+     */
+    private static final double[] RATING_BANDS = {4.5, 4.0, 3.0, 2.0, 0.0};
+    private static final double MAX_RATING = 5.0;
+
+    private final int size;
+    private final String[] genreLabels;
+    private final Map<String, Integer> genreComponents;
+    private final long[][] genreBitmaps;
+    private final int firstDecade;
+    private final long[][] decadeBitmaps;
+    private final long[][] durationBitmaps;
+    private final long[][] ratingBitmaps;
+    private final SortedColumn years;
+    private final SortedColumn durations;
+    private final SortedColumn ratings;
+    private final long[] everyMovie;
+    private final Map<String, List<FacetCount>> catalogFacets;
+
+    FacetIndex(MovieCatalog catalog) {
+        this.size = catalog.size();
+        int words = words(size);
+
+        // split compound genres such as "Crime/Drama" into components, merging case variants
+        String[] genreKeys = catalog.genreDictionary();
+        this.genreComponents = new HashMap<>();
+        List<String> labels = new ArrayList<>();
+        int[][] componentsByCode = new int[genreKeys.length][];
+        for (int code = 0; code < genreKeys.length; code++) {
+            String[] parts = genreKeys[code].split("/");
+            int[] components = new int[parts.length];
+            int count = 0;
+            for (String part : parts) {
+                String label = part.trim();
+                if (label.isEmpty()) {
+                    continue;
+                }
+                Integer component = genreComponents.get(label.toLowerCase(Locale.ROOT));
+                if (component == null) {
+                    component = labels.size();
+                    genreComponents.put(label.toLowerCase(Locale.ROOT), component);
+                    labels.add(label);
+                }
+                components[count++] = component;
+            }
+            componentsByCode[code] = Arrays.copyOf(components, count);
+        }
+        this.genreLabels = labels.toArray(new String[0]);
+        this.genreBitmaps = new long[genreLabels.length][words];
+
+        int[] yearKeys = new int[size];
+        int[] durationKeys = new int[size];
+        int[] ratingKeys = new int[size];
+        int minYear = Integer.MAX_VALUE;
+        int maxYear = Integer.MIN_VALUE;
+        for (int position = 0; position < size; position++) {
+            for (int component : componentsByCode[catalog.genreCodeAt(position)]) {
+                genreBitmaps[component][position >>> 6] |= 1L << position;
+            }
+            yearKeys[position] = catalog.yearAt(position);
+            durationKeys[position] = catalog.durationAt(position);
+            ratingKeys[position] = SortedColumn.ratingKey(catalog.ratingAt(position));
+            minYear = Math.min(minYear, yearKeys[position]);
+            maxYear = Math.max(maxYear, yearKeys[position]);
+        }
+        this.years = new SortedColumn(yearKeys);
+        this.durations = new SortedColumn(durationKeys);
+        this.ratings = new SortedColumn(ratingKeys);
+
+        this.firstDecade = size == 0 ? 0 : Math.floorDiv(minYear, 10) * 10;
+        int decades = size == 0 ? 0 : (Math.floorDiv(maxYear, 10) * 10 - firstDecade) / 10 + 1;
+        this.decadeBitmaps = new long[decades][];
+        for (int decade = 0; decade < decades; decade++) {
+            int from = firstDecade + decade * 10;
+            decadeBitmaps[decade] = yearRange(from, from + 9);
+        }
+        this.durationBitmaps = new long[DURATION_BANDS.length][];
+        for (int band = 0; band < DURATION_BANDS.length; band++) {
+            durationBitmaps[band] = durationRange(DURATION_BANDS[band][0], DURATION_BANDS[band][1]);
+        }
+        this.ratingBitmaps = new long[RATING_BANDS.length][];
+        for (int band = 0; band < RATING_BANDS.length; band++) {
+            long[] bitmap = new long[words];
+            ratings.markRange(bitmap, SortedColumn.ratingKey(RATING_BANDS[band]), ratingBandMaxKey(band));
+            ratingBitmaps[band] = bitmap;
+        }
+
+        this.everyMovie = new long[words];
+        Arrays.fill(everyMovie, -1L);
+        if ((size & 63) != 0) {
+            everyMovie[words - 1] = -1L >>> (64 - (size & 63));
+        }
+        this.catalogFacets = facets(everyMovie, everyMovie, everyMovie, everyMovie, new MovieFilter());
+    }
+
+    /**
+     * @return a bitmap with every catalog position set; callers must not modify it
+     */
+    long[] everyMovie() {
+        return everyMovie;
+    }
+
+    /**
+     * Narrows already matched positions by the filter's genre components and ranges, and counts the facets.
+     *
+     * @param base positions matching the name, id and genre criteria; not modified
+     */
+    Selection select(long[] base, MovieFilter filter) {
+        if (base == everyMovie && !filter.hasFacetSelections()) {
+            return new Selection(everyMovie, size, catalogFacets);
+        }
+
+        long[] genre = genreFilter(filter);
+        long[] year = yearFilter(filter);
+        long[] duration = durationFilter(filter);
+        long[] rating = ratingFilter(filter);
+
+        long[] matches = and(base, genre, year, duration, rating);
+        Map<String, List<FacetCount>> facets = facets(
+            genre == null ? matches : and(base, null, year, duration, rating),
+            year == null ? matches : and(base, genre, null, duration, rating),
+            duration == null ? matches : and(base, genre, year, null, rating),
+            rating == null ? matches : and(base, genre, year, duration, null),
+            filter);
+        return new Selection(matches, cardinality(matches), facets);
+    }
+
+    /**
+     * Like {@link #select(long[], MovieFilter)} without counting facets.
+     *
+     * @return the matching positions; {@link #everyMovie()} itself when nothing narrows the base
+     */
+    long[] filter(long[] base, MovieFilter filter) {
+        if (!filter.hasFacetSelections()) {
+            return base;
+        }
+        return and(base, genreFilter(filter), yearFilter(filter), durationFilter(filter), ratingFilter(filter));
+    }
+
+    private long[] genreFilter(MovieFilter filter) {
+        List<String> components = filter.genreComponents();
+        return components.isEmpty() ? null : genreUnion(components);
+    }
+
+    private long[] yearFilter(MovieFilter filter) {
+        return filter.hasYearRange() ? yearRange(orMin(filter.getYearFrom()), orMax(filter.getYearTo())) : null;
+    }
+
+    private long[] durationFilter(MovieFilter filter) {
+        return filter.hasDurationRange() ? durationRange(orMin(filter.getMinDuration()), orMax(filter.getMaxDuration())) : null;
+    }
+
+    private long[] ratingFilter(MovieFilter filter) {
+        return filter.hasRatingRange() ? ratingRange(filter.getMinRating(), filter.getMaxRating()) : null;
+    }
+
+    private Map<String, List<FacetCount>> facets(long[] genreBase, long[] yearBase, long[] durationBase,
+                                                 long[] ratingBase, MovieFilter filter) {
+        Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+
+        List<FacetCount> genreCounts = new ArrayList<>();
+        List<String> selectedGenres = new ArrayList<>();
+        for (String component : filter.genreComponents()) {
+            selectedGenres.add(component.toLowerCase(Locale.ROOT));
+        }
+        for (int component = 0; component < genreLabels.length; component++) {
+            int count = countAnd(genreBase, genreBitmaps[component]);
+            boolean selected = selectedGenres.contains(genreLabels[component].toLowerCase(Locale.ROOT));
+            if (count > 0 || selected) {
+                genreCounts.add(new FacetCount(genreLabels[component], genreLabels[component], null, null, count, selected));
+            }
+        }
+        genreCounts.sort(Comparator.comparingInt(FacetCount::getCount).reversed().thenComparing(FacetCount::getLabel));
+        facets.put(GENRE, Collections.unmodifiableList(genreCounts));
+
+        List<FacetCount> yearCounts = new ArrayList<>();
+        for (int decade = decadeBitmaps.length - 1; decade >= 0; decade--) {
+            int from = firstDecade + decade * 10;
+            boolean selected = Integer.valueOf(from).equals(filter.getYearFrom()) && Integer.valueOf(from + 9).equals(filter.getYearTo());
+            addRange(yearCounts, from + "s", String.valueOf(from), String.valueOf(from + 9),
+                countAnd(yearBase, decadeBitmaps[decade]), selected);
+        }
+        facets.put(YEAR, Collections.unmodifiableList(yearCounts));
+
+        List<FacetCount> durationCounts = new ArrayList<>();
+        for (int band = 0; band < DURATION_BANDS.length; band++) {
+            int from = DURATION_BANDS[band][0];
+            int to = DURATION_BANDS[band][1];
+            boolean open = to == Integer.MAX_VALUE;
+            boolean selected = Integer.valueOf(from).equals(filter.getMinDuration())
+                && (open ? filter.getMaxDuration() == null : Integer.valueOf(to).equals(filter.getMaxDuration()));
+            addRange(durationCounts, open ? from + "+ min" : from + "–" + to + " min", String.valueOf(from),
+                open ? null : String.valueOf(to), countAnd(durationBase, durationBitmaps[band]), selected);
+        }
+        facets.put(DURATION, Collections.unmodifiableList(durationCounts));
+
+        List<FacetCount> ratingCounts = new ArrayList<>();
+        for (int band = 0; band < RATING_BANDS.length; band++) {
+            double from = RATING_BANDS[band];
+            double to = band == 0 ? MAX_RATING : RATING_BANDS[band - 1];
+            int maxKey = ratingBandMaxKey(band);
+            boolean selected = Double.valueOf(from).equals(filter.getMinRating()) && filter.getMaxRating() != null
+                && SortedColumn.ratingKey(filter.getMaxRating()) == maxKey;
+            // the filter's bounds are inclusive, so a half-open band ends at the rating just below the next bound
+            String max = band == 0 ? String.valueOf(MAX_RATING) : String.valueOf(Math.nextDown((float) to));
+            addRange(ratingCounts, from + "–" + to, String.valueOf(from), max,
+                countAnd(ratingBase, ratingBitmaps[band]), selected);
+        }
+        facets.put(RATING, Collections.unmodifiableList(ratingCounts));
+        return Collections.unmodifiableMap(facets);
+    }
+
+    private static void addRange(List<FacetCount> counts, String label, String min, String max, int count, boolean selected) {
+        if (count > 0 || selected) {
+            counts.add(new FacetCount(label, null, min, max, count, selected));
+        }
+    }
+
+    /**
+     * @return the inclusive upper rating key of a band: the top rating for the best band, and
+     * the key just below the next higher band's bound for the others
+     */
+    private static int ratingBandMaxKey(int band) {
+        return band == 0 ? SortedColumn.ratingKey(MAX_RATING) : SortedColumn.ratingKey(RATING_BANDS[band - 1]) - 1;
+    }
+
+    private long[] genreUnion(List<String> components) {
+        long[] union = new long[words(size)];
+        for (String label : components) {
+            Integer component = genreComponents.get(label.toLowerCase(Locale.ROOT));
+            if (component != null) {
+                long[] bitmap = genreBitmaps[component];
+                for (int i = 0; i < union.length; i++) {
+                    union[i] |= bitmap[i];
+                }
+            }
+        }
+        return union;
+    }
+
+    private long[] yearRange(int from, int to) {
+        long[] bitmap = new long[words(size)];
+        years.markRange(bitmap, from, to);
+        return bitmap;
+    }
+
+    private long[] durationRange(int from, int to) {
+        long[] bitmap = new long[words(size)];
+        durations.markRange(bitmap, from, to);
+        return bitmap;
+    }
+
+    private long[] ratingRange(Double from, Double to) {
+        long[] bitmap = new long[words(size)];
+        ratings.markRange(bitmap, from == null ? Integer.MIN_VALUE : SortedColumn.ratingKey(from),
+            to == null ? Integer.MAX_VALUE : SortedColumn.ratingKey(to));
+        return bitmap;
+    }
+
+    /**
+     * @return a new bitmap holding the intersection of the base and every non-null filter
+     */
+    private static long[] and(long[] base, long[]... filters) {
+        long[] result = base.clone();
+        for (long[] filter : filters) {
+            if (filter != null) {
+                for (int i = 0; i < result.length; i++) {
+                    result[i] &= filter[i];
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int countAnd(long[] a, long[] b) {
+        int count = 0;
+        for (int i = 0; i < a.length; i++) {
+            count += Long.bitCount(a[i] & b[i]);
+        }
+        return count;
+    }
+
+    static int cardinality(long[] bitmap) {
+        int count = 0;
+        for (long word : bitmap) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    private static int orMin(Integer value) {
+        return value != null ? value : Integer.MIN_VALUE;
+    }
+
+    private static int orMax(Integer value) {
+        return value != null ? value : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Positions matching every filter, how many there are, and the facet counts.
+     */
+    static final class Selection {
+        final long[] matches;
+        final int total;
+        final Map<String, List<FacetCount>> facets;
+
+        Selection(long[] matches, int total, Map<String, List<FacetCount>> facets) {
+            this.matches = matches;
+            this.total = total;
+            this.facets = facets;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a faceted search, with the total number of matches and the facet counts.
+ * Each facet is counted against every filter except its own, so selecting another value of
+ * the same facet returns exactly the count shown for it.
+ */
+public class FacetedSearchResult {
+
+    private final MoviePage page;
+    private final int totalMatches;
+    private final Map<String, List<FacetCount>> facets;
+
+    public FacetedSearchResult(MoviePage page, int totalMatches, Map<String, List<FacetCount>> facets) {
+        this.page = page;
+        this.totalMatches = totalMatches;
+        this.facets = facets;
+    }
+
+    public MoviePage getPage() {
+        return this.page;
+    }
+
+    public int getTotalMatches() {
+        return this.totalMatches;
+    }
+
+    /**
+     * @return facet counts keyed by {@code genre}, {@code year}, {@code duration} and {@code rating}
+     */
+    public Map<String, List<FacetCount>> getFacets() {
+        return this.facets;
+    }
+}
@@ -0,0 +1,338 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranked, typo-tolerant search over movie titles and directors.
+ * <p>
+ * A query is answered in two bounded steps. Candidate generation walks the trigram postings
+ * of the normalized query, rarest trigram first, counting shared trigrams per title or director
+ * within a budget of {@link #MAX_VISITED_POSTINGS} postings; trigrams too common to fit are
+ * all counted over the same leading slice of the catalog. The {@link #MAX_VERIFIED}
+ * candidates sharing the most trigrams are then scored word by word: each query word takes its
+ * closest word in the field within an edit distance of 0, 1 or 2 depending on its length,
+ * counting an adjacent transposition as one edit. Both limits are independent of catalog size,
+ * which keeps query latency within a fixed budget. The price is recall on queries made only of
+ * very common trigrams, whose matches come from early in the catalog.
+ */
+final class FuzzyMovieIndex {
+
+    static final int MAX_VISITED_POSTINGS = 1 << 16;
+    static final int MAX_VERIFIED = 512;
+    private static final int MAX_QUERY_LENGTH = 100;
+    // share of query words that must match before a field counts as a match at all
+    private static final double MIN_COVERAGE = 0.5;
+    private static final Comparator<Scored> BEST_FIRST = Comparator.comparingDouble((Scored scored) -> -scored.score)
+        .thenComparingDouble(scored -> -scored.rating)
+        .thenComparingInt(scored -> scored.position);
+
+    private final MovieCatalog catalog;
+    private final String[] titles;
+    private final TrigramIndex titleGrams;
+    private final String[] directors;
+    private final TrigramIndex directorGrams;
+    // per director code, its movies' positions ordered by rating, best first
+    private final int[][] moviesByDirector;
+
+    /**
+     * @param titles lower-cased titles by catalog position
+     * @param titleGrams trigram index over {@code titles}
+     */
+    FuzzyMovieIndex(MovieCatalog catalog, String[] titles, TrigramIndex titleGrams) {
+        this.catalog = catalog;
+        this.titles = titles;
+        this.titleGrams = titleGrams;
+        String[] directorDictionary = catalog.directorDictionary();
+        this.directors = new String[directorDictionary.length];
+        for (int code = 0; code < directors.length; code++) {
+            directors[code] = normalize(directorDictionary[code]);
+        }
+        this.directorGrams = new TrigramIndex(directors);
+
+        int[] counts = new int[directors.length];
+        for (int position = 0; position < catalog.size(); position++) {
+            counts[catalog.directorCodeAt(position)]++;
+        }
+        Integer[][] byDirector = new Integer[directors.length][];
+        for (int code = 0; code < directors.length; code++) {
+            byDirector[code] = new Integer[counts[code]];
+            counts[code] = 0;
+        }
+        for (int position = 0; position < catalog.size(); position++) {
+            int code = catalog.directorCodeAt(position);
+            byDirector[code][counts[code]++] = position;
+        }
+        Comparator<Integer> byRating = Comparator.comparingDouble((Integer position) -> -catalog.ratingAt(position))
+            .thenComparingInt(position -> position);
+        this.moviesByDirector = new int[directors.length][];
+        for (int code = 0; code < directors.length; code++) {
+            Arrays.sort(byDirector[code], byRating);
+            moviesByDirector[code] = new int[byDirector[code].length];
+            for (int i = 0; i < byDirector[code].length; i++) {
+                moviesByDirector[code][i] = byDirector[code][i];
+            }
+        }
+    }
+
+    /**
+     * @return at most {@code limit} movies whose title or director resembles the query, best first;
+     * ties go to the higher rated movie, then to catalog order
+     */
+    List<MovieMatch> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.length() > MAX_QUERY_LENGTH) {
+            normalized = normalize(normalized.substring(0, MAX_QUERY_LENGTH));
+        }
+        List<MovieMatch> matches = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return matches;
+        }
+        String[] queryWords = normalized.split(" ");
+
+        Map<Integer, Scored> best = new HashMap<>();
+        for (int position : candidates(titleGrams, titles.length, normalized)) {
+            double score = fieldScore(queryWords, normalize(titles[position]).split(" "));
+            if (score > 0) {
+                best.put(position, new Scored(position, score, catalog.ratingAt(position), MovieMatch.TITLE));
+            }
+        }
+        for (int code : candidates(directorGrams, directors.length, normalized)) {
+            double score = fieldScore(queryWords, directors[code].split(" "));
+            if (score <= 0) {
+                continue;
+            }
+            // movies are sorted by rating, so the first few are the only ones that can make the cut
+            int[] movies = moviesByDirector[code];
+            for (int i = 0; i < movies.length && i < limit; i++) {
+                Scored current = best.get(movies[i]);
+                if (current == null || current.score < score) {
+                    best.put(movies[i], new Scored(movies[i], score, catalog.ratingAt(movies[i]), MovieMatch.DIRECTOR));
+                }
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(best.values());
+        ranked.sort(BEST_FIRST);
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            Scored scored = ranked.get(i);
+            matches.add(new MovieMatch(catalog.movieAt(scored.position), scored.score, scored.field));
+        }
+        return matches;
+    }
+
+    /**
+     * Documents sharing the most trigrams with the query, at most {@link #MAX_VERIFIED} of them.
+     */
+    private static int[] candidates(TrigramIndex grams, int documentCount, String normalized) {
+        String padded = " " + normalized + " ";
+        long[] keys = new long[padded.length() - TrigramIndex.GRAM_LENGTH + 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = TrigramIndex.gramKey(padded, i);
+        }
+        Arrays.sort(keys);
+        List<int[]> lists = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            int[] postings = grams.postings(keys[i]);
+            if ((i == 0 || keys[i] != keys[i - 1]) && postings.length > 0) {
+                lists.add(postings);
+            }
+        }
+        lists.sort(Comparator.comparingInt(postings -> postings.length));
+
+        TrigramCounts counts = new TrigramCounts(documentCount);
+        long visited = 0;
+        int list = 0;
+        for (; list < lists.size() && visited + lists.get(list).length <= MAX_VISITED_POSTINGS; list++) {
+            counts.add(lists.get(list), documentCount);
+            visited += lists.get(list).length;
+        }
+        if (list < lists.size()) {
+            // the remaining trigrams are too common to read in full, so count them all over the
+            // same leading slice of the catalog, sized to fit what is left of the budget
+            long remaining = 0;
+            for (int i = list; i < lists.size(); i++) {
+                remaining += lists.get(i).length;
+            }
+            int cutoff = (int) (documentCount * (double) (MAX_VISITED_POSTINGS - visited) / remaining);
+            for (int i = list; i < lists.size(); i++) {
+                counts.add(lists.get(i), cutoff);
+            }
+        }
+        byte[] documentCounts = counts.counts;
+        int[] touched = counts.touched;
+        int touchedCount = counts.size;
+        if (touchedCount <= MAX_VERIFIED) {
+            return Arrays.copyOf(touched, touchedCount);
+        }
+
+        // keep the documents with the highest counts; ties go to those reached first, from the rarer trigrams
+        int[] histogram = new int[Byte.MAX_VALUE + 1];
+        for (int i = 0; i < touchedCount; i++) {
+            histogram[documentCounts[touched[i]]]++;
+        }
+        int threshold = Byte.MAX_VALUE;
+        int above = 0;
+        while (above + histogram[threshold] < MAX_VERIFIED) {
+            above += histogram[threshold--];
+        }
+        int[] selected = new int[MAX_VERIFIED];
+        int selectedCount = 0;
+        int atThreshold = MAX_VERIFIED - above;
+        for (int i = 0; i < touchedCount; i++) {
+            int count = documentCounts[touched[i]];
+            if (count > threshold || (count == threshold && atThreshold-- > 0)) {
+                selected[selectedCount++] = touched[i];
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Averages each query word's best similarity to a word of the field, mostly over the query
+     * and partly over the longer of the two, so of two fields matching every query word the one
+     * with fewer extra words ranks first.
+     *
+     * @return a score from 0 to 1, or 0 if fewer than half the query words match
+     */
+    static double fieldScore(String[] queryWords, String[] fieldWords) {
+        double sum = 0;
+        for (String queryWord : queryWords) {
+            double bestWord = 0;
+            for (String fieldWord : fieldWords) {
+                bestWord = Math.max(bestWord, wordSimilarity(queryWord, fieldWord));
+                if (bestWord == 1.0) {
+                    break;
+                }
+            }
+            sum += bestWord;
+        }
+        if (sum == 0 || sum < queryWords.length * MIN_COVERAGE) {
+            return 0;
+        }
+        return 0.8 * sum / queryWords.length + 0.2 * sum / Math.max(queryWords.length, fieldWords.length);
+    }
+
+    static double wordSimilarity(String queryWord, String fieldWord) {
+        int maxEdits = queryWord.length() <= 2 ? 0 : queryWord.length() <= 5 ? 1 : 2;
+        int distance = editDistance(queryWord, fieldWord, maxEdits);
+        if (distance > maxEdits) {
+            return 0;
+        }
+        return 1.0 - (double) distance / (Math.max(queryWord.length(), fieldWord.length()) + 1);
+    }
+
+    /**
+     * Optimal string alignment distance: insertions, deletions, substitutions and adjacent
+     * transpositions each cost one edit.
+     *
+     * @return the distance, or {@code maxEdits + 1} as soon as it must exceed {@code maxEdits}
+     */
+    static int editDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int distance = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    distance = Math.min(distance, previousPrevious[j - 2] + 1);
+                }
+                current[j] = distance;
+                rowMinimum = Math.min(rowMinimum, distance);
+            }
+            if (rowMinimum > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], maxEdits + 1);
+    }
+
+    /**
+     * Lower-cases and reduces every run of characters other than letters and digits to one space.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Shared-trigram count per document, plus the list of documents counted at least once.
+     */
+    private static final class TrigramCounts {
+        final byte[] counts;
+        int[] touched = new int[64];
+        int size;
+
+        TrigramCounts(int documentCount) {
+            this.counts = new byte[documentCount];
+        }
+
+        /**
+         * Counts the postings below {@code endDocument}.
+         */
+        void add(int[] postings, int endDocument) {
+            for (int document : postings) {
+                if (document >= endDocument) {
+                    return;
+                }
+                if (counts[document] == 0) {
+                    if (size == touched.length) {
+                        touched = Arrays.copyOf(touched, size * 2);
+                    }
+                    touched[size++] = document;
+                }
+                if (counts[document] < Byte.MAX_VALUE) {
+                    counts[document]++;
+                }
+            }
+        }
+    }
+
+    private static final class Scored {
+        final int position;
+        final double score;
+        final double rating;
+        final String field;
+
+        Scored(int position, double score, double rating, String field) {
+            this.position = position;
+            this.score = score;
+            this.rating = rating;
+            this.field = field;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.LongIntHashIndex;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Movie catalog read in place from a memory-mapped {@link CatalogSnapshot} file.
+ * <p>
+ * Opening reads the header and maps each section read-only; no column is copied to the heap,
+ * so startup time and heap use do not grow with the catalog, and pages are faulted in by the
+ * OS as positions are first touched. Only the genre and icon dictionaries, a handful of short
+ * strings, are decoded up front. The mapping stays valid after the channel is closed and is
+ * released when this catalog is garbage collected. All reads use absolute buffer accessors
+ * or private duplicates, so a catalog can be shared by any number of threads.
+ */
+final class MappedCatalog extends MovieCatalog {
+
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    private final int size;
+    private final long version;
+    private final boolean uniqueIds;
+    private final int idTableCapacity;
+    private final LongBuffer ids;
+    private final IntBuffer years;
+    private final IntBuffer durations;
+    private final DoubleBuffer ratings;
+    private final IntBuffer genreCodes;
+    private final IntBuffer directorCodes;
+    private final IntBuffer iconCodes;
+    private final MappedText names;
+    private final MappedText descriptions;
+    private final MappedText directors;
+    private final String[] genres;
+    private final String[] icons;
+    private final LongBuffer idKeys;
+    private final IntBuffer idValues;
+
+    private MappedCatalog(FileChannel channel, ByteBuffer header) throws IOException {
+        this.size = header.getInt(CatalogSnapshot.MOVIE_COUNT);
+        this.version = header.getLong(CatalogSnapshot.VERSION);
+        this.uniqueIds = (header.getInt(CatalogSnapshot.FLAGS) & CatalogSnapshot.FLAG_UNIQUE_IDS) != 0;
+        this.idTableCapacity = header.getInt(CatalogSnapshot.ID_TABLE_CAPACITY);
+        this.ids = map(channel, header, CatalogSnapshot.IDS).asLongBuffer();
+        this.years = map(channel, header, CatalogSnapshot.YEARS).asIntBuffer();
+        this.durations = map(channel, header, CatalogSnapshot.DURATIONS).asIntBuffer();
+        this.ratings = map(channel, header, CatalogSnapshot.RATINGS).asDoubleBuffer();
+        this.genreCodes = map(channel, header, CatalogSnapshot.GENRE_CODES).asIntBuffer();
+        this.directorCodes = map(channel, header, CatalogSnapshot.DIRECTOR_CODES).asIntBuffer();
+        this.iconCodes = map(channel, header, CatalogSnapshot.ICON_CODES).asIntBuffer();
+        this.names = new MappedText(channel, header, CatalogSnapshot.NAME_OFFSETS, CatalogSnapshot.NAME_BYTES);
+        this.descriptions = new MappedText(channel, header, CatalogSnapshot.DESCRIPTION_OFFSETS, CatalogSnapshot.DESCRIPTION_BYTES);
+        this.directors = new MappedText(channel, header, CatalogSnapshot.DIRECTOR_OFFSETS, CatalogSnapshot.DIRECTOR_BYTES);
+        this.genres = new MappedText(channel, header, CatalogSnapshot.GENRE_OFFSETS, CatalogSnapshot.GENRE_BYTES).toArray();
+        this.icons = new MappedText(channel, header, CatalogSnapshot.ICON_OFFSETS, CatalogSnapshot.ICON_BYTES).toArray();
+        this.idKeys = map(channel, header, CatalogSnapshot.ID_KEYS).asLongBuffer();
+        this.idValues = map(channel, header, CatalogSnapshot.ID_VALUES).asIntBuffer();
+        if (ids.capacity() != size || idKeys.capacity() != idTableCapacity || Integer.bitCount(idTableCapacity) != 1) {
+            throw new IOException("Catalog snapshot sections do not match its header");
+        }
+    }
+
+    static MappedCatalog open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < CatalogSnapshot.HEADER_BYTES) {
+                throw new IOException("Not a catalog snapshot: " + file);
+            }
+            ByteBuffer header = ByteBuffer.allocate(CatalogSnapshot.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // read the whole header
+            }
+            if (header.getLong(0) != CatalogSnapshot.MAGIC) {
+                throw new IOException("Not a catalog snapshot: " + file);
+            }
+            int formatVersion = header.getInt(8);
+            if (formatVersion != CatalogSnapshot.FORMAT_VERSION) {
+                throw new IOException("Unsupported catalog snapshot format " + formatVersion + " in " + file);
+            }
+            return new MappedCatalog(channel, header);
+        }
+    }
+
+    @Override
+    boolean isMemoryMapped() {
+        return true;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    long idAt(int position) {
+        return ids.get(position);
+    }
+
+    @Override
+    String nameAt(int position) {
+        return names.get(position);
+    }
+
+    @Override
+    String directorAt(int position) {
+        return directors.get(directorCodes.get(position));
+    }
+
+    @Override
+    int directorCodeAt(int position) {
+        return directorCodes.get(position);
+    }
+
+    @Override
+    String[] directorDictionary() {
+        return directors.toArray();
+    }
+
+    @Override
+    int yearAt(int position) {
+        return years.get(position);
+    }
+
+    @Override
+    String genreAt(int position) {
+        return genres[genreCodes.get(position)];
+    }
+
+    @Override
+    int genreCodeAt(int position) {
+        return genreCodes.get(position);
+    }
+
+    @Override
+    String[] genreDictionary() {
+        return genres.clone();
+    }
+
+    @Override
+    String descriptionAt(int position) {
+        return descriptions.get(position);
+    }
+
+    @Override
+    int durationAt(int position) {
+        return durations.get(position);
+    }
+
+    @Override
+    double ratingAt(int position) {
+        return ratings.get(position);
+    }
+
+    @Override
+    String iconAt(int position) {
+        return icons[iconCodes.get(position)];
+    }
+
+    @Override
+    int positionOf(long id) {
+        int mask = idTableCapacity - 1;
+        for (int slot = CatalogSnapshot.slotOf(id, idTableCapacity); ; slot = (slot + 1) & mask) {
+            int value = idValues.get(slot);
+            if (value == 0) {
+                return LongIntHashIndex.NOT_FOUND;
+            }
+            if (idKeys.get(slot) == id) {
+                return value - 1;
+            }
+        }
+    }
+
+    @Override
+    boolean hasUniqueIds() {
+        return uniqueIds;
+    }
+
+    @Override
+    long version() {
+        return version;
+    }
+
+    private static ByteBuffer map(FileChannel channel, ByteBuffer header, int section) throws IOException {
+        long offset = header.getLong(CatalogSnapshot.SECTIONS + section * 16);
+        long length = header.getLong(CatalogSnapshot.SECTIONS + section * 16 + 8);
+        if (offset < CatalogSnapshot.HEADER_BYTES || length < 0 || offset + length > channel.size()) {
+            throw new IOException("Catalog snapshot section " + section + " lies outside the file");
+        }
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Catalog snapshot section " + section + " is larger than 2 GiB");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * UTF-8 strings in a mapped byte section addressed through a mapped offsets section.
+     * The bytes are mapped in 1 GiB segments, so the blob itself may exceed 2 GiB.
+     */
+    private static final class MappedText {
+        private final LongBuffer offsets;
+        private final MappedByteBuffer[] segments;
+
+        MappedText(FileChannel channel, ByteBuffer header, int offsetsSection, int bytesSection) throws IOException {
+            this.offsets = map(channel, header, offsetsSection).asLongBuffer();
+            long start = header.getLong(CatalogSnapshot.SECTIONS + bytesSection * 16);
+            long length = header.getLong(CatalogSnapshot.SECTIONS + bytesSection * 16 + 8);
+            if (start < CatalogSnapshot.HEADER_BYTES || length < 0 || start + length > channel.size()
+                    || offsets.capacity() == 0 || offsets.get(offsets.capacity() - 1) != length) {
+                throw new IOException("Catalog snapshot text section " + bytesSection + " does not match its offsets");
+            }
+            this.segments = new MappedByteBuffer[(int) ((length + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+            for (int i = 0; i < segments.length; i++) {
+                long segmentStart = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start + segmentStart,
+                    Math.min(SEGMENT_SIZE, length - segmentStart));
+            }
+        }
+
+        String get(int index) {
+            long start = offsets.get(index);
+            int length = (int) (offsets.get(index + 1) - start);
+            if (length == 0) {
+                return "";
+            }
+            byte[] bytes = new byte[length];
+            int segment = (int) (start >>> SEGMENT_BITS);
+            int offset = (int) (start & (SEGMENT_SIZE - 1));
+            int copied = 0;
+            while (copied < length) {
+                ByteBuffer bytesView = segments[segment].duplicate();
+                bytesView.position(offset);
+                int count = Math.min(length - copied, bytesView.remaining());
+                bytesView.get(bytes, copied, count);
+                copied += count;
+                segment++;
+                offset = 0;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        String[] toArray() {
+            String[] values = new String[offsets.capacity() - 1];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = get(i);
+            }
+            return values;
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
 import com.amazonaws.samples.qdevmovies.utils.MovieIconUtils;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
+import java.util.Objects;
+
+/**
+ * A movie with value semantics. The catalog does not keep {@code Movie} objects; each one is a
+ * view built from the columnar catalog on demand, so compare movies with {@link #equals(Object)}.
+ * A view may carry the movie's {@link ReviewSummary} for display; it is not part of equality.
+ */
 public class Movie {
 
     private final long id;
@@ -12,8 +20,22 @@ public class Movie {
     private final String description;
     private final int duration;
     private final double imdbRating;
+    private final String icon;
+    private final ReviewSummary reviewSummary;
 
     public Movie(long id, String movieName, String director, int year, String genre, String description, int duration, double imdbRating) {
+        this(id, movieName, director, year, genre, description, duration, imdbRating, MovieIconUtils.getMovieIcon(movieName));
+    }
+
+    /**
+     * Creates a movie whose icon was already resolved, so catalog views skip the icon table.
+     */
+    Movie(long id, String movieName, String director, int year, String genre, String description, int duration, double imdbRating, String icon) {
+        this(id, movieName, director, year, genre, description, duration, imdbRating, icon, null);
+    }
+
+    private Movie(long id, String movieName, String director, int year, String genre, String description, int duration,
+                  double imdbRating, String icon, ReviewSummary reviewSummary) {
         this.id = id;
         this.movieName = movieName;
         this.director = director;
@@ -22,6 +44,15 @@ public class Movie {
         this.description = description;
         this.duration = duration;
         this.imdbRating = imdbRating;
+        this.icon = icon;
+        this.reviewSummary = reviewSummary;
+    }
+
+    /**
+     * @return a copy of this movie carrying the review summary
+     */
+    public Movie withReviewSummary(ReviewSummary summary) {
+        return new Movie(id, movieName, director, year, genre, description, duration, imdbRating, icon, summary);
     }
 
     public long getId() {
@@ -57,6 +88,34 @@ public class Movie {
     }
 
     public String getIcon() {
-        return MovieIconUtils.getMovieIcon(this.movieName);
+        return this.icon;
+    }
+
+    /**
+     * @return the review summary attached with {@link #withReviewSummary(ReviewSummary)}, or null
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public ReviewSummary getReviewSummary() {
+        return this.reviewSummary;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof Movie)) {
+            return false;
+        }
+        Movie movie = (Movie) other;
+        return id == movie.id && year == movie.year && duration == movie.duration
+            && Double.compare(imdbRating, movie.imdbRating) == 0
+            && Objects.equals(movieName, movie.movieName) && Objects.equals(director, movie.director)
+            && Objects.equals(genre, movie.genre) && Objects.equals(description, movie.description);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, movieName, director, year, genre, description, duration, imdbRating);
     }
 }
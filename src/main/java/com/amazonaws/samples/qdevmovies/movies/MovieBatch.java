@@ -0,0 +1,38 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a batch lookup: one entry per requested id in request order, plus the ids that
+ * matched no movie so clients need not scan the entries for misses.
+ */
+public class MovieBatch {
+
+    private final List<MovieBatchEntry> results;
+    private final List<Long> missingIds;
+
+    public MovieBatch(List<MovieBatchEntry> results) {
+        List<Long> missing = new ArrayList<>();
+        for (MovieBatchEntry entry : results) {
+            if (!entry.isFound()) {
+                missing.add(entry.getId());
+            }
+        }
+        this.results = Collections.unmodifiableList(results);
+        this.missingIds = Collections.unmodifiableList(missing);
+    }
+
+    public List<MovieBatchEntry> getResults() {
+        return this.results;
+    }
+
+    public int getFoundCount() {
+        return this.results.size() - this.missingIds.size();
+    }
+
+    public List<Long> getMissingIds() {
+        return this.missingIds;
+    }
+}
@@ -0,0 +1,54 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.List;
+
+/**
+ * One requested id of a batch lookup: the movie, if found, with its review summary and,
+ * unless only summaries were asked for, its reviews.
+ */
+public class MovieBatchEntry {
+
+    private final long id;
+    private final Movie movie;
+    private final ReviewSummary reviewSummary;
+    private final List<Review> reviews;
+
+    public MovieBatchEntry(long id, Movie movie, ReviewSummary reviewSummary, List<Review> reviews) {
+        this.id = id;
+        this.movie = movie;
+        this.reviewSummary = reviewSummary;
+        this.reviews = reviews;
+    }
+
+    /**
+     * @return the id as requested
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    public boolean isFound() {
+        return this.movie != null;
+    }
+
+    /**
+     * @return the movie, or null if no movie has this id
+     */
+    public Movie getMovie() {
+        return this.movie;
+    }
+
+    /**
+     * @return the review summary, or null if the movie was not found or reviews were not requested
+     */
+    public ReviewSummary getReviewSummary() {
+        return this.reviewSummary;
+    }
+
+    /**
+     * @return the reviews, or null if the movie was not found or only summaries were requested
+     */
+    public List<Review> getReviews() {
+        return this.reviews;
+    }
+}
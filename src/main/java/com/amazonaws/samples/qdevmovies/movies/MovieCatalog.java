@@ -0,0 +1,148 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Read-only movie catalog addressed by catalog position, from 0 to {@link #size()} - 1.
+ * <p>
+ * Implementations keep movie fields in columns, on the heap ({@link ColumnarCatalog}) or in a
+ * memory-mapped snapshot file ({@link MappedCatalog}), and build {@link Movie} views on demand.
+ * Genres and directors are additionally exposed as int codes into {@link #genreDictionary()} and
+ * {@link #directorDictionary()} so indexes can group positions without comparing strings.
+ */
+abstract class MovieCatalog {
+
+    private final List<Movie> movieList = new MovieList();
+
+    abstract int size();
+
+    abstract long idAt(int position);
+
+    abstract String nameAt(int position);
+
+    abstract String directorAt(int position);
+
+    abstract int directorCodeAt(int position);
+
+    /**
+     * @return the distinct directors, indexed by the codes {@link #directorCodeAt(int)} returns
+     */
+    abstract String[] directorDictionary();
+
+    abstract int yearAt(int position);
+
+    abstract String genreAt(int position);
+
+    abstract int genreCodeAt(int position);
+
+    /**
+     * @return the distinct genres, indexed by the codes {@link #genreCodeAt(int)} returns
+     */
+    abstract String[] genreDictionary();
+
+    abstract String descriptionAt(int position);
+
+    abstract int durationAt(int position);
+
+    abstract double ratingAt(int position);
+
+    abstract String iconAt(int position);
+
+    /**
+     * @return the position of the first movie with this id, or {@link com.amazonaws.samples.qdevmovies.utils.LongIntHashIndex#NOT_FOUND}
+     */
+    abstract int positionOf(long id);
+
+    /**
+     * @return false if some id appears at more than one position
+     */
+    abstract boolean hasUniqueIds();
+
+    /**
+     * @return a hash of the catalog contents that changes whenever any movie field changes
+     */
+    abstract long version();
+
+    /**
+     * @return true if the columns live in a mapped file rather than on the heap
+     */
+    boolean isMemoryMapped() {
+        return false;
+    }
+
+    /**
+     * @return a new view of the movie at this catalog position
+     */
+    Movie movieAt(int position) {
+        return new Movie(idAt(position), nameAt(position), directorAt(position), yearAt(position), genreAt(position),
+            descriptionAt(position), durationAt(position), ratingAt(position), iconAt(position));
+    }
+
+    /**
+     * @return an unmodifiable list view in catalog order; each {@code get} builds a new {@link Movie}
+     */
+    List<Movie> asList() {
+        return movieList;
+    }
+
+    /**
+     * @return an unmodifiable list view in the given order; each {@code get} builds a new {@link Movie}
+     */
+    List<Movie> asList(SortOrder order) {
+        return new SortedMovieList(order);
+    }
+
+    /**
+     * Folds every movie's {@link Movie#hashCode()} into one 64-bit FNV-style hash, reading the
+     * columns directly instead of building movies.
+     */
+    static long contentHash(MovieCatalog catalog) {
+        long version = 0xcbf29ce484222325L;
+        for (int position = 0; position < catalog.size(); position++) {
+            int movieHash = Objects.hash(catalog.idAt(position), catalog.nameAt(position), catalog.directorAt(position),
+                catalog.yearAt(position), catalog.genreAt(position), catalog.descriptionAt(position),
+                catalog.durationAt(position), catalog.ratingAt(position));
+            version = (version ^ movieHash) * 0x100000001b3L;
+        }
+        return version;
+    }
+
+    private final class MovieList extends AbstractList<Movie> implements RandomAccess {
+        @Override
+        public Movie get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            }
+            return movieAt(index);
+        }
+
+        @Override
+        public int size() {
+            return MovieCatalog.this.size();
+        }
+    }
+
+    private final class SortedMovieList extends AbstractList<Movie> implements RandomAccess {
+        private final SortOrder order;
+
+        SortedMovieList(SortOrder order) {
+            this.order = order;
+        }
+
+        @Override
+        public Movie get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+            }
+            return movieAt(order.positionAt(index));
+        }
+
+        @Override
+        public int size() {
+            return order.size();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+/**
+ * A title or director that starts with the typed prefix, pointing at its best rated movie.
+ */
+public class MovieCompletion {
+
+    private final String text;
+    private final String field;
+    private final long movieId;
+    private final double imdbRating;
+
+    public MovieCompletion(String text, String field, long movieId, double imdbRating) {
+        this.text = text;
+        this.field = field;
+        this.movieId = movieId;
+        this.imdbRating = imdbRating;
+    }
+
+    /**
+     * @return the title or director as written in the catalog
+     */
+    public String getText() {
+        return this.text;
+    }
+
+    /**
+     * @return {@link MovieMatch#TITLE} or {@link MovieMatch#DIRECTOR}
+     */
+    public String getField() {
+        return this.field;
+    }
+
+    /**
+     * @return the id of the best rated movie with this title or director
+     */
+    public long getMovieId() {
+        return this.movieId;
+    }
+
+    /**
+     * @return the rating of that movie, which completions are ranked by
+     */
+    public double getImdbRating() {
+        return this.imdbRating;
+    }
+}
@@ -0,0 +1,45 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.List;
+
+/**
+ * A movie together with its reviews and review statistics, as served by the JSON API.
+ */
+public class MovieDetails {
+
+    private final Movie movie;
+    private final List<Review> reviews;
+    private final ReviewStats reviewStats;
+
+    public MovieDetails(Movie movie, List<Review> reviews, ReviewStats reviewStats) {
+        this.movie = movie;
+        this.reviews = reviews;
+        this.reviewStats = reviewStats;
+    }
+
+    public Movie getMovie() {
+        return this.movie;
+    }
+
+    public List<Review> getReviews() {
+        return this.reviews;
+    }
+
+    public ReviewSummary getReviewSummary() {
+        return this.reviewStats.getSummary();
+    }
+
+    /**
+     * @see ReviewStats#getScore()
+     */
+    public double getReviewScore() {
+        return this.reviewStats.getScore();
+    }
+
+    /**
+     * @see ReviewStats#getRank()
+     */
+    public int getReviewRank() {
+        return this.reviewStats.getRank();
+    }
+}
@@ -0,0 +1,166 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Criteria for a faceted search, bound from request parameters.
+ * <p>
+ * {@code name}, {@code id} and {@code genre} behave as in {@link MovieService#searchMovies(String, Long, String)}.
+ * {@code genres} matches single genre components case-insensitively, so "Drama" matches both
+ * "Drama" and "Crime/Drama", and several components match any of them. Ranges are inclusive
+ * and either end may be left open. All criteria are combined with AND logic.
+ */
+public class MovieFilter {
+
+    private String name;
+    private Long id;
+    private String genre;
+    private List<String> genres = new ArrayList<>();
+    private Integer yearFrom;
+    private Integer yearTo;
+    private Integer minDuration;
+    private Integer maxDuration;
+    private Double minRating;
+    private Double maxRating;
+
+    public String getName() {
+        return this.name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getGenre() {
+        return this.genre;
+    }
+
+    public void setGenre(String genre) {
+        this.genre = genre;
+    }
+
+    public List<String> getGenres() {
+        return this.genres;
+    }
+
+    public void setGenres(List<String> genres) {
+        this.genres = genres != null ? genres : new ArrayList<>();
+    }
+
+    public Integer getYearFrom() {
+        return this.yearFrom;
+    }
+
+    public void setYearFrom(Integer yearFrom) {
+        this.yearFrom = yearFrom;
+    }
+
+    public Integer getYearTo() {
+        return this.yearTo;
+    }
+
+    public void setYearTo(Integer yearTo) {
+        this.yearTo = yearTo;
+    }
+
+    public Integer getMinDuration() {
+        return this.minDuration;
+    }
+
+    public void setMinDuration(Integer minDuration) {
+        this.minDuration = minDuration;
+    }
+
+    public Integer getMaxDuration() {
+        return this.maxDuration;
+    }
+
+    public void setMaxDuration(Integer maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    public Double getMinRating() {
+        return this.minRating;
+    }
+
+    public void setMinRating(Double minRating) {
+        this.minRating = minRating;
+    }
+
+    public Double getMaxRating() {
+        return this.maxRating;
+    }
+
+    public void setMaxRating(Double maxRating) {
+        this.maxRating = maxRating;
+    }
+
+    /**
+     * @return the requested genre components with blank entries dropped
+     */
+    List<String> genreComponents() {
+        List<String> components = new ArrayList<>();
+        for (String component : genres) {
+            if (component != null && !component.trim().isEmpty()) {
+                components.add(component.trim());
+            }
+        }
+        return components;
+    }
+
+    boolean hasYearRange() {
+        return yearFrom != null || yearTo != null;
+    }
+
+    boolean hasDurationRange() {
+        return minDuration != null || maxDuration != null;
+    }
+
+    boolean hasRatingRange() {
+        return minRating != null || maxRating != null;
+    }
+
+    /**
+     * @return true if any genre component or range is set, beyond the plain search criteria
+     */
+    public boolean hasFacetSelections() {
+        return !genreComponents().isEmpty() || hasYearRange() || hasDurationRange() || hasRatingRange();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MovieFilter other = (MovieFilter) o;
+        return Objects.equals(name, other.name) && Objects.equals(id, other.id) && Objects.equals(genre, other.genre)
+            && genres.equals(other.genres) && Objects.equals(yearFrom, other.yearFrom) && Objects.equals(yearTo, other.yearTo)
+            && Objects.equals(minDuration, other.minDuration) && Objects.equals(maxDuration, other.maxDuration)
+            && Objects.equals(minRating, other.minRating) && Objects.equals(maxRating, other.maxRating);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, id, genre, genres, yearFrom, yearTo, minDuration, maxDuration, minRating, maxRating);
+    }
+
+    @Override
+    public String toString() {
+        return "name: " + name + ", id: " + id + ", genre: " + genre + ", genres: " + genres
+            + ", year: " + yearFrom + ".." + yearTo + ", duration: " + minDuration + ".." + maxDuration
+            + ", rating: " + minRating + ".." + maxRating;
+    }
+}
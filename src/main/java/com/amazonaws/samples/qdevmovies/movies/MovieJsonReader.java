@@ -0,0 +1,330 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.json.JSONException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * Streaming reader for the movies JSON format: a top-level array of movie objects.
+ * <p>
+ * The input is tokenized through a fixed-size character buffer and each movie is built
+ * as soon as its object closes, so memory use does not depend on the size of the file.
+ * Unknown fields are skipped. Malformed input and missing or mistyped fields are reported
+ * as {@link JSONException}, matching how the {@code org.json} DOM reports them.
+ */
+final class MovieJsonReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int ID = 1;
+    private static final int MOVIE_NAME = 1 << 1;
+    private static final int DIRECTOR = 1 << 2;
+    private static final int YEAR = 1 << 3;
+    private static final int GENRE = 1 << 4;
+    private static final int DESCRIPTION = 1 << 5;
+    private static final int DURATION = 1 << 6;
+    private static final int IMDB_RATING = 1 << 7;
+    private static final int ALL_FIELDS = (1 << 8) - 1;
+    private static final String[] FIELD_NAMES = {
+        "id", "movieName", "director", "year", "genre", "description", "duration", "imdbRating"
+    };
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder token = new StringBuilder(64);
+    private int position;
+    private int limit;
+    private long consumed;
+    private boolean started;
+    private boolean pending;
+    private boolean finished;
+
+    MovieJsonReader(InputStream inputStream) {
+        this.reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return true if another movie object follows in the array
+     */
+    boolean hasNext() throws IOException {
+        if (pending) {
+            return true;
+        }
+        if (finished) {
+            return false;
+        }
+        int c = nextNonWhitespace();
+        if (!started) {
+            if (c != '[') {
+                throw syntaxError("A JSONArray text must start with '['");
+            }
+            started = true;
+            c = nextNonWhitespace();
+            if (c == ']') {
+                return finish();
+            }
+        } else if (c == ',') {
+            c = nextNonWhitespace();
+        } else if (c == ']') {
+            return finish();
+        } else {
+            throw syntaxError("Expected a ',' or ']'");
+        }
+        if (c != '{') {
+            throw syntaxError("A JSONObject text must begin with '{'");
+        }
+        position--;
+        pending = true;
+        return true;
+    }
+
+    Movie next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more movies in the array");
+        }
+        pending = false;
+        return readMovie();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean finish() throws IOException {
+        finished = true;
+        if (nextNonWhitespace() != -1) {
+            throw syntaxError("Unexpected content after the end of the movies array");
+        }
+        return false;
+    }
+
+    private Movie readMovie() throws IOException {
+        nextNonWhitespace(); // '{'
+        long id = 0;
+        String movieName = null;
+        String director = null;
+        int year = 0;
+        String genre = null;
+        String description = null;
+        int duration = 0;
+        double imdbRating = 0.0;
+        int seen = 0;
+
+        int c = nextNonWhitespace();
+        if (c != '}') {
+            while (true) {
+                if (c != '"') {
+                    throw syntaxError("A JSONObject text must have a string key");
+                }
+                String key = readString();
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected a ':' after a key");
+                }
+                switch (key) {
+                    case "id": id = readLong(key); seen |= ID; break;
+                    case "movieName": movieName = readStringValue(key); seen |= MOVIE_NAME; break;
+                    case "director": director = readStringValue(key); seen |= DIRECTOR; break;
+                    case "year": year = (int) readLong(key); seen |= YEAR; break;
+                    case "genre": genre = readStringValue(key); seen |= GENRE; break;
+                    case "description": description = readStringValue(key); seen |= DESCRIPTION; break;
+                    case "duration": duration = (int) readLong(key); seen |= DURATION; break;
+                    case "imdbRating": imdbRating = readDouble(key); seen |= IMDB_RATING; break;
+                    default: skipValue(); break;
+                }
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    break;
+                }
+                if (c != ',') {
+                    throw syntaxError("Expected a ',' or '}'");
+                }
+                c = nextNonWhitespace();
+            }
+        }
+        if (seen != ALL_FIELDS) {
+            int missing = Integer.numberOfTrailingZeros(~seen & ALL_FIELDS);
+            throw new JSONException("JSONObject[\"" + FIELD_NAMES[missing] + "\"] not found.");
+        }
+        return new Movie(id, movieName, director, year, genre, description, duration, imdbRating);
+    }
+
+    private String readStringValue(String key) throws IOException {
+        if (nextNonWhitespace() != '"') {
+            throw new JSONException("JSONObject[\"" + key + "\"] is not a string.");
+        }
+        return readString();
+    }
+
+    private long readLong(String key) throws IOException {
+        String text = readNumberText(key);
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            // fractional or exponent forms, which JSONObject.getLong truncates
+            return (long) parseDouble(key, text);
+        }
+    }
+
+    private double readDouble(String key) throws IOException {
+        return parseDouble(key, readNumberText(key));
+    }
+
+    private static double parseDouble(String key, String text) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw new JSONException("JSONObject[\"" + key + "\"] is not a number.", e);
+        }
+    }
+
+    /**
+     * Reads a number, or a string holding a number, the same values {@code JSONObject.getDouble} accepts.
+     */
+    private String readNumberText(String key) throws IOException {
+        int c = nextNonWhitespace();
+        String text;
+        if (c == '"') {
+            text = readString();
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            token.setLength(0);
+            token.append((char) c);
+            while ((c = peek()) != -1 && (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9'))) {
+                token.append((char) c);
+                position++;
+            }
+            text = token.toString();
+        } else {
+            throw new JSONException("JSONObject[\"" + key + "\"] is not a number.");
+        }
+        return text.trim();
+    }
+
+    /**
+     * Reads the rest of a string whose opening quote has been consumed.
+     */
+    private String readString() throws IOException {
+        token.setLength(0);
+        while (true) {
+            int c = read();
+            switch (c) {
+                case -1:
+                case '\n':
+                case '\r':
+                    throw syntaxError("Unterminated string");
+                case '"':
+                    return token.toString();
+                case '\\':
+                    readEscape();
+                    break;
+                default:
+                    token.append((char) c);
+            }
+        }
+    }
+
+    private void readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case 'b': token.append('\b'); break;
+            case 't': token.append('\t'); break;
+            case 'n': token.append('\n'); break;
+            case 'f': token.append('\f'); break;
+            case 'r': token.append('\r'); break;
+            case 'u':
+                int code = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw syntaxError("Illegal escape.");
+                    }
+                    code = (code << 4) | digit;
+                }
+                token.append((char) code);
+                break;
+            case '"':
+            case '\'':
+            case '\\':
+            case '/':
+                token.append((char) c);
+                break;
+            default:
+                throw syntaxError("Illegal escape.");
+        }
+    }
+
+    private void skipValue() throws IOException {
+        int c = nextNonWhitespace();
+        if (c == '"') {
+            readString();
+            return;
+        }
+        if (c == '{' || c == '[') {
+            int depth = 1;
+            while (depth > 0) {
+                c = nextNonWhitespace();
+                if (c == -1) {
+                    throw syntaxError("Unterminated nested value");
+                } else if (c == '"') {
+                    readString();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            }
+            return;
+        }
+        if (c == -1 || c == ',' || c == '}' || c == ']' || c == ':') {
+            throw syntaxError("Missing value");
+        }
+        // bare literal: number, true, false or null
+        while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && !Character.isWhitespace(c)) {
+            position++;
+        }
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        consumed += limit;
+        position = 0;
+        limit = 0;
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at " + (consumed + position));
+    }
+}
@@ -0,0 +1,36 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+/**
+ * A movie found by fuzzy search, with how closely it matched the query.
+ * The score runs from 0 to 1, where 1 means every query word appears exactly in the matched field.
+ */
+public class MovieMatch {
+
+    public static final String TITLE = "title";
+    public static final String DIRECTOR = "director";
+
+    private final Movie movie;
+    private final double score;
+    private final String matchedField;
+
+    public MovieMatch(Movie movie, double score, String matchedField) {
+        this.movie = movie;
+        this.score = score;
+        this.matchedField = matchedField;
+    }
+
+    public Movie getMovie() {
+        return this.movie;
+    }
+
+    public double getScore() {
+        return this.score;
+    }
+
+    /**
+     * @return {@link #TITLE} or {@link #DIRECTOR}, whichever scored higher
+     */
+    public String getMatchedField() {
+        return this.matchedField;
+    }
+}
@@ -0,0 +1,53 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.List;
+
+/**
+ * One bounded page of movies in catalog order.
+ * {@link #getNextCursor()} is an opaque keyset cursor for the following page, or null on the last page.
+ */
+public class MoviePage {
+
+    private final List<Movie> movies;
+    private final int page;
+    private final int size;
+    private final String nextCursor;
+
+    public MoviePage(List<Movie> movies, int page, int size, String nextCursor) {
+        this.movies = movies;
+        this.page = page;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a page from a slice fetched with one extra element, which only signals that more results exist.
+     */
+    static MoviePage fromSlice(List<Movie> slice, int page, int size) {
+        if (slice.size() <= size) {
+            return new MoviePage(slice, page, size, null);
+        }
+        List<Movie> movies = slice.subList(0, size);
+        return new MoviePage(movies, page, size, PageCursor.after(movies.get(size - 1).getId()));
+    }
+
+    public List<Movie> getMovies() {
+        return this.movies;
+    }
+
+    public int getPage() {
+        return this.page;
+    }
+
+    public int getSize() {
+        return this.size;
+    }
+
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    public boolean isLastPage() {
+        return this.nextCursor == null;
+    }
+}
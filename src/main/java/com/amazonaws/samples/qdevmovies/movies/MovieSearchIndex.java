@@ -0,0 +1,503 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.LongIntHashIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Immutable search index over a movie catalog, built once when movies are loaded.
+ * <p>
+ * Titles are lower-cased up front and every distinct character trigram maps to a sorted
+ * postings list of catalog positions in a {@link TrigramIndex}. A partial name query is answered from the shortest
+ * postings list of its trigrams and only those candidates are checked with {@code contains},
+ * so the cost depends on how selective the query is rather than on catalog size. Genres map
+ * to bitsets, ids resolve through the catalog's id index, and all criteria are combined with AND semantics.
+ * Results are returned in catalog order, exactly as a linear scan would produce them.
+ * The same trigrams back the ranked, typo-tolerant {@link FuzzyMovieIndex}, and a
+ * {@link FacetIndex} adds genre component, year, duration and rating filters with facet counts.
+ * Title and director prefixes complete from a {@link CompletionIndex} per field.
+ * <p>
+ * A memory-mapped catalog opens before its index exists, so {@link #unindexed(MovieCatalog)}
+ * answers the same queries by scanning the mapped columns until a full index has been built.
+ * <p>
+ * Unbounded searches that still come down to a long scan can be split across a
+ * {@link ParallelSearch} pool; bounded slices stay sequential because they stop at the first
+ * {@code skip + limit} matches.
+ */
+final class MovieSearchIndex {
+
+    // completion lookups borrow rank arrays from this many slots, chosen by thread id
+    private static final int RANK_SLOTS = 64;
+
+    private final MovieCatalog catalog;
+    private final String[] normalizedTitles;
+    private final TrigramIndex titleGrams;
+    private final Map<String, BitSet> genres;
+    private final FuzzyMovieIndex fuzzyIndex;
+    private final CompletionIndex titleCompletions;
+    private final CompletionIndex directorCompletions;
+    private volatile FacetIndex facetIndex;
+    // per slot, a title and a director rank array of MAX_LIMIT, or null while borrowed
+    private final AtomicReferenceArray<int[][]> rankScratch = new AtomicReferenceArray<>(RANK_SLOTS);
+
+    MovieSearchIndex(List<Movie> movies) {
+        this(ColumnarCatalog.of(movies));
+    }
+
+    /**
+     * Builds the index over the catalog's columns; id lookups reuse the catalog's own id index.
+     */
+    MovieSearchIndex(MovieCatalog catalog) {
+        this.catalog = catalog;
+        int size = catalog.size();
+        this.normalizedTitles = new String[size];
+        this.genres = new HashMap<>();
+
+        String[] genreKeys = catalog.genreDictionary();
+        BitSet[] genreBits = new BitSet[genreKeys.length];
+        for (int code = 0; code < genreKeys.length; code++) {
+            // genres differing only in case share one bitset
+            genreBits[code] = genres.computeIfAbsent(genreKeys[code].toLowerCase(), key -> new BitSet(size));
+        }
+
+        for (int position = 0; position < size; position++) {
+            normalizedTitles[position] = catalog.nameAt(position).toLowerCase();
+            genreBits[catalog.genreCodeAt(position)].set(position);
+        }
+        this.titleGrams = new TrigramIndex(normalizedTitles);
+        this.fuzzyIndex = new FuzzyMovieIndex(catalog, normalizedTitles, titleGrams);
+        this.titleCompletions = CompletionIndex.titles(catalog, normalizedTitles);
+        this.directorCompletions = CompletionIndex.directors(catalog);
+        this.facetIndex = new FacetIndex(catalog);
+    }
+
+    private MovieSearchIndex(MovieCatalog catalog, String[] normalizedTitles, TrigramIndex titleGrams,
+                             Map<String, BitSet> genres, FuzzyMovieIndex fuzzyIndex,
+                             CompletionIndex titleCompletions, CompletionIndex directorCompletions,
+                             FacetIndex facetIndex) {
+        this.catalog = catalog;
+        this.normalizedTitles = normalizedTitles;
+        this.titleGrams = titleGrams;
+        this.genres = genres;
+        this.fuzzyIndex = fuzzyIndex;
+        this.titleCompletions = titleCompletions;
+        this.directorCompletions = directorCompletions;
+        this.facetIndex = facetIndex;
+    }
+
+    /**
+     * @return a search over the catalog without trigram postings or genre bitsets; it costs
+     * nothing to create and answers every query by scanning the catalog columns, except
+     * fuzzy queries and completions, which find nothing until the full index is built, and faceted queries,
+     * which build the facet bitmaps on first use
+     */
+    static MovieSearchIndex unindexed(MovieCatalog catalog) {
+        return new MovieSearchIndex(catalog, null, null, null, null, CompletionIndex.EMPTY, CompletionIndex.EMPTY, null);
+    }
+
+    /**
+     * @param name partial title, or null to match any title
+     * @param id exact movie id, or null to match any id
+     * @param genre exact genre, or null to match any genre
+     * @return matching movies in catalog order
+     */
+    List<Movie> search(String name, Long id, String genre) {
+        return search(name, id, genre, ParallelSearch.SEQUENTIAL);
+    }
+
+    /**
+     * @param parallel pool for scans long enough to split
+     * @return matching movies in catalog order
+     */
+    List<Movie> search(String name, Long id, String genre, ParallelSearch parallel) {
+        String searchName = normalize(name);
+        String searchGenre = normalize(genre);
+        if (searchName == null && id == null && searchGenre == null) {
+            return new ArrayList<>(catalog.asList());
+        }
+        Slice slice = new Slice(0, Integer.MAX_VALUE);
+        visitMatches(searchName, id, searchGenre, 0, slice, parallel);
+        return slice.results;
+    }
+
+    /**
+     * @param parallel pool for scans long enough to split
+     * @return catalog positions of the matching movies in ascending order, for
+     * {@link #moviesAt(int[])}; every position when no criterion is given
+     */
+    int[] positions(String name, Long id, String genre, ParallelSearch parallel) {
+        String searchName = normalize(name);
+        String searchGenre = normalize(genre);
+        if (searchName == null && id == null && searchGenre == null) {
+            int[] all = new int[catalog.size()];
+            Arrays.setAll(all, position -> position);
+            return all;
+        }
+        Positions positions = new Positions();
+        visitMatches(searchName, id, searchGenre, 0, positions, parallel);
+        return positions.toArray();
+    }
+
+    /**
+     * Returns a bounded slice of the matches, in catalog order. Work stops once
+     * {@code skip + limit} matches have been seen.
+     *
+     * @param fromPosition first catalog position to consider
+     * @param skip number of leading matches to skip
+     * @param limit maximum number of matches to return
+     */
+    List<Movie> search(String name, Long id, String genre, int fromPosition, int skip, int limit) {
+        String searchName = normalize(name);
+        String searchGenre = normalize(genre);
+        if (searchName == null && id == null && searchGenre == null) {
+            int from = (int) Math.min(catalog.size(), (long) fromPosition + skip);
+            int to = (int) Math.min(catalog.size(), (long) from + limit);
+            return new ArrayList<>(catalog.asList().subList(from, to));
+        }
+        Slice slice = new Slice(skip, limit);
+        visitMatches(searchName, id, searchGenre, fromPosition, slice, ParallelSearch.SEQUENTIAL);
+        return slice.results;
+    }
+
+    /**
+     * Narrows the name, id and genre matches by the filter's genre components and ranges,
+     * and counts every facet; see {@link FacetIndex}.
+     */
+    FacetIndex.Selection select(MovieFilter filter) {
+        return select(filter, ParallelSearch.SEQUENTIAL);
+    }
+
+    FacetIndex.Selection select(MovieFilter filter, ParallelSearch parallel) {
+        FacetIndex facets = facets();
+        return facets.select(baseMatches(facets, filter, parallel), filter);
+    }
+
+    /**
+     * @return a bitmap of the movies matching every criterion in the filter, or null when
+     * the filter matches every movie
+     */
+    long[] matches(MovieFilter filter) {
+        return matches(filter, ParallelSearch.SEQUENTIAL);
+    }
+
+    long[] matches(MovieFilter filter, ParallelSearch parallel) {
+        FacetIndex facets = facets();
+        long[] matches = facets.filter(baseMatches(facets, filter, parallel), filter);
+        return matches == facets.everyMovie() ? null : matches;
+    }
+
+    private long[] baseMatches(FacetIndex facets, MovieFilter filter, ParallelSearch parallel) {
+        String searchName = normalize(filter.getName());
+        String searchGenre = normalize(filter.getGenre());
+        if (searchName == null && filter.getId() == null && searchGenre == null) {
+            return facets.everyMovie();
+        }
+        long[] matches = new long[FacetIndex.words(catalog.size())];
+        visitMatches(searchName, filter.getId(), searchGenre, 0, position -> {
+            matches[position >>> 6] |= 1L << position;
+            return true;
+        }, parallel);
+        return matches;
+    }
+
+    /**
+     * @return the movies at these catalog positions, in the given order
+     */
+    List<Movie> moviesAt(int[] positions) {
+        List<Movie> movies = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            movies.add(catalog.movieAt(position));
+        }
+        return movies;
+    }
+
+    /**
+     * Returns a bounded slice of the positions set in a bitmap, in catalog order.
+     */
+    List<Movie> slice(long[] bitmap, int fromPosition, int skip, int limit) {
+        Slice slice = new Slice(skip, limit);
+        int word = fromPosition >>> 6;
+        long bits = word < bitmap.length ? bitmap[word] & (-1L << fromPosition) : 0;
+        while (word < bitmap.length) {
+            if (bits == 0) {
+                if (++word < bitmap.length) {
+                    bits = bitmap[word];
+                }
+                continue;
+            }
+            int position = (word << 6) + Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+            if (!slice.visit(position)) {
+                break;
+            }
+        }
+        return slice.results;
+    }
+
+    /**
+     * @return the facet bitmaps, built on first use when this search is unindexed
+     */
+    FacetIndex facets() {
+        FacetIndex built = facetIndex;
+        if (built == null) {
+            synchronized (this) {
+                built = facetIndex;
+                if (built == null) {
+                    built = new FacetIndex(catalog);
+                    facetIndex = built;
+                }
+            }
+        }
+        return built;
+    }
+
+    /**
+     * Hands every match at or after {@code fromPosition} to the visitor in catalog order,
+     * using the most selective index available, until the visitor returns false. When that
+     * still leaves at least the parallel threshold of positions to check, they are checked
+     * on the parallel pool first and the matches handed over afterwards.
+     */
+    private void visitMatches(String searchName, Long id, String searchGenre, int fromPosition, MatchVisitor visitor,
+                              ParallelSearch parallel) {
+        BitSet genreMatches = null;
+        boolean[] genreCodes = null;
+        if (searchGenre != null && genres != null) {
+            genreMatches = genres.get(searchGenre);
+            if (genreMatches == null) {
+                return;
+            }
+        } else if (searchGenre != null) {
+            genreCodes = genreCodesMatching(searchGenre);
+            if (genreCodes == null) {
+                return;
+            }
+        }
+
+        if (id != null && catalog.hasUniqueIds()) {
+            int position = catalog.positionOf(id);
+            if (position >= fromPosition && matches(position, searchName, null, genreMatches, genreCodes)) {
+                visitor.visit(position);
+            }
+            return;
+        }
+
+        BitSet genreFilter = genreMatches;
+        if (searchName != null && searchName.length() >= TrigramIndex.GRAM_LENGTH && titleGrams != null) {
+            int[] candidates = titleGrams.shortestPostings(searchName);
+            int start = Arrays.binarySearch(candidates, fromPosition);
+            start = start >= 0 ? start : -start - 1;
+            if (parallel.splits(candidates.length - start)) {
+                visitAll(parallel.filter(candidates, start, candidates.length,
+                    position -> matches(position, searchName, id, genreFilter, null)), visitor);
+                return;
+            }
+            for (int i = start; i < candidates.length; i++) {
+                int position = candidates[i];
+                if (matches(position, searchName, id, genreMatches, null) && !visitor.visit(position)) {
+                    break;
+                }
+            }
+            return;
+        }
+
+        if (genreMatches != null) {
+            if ((searchName != null || id != null) && parallel.splits(genreMatches.cardinality())) {
+                // only the genre's movies are split across the pool, not the whole catalog
+                int[] candidates = genreMatches.stream().filter(position -> position >= fromPosition).toArray();
+                visitAll(parallel.filter(candidates, 0, candidates.length,
+                    position -> matches(position, searchName, id, null, null)), visitor);
+                return;
+            }
+            for (int position = genreMatches.nextSetBit(fromPosition); position >= 0; position = genreMatches.nextSetBit(position + 1)) {
+                if (matches(position, searchName, id, null, null) && !visitor.visit(position)) {
+                    break;
+                }
+            }
+            return;
+        }
+
+        // short name fragments have no trigram postings, duplicate ids cannot use the id index,
+        // and an unindexed catalog has neither postings nor genre bitsets
+        boolean[] codeFilter = genreCodes;
+        if (parallel.splits(catalog.size() - fromPosition)) {
+            visitAll(parallel.filter(null, fromPosition, catalog.size(),
+                position -> matches(position, searchName, id, null, codeFilter)), visitor);
+            return;
+        }
+        for (int position = fromPosition; position < catalog.size(); position++) {
+            if (matches(position, searchName, id, null, genreCodes) && !visitor.visit(position)) {
+                break;
+            }
+        }
+    }
+
+    private static void visitAll(int[] positions, MatchVisitor visitor) {
+        for (int position : positions) {
+            if (!visitor.visit(position)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Ranked, typo-tolerant search over titles and directors; see {@link FuzzyMovieIndex}.
+     *
+     * @return at most {@code limit} matches, best first
+     */
+    List<MovieMatch> fuzzySearch(String query, int limit) {
+        return fuzzyIndex != null ? fuzzyIndex.search(query, limit) : new ArrayList<>();
+    }
+
+    /**
+     * Titles and directors starting with the prefix, best rated first. At equal ratings titles
+     * come before directors.
+     *
+     * @param prefix lower-cased prefix
+     * @param field {@link MovieMatch#TITLE} or {@link MovieMatch#DIRECTOR} to complete only that field, or null for both
+     * @param limit maximum number of completions, at most {@link CompletionIndex#MAX_LIMIT}
+     */
+    List<MovieCompletion> complete(String prefix, String field, int limit) {
+        // pooled rather than thread-local: on virtual threads a thread-local lives for one request
+        int slot = (int) Thread.currentThread().getId() & (RANK_SLOTS - 1);
+        int[][] ranks = rankScratch.getAndSet(slot, null);
+        if (ranks == null) {
+            // another lookup holds this slot's arrays; only then does a lookup allocate its own
+            ranks = new int[][] {new int[CompletionIndex.MAX_LIMIT], new int[CompletionIndex.MAX_LIMIT]};
+        }
+        try {
+            return complete(prefix, field, limit, ranks[0], ranks[1]);
+        } finally {
+            rankScratch.set(slot, ranks);
+        }
+    }
+
+    private List<MovieCompletion> complete(String prefix, String field, int limit, int[] titleRanks, int[] directorRanks) {
+        int titleCount = MovieMatch.DIRECTOR.equals(field) ? 0 : titleCompletions.complete(prefix, limit, titleRanks);
+        int directorCount = MovieMatch.TITLE.equals(field) ? 0 : directorCompletions.complete(prefix, limit, directorRanks);
+        List<MovieCompletion> completions = new ArrayList<>(Math.min(limit, titleCount + directorCount));
+        int t = 0;
+        int d = 0;
+        while (completions.size() < limit && (t < titleCount || d < directorCount)) {
+            boolean title = d == directorCount
+                || (t < titleCount && titleCompletions.weightAt(titleRanks[t]) >= directorCompletions.weightAt(directorRanks[d]));
+            if (title) {
+                int position = titleCompletions.positionAt(titleRanks[t++]);
+                completions.add(new MovieCompletion(catalog.nameAt(position), MovieMatch.TITLE, catalog.idAt(position), catalog.ratingAt(position)));
+            } else {
+                int position = directorCompletions.positionAt(directorRanks[d++]);
+                completions.add(new MovieCompletion(catalog.directorAt(position), MovieMatch.DIRECTOR, catalog.idAt(position), catalog.ratingAt(position)));
+            }
+        }
+        return completions;
+    }
+
+    /**
+     * @return the catalog position of the movie with this id, or {@link LongIntHashIndex#NOT_FOUND}
+     */
+    int positionOf(long id) {
+        return catalog.positionOf(id);
+    }
+
+    private boolean matches(int position, String searchName, Long id, BitSet genreMatches, boolean[] genreCodes) {
+        if (genreMatches != null && !genreMatches.get(position)) {
+            return false;
+        }
+        if (genreCodes != null && !genreCodes[catalog.genreCodeAt(position)]) {
+            return false;
+        }
+        if (id != null && catalog.idAt(position) != id) {
+            return false;
+        }
+        if (searchName == null) {
+            return true;
+        }
+        String title = normalizedTitles != null ? normalizedTitles[position] : catalog.nameAt(position).toLowerCase();
+        return title.contains(searchName);
+    }
+
+    /**
+     * @return which genre codes equal the lower-cased genre ignoring case, or null if none does
+     */
+    private boolean[] genreCodesMatching(String searchGenre) {
+        String[] genreKeys = catalog.genreDictionary();
+        boolean[] matching = new boolean[genreKeys.length];
+        boolean any = false;
+        for (int code = 0; code < genreKeys.length; code++) {
+            matching[code] = genreKeys[code].toLowerCase().equals(searchGenre);
+            any |= matching[code];
+        }
+        return any ? matching : null;
+    }
+
+    /**
+     * @return the criterion trimmed and lower-cased as searches compare it, or null if it is blank
+     */
+    static String normalize(String criterion) {
+        return criterion != null && !criterion.trim().isEmpty() ? criterion.trim().toLowerCase() : null;
+    }
+
+    /**
+     * Receives matching catalog positions in ascending order.
+     */
+    private interface MatchVisitor {
+        /**
+         * @return false to stop the search
+         */
+        boolean visit(int position);
+    }
+
+    /**
+     * Collects every match into a growing primitive array.
+     */
+    private static final class Positions implements MatchVisitor {
+        private int[] positions = new int[16];
+        private int count;
+
+        @Override
+        public boolean visit(int position) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count++] = position;
+            return true;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(positions, count);
+        }
+    }
+
+    /**
+     * Collects matches after skipping a number of them, up to a limit. Skipped
+     * matches are only counted, never turned into movies.
+     */
+    private final class Slice implements MatchVisitor {
+        private final List<Movie> results = new ArrayList<>();
+        private int toSkip;
+        private final int limit;
+
+        Slice(int skip, int limit) {
+            this.toSkip = skip;
+            this.limit = limit;
+        }
+
+        /**
+         * @return false once the slice is full and the caller can stop looking
+         */
+        @Override
+        public boolean visit(int position) {
+            if (toSkip > 0) {
+                toSkip--;
+                return true;
+            }
+            results.add(catalog.movieAt(position));
+            return results.size() < limit;
+        }
+    }
+}
@@ -1,59 +1,291 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
+import com.amazonaws.samples.qdevmovies.utils.LongIntHashIndex;
 import org.json.JSONException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.InputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class MovieService {
     private static final Logger logger = LogManager.getLogger(MovieService.class);
-    private final List<Movie> movies;
-    private final Map<Long, Movie> movieMap;
+    public static final int DEFAULT_PAGE_SIZE = 24;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int DEFAULT_FUZZY_LIMIT = 10;
+    public static final int DEFAULT_COMPLETION_LIMIT = 8;
+    public static final int MAX_COMPLETION_LIMIT = CompletionIndex.MAX_LIMIT;
+    public static final int MAX_BATCH_SIZE = 100;
+    private static final long WATCH_SETTLE_MILLIS = 250;
+    private volatile CatalogState state;
+    private final CatalogMetrics metrics;
+    private final ReviewRepository reviews;
+    private final ParallelSearch parallelSearch;
+    private final SearchResultCache resultCache;
+    private final String snapshot;
+    private final String catalogFile;
+    private final boolean watchEnabled;
+    private final Object reloadLock = new Object();
+    private volatile WatchService watchService;
+    private volatile CatalogReload lastReload;
 
+    /**
+     * Creates a service over the bundled catalog.
+     */
     public MovieService() {
-        this.movies = loadMoviesFromJson();
-        this.movieMap = new HashMap<>();
-        for (Movie movie : movies) {
-            movieMap.put(movie.getId(), movie);
+        this(builder().reviews(new ReviewRepository()));
+    }
+
+    /**
+     * Creates a service over an already loaded catalog, in catalog order.
+     */
+    public MovieService(List<Movie> movies) {
+        this(builder().catalog(ColumnarCatalog.of(movies)));
+    }
+
+    /**
+     * Maps the catalog snapshot file when one is configured, reads the external catalog JSON
+     * file when that is configured instead, and otherwise loads the bundled catalog.
+     * Reviews supply the keys for sorting by review count and average review rating.
+     *
+     * @param parallelSearch pool that long scans of unbounded searches are split across
+     * @param resultCache cache of unbounded search results
+     * @param watchEnabled whether to reload the snapshot or catalog file whenever it changes on disk
+     */
+    @Autowired
+    MovieService(CatalogMetrics metrics, ReviewRepository reviews, ParallelSearch parallelSearch, SearchResultCache resultCache,
+                 @Value("${movies.catalog.snapshot:}") String snapshot,
+                 @Value("${movies.catalog.file:}") String catalogFile,
+                 @Value("${movies.catalog.watch:false}") boolean watchEnabled) {
+        this(timedLoad(metrics, snapshot, catalogFile), reviews, metrics, parallelSearch, resultCache, snapshot, catalogFile, watchEnabled);
+    }
+
+    private MovieService(Builder builder) {
+        this(builder.catalog != null ? builder.catalog : timedLoad(builder.metrics, builder.snapshot, builder.catalogFile),
+            builder.reviews, builder.metrics, builder.parallelSearch, builder.resultCache,
+            builder.snapshot, builder.catalogFile, builder.watchEnabled);
+    }
+
+    /**
+     * Creates a service over a columnar catalog. Movies are not kept as objects; every
+     * movie this service returns is a view built from the catalog columns.
+     * <p>
+     * A memory-mapped catalog is served as soon as it is opened: searches scan the mapped
+     * columns while the search index is built on a background thread, then switch to it.
+     *
+     * @param reviews source of review sort keys, or null to sort every movie as unreviewed
+     */
+    private MovieService(MovieCatalog catalog, ReviewRepository reviews, CatalogMetrics metrics, ParallelSearch parallelSearch,
+                         SearchResultCache resultCache, String snapshot, String catalogFile, boolean watchEnabled) {
+        this.metrics = metrics;
+        this.reviews = reviews;
+        this.parallelSearch = parallelSearch;
+        this.resultCache = resultCache;
+        this.snapshot = trimToNull(snapshot);
+        this.catalogFile = trimToNull(catalogFile);
+        this.watchEnabled = watchEnabled;
+        this.state = CatalogState.serving(catalog);
+        resultCache.useCatalogVersion(state.version);
+        metrics.bindCatalog(this);
+        metrics.bindSearchCache(resultCache);
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    /**
+     * Re-reads the configured catalog source (the snapshot, the catalog file, or the bundled
+     * catalog when neither is set) and swaps it in.
+     * <p>
+     * The new catalog and all of its indexes, including every sort order already in use, are
+     * built on the calling thread while requests keep being served from the current catalog.
+     * The new catalog is then published with a single volatile write. Requests never wait for
+     * a reload, and a request that started before the swap finishes against the catalog it
+     * started with. Concurrent reloads run one after the other.
+     *
+     * @return what was loaded and how long it took
+     * @throws MovieDataLoadException if the source cannot be read; the current catalog is kept
+     */
+    public CatalogReload reloadCatalog() {
+        synchronized (reloadLock) {
+            long start = System.nanoTime();
+            MovieCatalog loaded;
+            try {
+                loaded = loadCatalog(snapshot, catalogFile);
+            } catch (MovieDataLoadException e) {
+                logger.warn("Keeping previously loaded catalog after failed reload: {}", e.getMessage());
+                throw e;
+            }
+            return publish(loaded, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Indexes the loaded catalog and makes it current, unless it equals the current one.
+     */
+    CatalogReload publish(MovieCatalog loaded, long loadNanos) {
+        synchronized (reloadLock) {
+            CatalogState previous = state;
+            long loadMillis = loadNanos / 1_000_000;
+            if (loaded.version() == previous.version) {
+                logger.info("Catalog source unchanged ({} movies), keeping the current catalog", loaded.size());
+                return new CatalogReload(false, previous.catalog.size(), previous.catalog.size(), previous.version, loadMillis, 0);
+            }
+            long indexStart = System.nanoTime();
+            CatalogState next = CatalogState.indexed(loaded);
+            for (MovieSort sort : previous.sortIndex.builtSorts()) {
+                next.sortIndex.order(sort, reviews);
+            }
+            long indexNanos = System.nanoTime() - indexStart;
+            state = next;
+            resultCache.useCatalogVersion(next.version);
+            metrics.recordReload(loadNanos + indexNanos);
+            logger.info("Reloaded catalog with {} movies (was {}): read in {} ms, indexed in {} ms",
+                loaded.size(), previous.catalog.size(), loadMillis, indexNanos / 1_000_000);
+            lastReload = new CatalogReload(true, loaded.size(), previous.catalog.size(), next.version, loadMillis, indexNanos / 1_000_000);
+            return lastReload;
         }
     }
 
-    private List<Movie> loadMoviesFromJson() {
-        List<Movie> movieList = new ArrayList<>();
+    /**
+     * @return the most recent reload that published a new catalog, or null if the startup catalog is still current
+     */
+    public CatalogReload getLastReload() {
+        return lastReload;
+    }
+
+    @PostConstruct
+    public void startWatching() {
+        if (!watchEnabled) {
+            return;
+        }
+        String source = snapshot != null ? snapshot : catalogFile;
+        if (source == null) {
+            logger.warn("Catalog file watch requested but neither movies.catalog.snapshot nor movies.catalog.file is set; watch disabled");
+            return;
+        }
+        Path watched = Paths.get(source).toAbsolutePath();
         try {
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream("movies.json");
-            if (inputStream != null) {
-                Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8.name());
-                String jsonContent = scanner.useDelimiter("\\A").next();
-                scanner.close();
-                
-                JSONArray moviesArray = new JSONArray(jsonContent);
-                for (int i = 0; i < moviesArray.length(); i++) {
-                    JSONObject movieObj = moviesArray.getJSONObject(i);
-                    movieList.add(new Movie(
-                        movieObj.getLong("id"),
-                        movieObj.getString("movieName"),
-                        movieObj.getString("director"),
-                        movieObj.getInt("year"),
-                        movieObj.getString("genre"),
-                        movieObj.getString("description"),
-                        movieObj.getInt("duration"),
-                        movieObj.getDouble("imdbRating")
-                    ));
+            WatchService service = FileSystems.getDefault().newWatchService();
+            watched.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            this.watchService = service;
+        } catch (IOException e) {
+            logger.error("Failed to watch catalog file {}: {}", watched, e.getMessage(), e);
+            return;
+        }
+        Thread watcher = new Thread(() -> watchLoop(watched.getFileName()), "catalog-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        logger.info("Watching {} for catalog changes", watched);
+    }
+
+    @PreDestroy
+    public void stopWatching() {
+        WatchService service = this.watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close catalog file watcher: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void watchLoop(Path fileName) {
+        try {
+            while (true) {
+                boolean changed = changed(watchService.take(), fileName);
+                // a file written in place raises several events; reload once it has been quiet for a moment
+                WatchKey next;
+                while ((next = watchService.poll(WATCH_SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= changed(next, fileName);
+                }
+                if (changed) {
+                    try {
+                        reloadCatalog();
+                    } catch (RuntimeException e) {
+                        logger.error("Catalog reload after file change failed: {}", e.getMessage(), e);
+                    }
                 }
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("Catalog file watcher closed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean changed(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    private static MovieCatalog timedLoad(CatalogMetrics metrics, String snapshot, String catalogFile) {
+        long start = System.nanoTime();
+        MovieCatalog loaded = loadCatalog(trimToNull(snapshot), trimToNull(catalogFile));
+        metrics.recordLoad(System.nanoTime() - start);
+        return loaded;
+    }
+
+    private static MovieCatalog loadCatalog(String snapshot, String catalogFile) {
+        if (snapshot != null) {
+            return openSnapshot(Paths.get(snapshot));
+        }
+        return loadCatalogFromJson(catalogFile != null ? Paths.get(catalogFile) : null);
+    }
+
+    private static MovieCatalog openSnapshot(Path snapshot) {
+        try {
+            MappedCatalog catalog = CatalogSnapshot.open(snapshot);
+            logger.info("Mapped {} movies from catalog snapshot {}", catalog.size(), snapshot);
+            return catalog;
+        } catch (IOException e) {
+            logger.error("Failed to map catalog snapshot {}: {}", snapshot, e.getMessage(), e);
+            throw new MovieDataLoadException("Unable to read movie catalog snapshot " + snapshot, e);
+        }
+    }
+
+    /**
+     * Streams movies out of the catalog JSON file one object at a time straight into catalog
+     * columns, so peak memory stays independent of the catalog file size.
+     *
+     * @param file external movies JSON file, or null for the bundled movies.json
+     */
+    private static ColumnarCatalog loadCatalogFromJson(Path file) {
+        ColumnarCatalog catalog = ColumnarCatalog.EMPTY;
+        try (InputStream inputStream = file != null
+                ? Files.newInputStream(file)
+                : MovieService.class.getClassLoader().getResourceAsStream("movies.json")) {
+            if (inputStream != null) {
+                catalog = readCatalog(inputStream);
             } else {
                 logger.warn("Movies JSON file not found in resources");
             }
@@ -67,24 +299,128 @@ public class MovieService {
             logger.error("Unexpected error loading movies from JSON: {}", e.getMessage(), e);
             throw new MovieDataLoadException("Unexpected error occurred while loading movie data", e);
         }
-        return movieList;
+        return catalog;
+    }
+
+    /**
+     * Reads a movies JSON array from the stream into a columnar catalog, one movie object at a time.
+     * @throws org.json.JSONException if the content is malformed or a movie is missing a field
+     */
+    static ColumnarCatalog readCatalog(InputStream inputStream) throws IOException {
+        ColumnarCatalog.Builder builder = new ColumnarCatalog.Builder(0);
+        try (MovieJsonReader reader = new MovieJsonReader(inputStream)) {
+            while (reader.hasNext()) {
+                builder.add(reader.next());
+            }
+        }
+        return builder.build();
     }
 
+    /**
+     * @return a hash of the catalog contents; it changes whenever any movie field changes,
+     * so it can key caches and HTTP validators
+     */
+    public long getCatalogVersion() {
+        return state.version;
+    }
+
+    /**
+     * @return an unmodifiable view of the catalog in load order; each element is built on access
+     */
     public List<Movie> getAllMovies() {
-        return movies;
+        return state.catalog.asList();
+    }
+
+    /**
+     * Returns one page of the catalog without copying the whole movie list.
+     * When a cursor is given the page starts right after the movie it names and {@code page} is ignored.
+     *
+     * @param page zero-based page number
+     * @param size number of movies per page, between 1 and {@link #MAX_PAGE_SIZE}
+     * @param cursor keyset cursor from a previous {@link MoviePage}, or null
+     * @throws IllegalArgumentException if the page, size or cursor is invalid
+     */
+    public MoviePage getMoviesPage(int page, int size, String cursor) {
+        return searchMoviesPage(null, null, null, page, size, cursor);
+    }
+
+    /**
+     * @param sort order of the listing, or null for load order
+     * @return an unmodifiable view of the whole catalog in that order; each element is built on access
+     * @throws IllegalArgumentException never for a parsed {@link MovieSort}
+     */
+    public List<Movie> getAllMovies(MovieSort sort) {
+        if (sort == null) {
+            return getAllMovies();
+        }
+        CatalogState current = state;
+        return current.catalog.asList(current.sortIndex.order(sort, reviews));
+    }
+
+    /**
+     * Sorted variant of {@link #getMoviesPage(int, int, String)}. The page is read straight off a
+     * pre-sorted permutation of the catalog, and a cursor resumes right after its movie's rank.
+     * Cursors are only meaningful with the sort they were issued for.
+     *
+     * @param sort order of the listing, or null for load order
+     * @throws IllegalArgumentException if the page, size or cursor is invalid
+     */
+    public MoviePage getMoviesPage(int page, int size, String cursor, MovieSort sort) {
+        if (sort == null) {
+            return getMoviesPage(page, size, cursor);
+        }
+        validatePaging(page, size);
+        long start = System.nanoTime();
+        CatalogState current = state;
+        MoviePage result = sortedPage(current, current.searchIndex, null, current.catalog.size(), sort, page, size, cursor);
+        metrics.recordSearchPage(System.nanoTime() - start, result.getMovies().size());
+        return result;
     }
 
     public Optional<Movie> getMovieById(Long id) {
         if (id == null || id <= 0) {
             return Optional.empty();
         }
-        return Optional.ofNullable(movieMap.get(id));
+        long start = System.nanoTime();
+        MovieCatalog catalog = state.catalog;
+        int position = catalog.positionOf(id);
+        Movie movie = position == LongIntHashIndex.NOT_FOUND ? null : catalog.movieAt(position);
+        metrics.recordLookup(System.nanoTime() - start, movie != null);
+        return Optional.ofNullable(movie);
+    }
+
+    /**
+     * Looks up many movies in one pass over a single catalog version, so the results are
+     * consistent with each other even if the catalog is reloaded meanwhile.
+     *
+     * @param ids movie ids, at most {@link #MAX_BATCH_SIZE}; repeated ids are looked up again
+     * @return one entry per requested id, in request order, null where no movie has that id
+     * @throws IllegalArgumentException if ids is null or longer than {@link #MAX_BATCH_SIZE}
+     */
+    public List<Movie> getMoviesByIds(long[] ids) {
+        validateBatch(ids);
+        long start = System.nanoTime();
+        MovieCatalog catalog = state.catalog;
+        Movie[] movies = new Movie[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            int position = ids[i] <= 0 ? LongIntHashIndex.NOT_FOUND : catalog.positionOf(ids[i]);
+            if (position != LongIntHashIndex.NOT_FOUND) {
+                movies[i] = catalog.movieAt(position);
+            }
+        }
+        metrics.recordBatchLookup(System.nanoTime() - start, ids.length);
+        return Collections.unmodifiableList(Arrays.asList(movies));
     }
 
     /**
      * Search for movies based on provided criteria.
      * Supports filtering by name (partial, case-insensitive), id (exact), and genre (exact, case-insensitive).
      * Multiple parameters are combined with AND logic.
+     * Queries are answered from a {@link MovieSearchIndex} built when the movies are loaded.
+     * Queries the index cannot narrow, such as one- or two-letter name fragments, are scanned
+     * on the {@link ParallelSearch} pool once the scan is long enough to be worth splitting.
+     * Matching positions are kept in a {@link SearchResultCache} until the catalog changes, so a
+     * repeated query only builds its movies, and concurrent identical queries search only once.
      * 
      * @param name Movie name to search for (partial match, case-insensitive)
      * @param id Movie ID to search for (exact match)
@@ -102,40 +438,415 @@ public class MovieService {
                 throw new IllegalArgumentException("Movie ID must be a positive number, but got: " + id);
             }
             
-            List<Movie> results = new ArrayList<>(movies);
+            long start = System.nanoTime();
+            CatalogState current = state;
+            MovieSearchIndex index = current.searchIndex;
+            SearchResultCache.Key key = resultCache.keyFor(name, id, genre, current.version);
+            List<Movie> results = key == null
+                ? index.search(name, id, genre, parallelSearch)
+                : index.moviesAt(resultCache.get(key, () -> index.positions(name, id, genre, parallelSearch)));
+            metrics.recordSearch(System.nanoTime() - start, results.size());
             
-            // Filter by name (partial, case-insensitive)
-            if (name != null && !name.trim().isEmpty()) {
-                String searchName = name.trim().toLowerCase();
-                results = results.stream()
-                        .filter(movie -> movie.getMovieName().toLowerCase().contains(searchName))
-                        .collect(ArrayList::new, (list, movie) -> list.add(movie), (list1, list2) -> list1.addAll(list2));
-            }
+            logger.info("Search completed. Found {} movies matching criteria", results.size());
+            return results;
             
-            // Filter by ID (exact match)
-            if (id != null && id > 0) {
-                results = results.stream()
-                        .filter(movie -> movie.getId() == id)
-                        .collect(ArrayList::new, (list, movie) -> list.add(movie), (list1, list2) -> list1.addAll(list2));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid search parameters: {}", e.getMessage());
+            throw e; // Re-throw to be handled by controller
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error during movie search: {}", e.getMessage(), e);
+            throw new MovieSearchException("Failed to search movies due to unexpected error", e);
+        }
+    }
+
+    /**
+     * Sorted variant of {@link #searchMovies(String, Long, String)}. Matches are collected as a
+     * bitmap and read off a pre-sorted permutation, or ranked in a bounded heap when they are
+     * few, so no request sorts the matches themselves.
+     *
+     * @param sort order of the results, or null for load order
+     * @throws IllegalArgumentException if search parameters are invalid
+     * @throws MovieSearchException if search operation fails
+     */
+    public List<Movie> searchMovies(String name, Long id, String genre, MovieSort sort) {
+        if (sort == null) {
+            return searchMovies(name, id, genre);
+        }
+        logger.info("Searching movies with criteria - name: {}, id: {}, genre: {}, sort: {}", name, id, genre, sort);
+
+        try {
+            if (id != null && id <= 0) {
+                throw new IllegalArgumentException("Movie ID must be a positive number, but got: " + id);
             }
-            
-            // Filter by genre (exact, case-insensitive)
-            if (genre != null && !genre.trim().isEmpty()) {
-                String searchGenre = genre.trim().toLowerCase();
-                results = results.stream()
-                        .filter(movie -> movie.getGenre().toLowerCase().equals(searchGenre))
-                        .collect(ArrayList::new, (list, movie) -> list.add(movie), (list1, list2) -> list1.addAll(list2));
+            MovieFilter filter = new MovieFilter();
+            filter.setName(name);
+            filter.setId(id);
+            filter.setGenre(genre);
+
+            long start = System.nanoTime();
+            CatalogState current = state;
+            SortOrder order = current.sortIndex.order(sort, reviews);
+            MovieSearchIndex index = current.searchIndex;
+            long[] matches = index.matches(filter, parallelSearch);
+            List<Movie> results;
+            if (matches == null) {
+                results = current.catalog.asList(order);
+            } else {
+                int matchCount = FacetIndex.cardinality(matches);
+                results = index.moviesAt(order.select(matches, matchCount, -1, 0, matchCount));
             }
-            
+            metrics.recordSearch(System.nanoTime() - start, results.size());
             logger.info("Search completed. Found {} movies matching criteria", results.size());
             return results;
-            
+
         } catch (IllegalArgumentException e) {
             logger.warn("Invalid search parameters: {}", e.getMessage());
-            throw e; // Re-throw to be handled by controller
+            throw e;
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error during movie search: {}", e.getMessage(), e);
+            throw new MovieSearchException("Failed to search movies due to unexpected error", e);
+        }
+    }
+
+    /**
+     * Ranked, typo-tolerant search over titles and directors. Unlike {@link #searchMovies(String, Long, String)}
+     * it tolerates misspelled words, returns the closest matches first with a similarity score,
+     * and always answers from a bounded amount of index work, whatever the catalog size.
+     *
+     * @param query free text to match against titles and directors
+     * @param limit maximum number of matches, between 1 and {@link #MAX_PAGE_SIZE}
+     * @return the best matches, highest score first
+     * @throws IllegalArgumentException if the query is empty or the limit is out of range
+     * @throws MovieSearchException if search operation fails
+     */
+    public List<MovieMatch> searchMoviesFuzzy(String query, int limit) {
+        logger.info("Fuzzy searching movies with query: {}, limit: {}", query, limit);
+
+        try {
+            if (query == null || query.trim().isEmpty()) {
+                throw new IllegalArgumentException("Search text must not be empty");
+            }
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + ", but got: " + limit);
+            }
+
+            long start = System.nanoTime();
+            List<MovieMatch> matches = state.searchIndex.fuzzySearch(query, limit);
+            metrics.recordFuzzySearch(System.nanoTime() - start, matches.size());
+            logger.info("Fuzzy search completed. Found {} matches", matches.size());
+            return matches;
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid search parameters: {}", e.getMessage());
+            throw e;
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error during fuzzy movie search: {}", e.getMessage(), e);
+            throw new MovieSearchException("Failed to search movies due to unexpected error", e);
+        }
+    }
+
+    /**
+     * Search-as-you-type completions: the best rated distinct titles and directors that start
+     * with the prefix, ignoring case. Each lookup costs the same whatever the catalog size or
+     * the number of values sharing the prefix; see {@link CompletionIndex}.
+     *
+     * @param prefix typed text; leading whitespace is ignored, trailing whitespace is kept
+     * @param field {@code title} or {@code director} to complete only that field, or null for both
+     * @param limit maximum number of completions, between 1 and {@link #MAX_COMPLETION_LIMIT}
+     * @return the completions, highest rated first
+     * @throws IllegalArgumentException if the prefix is empty, or the field or limit is invalid
+     * @throws MovieSearchException if the lookup fails
+     */
+    public List<MovieCompletion> completeMovies(String prefix, String field, int limit) {
+        logger.debug("Completing movies with prefix: {}, field: {}, limit: {}", prefix, field, limit);
+
+        try {
+            String completed = prefix == null ? "" : stripLeading(prefix).toLowerCase();
+            if (completed.isEmpty()) {
+                throw new IllegalArgumentException("Prefix must not be empty");
+            }
+            if (field != null && !field.equals(MovieMatch.TITLE) && !field.equals(MovieMatch.DIRECTOR)) {
+                throw new IllegalArgumentException("Field must be " + MovieMatch.TITLE + " or " + MovieMatch.DIRECTOR + ", but got: " + field);
+            }
+            if (limit < 1 || limit > MAX_COMPLETION_LIMIT) {
+                throw new IllegalArgumentException("Limit must be between 1 and " + MAX_COMPLETION_LIMIT + ", but got: " + limit);
+            }
+
+            long start = System.nanoTime();
+            List<MovieCompletion> completions = state.searchIndex.complete(completed, field, limit);
+            metrics.recordCompletion(System.nanoTime() - start, completions.size());
+            return completions;
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid completion parameters: {}", e.getMessage());
+            throw e;
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error during movie completion: {}", e.getMessage(), e);
+            throw new MovieSearchException("Failed to complete movies due to unexpected error", e);
+        }
+    }
+
+    private static String stripLeading(String text) {
+        int start = 0;
+        while (start < text.length() && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        return text.substring(start);
+    }
+
+    /**
+     * Paged variant of {@link #searchMovies(String, Long, String)}. Only the requested page is
+     * materialized, and the search stops as soon as the page is full.
+     *
+     * @param page zero-based page number
+     * @param size number of movies per page, between 1 and {@link #MAX_PAGE_SIZE}
+     * @param cursor keyset cursor from a previous {@link MoviePage}, or null
+     * @throws IllegalArgumentException if search or paging parameters are invalid
+     * @throws MovieSearchException if search operation fails
+     */
+    public MoviePage searchMoviesPage(String name, Long id, String genre, int page, int size, String cursor) {
+        logger.info("Searching movies page with criteria - name: {}, id: {}, genre: {}, page: {}, size: {}, cursor: {}",
+            name, id, genre, page, size, cursor);
+
+        try {
+            if (id != null && id <= 0) {
+                throw new IllegalArgumentException("Movie ID must be a positive number, but got: " + id);
+            }
+            validatePaging(page, size);
+
+            MovieSearchIndex index = state.searchIndex;
+            int fromPosition = lastPositionOf(index, cursor) + 1;
+            long skip = fromPosition > 0 ? 0 : (long) page * size;
+
+            long start = System.nanoTime();
+            List<Movie> slice = index.search(name, id, genre, fromPosition, (int) Math.min(skip, Integer.MAX_VALUE), size + 1);
+            MoviePage result = MoviePage.fromSlice(slice, page, size);
+            metrics.recordSearchPage(System.nanoTime() - start, result.getMovies().size());
+            logger.info("Search page completed. Returning {} movies", result.getMovies().size());
+            return result;
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid search parameters: {}", e.getMessage());
+            throw e;
         } catch (RuntimeException e) {
             logger.error("Unexpected error during movie search: {}", e.getMessage(), e);
             throw new MovieSearchException("Failed to search movies due to unexpected error", e);
         }
     }
+
+    /**
+     * Faceted variant of {@link #searchMoviesPage(String, Long, String, int, int, String)}. Besides
+     * the plain criteria it filters by genre component and by year, duration and rating ranges,
+     * and returns the total number of matches with genre, decade, duration and rating facet counts.
+     * Everything is computed from bitmaps built when the catalog is indexed.
+     *
+     * @param filter search criteria; null matches every movie
+     * @param page zero-based page number
+     * @param size number of movies per page, between 1 and {@link #MAX_PAGE_SIZE}
+     * @param cursor keyset cursor from a previous {@link MoviePage}, or null
+     * @throws IllegalArgumentException if search, range or paging parameters are invalid
+     * @throws MovieSearchException if search operation fails
+     */
+    public FacetedSearchResult searchMoviesFaceted(MovieFilter filter, int page, int size, String cursor) {
+        return searchMoviesFaceted(filter, null, page, size, cursor);
+    }
+
+    /**
+     * Sorted variant of {@link #searchMoviesFaceted(MovieFilter, int, int, String)}; the page
+     * is taken from a pre-sorted permutation or a bounded heap, never a full sort.
+     *
+     * @param sort order of the page, or null for load order
+     */
+    public FacetedSearchResult searchMoviesFaceted(MovieFilter filter, MovieSort sort, int page, int size, String cursor) {
+        MovieFilter criteria = filter != null ? filter : new MovieFilter();
+        logger.info("Faceted search with criteria - {}, sort: {}, page: {}, size: {}, cursor: {}", criteria, sort, page, size, cursor);
+
+        try {
+            validateFilter(criteria);
+            validatePaging(page, size);
+
+            long start = System.nanoTime();
+            CatalogState current = state;
+            MovieSearchIndex index = current.searchIndex;
+            FacetIndex.Selection selection = index.select(criteria, parallelSearch);
+            MoviePage moviePage;
+            if (sort != null) {
+                long[] matches = selection.total == current.catalog.size() ? null : selection.matches;
+                moviePage = sortedPage(current, index, matches, selection.total, sort, page, size, cursor);
+            } else {
+                int fromPosition = lastPositionOf(index, cursor) + 1;
+                long skip = fromPosition > 0 ? 0 : (long) page * size;
+                List<Movie> slice = index.slice(selection.matches, fromPosition, (int) Math.min(skip, Integer.MAX_VALUE), size + 1);
+                moviePage = MoviePage.fromSlice(slice, page, size);
+            }
+            FacetedSearchResult result = new FacetedSearchResult(moviePage, selection.total, selection.facets);
+            metrics.recordFacetedSearch(System.nanoTime() - start, result.getPage().getMovies().size());
+            logger.info("Faceted search completed. {} movies match, returning {}", selection.total, result.getPage().getMovies().size());
+            return result;
+
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid search parameters: {}", e.getMessage());
+            throw e;
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error during faceted movie search: {}", e.getMessage(), e);
+            throw new MovieSearchException("Failed to search movies due to unexpected error", e);
+        }
+    }
+
+    /**
+     * @return facet counts for the movies matching the filter, as in
+     * {@link #searchMoviesFaceted(MovieFilter, int, int, String)}, without fetching a page; the
+     * counts for no filter are computed once per catalog
+     */
+    public Map<String, List<FacetCount>> getFacetCounts(MovieFilter filter) {
+        if (filter != null) {
+            return searchMoviesFaceted(filter, 0, 1, null).getFacets();
+        }
+        CatalogState current = state;
+        Map<String, List<FacetCount>> facets = current.unfilteredFacets;
+        if (facets == null) {
+            // racing first requests may each compute the counts; they are equal, so the last write wins
+            facets = Collections.unmodifiableMap(current.searchIndex.select(new MovieFilter(), parallelSearch).facets);
+            current.unfilteredFacets = facets;
+            logger.debug("Computed facet counts for catalog version {}", current.version);
+        }
+        return facets;
+    }
+
+    /**
+     * @return the distinct genres in the catalog, sorted, for building search forms
+     */
+    public List<String> getGenres() {
+        return state.genres;
+    }
+
+    private static void validateFilter(MovieFilter filter) {
+        if (filter.getId() != null && filter.getId() <= 0) {
+            throw new IllegalArgumentException("Movie ID must be a positive number, but got: " + filter.getId());
+        }
+        validateRange("Year", filter.getYearFrom(), filter.getYearTo());
+        validateRange("Duration", filter.getMinDuration(), filter.getMaxDuration());
+        validateRange("Rating", filter.getMinRating(), filter.getMaxRating());
+    }
+
+    private static <T extends Comparable<T>> void validateRange(String field, T from, T to) {
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            throw new IllegalArgumentException(field + " range must not end before it starts, but got: " + from + " to " + to);
+        }
+    }
+
+    static void validateBatch(long[] ids) {
+        if (ids == null) {
+            throw new IllegalArgumentException("Movie ids must not be null");
+        }
+        if (ids.length > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " movie ids can be requested at once, but got: " + ids.length);
+        }
+    }
+
+    private static void validatePaging(int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative, but got: " + page);
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ", but got: " + size);
+        }
+    }
+
+    /**
+     * @return the catalog position of the movie the cursor names, or -1 without a cursor
+     */
+    private static int lastPositionOf(MovieSearchIndex index, String cursor) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return -1;
+        }
+        long lastMovieId = PageCursor.lastMovieId(cursor);
+        int lastPosition = index.positionOf(lastMovieId);
+        if (lastPosition < 0) {
+            throw new IllegalArgumentException("Page cursor refers to a movie that is no longer in the catalog");
+        }
+        return lastPosition;
+    }
+
+    /**
+     * Reads one page of matches off the sort order, resuming after the cursor's rank when one is given.
+     *
+     * @param matches bitmap of matching positions, or null when every movie matches
+     */
+    private MoviePage sortedPage(CatalogState current, MovieSearchIndex index, long[] matches, int matchCount,
+                                 MovieSort sort, int page, int size, String cursor) {
+        SortOrder order = current.sortIndex.order(sort, reviews);
+        int lastPosition = lastPositionOf(index, cursor);
+        int afterRank = lastPosition < 0 ? -1 : order.rankOf(lastPosition);
+        long skip = lastPosition < 0 ? (long) page * size : 0;
+        int[] positions = order.select(matches, matchCount, afterRank, (int) Math.min(skip, Integer.MAX_VALUE - size - 1), size + 1);
+        return MoviePage.fromSlice(index.moviesAt(positions), page, size);
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Assembles a service outside Spring, for tests, benchmarks and tools. Left out, searches run
+     * sequentially and uncached, nothing is watched or measured and every movie sorts as
+     * unreviewed; without a catalog the snapshot, the catalog file or the bundled catalog is loaded.
+     */
+    static final class Builder {
+        private MovieCatalog catalog;
+        private ReviewRepository reviews;
+        private CatalogMetrics metrics = CatalogMetrics.NOOP;
+        private ParallelSearch parallelSearch = ParallelSearch.SEQUENTIAL;
+        private SearchResultCache resultCache = SearchResultCache.DISABLED;
+        private String snapshot = "";
+        private String catalogFile = "";
+        private boolean watchEnabled;
+
+        private Builder() {
+        }
+
+        Builder catalog(MovieCatalog catalog) {
+            this.catalog = catalog;
+            return this;
+        }
+
+        Builder reviews(ReviewRepository reviews) {
+            this.reviews = reviews;
+            return this;
+        }
+
+        Builder metrics(CatalogMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        Builder parallelSearch(ParallelSearch parallelSearch) {
+            this.parallelSearch = parallelSearch;
+            return this;
+        }
+
+        Builder resultCache(SearchResultCache resultCache) {
+            this.resultCache = resultCache;
+            return this;
+        }
+
+        Builder snapshot(String snapshot) {
+            this.snapshot = snapshot;
+            return this;
+        }
+
+        Builder catalogFile(String catalogFile) {
+            this.catalogFile = catalogFile;
+            return this;
+        }
+
+        Builder watch(boolean watchEnabled) {
+            this.watchEnabled = watchEnabled;
+            return this;
+        }
+
+        MovieService build() {
+            return new MovieService(this);
+        }
+    }
 }
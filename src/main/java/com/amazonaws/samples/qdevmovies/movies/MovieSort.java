@@ -0,0 +1,116 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Locale;
+
+/**
+ * Sort order for listings and searches, parsed from a {@code field[,asc|desc]} request parameter.
+ * Without a direction, {@code name} sorts ascending and every other field descending, so
+ * {@code sort=rating} lists the highest rated movies first. Movies with equal keys keep
+ * catalog order in either direction.
+ */
+public final class MovieSort {
+
+    public enum Field {
+        RATING("rating"),
+        YEAR("year"),
+        DURATION("duration"),
+        NAME("name"),
+        REVIEW_COUNT("reviews"),
+        REVIEW_RATING("reviewRating"),
+        REVIEW_SCORE("reviewScore");
+
+        private final String parameter;
+
+        Field(String parameter) {
+            this.parameter = parameter;
+        }
+
+        public String getParameter() {
+            return this.parameter;
+        }
+
+        /**
+         * @return true if the order depends on the loaded reviews rather than the catalog alone
+         */
+        boolean usesReviews() {
+            return this == REVIEW_COUNT || this == REVIEW_RATING || this == REVIEW_SCORE;
+        }
+    }
+
+    private final Field field;
+    private final boolean descending;
+
+    public MovieSort(Field field, boolean descending) {
+        this.field = field;
+        this.descending = descending;
+    }
+
+    /**
+     * @param sort e.g. {@code rating}, {@code year,asc} or {@code name,desc}; null or blank for catalog order
+     * @return the parsed order, or null for catalog order
+     * @throws IllegalArgumentException if the field or direction is unknown
+     */
+    public static MovieSort parse(String sort) {
+        if (sort == null || sort.trim().isEmpty()) {
+            return null;
+        }
+        String[] parts = sort.trim().split(",", -1);
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Sort must look like field or field,asc|desc, but got: " + sort);
+        }
+        Field field = null;
+        for (Field candidate : Field.values()) {
+            if (candidate.parameter.equalsIgnoreCase(parts[0].trim())) {
+                field = candidate;
+            }
+        }
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown sort field: " + parts[0].trim()
+                + ". Use rating, year, duration, name, reviews, reviewRating or reviewScore");
+        }
+        if (parts.length == 1) {
+            return new MovieSort(field, field != Field.NAME);
+        }
+        String direction = parts[1].trim().toLowerCase(Locale.ROOT);
+        if (!direction.equals("asc") && !direction.equals("desc")) {
+            throw new IllegalArgumentException("Sort direction must be asc or desc, but got: " + parts[1].trim());
+        }
+        return new MovieSort(field, direction.equals("desc"));
+    }
+
+    public Field getField() {
+        return this.field;
+    }
+
+    public boolean isDescending() {
+        return this.descending;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MovieSort other = (MovieSort) o;
+        return field == other.field && descending == other.descending;
+    }
+
+    /**
+     * Stable across restarts, unlike an enum's identity hash, because API ETags are derived from it.
+     */
+    @Override
+    public int hashCode() {
+        return field.ordinal() * 2 + (descending ? 1 : 0);
+    }
+
+    /**
+     * @return the request parameter form, e.g. {@code rating,desc}
+     */
+    @Override
+    public String toString() {
+        return field.parameter + (descending ? ",desc" : ",asc");
+    }
+}
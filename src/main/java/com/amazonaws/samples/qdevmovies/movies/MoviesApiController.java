@@ -0,0 +1,346 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.EtagUtils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JSON API over the movie catalog.
+ * <p>
+ * Every movie in a listing or search result carries its {@link ReviewSummary}: review count,
+ * mean rating and star histogram, all precomputed, so attaching them is one hash lookup per movie.
+ * <p>
+ * Result lists are written to the response one movie at a time, as a JSON array or, when the
+ * client accepts {@code application/x-ndjson}, as newline-delimited JSON. Every response carries
+ * a weak ETag derived from the catalog and review versions plus the request parameters, so a client
+ * repeating a request with {@code If-None-Match} gets a 304 without any serialization work. The tag
+ * is weak because the same content may be sent gzip-compressed, and Tomcat does not compress
+ * responses carrying a strong ETag.
+ */
+@RestController
+@RequestMapping("/api/movies")
+public class MoviesApiController {
+    private static final Logger logger = LogManager.getLogger(MoviesApiController.class);
+
+    static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int FLUSH_EVERY = 256;
+    private static final String REVIEWS_FULL = "full";
+    private static final String REVIEWS_SUMMARY = "summary";
+    private static final String REVIEWS_NONE = "none";
+
+    @Autowired
+    private MovieService movieService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Streams the whole catalog, or returns a single page when any of page, size or cursor is given.
+     * Either is ordered by {@code sort} (e.g. {@code rating,desc}) when present, else by catalog order.
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> getMovies(
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        MovieSort movieSort = MovieSort.parse(sort);
+        boolean paged = page != null || size != null || cursor != null;
+        boolean ndjson = !paged && acceptsNdjson(accept);
+        String etag = etag("movies", page, size, cursor, movieSort, ndjson);
+        if (EtagUtils.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        if (paged) {
+            MoviePage moviePage = movieService.getMoviesPage(
+                page != null ? page : 0, size != null ? size : MovieService.DEFAULT_PAGE_SIZE, cursor, movieSort);
+            StreamingResponseBody body = outputStream -> writeValue(withReviewSummaries(moviePage), outputStream);
+            return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+        List<Movie> movies = movieService.getAllMovies(movieSort);
+        logger.info("Streaming {} movies as {}", movies.size(), ndjson ? "NDJSON" : "JSON");
+        return streamMovies(movies, ndjson, etag);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<StreamingResponseBody> searchMovies(
+            @RequestParam(value = "name", required = false) String name,
+            @RequestParam(value = "id", required = false) Long id,
+            @RequestParam(value = "genre", required = false) String genre,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        MovieSort movieSort = MovieSort.parse(sort);
+        boolean ndjson = acceptsNdjson(accept);
+        String etag = etag("search", name, id, genre, movieSort, ndjson);
+        if (EtagUtils.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        return streamMovies(movieService.searchMovies(name, id, genre, movieSort), ndjson, etag);
+    }
+
+    /**
+     * Ranked fuzzy search over titles and directors, returning scored matches best first.
+     */
+    @GetMapping("/search/fuzzy")
+    public ResponseEntity<StreamingResponseBody> searchMoviesFuzzy(
+            @RequestParam(value = "q", required = false) String query,
+            @RequestParam(value = "limit", defaultValue = "" + MovieService.DEFAULT_FUZZY_LIMIT) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = etag("fuzzy", query, limit);
+        if (EtagUtils.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        List<MovieMatch> matches = new ArrayList<>();
+        for (MovieMatch match : movieService.searchMoviesFuzzy(query, limit)) {
+            matches.add(new MovieMatch(withReviewSummary(match.getMovie()), match.getScore(), match.getMatchedField()));
+        }
+        StreamingResponseBody body = outputStream -> writeValue(matches, outputStream);
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Search-as-you-type completions, e.g. {@code ?prefix=the h&limit=8}: the best rated titles
+     * and directors starting with the prefix, optionally only one {@code field}.
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<MovieCompletion>> autocomplete(
+            @RequestParam(value = "prefix", required = false) String prefix,
+            @RequestParam(value = "field", required = false) String field,
+            @RequestParam(value = "limit", defaultValue = "" + MovieService.DEFAULT_COMPLETION_LIMIT) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = etag("complete", prefix, field, limit);
+        if (EtagUtils.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        List<MovieCompletion> completions = movieService.completeMovies(prefix, field, limit);
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(completions);
+    }
+
+    /**
+     * One page of a filtered search with the total match count and genre, year, duration and rating facet counts.
+     * Filters bind from {@link MovieFilter} properties, e.g. {@code ?genres=Drama&genres=Crime&yearFrom=1990&minRating=4.5},
+     * and the page follows {@code sort} when given.
+     */
+    @GetMapping("/search/faceted")
+    public ResponseEntity<StreamingResponseBody> searchMoviesFaceted(
+            MovieFilter filter,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "" + MovieService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        MovieSort movieSort = MovieSort.parse(sort);
+        String etag = etag("faceted", filter, page, size, cursor, movieSort);
+        if (EtagUtils.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        FacetedSearchResult found = movieService.searchMoviesFaceted(filter, movieSort, page, size, cursor);
+        FacetedSearchResult result = new FacetedSearchResult(withReviewSummaries(found.getPage()), found.getTotalMatches(), found.getFacets());
+        StreamingResponseBody body = outputStream -> writeValue(result, outputStream);
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Looks up to {@link MovieService#MAX_BATCH_SIZE} movies at once, e.g. {@code ?ids=1,5,9&reviews=summary},
+     * replacing one details request per movie. Results follow the order of {@code ids}, and ids
+     * that match no movie come back as entries with {@code found=false} and in {@code missingIds}.
+     * {@code reviews} is {@code full} (the default) for reviews and summaries, {@code summary}
+     * for summaries only, or {@code none}.
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> getMoviesBatch(
+            @RequestParam("ids") long[] ids,
+            @RequestParam(value = "reviews", defaultValue = REVIEWS_FULL) String reviews,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String mode = reviews.trim().toLowerCase();
+        if (!mode.equals(REVIEWS_FULL) && !mode.equals(REVIEWS_SUMMARY) && !mode.equals(REVIEWS_NONE)) {
+            throw new IllegalArgumentException("Reviews must be one of full, summary or none, but got: " + reviews);
+        }
+        String etag = etag("batch", Arrays.hashCode(ids), mode);
+        if (EtagUtils.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        List<Movie> movies = movieService.getMoviesByIds(ids);
+        List<ReviewSummary> summaries = mode.equals(REVIEWS_NONE) ? null : reviewService.getReviewSummaries(ids);
+        List<List<Review>> movieReviews = mode.equals(REVIEWS_FULL) ? reviewService.getReviewsForMovies(ids) : null;
+        List<MovieBatchEntry> entries = new ArrayList<>(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            Movie movie = movies.get(i);
+            entries.add(new MovieBatchEntry(ids[i], movie,
+                movie != null && summaries != null ? summaries.get(i) : null,
+                movie != null && movieReviews != null ? movieReviews.get(i) : null));
+        }
+        MovieBatch batch = new MovieBatch(entries);
+        logger.info("Batch lookup of {} ids found {}", ids.length, batch.getFoundCount());
+        StreamingResponseBody body = outputStream -> writeValue(batch, outputStream);
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getMovie(
+            @PathVariable("id") Long movieId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = etag("movie", movieId);
+        if (EtagUtils.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        Optional<Movie> movieOpt = movieService.getMovieById(movieId);
+        if (!movieOpt.isPresent()) {
+            logger.warn("Movie with ID {} not found", movieId);
+            return error(HttpStatus.NOT_FOUND, "Movie with ID " + movieId + " was not found.");
+        }
+        Movie movie = movieOpt.get();
+        MovieDetails details = new MovieDetails(movie,
+            reviewService.getReviewsForMovie(movie.getId()), reviewService.getReviewStats(movie.getId()));
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(details);
+    }
+
+    /**
+     * Adds a review to the movie and answers once it is durable, with the movie's updated review statistics.
+     */
+    @PostMapping("/{id}/reviews")
+    public ResponseEntity<?> addReview(@PathVariable("id") Long movieId, @RequestBody ReviewSubmission submission) {
+        if (!movieService.getMovieById(movieId).isPresent()) {
+            logger.warn("Review submitted for unknown movie ID {}", movieId);
+            return error(HttpStatus.NOT_FOUND, "Movie with ID " + movieId + " was not found.");
+        }
+        ReviewStats stats = reviewService.addReview(movieId, submission == null ? null : submission.toReview());
+        return ResponseEntity.created(URI.create("/api/movies/" + movieId))
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(stats);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidParameters(IllegalArgumentException e) {
+        logger.warn("Invalid API request parameters: {}", e.getMessage());
+        return error(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+
+    @ExceptionHandler(MovieSearchException.class)
+    public ResponseEntity<Map<String, Object>> handleSearchFailure(MovieSearchException e) {
+        logger.error("Movie search operation failed: {}", e.getMessage(), e);
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+
+    @ExceptionHandler(ReviewSubmissionException.class)
+    public ResponseEntity<Map<String, Object>> handleSubmissionFailure(ReviewSubmissionException e) {
+        logger.error("Review submission failed: {}", e.getMessage(), e);
+        return error(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamMovies(List<Movie> movies, boolean ndjson, String etag) {
+        StreamingResponseBody body = outputStream -> writeMovies(movies, ndjson, outputStream);
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .contentType(ndjson ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+
+    /**
+     * Serializes movies one by one straight to the response, flushing periodically so the
+     * client starts receiving data before the last movie is written.
+     */
+    void writeMovies(List<Movie> movies, boolean ndjson, OutputStream outputStream) throws IOException {
+        // the mapper flushes after every value by default, which would send one chunk per movie
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            int written = 0;
+            for (Movie movie : movies) {
+                writer.writeValue(generator, withReviewSummary(movie));
+                if (ndjson) {
+                    generator.writeRaw('\n');
+                }
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    private Movie withReviewSummary(Movie movie) {
+        return movie.withReviewSummary(reviewService.getReviewSummary(movie.getId()));
+    }
+
+    private MoviePage withReviewSummaries(MoviePage page) {
+        List<Movie> movies = new ArrayList<>(page.getMovies().size());
+        for (Movie movie : page.getMovies()) {
+            movies.add(withReviewSummary(movie));
+        }
+        return new MoviePage(movies, page.getPage(), page.getSize(), page.getNextCursor());
+    }
+
+    private void writeValue(Object value, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            objectMapper.writeValue(generator, value);
+        }
+    }
+
+    private String etag(Object... parts) {
+        long hash = movieService.getCatalogVersion() * 31 + reviewService.getReviewsVersion();
+        for (Object part : parts) {
+            hash = hash * 31 + (part != null ? part.hashCode() : 0);
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    private static boolean acceptsNdjson(String accept) {
+        return accept != null && accept.contains(APPLICATION_NDJSON.toString());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -1,15 +1,19 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
-import com.amazonaws.samples.qdevmovies.utils.MovieIconUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Controller
@@ -23,38 +27,101 @@ public class MoviesController {
     private ReviewService reviewService;
 
     @GetMapping("/movies")
-    public String getMovies(org.springframework.ui.Model model) {
-        logger.info("Fetching movies");
-        model.addAttribute("movies", movieService.getAllMovies());
-        return "movies";
+    public String getMovies(
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "" + MovieService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "sort", required = false) String sort,
+            org.springframework.ui.Model model) {
+        logger.info("Fetching movies - page: {}, size: {}, cursor: {}, sort: {}", page, size, cursor, sort);
+        try {
+            MovieSort movieSort = MovieSort.parse(sort);
+            MoviePage moviePage = movieService.getMoviesPage(page, size, cursor, movieSort);
+            model.addAttribute("movies", moviePage.getMovies());
+            model.addAttribute("moviePage", moviePage);
+            model.addAttribute("searchSort", movieSort != null ? movieSort.toString() : null);
+            addFacets(model, new MovieFilter(), movieService.getFacetCounts(null));
+            return "movies";
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid paging parameters provided: {}", e.getMessage());
+            return error(model, "Arrr! Invalid Page",
+                "Blimey! " + e.getMessage() + " Start again from the first page, matey!");
+        }
     }
 
+    /**
+     * Searches by name, id and genre, optionally narrowed by the genre component and range
+     * facets in {@code facetFilter}, and renders the matching facet counts alongside the results.
+     * A {@code sort} such as {@code rating,desc} orders the results instead of catalog order.
+     */
     @GetMapping("/movies/search")
     public String searchMovies(
             @RequestParam(value = "name", required = false) String name,
             @RequestParam(value = "id", required = false) Long id,
             @RequestParam(value = "genre", required = false) String genre,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "" + MovieService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "sort", required = false) String sort,
+            @ModelAttribute("facetFilter") MovieFilter facetFilter,
             org.springframework.ui.Model model) {
         
-        logger.info("Ahoy! Searching for treasure with criteria - name: {}, id: {}, genre: {}", name, id, genre);
+        logger.info("Ahoy! Searching for treasure with criteria - name: {}, id: {}, genre: {}, sort: {}", name, id, genre, sort);
         
+        if (id != null && id <= 0) {
+            logger.warn("Invalid movie id in search: {}", id);
+            return error(model, "Arrr! Invalid Search Parameters",
+                "Blimey! That ID be not a valid treasure map number! Check yer search criteria, matey!");
+        }
         try {
-            List<Movie> searchResults = movieService.searchMovies(name, id, genre);
+            MovieSort movieSort = MovieSort.parse(sort);
+            MovieFilter filter = facetFilter != null ? facetFilter : new MovieFilter();
+            filter.setName(name);
+            filter.setId(id);
+            filter.setGenre(genre);
+            // one pass yields both the page and the facet counts of the same matches
+            FacetedSearchResult result = movieService.searchMoviesFaceted(filter, movieSort, page, size, cursor);
+            MoviePage moviePage = result.getPage();
+            addFacets(model, filter, result.getFacets());
+            List<Movie> searchResults = moviePage.getMovies();
             
             // Add search results and parameters to model
             model.addAttribute("movies", searchResults);
+            model.addAttribute("moviePage", moviePage);
             model.addAttribute("searchName", name);
             model.addAttribute("searchId", id);
             model.addAttribute("searchGenre", genre);
+            model.addAttribute("searchSort", movieSort != null ? movieSort.toString() : null);
             model.addAttribute("isSearchResult", true);
             
             // Add pirate-themed messages based on results
+            if (searchResults.isEmpty() && isFirstPage(page, cursor) && isNameOnly(name, id, genre) && !filter.hasFacetSelections()) {
+                // likely a misspelled title or director, so offer the closest matches instead of a dead end
+                List<MovieMatch> matches = movieService.searchMoviesFuzzy(name, size);
+                if (!matches.isEmpty()) {
+                    List<Movie> closest = new ArrayList<>();
+                    for (MovieMatch match : matches) {
+                        closest.add(match.getMovie());
+                    }
+                    model.addAttribute("movies", closest);
+                    model.addAttribute("moviePage", new MoviePage(closest, 0, size, null));
+                    model.addAttribute("searchMessage", String.format(
+                        "Arrr! No treasure be named exactly that, but here be the %d closest finds on the charts, matey!",
+                        closest.size()));
+                    logger.info("No exact matches, offering {} fuzzy matches", closest.size());
+                    return "movies";
+                }
+            }
             if (searchResults.isEmpty()) {
                 model.addAttribute("searchMessage", "Arrr! No treasure found matching yer search, matey! Try charting a different course.");
-            } else {
+            } else if (moviePage.isLastPage()) {
                 model.addAttribute("searchMessage", 
                     String.format("Ahoy! Found %d piece%s of cinematic treasure for ye, me hearty!", 
                         searchResults.size(), searchResults.size() == 1 ? "" : "s"));
+            } else {
+                model.addAttribute("searchMessage",
+                    String.format("Ahoy! Here be %d pieces of cinematic treasure, and more await on the next page, me hearty!",
+                        searchResults.size()));
             }
             
             logger.info("Search completed successfully. Found {} movies", searchResults.size());
@@ -62,19 +129,15 @@ public class MoviesController {
             
         } catch (IllegalArgumentException e) {
             logger.warn("Invalid search parameters provided: {}", e.getMessage());
-            model.addAttribute("title", "Arrr! Invalid Search Parameters");
-            model.addAttribute("message", "Blimey! " + e.getMessage() + " Check yer search criteria, matey!");
-            return "error";
+            return error(model, "Arrr! Invalid Search Parameters",
+                "Blimey! " + e.getMessage() + " Check yer search criteria, matey!");
         } catch (MovieSearchException e) {
             logger.error("Movie search operation failed: {}", e.getMessage(), e);
-            model.addAttribute("title", "Arrr! Search Failed");
-            model.addAttribute("message", "Blimey! " + e.getMessage() + " Try again, matey!");
-            return "error";
+            return error(model, "Arrr! Search Failed", "Blimey! " + e.getMessage() + " Try again, matey!");
         } catch (RuntimeException e) {
             logger.error("Unexpected error occurred during movie search: {}", e.getMessage(), e);
-            model.addAttribute("title", "Arrr! Unexpected Trouble");
-            model.addAttribute("message", "Blimey! Something unexpected went wrong while searching for yer treasure. The ship's crew be working on it, matey!");
-            return "error";
+            return error(model, "Arrr! Unexpected Trouble",
+                "Blimey! Something unexpected went wrong while searching for yer treasure. The ship's crew be working on it, matey!");
         }
     }
 
@@ -85,16 +148,46 @@ public class MoviesController {
         Optional<Movie> movieOpt = movieService.getMovieById(movieId);
         if (!movieOpt.isPresent()) {
             logger.warn("Movie with ID {} not found", movieId);
-            model.addAttribute("title", "Movie Not Found");
-            model.addAttribute("message", "Movie with ID " + movieId + " was not found.");
-            return "error";
+            return error(model, "Movie Not Found", "Movie with ID " + movieId + " was not found.");
         }
         
         Movie movie = movieOpt.get();
         model.addAttribute("movie", movie);
-        model.addAttribute("movieIcon", MovieIconUtils.getMovieIcon(movie.getMovieName()));
+        model.addAttribute("movieIcon", movie.getIcon());
         model.addAttribute("allReviews", reviewService.getReviewsForMovie(movie.getId()));
+        model.addAttribute("reviewStats", reviewService.getReviewStats(movie.getId()));
         
         return "movie-details";
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds what the search form and facet panel render: the genre choices and the facet counts.
+     */
+    private void addFacets(org.springframework.ui.Model model, MovieFilter filter, Map<String, List<FacetCount>> facets) {
+        model.addAttribute("facetFilter", filter);
+        model.addAttribute("facets", facets);
+        model.addAttribute("genreOptions", movieService.getGenres());
+    }
+
+    /**
+     * Renders the error view. It is marked so the {@link RenderedPageCacheFilter} does not store it:
+     * a failed search must run again on the next request rather than be served from the cache.
+     */
+    private static String error(org.springframework.ui.Model model, String title, String message) {
+        model.addAttribute("title", title);
+        model.addAttribute("message", message);
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(RenderedPageCacheFilter.UNCACHEABLE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+        return "error";
+    }
+
+    private static boolean isFirstPage(int page, String cursor) {
+        return page == 0 && (cursor == null || cursor.trim().isEmpty());
+    }
+
+    private static boolean isNameOnly(String name, Long id, String genre) {
+        return name != null && !name.trim().isEmpty() && id == null && (genre == null || genre.trim().isEmpty());
+    }
+}
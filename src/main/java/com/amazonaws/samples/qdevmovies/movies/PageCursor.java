@@ -0,0 +1,37 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor naming the last movie of a page.
+ * The next page resumes right after that movie's catalog position, so deep pages cost
+ * the same as the first one.
+ */
+final class PageCursor {
+
+    private static final String PREFIX = "after:";
+
+    private PageCursor() {
+    }
+
+    static String after(long movieId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((PREFIX + movieId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the id of the last movie on the previous page
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #after(long)}
+     */
+    static long lastMovieId(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("unknown cursor format");
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Page cursor is not valid: " + cursor, e);
+        }
+    }
+}
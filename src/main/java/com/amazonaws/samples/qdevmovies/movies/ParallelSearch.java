@@ -0,0 +1,151 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntPredicate;
+
+/**
+ * Fork/join execution for the searches no index narrows down: name fragments shorter than a
+ * trigram, titles whose rarest trigram is still common, and every query against a catalog whose
+ * index is not built yet.
+ * <p>
+ * The positions to check are cut into chunks of {@link #CHUNK} consecutive entries, so each
+ * task walks one contiguous slice of the title column or candidate list while it stays in
+ * cache. Each chunk evaluates the caller's fused predicate, every criterion in one pass, and
+ * collects its matches into its own primitive array. The chunks are then concatenated in
+ * order, so matches come back in catalog order exactly as a sequential scan finds them. Scans
+ * of fewer than {@code threshold} positions stay on the calling thread, where splitting them
+ * would cost more than it saves. Tasks run on a dedicated pool, never the common pool, so a
+ * burst of scans cannot starve unrelated parallel work.
+ */
+@Component
+class ParallelSearch {
+
+    /** Searches every catalog on the calling thread. */
+    static final ParallelSearch SEQUENTIAL = new ParallelSearch(1, Integer.MAX_VALUE);
+
+    /** Positions checked by one task: 16 KB of title references or candidate positions. */
+    static final int CHUNK = 4096;
+
+    private final int parallelism;
+    private final int threshold;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param threads worker threads, or 0 for one per available processor; 1 searches on the calling thread
+     * @param threshold fewest positions to check before a scan is split across the pool
+     */
+    @Autowired
+    ParallelSearch(@Value("${movies.search.parallel.threads:0}") int threads,
+                   @Value("${movies.search.parallel.threshold:65536}") int threshold) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Parallel search threshold must be positive, but got: " + threshold);
+        }
+        this.parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.threshold = threshold;
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism, ParallelSearch::newWorker, null, false) : null;
+    }
+
+    /**
+     * @return whether a scan of this many positions should be split across the pool
+     */
+    boolean splits(int positions) {
+        return pool != null && positions >= threshold;
+    }
+
+    /**
+     * @param candidates positions to check in ascending order, or null to check positions {@code from} to {@code to}
+     * @param from first index into candidates, or first position, to check
+     * @param to end of the range, exclusive
+     * @return the checked positions the predicate accepts, in ascending order
+     */
+    int[] filter(int[] candidates, int from, int to, IntPredicate matches) {
+        int chunks = (to - from + CHUNK - 1) / CHUNK;
+        int[][] found = new int[chunks][];
+        int[] counts = new int[chunks];
+        pool.invoke(new Chunks(candidates, from, to, matches, found, counts, 0, chunks));
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        int[] positions = new int[total];
+        int offset = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            System.arraycopy(found[chunk], 0, positions, offset, counts[chunk]);
+            offset += counts[chunk];
+        }
+        return positions;
+    }
+
+    int getParallelism() {
+        return pool != null ? parallelism : 1;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static ForkJoinWorkerThread newWorker(ForkJoinPool pool) {
+        ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        worker.setName("movie-search-" + worker.getPoolIndex());
+        worker.setDaemon(true);
+        return worker;
+    }
+
+    /**
+     * Scans chunks {@code firstChunk} to {@code endChunk}, halving the range until one chunk is left.
+     */
+    private static final class Chunks extends RecursiveAction {
+        private final int[] candidates;
+        private final int from;
+        private final int to;
+        private final IntPredicate matches;
+        private final int[][] found;
+        private final int[] counts;
+        private final int firstChunk;
+        private final int endChunk;
+
+        Chunks(int[] candidates, int from, int to, IntPredicate matches, int[][] found, int[] counts,
+               int firstChunk, int endChunk) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.matches = matches;
+            this.found = found;
+            this.counts = counts;
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (endChunk - firstChunk > 1) {
+                int middle = (firstChunk + endChunk) >>> 1;
+                invokeAll(new Chunks(candidates, from, to, matches, found, counts, firstChunk, middle),
+                    new Chunks(candidates, from, to, matches, found, counts, middle, endChunk));
+                return;
+            }
+            int start = from + firstChunk * CHUNK;
+            int end = Math.min(to, start + CHUNK);
+            int[] positions = new int[end - start];
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                int position = candidates != null ? candidates[i] : i;
+                if (matches.test(position)) {
+                    positions[count++] = position;
+                }
+            }
+            found[firstChunk] = positions;
+            counts[firstChunk] = count;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded LRU cache of rendered pages, weighed by their stored bytes.
+ * <p>
+ * Each entry records the data version it was rendered from. Looking up with a different
+ * version drops every entry, so a catalog or review change invalidates all pages at once
+ * without any background work.
+ */
+public class RenderedPageCache {
+
+    /**
+     * A rendered page stored both as-is and gzip-compressed.
+     */
+    public static final class Page {
+        private final String contentType;
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final String etag;
+
+        public Page(String contentType, byte[] body, byte[] gzipBody, String etag) {
+            this.contentType = contentType;
+            this.body = body;
+            this.gzipBody = gzipBody;
+            this.etag = etag;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public byte[] getGzipBody() {
+            return gzipBody;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        int weight() {
+            return body.length + gzipBody.length;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Page> pages = new LinkedHashMap<>(64, 0.75f, true);
+    private long version;
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RenderedPageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the cached page rendered from this data version, or null
+     */
+    public Page get(String key, long dataVersion) {
+        Page page;
+        synchronized (this) {
+            invalidateIfStale(dataVersion);
+            page = pages.get(key);
+        }
+        if (page != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return page;
+    }
+
+    /**
+     * Records a miss that was answered with the page another request rendered at the same time.
+     */
+    public void recordCoalesced() {
+        coalesced.increment();
+    }
+
+    public void put(String key, long dataVersion, Page page) {
+        if (page.weight() > maxBytes) {
+            return;
+        }
+        synchronized (this) {
+            invalidateIfStale(dataVersion);
+            Page previous = pages.put(key, page);
+            if (previous != null) {
+                totalBytes -= previous.weight();
+            }
+            totalBytes += page.weight();
+            Iterator<Map.Entry<String, Page>> eldest = pages.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().getValue().weight();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    private void invalidateIfStale(long dataVersion) {
+        if (dataVersion != version) {
+            pages.clear();
+            totalBytes = 0;
+            version = dataVersion;
+        }
+    }
+
+    public synchronized int size() {
+        return pages.size();
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,287 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.EtagUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the HTML catalog pages from a {@link RenderedPageCache}.
+ * <p>
+ * Pages only change when the movie or review data changes, so a page rendered once is stored
+ * as plain and gzip bytes under its path and query, with an ETag derived from the data version.
+ * Repeat hits are a map lookup and a byte copy, and conditional GETs are answered with 304
+ * before anything is looked up, since the ETag is known from the key and version alone.
+ * <p>
+ * Every data change invalidates every page, so a popular page is typically requested many
+ * times while its first render after a change is still running. Those misses are coalesced:
+ * the first renders the page while the rest wait for it and are served what it produced, the
+ * same status and bytes whether or not that was a cacheable page, so a render shed by the
+ * {@link AdmissionControlFilter} sheds its followers too. The filter runs ahead of the admission
+ * filter, so only the render takes an admission slot. Followers wait for the render as long as a
+ * request may take; if it fails or is still running by then, each renders the page itself.
+ */
+@Component
+@Order(AdmissionControlFilter.ORDER - 1)
+public class RenderedPageCacheFilter extends OncePerRequestFilter {
+    private static final Logger logger = LogManager.getLogger(RenderedPageCacheFilter.class);
+
+    /**
+     * Request attribute a controller sets when it renders a page that must not be cached, such
+     * as an error view rendered with status 200.
+     */
+    static final String UNCACHEABLE = RenderedPageCacheFilter.class.getName() + ".UNCACHEABLE";
+
+    private final MovieService movieService;
+    private final ReviewService reviewService;
+    private final RenderedPageCache cache;
+    private final boolean enabled;
+    private final long coalesceTimeoutMillis;
+    private final ConcurrentHashMap<String, CompletableFuture<Outcome>> rendering = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RenderedPageCacheFilter(MovieService movieService, ReviewService reviewService, CatalogMetrics metrics,
+                                   @Value("${movies.page-cache.enabled:true}") boolean enabled,
+                                   @Value("${movies.page-cache.max-bytes:16777216}") long maxBytes,
+                                   @Value("${movies.page-cache.coalesce-timeout-ms:30000}") long coalesceTimeoutMillis) {
+        this.movieService = movieService;
+        this.reviewService = reviewService;
+        this.enabled = enabled;
+        this.coalesceTimeoutMillis = coalesceTimeoutMillis;
+        this.cache = new RenderedPageCache(maxBytes);
+        metrics.bindPageCache(cache);
+    }
+
+    public RenderedPageCache getCache() {
+        return cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String path = pathOf(request);
+        return !(path.equals("/movies") || path.equals("/movies/search")
+            || (path.startsWith("/movies/") && path.endsWith("/details")));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long dataVersion = movieService.getCatalogVersion() * 31 + reviewService.getReviewsVersion();
+        String key = request.getQueryString() == null ? request.getRequestURI() : request.getRequestURI() + '?' + request.getQueryString();
+        String etag = "\"" + Long.toHexString(dataVersion) + '-' + Integer.toHexString(key.hashCode()) + "\"";
+
+        if (EtagUtils.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            return;
+        }
+
+        RenderedPageCache.Page page = cache.get(key, dataVersion);
+        if (page != null) {
+            write(page, request, response);
+            return;
+        }
+
+        String flightKey = Long.toHexString(dataVersion) + ' ' + key;
+        CompletableFuture<Outcome> flight = new CompletableFuture<>();
+        CompletableFuture<Outcome> leader = rendering.putIfAbsent(flightKey, flight);
+        if (leader != null) {
+            Outcome outcome = await(leader);
+            if (outcome != null) {
+                cache.recordCoalesced();
+                replay(outcome, request, response);
+                return;
+            }
+            // the render failed or outlived the wait: render independently, through admission control
+            logger.debug("Rendering {} after waiting on a render of the same page", key);
+            render(request, response, chain, key, dataVersion, etag);
+            return;
+        }
+        try {
+            flight.complete(render(request, response, chain, key, dataVersion, etag));
+        } finally {
+            flight.complete(null);
+            rendering.remove(flightKey, flight);
+        }
+    }
+
+    /**
+     * Renders the page through the rest of the chain and caches it if it is an HTML page that was
+     * not marked {@link #UNCACHEABLE}.
+     *
+     * @return what the chain answered, for the requests coalesced onto this render
+     */
+    private Outcome render(HttpServletRequest request, HttpServletResponse response, FilterChain chain,
+                                          String key, long dataVersion, String etag) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+        RenderedPageCache.Page page = null;
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null
+                && wrapper.getContentType().startsWith("text/html") && request.getAttribute(UNCACHEABLE) == null) {
+            byte[] body = wrapper.getContentAsByteArray();
+            page = new RenderedPageCache.Page(wrapper.getContentType(), body, gzip(body), etag);
+            cache.put(key, dataVersion, page);
+            wrapper.setHeader(HttpHeaders.ETAG, etag);
+            // later requests for this page may be answered from the gzip copy
+            wrapper.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            logger.debug("Cached rendered page {} ({} bytes)", key, body.length);
+        }
+        Outcome outcome = page != null ? new Outcome(page) : new Outcome(wrapper.getStatus(), wrapper.getContentType(),
+            wrapper.getContentAsByteArray(), wrapper.getHeader(HttpHeaders.RETRY_AFTER), wrapper.getHeader(HttpHeaders.CACHE_CONTROL));
+        wrapper.copyBodyToResponse();
+        return outcome;
+    }
+
+    /**
+     * @return the render's outcome, or null if it failed or did not finish within the timeout
+     */
+    private Outcome await(CompletableFuture<Outcome> leader) {
+        try {
+            return leader.get(coalesceTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    private static void replay(Outcome outcome, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (outcome.page != null) {
+            write(outcome.page, request, response);
+            return;
+        }
+        if (outcome.body.length == 0 && outcome.status >= 400) {
+            // an error sent with sendError: let the container render its error page here too
+            response.sendError(outcome.status);
+            return;
+        }
+        response.setStatus(outcome.status);
+        if (outcome.contentType != null) {
+            response.setContentType(outcome.contentType);
+        }
+        if (outcome.retryAfter != null) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, outcome.retryAfter);
+        }
+        if (outcome.cacheControl != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, outcome.cacheControl);
+        }
+        response.setContentLength(outcome.body.length);
+        response.getOutputStream().write(outcome.body);
+    }
+
+    private static void write(RenderedPageCache.Page page, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        byte[] body = gzip ? page.getGzipBody() : page.getBody();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(page.getContentType());
+        response.setHeader(HttpHeaders.ETAG, page.getEtag());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Reads an Accept-Encoding header, honouring q-values: {@code gzip;q=0} refuses gzip, and a
+     * wildcard only applies when gzip is not listed by name.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQuality = -1;
+        double wildcardQuality = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = Math.max(gzipQuality, quality);
+            } else if (coding.equals("*")) {
+                wildcardQuality = quality;
+            }
+        }
+        return gzipQuality >= 0 ? gzipQuality > 0 : wildcardQuality > 0;
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            gzipStream.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * What one render answered: the cached page, or for any other response its status, type,
+     * body and the headers that tell a client when to retry.
+     */
+    private static final class Outcome {
+        private final RenderedPageCache.Page page;
+        private final int status;
+        private final String contentType;
+        private final byte[] body;
+        private final String retryAfter;
+        private final String cacheControl;
+
+        Outcome(RenderedPageCache.Page page) {
+            this(page, HttpServletResponse.SC_OK, page.getContentType(), page.getBody(), null, null);
+        }
+
+        Outcome(int status, String contentType, byte[] body, String retryAfter, String cacheControl) {
+            this(null, status, contentType, body, retryAfter, cacheControl);
+        }
+
+        private Outcome(RenderedPageCache.Page page, int status, String contentType, byte[] body,
+                        String retryAfter, String cacheControl) {
+            this.page = page;
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+            this.retryAfter = retryAfter;
+            this.cacheControl = cacheControl;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.LongIntHashIndex;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Movie id to reviews index built from the mock reviews JSON document, with per-movie
+ * statistics computed once while the document is parsed.
+ * <p>
+ * Each movie's reviews and {@link ReviewSummary} are held together in one immutable entry, and
+ * every reviewed movie is counted in a {@link ScoreRanking} by its review score.
+ * {@link #add(long, Review)} replaces the movie's entry with one that appends the review and
+ * extends the summary, then moves the movie to its new score, in amortized constant time and
+ * without touching any other movie; readers never lock and see either the old entry or the new
+ * one. Writers lock only one of {@link #WRITE_STRIPES} stripes chosen by movie id, so reviews
+ * for different movies are added in parallel and reviews for the same movie keep their order.
+ * Lookups of movies present at load time probe a primitive-keyed hash index and never allocate.
+ * The ids of the movies the last {@link #CHANGE_CAPACITY} added reviews went to are kept in order,
+ * so review-keyed sort orders can catch up by moving just those movies.
+ */
+final class ReviewIndex {
+
+    /**
+     * Weight, in reviews at the catalog-wide mean rating, that {@link #scoreFor(long)} adds to
+     * every movie, so a single five-star review does not outrank many four-and-a-half-star ones.
+     */
+    static final int PRIOR_REVIEWS = 5;
+    // prior mean when the document has no reviews: the middle of the rating scale
+    private static final double DEFAULT_PRIOR_MEAN = 3.0;
+    // power of two, well above the number of cores
+    static final int WRITE_STRIPES = 64;
+    private static final int STRIPE_SHIFT = Integer.numberOfLeadingZeros(WRITE_STRIPES - 1);
+    /** Most added reviews whose movie ids are kept; a power of two, 512 KB of ids once full. */
+    static final int CHANGE_CAPACITY = 1 << 16;
+
+    private final LongIntHashIndex slots;
+    private final AtomicReferenceArray<MovieReviews> loaded;
+    // movies whose first review arrived after loading
+    private final Map<Long, MovieReviews> added = new ConcurrentHashMap<>();
+    private final double priorMean;
+    private final ScoreRanking ranking = new ScoreRanking();
+    private final Object[] stripes = new Object[WRITE_STRIPES];
+    private final AtomicLong version;
+    // ids of the movies the latest reviews were added to, a ring once CHANGE_CAPACITY long
+    private long[] changes = new long[16];
+    private volatile int changeCount;
+
+    private ReviewIndex(LongIntHashIndex slots, AtomicReferenceArray<MovieReviews> loaded, long version, double priorMean) {
+        this.slots = slots;
+        this.loaded = loaded;
+        this.version = new AtomicLong(version);
+        this.priorMean = priorMean;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+        for (int slot = 0; slot < loaded.length(); slot++) {
+            ReviewSummary summary = loaded.get(slot).summary;
+            if (summary.getReviewCount() > 0) {
+                ranking.add(ScoreRanking.bucketOf(score(summary)));
+            }
+        }
+    }
+
+    static ReviewIndex empty() {
+        return fromJson(new JSONObject());
+    }
+
+    /**
+     * Builds an index from a document of the form {@code {"<movieId>": [review, ...], ...}}.
+     * Reviews keep document order, so the last review of each movie counts as its most recent.
+     * Keys naming the same id, such as {@code "1"} and {@code "01"}, are merged in document order.
+     * @throws org.json.JSONException if a review entry is malformed
+     * @throws NumberFormatException if a key is not a movie id
+     */
+    static ReviewIndex fromJson(JSONObject reviewsData) {
+        int movieCount = reviewsData.length();
+        LongIntHashIndex slots = new LongIntHashIndex(movieCount);
+        AtomicReferenceArray<MovieReviews> loaded = new AtomicReferenceArray<>(movieCount);
+
+        long version = 0xcbf29ce484222325L;
+        long totalCount = 0;
+        double totalRating = 0.0;
+        int slot = 0;
+        Iterator<String> keys = reviewsData.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            JSONArray movieReviews = reviewsData.getJSONArray(key);
+            Review[] parsed = new Review[movieReviews.length()];
+            for (int i = 0; i < parsed.length; i++) {
+                JSONObject reviewObj = movieReviews.getJSONObject(i);
+                parsed[i] = new Review(
+                    reviewObj.getString("userName"),
+                    reviewObj.getString("avatarEmoji"),
+                    reviewObj.getDouble("rating"),
+                    reviewObj.getString("comment")
+                );
+                version = mix(version, key, parsed[i]);
+            }
+            ReviewSummary summary = ReviewSummary.of(parsed);
+            totalCount += summary.getReviewCount();
+            totalRating += summary.getRatingSum();
+            long movieId = Long.parseLong(key.trim());
+            int existing = slots.get(movieId);
+            if (existing != LongIntHashIndex.NOT_FOUND) {
+                Review[] merged = loaded.get(existing).reviews.toArray(new Review[0]);
+                merged = Arrays.copyOf(merged, merged.length + parsed.length);
+                System.arraycopy(parsed, 0, merged, merged.length - parsed.length, parsed.length);
+                loaded.set(existing, new MovieReviews(ReviewList.of(merged), ReviewSummary.of(merged)));
+                continue;
+            }
+            slots.put(movieId, slot);
+            loaded.set(slot, new MovieReviews(ReviewList.of(parsed), summary));
+            slot++;
+        }
+        if (slot < movieCount) {
+            // merged keys leave slots unused at the end
+            AtomicReferenceArray<MovieReviews> used = new AtomicReferenceArray<>(slot);
+            for (int i = 0; i < slot; i++) {
+                used.set(i, loaded.get(i));
+            }
+            loaded = used;
+        }
+        return new ReviewIndex(slots, loaded, version, totalCount == 0 ? DEFAULT_PRIOR_MEAN : totalRating / totalCount);
+    }
+
+    /**
+     * Appends a review to the movie and moves the movie to its new score in the ranking.
+     * Writers for movies in the same stripe are serialized; concurrent readers are not blocked.
+     */
+    void add(long movieId, Review review) {
+        synchronized (stripes[stripeOf(movieId)]) {
+            MovieReviews current = entryFor(movieId);
+            MovieReviews updated = current == null
+                ? new MovieReviews(ReviewList.EMPTY.append(review), ReviewSummary.EMPTY.plus(review))
+                : new MovieReviews(current.reviews.append(review), current.summary.plus(review));
+            int slot = slots.get(movieId);
+            if (slot != LongIntHashIndex.NOT_FOUND) {
+                loaded.set(slot, updated);
+            } else {
+                added.put(movieId, updated);
+            }
+            ranking.add(ScoreRanking.bucketOf(score(updated.summary)));
+            if (current != null && current.summary.getReviewCount() > 0) {
+                ranking.remove(ScoreRanking.bucketOf(score(current.summary)));
+            }
+            recordChange(movieId);
+        }
+        String movieKey = Long.toString(movieId);
+        version.updateAndGet(current -> mix(current, movieKey, review));
+    }
+
+    List<Review> reviewsFor(long movieId) {
+        MovieReviews entry = entryFor(movieId);
+        return entry == null ? Collections.<Review>emptyList() : entry.reviews;
+    }
+
+    ReviewSummary summaryFor(long movieId) {
+        MovieReviews entry = entryFor(movieId);
+        return entry == null ? ReviewSummary.EMPTY : entry.summary;
+    }
+
+    List<Review>[] reviewsFor(long[] movieIds) {
+        @SuppressWarnings("unchecked")
+        List<Review>[] found = new List[movieIds.length];
+        for (int i = 0; i < movieIds.length; i++) {
+            found[i] = reviewsFor(movieIds[i]);
+        }
+        return found;
+    }
+
+    ReviewSummary[] summariesFor(long[] movieIds) {
+        ReviewSummary[] found = new ReviewSummary[movieIds.length];
+        for (int i = 0; i < movieIds.length; i++) {
+            found[i] = summaryFor(movieIds[i]);
+        }
+        return found;
+    }
+
+    /**
+     * @return up to {@code limit} of the movie's reviews, newest first
+     */
+    List<Review> recentFor(long movieId, int limit) {
+        List<Review> reviews = reviewsFor(movieId);
+        int count = Math.min(limit, reviews.size());
+        List<Review> recent = new ArrayList<>(count);
+        for (int i = reviews.size() - 1; recent.size() < count; i--) {
+            recent.add(reviews.get(i));
+        }
+        return Collections.unmodifiableList(recent);
+    }
+
+    /**
+     * Review score used for ranking: the mean rating after adding {@link #PRIOR_REVIEWS}
+     * reviews at the mean rating of the loaded document, so movies with few reviews are pulled
+     * towards the middle. The prior stays fixed until the next reload, so a new review changes
+     * the score of its own movie only. Movies without reviews score 0.
+     */
+    double scoreFor(long movieId) {
+        return score(summaryFor(movieId));
+    }
+
+    /**
+     * @return 1 for the best review score, counting reviewed movies with a higher score to
+     * the thousandth, so equal scores share a rank; 0 for a movie without reviews
+     */
+    int rankOf(long movieId) {
+        ReviewSummary summary = summaryFor(movieId);
+        if (summary.getReviewCount() == 0) {
+            return 0;
+        }
+        return ranking.countAbove(ScoreRanking.bucketOf(score(summary))) + 1;
+    }
+
+    /**
+     * @return the number of movies with at least one review, the lowest possible rank
+     */
+    int rankedCount() {
+        return ranking.size();
+    }
+
+    /**
+     * @return a hash of the review contents, changing whenever any review is added or changes
+     */
+    long version() {
+        return version.get();
+    }
+
+    int movieCount() {
+        return slots.size() + added.size();
+    }
+
+    /**
+     * @return the number of reviews added since the index was built
+     */
+    int changeCount() {
+        return changeCount;
+    }
+
+    /**
+     * @return the ids of the movies the reviews added after the first {@code from} went to, in
+     * the order they were added, or null if more than {@link #CHANGE_CAPACITY} reviews were added
+     * since and the oldest ids are no longer kept; a movie's entry is recorded after its summary is updated
+     */
+    synchronized long[] changesSince(int from) {
+        int count = changeCount - from;
+        if (count > changes.length) {
+            return null;
+        }
+        long[] since = new long[count];
+        for (int i = 0; i < count; i++) {
+            since[i] = changes[(from + i) & (changes.length - 1)];
+        }
+        return since;
+    }
+
+    private synchronized void recordChange(long movieId) {
+        if (changeCount == changes.length && changes.length < CHANGE_CAPACITY) {
+            changes = Arrays.copyOf(changes, changes.length * 2);
+        }
+        changes[changeCount & (changes.length - 1)] = movieId;
+        changeCount++;
+    }
+
+    private MovieReviews entryFor(long movieId) {
+        int slot = slots.get(movieId);
+        if (slot != LongIntHashIndex.NOT_FOUND) {
+            return loaded.get(slot);
+        }
+        return added.isEmpty() ? null : added.get(movieId);
+    }
+
+    private static int stripeOf(long movieId) {
+        return (int) (movieId ^ (movieId >>> 32)) * 0x9E3779B9 >>> STRIPE_SHIFT;
+    }
+
+    private double score(ReviewSummary summary) {
+        if (summary.getReviewCount() == 0) {
+            return 0.0;
+        }
+        return (summary.getRatingSum() + PRIOR_REVIEWS * priorMean) / (summary.getReviewCount() + PRIOR_REVIEWS);
+    }
+
+    private static long mix(long version, String movieKey, Review review) {
+        return (version ^ Objects.hash(movieKey, review.getUserName(), review.getAvatarEmoji(),
+            review.getRating(), review.getComment())) * 0x100000001b3L;
+    }
+
+    private static final class MovieReviews {
+        final ReviewList reviews;
+        final ReviewSummary summary;
+
+        MovieReviews(ReviewList reviews, ReviewSummary summary) {
+            this.reviews = reviews;
+            this.summary = summary;
+        }
+    }
+}
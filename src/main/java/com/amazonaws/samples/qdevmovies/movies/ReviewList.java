@@ -0,0 +1,54 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Unmodifiable view of the first {@code size} reviews in a backing array that only ever grows
+ * at the end.
+ * <p>
+ * {@link #append(Review)} writes past the end of this view and returns a longer view over the
+ * same array, copying only when the array is full, so appending is amortized constant time
+ * while every earlier view keeps seeing exactly the reviews it was created with. Appends must
+ * come from one writer at a time, always to the newest view, and that view must be published
+ * through a volatile write before readers see it.
+ */
+final class ReviewList extends AbstractList<Review> implements RandomAccess {
+
+    static final ReviewList EMPTY = new ReviewList(new Review[0], 0);
+
+    private final Review[] reviews;
+    private final int size;
+
+    private ReviewList(Review[] reviews, int size) {
+        this.reviews = reviews;
+        this.size = size;
+    }
+
+    static ReviewList of(Review[] reviews) {
+        return reviews.length == 0 ? EMPTY : new ReviewList(reviews, reviews.length);
+    }
+
+    ReviewList append(Review review) {
+        Review[] target = reviews;
+        if (size == target.length) {
+            target = new Review[Math.max(4, size + (size >> 1))];
+            System.arraycopy(reviews, 0, target, 0, size);
+        }
+        target[size] = review;
+        return new ReviewList(target, size + 1);
+    }
+
+    @Override
+    public Review get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return reviews[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
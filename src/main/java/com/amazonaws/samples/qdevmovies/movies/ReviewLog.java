@@ -0,0 +1,579 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only, checksummed log of submitted reviews with group commit.
+ * <p>
+ * Callers encode their review on their own thread and queue it; a single writer thread takes
+ * everything queued, up to {@link #MAX_BATCH} records, writes the batch with one call and makes
+ * it durable with one {@code fdatasync}, so concurrent submissions share the cost of a sync
+ * instead of paying one each. Only then are the reviews handed to the sink, in log order, and
+ * their futures completed, so readers never see a review that a crash could lose.
+ * <p>
+ * Each record is {@code [length][crc32][sequence][movieId, rating, userName, avatarEmoji, comment]},
+ * the checksum covering the sequence and the review. Replay stops at the first incomplete or
+ * corrupt record of the active file and truncates it, which is what a crash in the middle of a
+ * write leaves behind. {@link #compact()} rotates the active file aside and merges it into a
+ * snapshot of all logged reviews grouped by movie, written to a temporary file and moved into
+ * place atomically; the snapshot records the last sequence it includes, so a crash before the
+ * rotated file is deleted never replays a review twice.
+ */
+final class ReviewLog implements Closeable {
+    private static final Logger logger = LogManager.getLogger(ReviewLog.class);
+
+    /** Most records written and synced together. */
+    static final int MAX_BATCH = 1024;
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    // length and checksum, ahead of the checksummed body
+    private static final int FRAME_HEADER = 8;
+    private static final int MIN_BODY = 8 + 8 + 8 + 3 * 2;
+    private static final int MAX_BODY = 8 + 8 + 8 + 3 * (2 + 0xFFFF);
+    private static final int SNAPSHOT_MAGIC = 0x52565353;
+    private static final int SNAPSHOT_FORMAT = 1;
+
+    /** Receives replayed and newly durable reviews. */
+    interface Sink {
+        void accept(long movieId, Review review);
+    }
+
+    private interface Task {
+        void run() throws IOException;
+    }
+
+    private final Path file;
+    private final Path rotated;
+    private final Path snapshot;
+    private final Sink sink;
+    private final int maxBatch;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    // guards the snapshot and rotated files against a merge and a replay running together
+    private final Object filesLock = new Object();
+    private final CRC32 crc = new CRC32();
+    private final Thread writer;
+    private volatile Thread compactor;
+    private volatile boolean closed;
+    private boolean stopped;
+    private FileChannel channel;
+    private long nextSeq;
+    private ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+    private final long replayedCount;
+    private volatile long syncCount;
+    private volatile long recordCount;
+
+    private ReviewLog(Path file, Sink sink, int maxBatch) throws IOException {
+        this.file = file;
+        this.rotated = file.resolveSibling(file.getFileName() + ".old");
+        this.snapshot = file.resolveSibling(file.getFileName() + ".snapshot");
+        this.sink = sink;
+        this.maxBatch = maxBatch;
+        Path directory = file.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        long[] replayed = new long[1];
+        this.nextSeq = replay((movieId, review) -> {
+            sink.accept(movieId, review);
+            replayed[0]++;
+        }, true) + 1;
+        this.replayedCount = replayed[0];
+        this.channel = openActive();
+        this.writer = new Thread(this::writeLoop, "review-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Replays every logged review into the sink, repairing a torn tail left by a crash, and
+     * starts the writer thread.
+     * @throws IOException if the log cannot be read or its snapshot is corrupt
+     */
+    static ReviewLog open(Path file, Sink sink) throws IOException {
+        return open(file, sink, MAX_BATCH);
+    }
+
+    /**
+     * @param maxBatch most records per sync; 1 syncs every record on its own
+     */
+    static ReviewLog open(Path file, Sink sink, int maxBatch) throws IOException {
+        return new ReviewLog(file, sink, maxBatch);
+    }
+
+    /**
+     * Queues a review for the next group commit.
+     * @return a future completed once the review is durable and visible to the sink, or failed
+     * with the I/O error, or immediately if the log is closed or full
+     */
+    CompletableFuture<Void> append(long movieId, Review review) {
+        Pending pending;
+        try {
+            pending = new Pending(movieId, review, encode(movieId, review), null);
+        } catch (IOException | RuntimeException e) {
+            return failed(e);
+        }
+        if (closed || !queue.offer(pending)) {
+            return failed(new IOException(closed ? "Review log is closed" : "Review log queue is full"));
+        }
+        return pending.done;
+    }
+
+    /**
+     * Replays every durable review into the sink on the writer thread, then runs
+     * {@code afterReplay}, before any further review is written; used to rebuild the index on reload.
+     */
+    void replayInto(Sink target, Runnable afterReplay) throws IOException {
+        onWriter(() -> {
+            replay(target, false);
+            afterReplay.run();
+        });
+    }
+
+    /**
+     * Moves the active file aside and merges it into the snapshot. Reviews keep being written
+     * to a new active file meanwhile; only the rotation itself waits for the writer thread.
+     * @return false if there was nothing to compact
+     */
+    synchronized boolean compact() throws IOException {
+        if (!Files.exists(rotated)) {
+            if (!Files.exists(file) || Files.size(file) == 0) {
+                return false;
+            }
+            onWriter(this::rotate);
+        }
+        synchronized (filesLock) {
+            if (!Files.exists(rotated)) {
+                return false;
+            }
+            Map<Long, List<Review>> movies = new LinkedHashMap<>();
+            Sink collect = (movieId, review) -> movies.computeIfAbsent(movieId, id -> new ArrayList<>()).add(review);
+            long snapshotSeq = readSnapshot(collect);
+            long lastSeq = readSegment(rotated, snapshotSeq, collect, false);
+            writeSnapshot(movies, lastSeq);
+            Files.delete(rotated);
+            syncDirectory();
+            logger.info("Compacted review log into snapshot of {} movies up to sequence {}", movies.size(), lastSeq);
+        }
+        return true;
+    }
+
+    /**
+     * Compacts every {@code intervalMillis} on a background thread until the log is closed.
+     */
+    void startCompaction(long intervalMillis) {
+        Thread thread = new Thread(() -> compactLoop(intervalMillis), "review-log-compactor");
+        thread.setDaemon(true);
+        this.compactor = thread;
+        thread.start();
+    }
+
+    /**
+     * @return the number of reviews replayed when the log was opened
+     */
+    long getReplayedCount() {
+        return replayedCount;
+    }
+
+    long getSyncCount() {
+        return syncCount;
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes everything already queued, then stops the writer; later appends fail.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Thread thread = compactor;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        try {
+            queue.put(new Pending(0, null, null, () -> stopped = true));
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Pending pending; (pending = queue.poll()) != null; ) {
+            pending.done.completeExceptionally(new IOException("Review log is closed"));
+        }
+        channel.close();
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        List<Pending> records = new ArrayList<>(maxBatch);
+        while (!stopped) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            for (Pending pending : batch) {
+                if (pending.task == null) {
+                    records.add(pending);
+                    continue;
+                }
+                commit(records);
+                records.clear();
+                try {
+                    pending.task.run();
+                    pending.done.complete(null);
+                } catch (IOException | RuntimeException e) {
+                    pending.done.completeExceptionally(e);
+                }
+            }
+            commit(records);
+            records.clear();
+            batch.clear();
+        }
+    }
+
+    private void commit(List<Pending> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        long firstSeq = nextSeq;
+        long start = -1;
+        try {
+            start = channel.position();
+            ByteBuffer frames = frame(records);
+            while (frames.hasRemaining()) {
+                channel.write(frames);
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write {} reviews to {}: {}", records.size(), file, e.getMessage(), e);
+            nextSeq = firstSeq;
+            discardFrom(start);
+            for (Pending pending : records) {
+                pending.done.completeExceptionally(e);
+            }
+            return;
+        }
+        syncCount++;
+        recordCount += records.size();
+        for (Pending pending : records) {
+            try {
+                sink.accept(pending.movieId, pending.review);
+            } catch (RuntimeException e) {
+                logger.error("Failed to apply logged review for movie {}: {}", pending.movieId, e.getMessage(), e);
+            }
+            pending.done.complete(null);
+        }
+    }
+
+    private ByteBuffer frame(List<Pending> records) {
+        int size = 0;
+        for (Pending pending : records) {
+            size += FRAME_HEADER + 8 + pending.payload.length;
+        }
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(size);
+        }
+        ByteBuffer frames = buffer;
+        frames.clear();
+        for (Pending pending : records) {
+            int frameStart = frames.position();
+            int bodyLength = 8 + pending.payload.length;
+            frames.putInt(bodyLength).putInt(0).putLong(nextSeq++).put(pending.payload);
+            crc.reset();
+            crc.update(frames.array(), frameStart + FRAME_HEADER, bodyLength);
+            frames.putInt(frameStart + 4, (int) crc.getValue());
+        }
+        frames.flip();
+        return frames;
+    }
+
+    // drops a partly written batch so the next one starts on a record boundary
+    private void discardFrom(long position) {
+        if (position < 0) {
+            return;
+        }
+        try {
+            channel.truncate(position);
+            channel.position(position);
+        } catch (IOException e) {
+            logger.error("Failed to discard partial write at {} in {}: {}", position, file, e.getMessage());
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (channel.size() == 0 || Files.exists(rotated)) {
+            return;
+        }
+        channel.close();
+        try {
+            Files.move(file, rotated, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+        } finally {
+            channel = openActive();
+        }
+    }
+
+    private void compactLoop(long intervalMillis) {
+        while (!closed) {
+            try {
+                Thread.sleep(intervalMillis);
+                compact();
+            } catch (InterruptedException e) {
+                return;
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to compact review log {}: {}", file, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void onWriter(Task task) throws IOException {
+        Pending pending = new Pending(0, null, null, task);
+        if (closed || !queue.offer(pending)) {
+            throw new IOException(closed ? "Review log is closed" : "Review log queue is full");
+        }
+        try {
+            pending.done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the highest sequence replayed, or 0 for an empty log
+     */
+    private long replay(Sink target, boolean repair) throws IOException {
+        synchronized (filesLock) {
+            long snapshotSeq = readSnapshot(target);
+            long lastSeq = readSegment(rotated, snapshotSeq, target, false);
+            return readSegment(file, lastSeq, target, repair);
+        }
+    }
+
+    private long readSnapshot(Sink target) throws IOException {
+        if (!Files.exists(snapshot)) {
+            return 0;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(snapshot))) {
+            CheckedInputStream checked = new CheckedInputStream(in, new CRC32());
+            DataInputStream data = new DataInputStream(checked);
+            if (data.readInt() != SNAPSHOT_MAGIC || data.readInt() != SNAPSHOT_FORMAT) {
+                throw new IOException("Not a review snapshot: " + snapshot);
+            }
+            long lastSeq = data.readLong();
+            int movieCount = data.readInt();
+            List<Long> movieIds = new ArrayList<>(movieCount);
+            List<Review[]> reviews = new ArrayList<>(movieCount);
+            for (int movie = 0; movie < movieCount; movie++) {
+                movieIds.add(data.readLong());
+                Review[] movieReviews = new Review[data.readInt()];
+                for (int i = 0; i < movieReviews.length; i++) {
+                    movieReviews[i] = readReview(data);
+                }
+                reviews.add(movieReviews);
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (new DataInputStream(in).readInt() != expected || in.read() != -1) {
+                throw new IOException("Checksum mismatch in review snapshot " + snapshot);
+            }
+            for (int movie = 0; movie < movieCount; movie++) {
+                for (Review review : reviews.get(movie)) {
+                    target.accept(movieIds.get(movie), review);
+                }
+            }
+            return lastSeq;
+        } catch (EOFException e) {
+            throw new IOException("Truncated review snapshot " + snapshot, e);
+        }
+    }
+
+    private void writeSnapshot(Map<Long, List<Review>> movies, long lastSeq) throws IOException {
+        Path temporary = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(out), 64 * 1024);
+            CheckedOutputStream checked = new CheckedOutputStream(buffered, new CRC32());
+            DataOutputStream data = new DataOutputStream(checked);
+            data.writeInt(SNAPSHOT_MAGIC);
+            data.writeInt(SNAPSHOT_FORMAT);
+            data.writeLong(lastSeq);
+            data.writeInt(movies.size());
+            for (Map.Entry<Long, List<Review>> movie : movies.entrySet()) {
+                data.writeLong(movie.getKey());
+                data.writeInt(movie.getValue().size());
+                for (Review review : movie.getValue()) {
+                    writeReview(data, review);
+                }
+            }
+            data.flush();
+            new DataOutputStream(buffered).writeInt((int) checked.getChecksum().getValue());
+            buffered.flush();
+            out.force(true);
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+    }
+
+    /**
+     * Reads the records of one log file with a sequence above {@code afterSeq}. A torn or
+     * corrupt record ends the file; with {@code repair} it and everything after it is cut off.
+     * @return the highest sequence read, or {@code afterSeq}
+     */
+    private long readSegment(Path path, long afterSeq, Sink target, boolean repair) throws IOException {
+        if (!Files.exists(path)) {
+            return afterSeq;
+        }
+        long lastSeq = afterSeq;
+        long validEnd = 0;
+        boolean torn = false;
+        CRC32 check = new CRC32();
+        try (DataInputStream data = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            byte[] body = new byte[256];
+            while (true) {
+                int length;
+                try {
+                    length = data.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                int expected;
+                try {
+                    expected = data.readInt();
+                    if (length < MIN_BODY || length > MAX_BODY) {
+                        torn = true;
+                        break;
+                    }
+                    if (body.length < length) {
+                        body = new byte[Math.max(length, body.length * 2)];
+                    }
+                    data.readFully(body, 0, length);
+                } catch (EOFException e) {
+                    torn = true;
+                    break;
+                }
+                check.reset();
+                check.update(body, 0, length);
+                if ((int) check.getValue() != expected) {
+                    torn = true;
+                    break;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(body, 0, length));
+                long seq = record.readLong();
+                long movieId = record.readLong();
+                Review review = readReview(record);
+                if (seq > afterSeq) {
+                    target.accept(movieId, review);
+                    lastSeq = Math.max(lastSeq, seq);
+                }
+                validEnd += FRAME_HEADER + length;
+            }
+        }
+        if (torn) {
+            logger.warn("Review log {} ends in an incomplete or corrupt record at byte {}{}", path, validEnd,
+                repair ? "; truncating" : "; ignoring the rest");
+            if (repair) {
+                try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    out.truncate(validEnd);
+                    out.force(true);
+                }
+            }
+        }
+        return lastSeq;
+    }
+
+    private FileChannel openActive() throws IOException {
+        FileChannel opened = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        opened.position(opened.size());
+        syncDirectory();
+        return opened;
+    }
+
+    // makes a created, renamed or deleted file's directory entry durable
+    private void syncDirectory() {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            logger.debug("Cannot sync directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private static byte[] encode(long movieId, Review review) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeLong(movieId);
+        writeReview(data, review);
+        return bytes.toByteArray();
+    }
+
+    private static void writeReview(DataOutputStream data, Review review) throws IOException {
+        data.writeDouble(review.getRating());
+        data.writeUTF(review.getUserName());
+        data.writeUTF(review.getAvatarEmoji());
+        data.writeUTF(review.getComment());
+    }
+
+    private static Review readReview(DataInputStream data) throws IOException {
+        double rating = data.readDouble();
+        return new Review(data.readUTF(), data.readUTF(), rating, data.readUTF());
+    }
+
+    private static CompletableFuture<Void> failed(Throwable cause) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
+    }
+
+    private static final class Pending {
+        final long movieId;
+        final Review review;
+        final byte[] payload;
+        final Task task;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Pending(long movieId, Review review, byte[] payload, Task task) {
+            this.movieId = movieId;
+            this.review = review;
+            this.payload = payload;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Store of mock reviews and their per-movie statistics.
+ * The reviews document is parsed once into a {@link ReviewIndex}; reloads build a complete new
+ * index and publish it with a single volatile write, so readers never block and never observe
+ * a partially built index. Reviews added with {@link #add(long, Review)} update the current
+ * index in place. With a review log configured they are first made durable in a {@link ReviewLog},
+ * replayed on top of the reviews source at startup and on every reload; without one they are kept
+ * in memory only, so a reload replaces them with the source's reviews.
+ */
+@Repository
+public class ReviewRepository {
+    private static final Logger logger = LogManager.getLogger(ReviewRepository.class);
+    private static final String REVIEWS_RESOURCE = "mock-reviews.json";
+
+    private final Path reviewsFile;
+    private final boolean watchEnabled;
+    private final ReviewLog log;
+    private final long compactIntervalSeconds;
+    private volatile ReviewIndex index;
+    private volatile WatchService watchService;
+
+    /**
+     * Creates a repository backed by the bundled classpath reviews.
+     */
+    public ReviewRepository() {
+        this(null, false);
+    }
+
+    /**
+     * @param reviewsFile optional external reviews file; the classpath copy is used when empty
+     * @param watchEnabled whether to reload the external file whenever it changes on disk
+     */
+    public ReviewRepository(String reviewsFile, boolean watchEnabled) {
+        this(reviewsFile, watchEnabled, null, 0);
+    }
+
+    /**
+     * @param logFile optional review log that submitted reviews are made durable in; kept in memory only when empty
+     * @param compactIntervalSeconds how often to compact the review log into its snapshot; 0 never does
+     * @throws MovieDataLoadException if the review log exists but cannot be replayed
+     */
+    @Autowired
+    public ReviewRepository(@Value("${movies.reviews.file:}") String reviewsFile,
+                            @Value("${movies.reviews.watch:false}") boolean watchEnabled,
+                            @Value("${movies.reviews.log.file:}") String logFile,
+                            @Value("${movies.reviews.log.compact-interval-seconds:600}") long compactIntervalSeconds) {
+        this.reviewsFile = reviewsFile == null || reviewsFile.trim().isEmpty() ? null : Paths.get(reviewsFile.trim());
+        this.watchEnabled = watchEnabled;
+        this.compactIntervalSeconds = compactIntervalSeconds;
+        this.index = loadIndex();
+        this.log = logFile == null || logFile.trim().isEmpty() ? null : openLog(Paths.get(logFile.trim()));
+    }
+
+    public List<Review> findByMovieId(long movieId) {
+        return index.reviewsFor(movieId);
+    }
+
+    public ReviewSummary getSummary(long movieId) {
+        return index.summaryFor(movieId);
+    }
+
+    /**
+     * @return up to {@code limit} of the movie's reviews, newest first
+     */
+    public List<Review> findRecentByMovieId(long movieId, int limit) {
+        return index.recentFor(movieId, limit);
+    }
+
+    /**
+     * @return the movie's review score for ranking, its mean rating weighted towards the
+     * catalog-wide mean when it has few reviews; 0 without reviews
+     */
+    public double getScore(long movieId) {
+        return index.scoreFor(movieId);
+    }
+
+    /**
+     * @return 1 for the movie with the best review score, or 0 if the movie has no reviews
+     */
+    public int getRank(long movieId) {
+        return index.rankOf(movieId);
+    }
+
+    /**
+     * Adds a review to the movie, updating its summary, rank and the version in constant time.
+     * @return a future completed once the review is durable in the review log and visible to
+     * readers; already complete when no log is configured
+     */
+    public CompletableFuture<Void> add(long movieId, Review review) {
+        if (log == null) {
+            index.add(movieId, review);
+            return CompletableFuture.completedFuture(null);
+        }
+        return log.append(movieId, review);
+    }
+
+    /**
+     * @return the reviews for each movie id, in order, all read from the same loaded index
+     */
+    public List<List<Review>> findByMovieIds(long[] movieIds) {
+        return Collections.unmodifiableList(Arrays.asList(index.reviewsFor(movieIds)));
+    }
+
+    /**
+     * @return the summary for each movie id, in order, all read from the same loaded index
+     */
+    public List<ReviewSummary> getSummaries(long[] movieIds) {
+        return Collections.unmodifiableList(Arrays.asList(index.summariesFor(movieIds)));
+    }
+
+    /**
+     * @return a hash of the currently loaded reviews
+     */
+    public long getVersion() {
+        return index.version();
+    }
+
+    /**
+     * @return the loaded index, replaced by every reload and updated in place by every added review
+     */
+    ReviewIndex currentIndex() {
+        return index;
+    }
+
+    public int getMovieCount() {
+        return index.movieCount();
+    }
+
+    /**
+     * @return the number of syncs the review log has made, each covering a batch of reviews
+     */
+    public long getLogSyncCount() {
+        return log == null ? 0 : log.getSyncCount();
+    }
+
+    /**
+     * @return the number of reviews written to the review log since startup
+     */
+    public long getLoggedReviewCount() {
+        return log == null ? 0 : log.getRecordCount();
+    }
+
+    /**
+     * Re-reads the reviews source and atomically replaces the current index.
+     * If the source cannot be read or parsed the current index is kept.
+     * @return true if a new index was published
+     */
+    public boolean reload() {
+        ReviewIndex reloaded = readIndex();
+        if (reloaded == null) {
+            logger.warn("Keeping previously loaded reviews after failed reload");
+            return false;
+        }
+        if (log == null) {
+            this.index = reloaded;
+        } else {
+            try {
+                log.replayInto(reloaded::add, () -> this.index = reloaded);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Failed to replay review log on reload: {}", e.getMessage(), e);
+                return false;
+            }
+        }
+        logger.info("Reloaded reviews for {} movies", reloaded.movieCount());
+        return true;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (log != null && compactIntervalSeconds > 0) {
+            log.startCompaction(TimeUnit.SECONDS.toMillis(compactIntervalSeconds));
+        }
+        startWatching();
+    }
+
+    public void startWatching() {
+        if (!watchEnabled) {
+            return;
+        }
+        if (reviewsFile == null) {
+            logger.warn("Review file watch requested but movies.reviews.file is not set; watch disabled");
+            return;
+        }
+        Path directory = reviewsFile.toAbsolutePath().getParent();
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            this.watchService = service;
+        } catch (IOException e) {
+            logger.error("Failed to watch reviews file {}: {}", reviewsFile, e.getMessage(), e);
+            return;
+        }
+        Thread watcher = new Thread(this::watchLoop, "review-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        logger.info("Watching {} for review changes", reviewsFile);
+    }
+
+    /**
+     * Stops watching the reviews file and closes the review log once everything queued is durable.
+     */
+    @PreDestroy
+    public void close() {
+        stopWatching();
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close review log: {}", e.getMessage());
+            }
+        }
+    }
+
+    public void stopWatching() {
+        WatchService service = this.watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close review file watcher: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void watchLoop() {
+        Path fileName = reviewsFile.getFileName();
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (fileName.equals(event.context())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            logger.debug("Review file watcher closed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ReviewLog openLog(Path logFile) {
+        try {
+            ReviewLog opened = ReviewLog.open(logFile, (movieId, review) -> this.index.add(movieId, review));
+            logger.info("Replayed {} reviews from review log {}", opened.getReplayedCount(), logFile);
+            return opened;
+        } catch (IOException e) {
+            throw new MovieDataLoadException("Failed to replay review log " + logFile, e);
+        }
+    }
+
+    private ReviewIndex loadIndex() {
+        ReviewIndex loaded = readIndex();
+        if (loaded == null) {
+            return ReviewIndex.empty();
+        }
+        logger.info("Loaded reviews for {} movies", loaded.movieCount());
+        return loaded;
+    }
+
+    /**
+     * @return the parsed index, or null if the source is unreadable or malformed
+     */
+    private ReviewIndex readIndex() {
+        try (InputStream inputStream = openReviews()) {
+            if (inputStream == null) {
+                logger.warn("Reviews JSON file not found in resources");
+                return ReviewIndex.empty();
+            }
+            Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+            return ReviewIndex.fromJson(new JSONObject(new JSONTokener(reader)));
+        } catch (JSONException | NumberFormatException e) {
+            logger.error("Failed to parse reviews JSON: {}", e.getMessage(), e);
+        } catch (IOException e) {
+            logger.error("Failed to read reviews JSON file: {}", e.getMessage(), e);
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error loading reviews: {}", e.getMessage(), e);
+        }
+        return null;
+    }
+
+    private InputStream openReviews() throws IOException {
+        if (reviewsFile != null) {
+            return Files.newInputStream(reviewsFile);
+        }
+        return getClass().getClassLoader().getResourceAsStream(REVIEWS_RESOURCE);
+    }
+}
@@ -1,56 +1,170 @@
 package com.amazonaws.samples.qdevmovies.movies;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-import org.json.JSONException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
 
-import java.io.InputStream;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class ReviewService {
-    private static final Logger logger = LogManager.getLogger(ReviewService.class);
 
+    public static final int MAX_USER_NAME_LENGTH = 50;
+    public static final int MAX_AVATAR_LENGTH = 16;
+    public static final int MAX_COMMENT_LENGTH = 2000;
+    public static final double MIN_RATING = 1.0;
+    public static final double MAX_RATING = 5.0;
+    static final String DEFAULT_AVATAR = "\uD83C\uDFAC";
+    // longest a submission waits for its review to become durable
+    private static final long SUBMIT_TIMEOUT_SECONDS = 5;
+
+    private final ReviewRepository reviewRepository;
+    private final CatalogMetrics metrics;
+
+    public ReviewService() {
+        this(new ReviewRepository());
+    }
+
+    public ReviewService(ReviewRepository reviewRepository) {
+        this(reviewRepository, CatalogMetrics.NOOP);
+    }
+
+    @Autowired
+    ReviewService(ReviewRepository reviewRepository, CatalogMetrics metrics) {
+        this.reviewRepository = reviewRepository;
+        this.metrics = metrics;
+        metrics.bindReviews(this);
+    }
+
+    /**
+     * @return the reviews for the movie, or an empty list; the returned list is shared and unmodifiable
+     */
     public List<Review> getReviewsForMovie(long movieId) {
-        List<Review> reviews = new ArrayList<>();
+        long start = System.nanoTime();
+        List<Review> reviews = reviewRepository.findByMovieId(movieId);
+        metrics.recordReviewLookup(System.nanoTime() - start, reviews.size());
+        return reviews;
+    }
+
+    /**
+     * Batch variant of {@link #getReviewsForMovie(long)}; every list comes from the same review version.
+     * @return the reviews for each movie id in request order, empty for movies without reviews
+     * @throws IllegalArgumentException if movieIds is null or longer than {@link MovieService#MAX_BATCH_SIZE}
+     */
+    public List<List<Review>> getReviewsForMovies(long[] movieIds) {
+        MovieService.validateBatch(movieIds);
+        return reviewRepository.findByMovieIds(movieIds);
+    }
+
+    /**
+     * @return the review summary for each movie id in request order, {@link ReviewSummary#EMPTY} for movies without reviews
+     * @throws IllegalArgumentException if movieIds is null or longer than {@link MovieService#MAX_BATCH_SIZE}
+     */
+    public List<ReviewSummary> getReviewSummaries(long[] movieIds) {
+        MovieService.validateBatch(movieIds);
+        return reviewRepository.getSummaries(movieIds);
+    }
+
+    /**
+     * @return precomputed review count and mean rating for the movie
+     */
+    public ReviewSummary getReviewSummary(long movieId) {
+        return reviewRepository.getSummary(movieId);
+    }
+
+    /**
+     * @return the movie's review summary, review score, rank among reviewed movies and most recent
+     * reviews, all precomputed or maintained as reviews are added
+     */
+    public ReviewStats getReviewStats(long movieId) {
+        return new ReviewStats(reviewRepository.getSummary(movieId), reviewRepository.getScore(movieId),
+            reviewRepository.getRank(movieId), reviewRepository.findRecentByMovieId(movieId, ReviewStats.RECENT_REVIEWS));
+    }
+
+    /**
+     * Adds a review to the movie once it is durable in the review log. Many concurrent
+     * submissions share one log sync, so this waits for at most one sync beyond the one in flight.
+     * The caller is responsible for checking that the movie exists.
+     * @return the movie's review statistics including the new review
+     * @throws IllegalArgumentException if the name or comment is blank or too long, the avatar is
+     * too long, or the rating is outside {@link #MIN_RATING} to {@link #MAX_RATING}
+     * @throws ReviewSubmissionException if the review could not be made durable in time
+     */
+    public ReviewStats addReview(long movieId, Review review) {
+        Review accepted = validateReview(review);
+        long start = System.nanoTime();
         try {
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream("mock-reviews.json");
-            if (inputStream != null) {
-                Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8.name());
-                String jsonContent = scanner.useDelimiter("\\A").next();
-                scanner.close();
-                
-                JSONObject reviewsData = new JSONObject(jsonContent);
-                if (reviewsData.has(String.valueOf(movieId))) {
-                    JSONArray movieReviews = reviewsData.getJSONArray(String.valueOf(movieId));
-                    for (int i = 0; i < movieReviews.length(); i++) {
-                        JSONObject reviewObj = movieReviews.getJSONObject(i);
-                        reviews.add(new Review(
-                            reviewObj.getString("userName"),
-                            reviewObj.getString("avatarEmoji"),
-                            reviewObj.getDouble("rating"),
-                            reviewObj.getString("comment")
-                        ));
-                    }
-                }
-            }
-        } catch (JSONException e) {
-            logger.error("Failed to parse reviews JSON for movie {}: {}", movieId, e.getMessage(), e);
-            // Return empty list for JSON parsing errors to allow graceful degradation
-        } catch (IOException e) {
-            logger.error("Failed to read reviews JSON file for movie {}: {}", movieId, e.getMessage(), e);
-            // Return empty list for IO errors to allow graceful degradation
-        } catch (RuntimeException e) {
-            logger.error("Unexpected error loading reviews for movie {}: {}", movieId, e.getMessage(), e);
-            // Return empty list for unexpected errors to allow graceful degradation
+            reviewRepository.add(movieId, accepted).get(SUBMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ReviewSubmissionException("Interrupted while saving review for movie " + movieId, e);
+        } catch (ExecutionException e) {
+            throw new ReviewSubmissionException("Failed to save review for movie " + movieId, e.getCause());
+        } catch (TimeoutException e) {
+            throw new ReviewSubmissionException("Timed out saving review for movie " + movieId, e);
+        } finally {
+            metrics.recordReviewSubmit(System.nanoTime() - start);
         }
-        return reviews;
+        return getReviewStats(movieId);
+    }
+
+    /**
+     * @return the review with surrounding whitespace trimmed and the default avatar filled in
+     * @throws IllegalArgumentException if the review is not acceptable, see {@link #addReview(long, Review)}
+     */
+    static Review validateReview(Review review) {
+        if (review == null) {
+            throw new IllegalArgumentException("Review is required.");
+        }
+        String userName = trimmed(review.getUserName());
+        String avatar = trimmed(review.getAvatarEmoji());
+        String comment = trimmed(review.getComment());
+        if (userName.isEmpty() || userName.length() > MAX_USER_NAME_LENGTH) {
+            throw new IllegalArgumentException("Review user name must be 1 to " + MAX_USER_NAME_LENGTH + " characters.");
+        }
+        if (avatar.length() > MAX_AVATAR_LENGTH) {
+            throw new IllegalArgumentException("Review avatar must be at most " + MAX_AVATAR_LENGTH + " characters.");
+        }
+        if (!(review.getRating() >= MIN_RATING && review.getRating() <= MAX_RATING)) {
+            throw new IllegalArgumentException("Review rating must be between " + MIN_RATING + " and " + MAX_RATING + ".");
+        }
+        if (comment.isEmpty() || comment.length() > MAX_COMMENT_LENGTH) {
+            throw new IllegalArgumentException("Review comment must be 1 to " + MAX_COMMENT_LENGTH + " characters.");
+        }
+        return new Review(userName, avatar.isEmpty() ? DEFAULT_AVATAR : avatar, review.getRating(), comment);
+    }
+
+    private static String trimmed(String value) {
+        return value == null ? "" : value.trim();
+    }
+
+    /**
+     * @return the number of review log syncs since startup
+     */
+    public long getReviewLogSyncCount() {
+        return reviewRepository.getLogSyncCount();
+    }
+
+    /**
+     * @return the number of reviews written to the review log since startup
+     */
+    public long getLoggedReviewCount() {
+        return reviewRepository.getLoggedReviewCount();
+    }
+
+    /**
+     * @return a hash of the currently loaded reviews, changing whenever any review changes
+     */
+    public long getReviewsVersion() {
+        return reviewRepository.getVersion();
+    }
+
+    /**
+     * @return the number of movies with loaded reviews
+     */
+    public int getReviewedMovieCount() {
+        return reviewRepository.getMovieCount();
     }
 }
@@ -0,0 +1,50 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.List;
+
+/**
+ * Review statistics for one movie: its {@link ReviewSummary}, its review score and rank among
+ * all reviewed movies, and its most recent reviews.
+ */
+public class ReviewStats {
+
+    public static final int RECENT_REVIEWS = 3;
+
+    private final ReviewSummary summary;
+    private final double score;
+    private final int rank;
+    private final List<Review> recentReviews;
+
+    public ReviewStats(ReviewSummary summary, double score, int rank, List<Review> recentReviews) {
+        this.summary = summary;
+        this.score = score;
+        this.rank = rank;
+        this.recentReviews = recentReviews;
+    }
+
+    public ReviewSummary getSummary() {
+        return this.summary;
+    }
+
+    /**
+     * @return the mean rating weighted towards the catalog-wide mean for movies with few reviews; 0 without reviews
+     */
+    public double getScore() {
+        return this.score;
+    }
+
+    /**
+     * @return 1 for the movie with the best review score; movies whose scores agree to the
+     * thousandth share a rank; 0 if the movie has no reviews
+     */
+    public int getRank() {
+        return this.rank;
+    }
+
+    /**
+     * @return up to {@link #RECENT_REVIEWS} reviews, newest first
+     */
+    public List<Review> getRecentReviews() {
+        return this.recentReviews;
+    }
+}
@@ -0,0 +1,32 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+/**
+ * Request body of a review submission. Fields are bound as sent and checked by
+ * {@link ReviewService#addReview(long, Review)}.
+ */
+public class ReviewSubmission {
+
+    private String userName;
+    private String avatarEmoji;
+    private Double rating;
+    private String comment;
+
+    public String getUserName() { return userName; }
+    public void setUserName(String userName) { this.userName = userName; }
+    public String getAvatarEmoji() { return avatarEmoji; }
+    public void setAvatarEmoji(String avatarEmoji) { this.avatarEmoji = avatarEmoji; }
+    public Double getRating() { return rating; }
+    public void setRating(Double rating) { this.rating = rating; }
+    public String getComment() { return comment; }
+    public void setComment(String comment) { this.comment = comment; }
+
+    /**
+     * @throws IllegalArgumentException if no rating was sent
+     */
+    Review toReview() {
+        if (rating == null) {
+            throw new IllegalArgumentException("Review rating is required.");
+        }
+        return new Review(userName, avatarEmoji, rating, comment);
+    }
+}
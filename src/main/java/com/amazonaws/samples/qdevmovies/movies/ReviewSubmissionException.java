@@ -0,0 +1,16 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+/**
+ * Custom exception for review submissions.
+ * Thrown when a valid review cannot be made durable, for example when the review log fails or falls behind.
+ */
+public class ReviewSubmissionException extends RuntimeException {
+    
+    public ReviewSubmissionException(String message) {
+        super(message);
+    }
+    
+    public ReviewSubmissionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
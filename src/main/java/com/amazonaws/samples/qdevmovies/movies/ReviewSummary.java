@@ -0,0 +1,73 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+/**
+ * Precomputed review aggregates for a single movie: the review count, the mean rating and how
+ * many reviews gave each number of stars. Summaries are immutable; {@link #plus(Review)} derives
+ * the summary that includes one more review in constant time, so a new review never rescans the
+ * movie's earlier reviews.
+ */
+public class ReviewSummary {
+
+    /** Number of histogram buckets, for one to five stars. */
+    public static final int STARS = 5;
+
+    public static final ReviewSummary EMPTY = new ReviewSummary(0, 0.0, new int[STARS]);
+
+    private final int reviewCount;
+    private final double ratingSum;
+    private final int[] histogram;
+
+    private ReviewSummary(int reviewCount, double ratingSum, int[] histogram) {
+        this.reviewCount = reviewCount;
+        this.ratingSum = ratingSum;
+        this.histogram = histogram;
+    }
+
+    /**
+     * @return the summary of these reviews
+     */
+    static ReviewSummary of(Review[] reviews) {
+        double ratingSum = 0.0;
+        int[] histogram = new int[STARS];
+        for (Review review : reviews) {
+            ratingSum += review.getRating();
+            histogram[starsOf(review.getRating()) - 1]++;
+        }
+        return reviews.length == 0 ? EMPTY : new ReviewSummary(reviews.length, ratingSum, histogram);
+    }
+
+    /**
+     * @return a new summary that also counts this review; this summary is unchanged
+     */
+    ReviewSummary plus(Review review) {
+        int[] counts = histogram.clone();
+        counts[starsOf(review.getRating()) - 1]++;
+        return new ReviewSummary(reviewCount + 1, ratingSum + review.getRating(), counts);
+    }
+
+    /**
+     * @return the rating rounded to the nearest whole star, from 1 to {@link #STARS}
+     */
+    static int starsOf(double rating) {
+        return (int) Math.max(1, Math.min(STARS, Math.round(rating)));
+    }
+
+    public int getReviewCount() {
+        return this.reviewCount;
+    }
+
+    public double getAverageRating() {
+        return this.reviewCount == 0 ? 0.0 : this.ratingSum / this.reviewCount;
+    }
+
+    double getRatingSum() {
+        return this.ratingSum;
+    }
+
+    /**
+     * @return review counts by star rating, index 0 for one star through index 4 for five
+     */
+    public int[] getHistogram() {
+        return this.histogram.clone();
+    }
+}
@@ -0,0 +1,65 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Startup self-check that lists development-only settings still in effect.
+ * Under the {@code prod} profile each one is logged as a warning; otherwise a single
+ * informational line notes that the application runs in development mode.
+ */
+@Component
+public class RuntimeSettingsCheck {
+    private static final Logger logger = LogManager.getLogger(RuntimeSettingsCheck.class);
+
+    private final Environment environment;
+
+    public RuntimeSettingsCheck(Environment environment) {
+        this.environment = environment;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkSettings() {
+        List<String> devSettings = findDevelopmentSettings();
+        if (!environment.acceptsProfiles(Profiles.of("prod"))) {
+            logger.info("Running with development settings ({} active); use --spring.profiles.active=prod for deployments",
+                devSettings.size());
+            return;
+        }
+        for (String setting : devSettings) {
+            logger.warn("Development setting active in prod profile: {}", setting);
+        }
+    }
+
+    List<String> findDevelopmentSettings() {
+        List<String> devSettings = new ArrayList<>();
+        if (!environment.getProperty("spring.thymeleaf.cache", Boolean.class, true)) {
+            devSettings.add("spring.thymeleaf.cache=false re-parses templates on every render");
+        }
+        if (!environment.getProperty("server.compression.enabled", Boolean.class, false)) {
+            devSettings.add("server.compression.enabled=false sends HTML, CSS and JSON uncompressed");
+        }
+        if (!environment.getProperty("movies.page-cache.enabled", Boolean.class, true)) {
+            devSettings.add("movies.page-cache.enabled=false renders every catalog page per request");
+        }
+        String appLogLevel = environment.getProperty("logging.level.com.amazonaws.samples.qdevmovies", "INFO");
+        if ("DEBUG".equalsIgnoreCase(appLogLevel) || "TRACE".equalsIgnoreCase(appLogLevel)) {
+            devSettings.add("logging.level.com.amazonaws.samples.qdevmovies=" + appLogLevel + " logs every request in detail");
+        }
+        if (environment.getProperty("logging.config") == null) {
+            devSettings.add("logging.config is not set, so every log line is written synchronously to the console");
+        }
+        if (environment.getProperty("spring.web.resources.cache.cachecontrol.max-age") == null) {
+            devSettings.add("no Cache-Control max-age on static /css resources");
+        }
+        return devSettings;
+    }
+}
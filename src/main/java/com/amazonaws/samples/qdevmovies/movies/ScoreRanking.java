@@ -0,0 +1,56 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Counts of movies by review score, kept in a Fenwick tree over scores rounded to thousandths,
+ * so moving one movie to a new score and finding how many movies score higher both take
+ * {@code log2(5001)}, about 13, steps regardless of the catalog size.
+ * <p>
+ * Every count is updated atomically, so movies can be moved concurrently from different threads.
+ * Readers do not lock, so a rank read while movies are being moved between scores can be off by
+ * the number of moves in flight for that instant.
+ */
+final class ScoreRanking {
+
+    static final int SCALE = 1000;
+    private static final int BUCKETS = 5 * SCALE + 1;
+
+    // 1-based Fenwick tree over buckets
+    private final AtomicIntegerArray tree = new AtomicIntegerArray(BUCKETS + 1);
+    private final AtomicInteger total = new AtomicInteger();
+
+    static int bucketOf(double score) {
+        return (int) Math.max(0, Math.min(BUCKETS - 1, Math.round(score * SCALE)));
+    }
+
+    void add(int bucket) {
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            tree.incrementAndGet(i);
+        }
+        total.incrementAndGet();
+    }
+
+    void remove(int bucket) {
+        total.decrementAndGet();
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            tree.decrementAndGet(i);
+        }
+    }
+
+    /**
+     * @return the number of counted movies whose score bucket is above this one
+     */
+    int countAbove(int bucket) {
+        int atOrBelow = 0;
+        for (int i = bucket + 1; i > 0; i -= i & -i) {
+            atOrBelow += tree.get(i);
+        }
+        return total.get() - atOrBelow;
+    }
+
+    int size() {
+        return total.get();
+    }
+}
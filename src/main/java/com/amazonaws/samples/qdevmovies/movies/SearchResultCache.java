@@ -0,0 +1,285 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Size-bounded LRU cache of unpaged search results, weighed by their stored bytes.
+ * <p>
+ * Entries are keyed by the criteria as searches compare them, so {@code " Heist"} and
+ * {@code "heist"} share one entry, together with the catalog version they were computed from.
+ * Each entry holds the matching catalog positions as an {@code int[]}, four bytes per match,
+ * and callers build the movies from them on every hit. Positions are only meaningful within one
+ * catalog, which the version in the key pins down. The cache holds results of the catalog version
+ * it was last told is current: switching to a new version drops every entry, and results computed
+ * against any other version, such as a search that started before a reload, are not cached.
+ * <p>
+ * The entries are spread over {@link #SEGMENTS} independently locked segments sharing one byte
+ * budget, so concurrent hits on different keys rarely wait for each other. Concurrent misses on
+ * the same key are coalesced: the first runs the search while the rest wait for its result.
+ */
+@Component
+class SearchResultCache {
+
+    /** Caches nothing: every lookup runs the search. */
+    static final SearchResultCache DISABLED = new SearchResultCache(0);
+
+    static final int SEGMENTS = 16;
+    private static final int SEGMENT_SHIFT = Integer.numberOfLeadingZeros(SEGMENTS - 1);
+
+    /** Approximate bytes an entry costs besides its positions: key, strings, map node and array header. */
+    private static final int ENTRY_OVERHEAD = 160;
+
+    private final long maxBytes;
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final AtomicLong totalBytes = new AtomicLong();
+    private volatile long version;
+    private final ConcurrentHashMap<Key, CompletableFuture<int[]>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxBytes upper bound on cached bytes across all segments; 0 caches nothing
+     */
+    @Autowired
+    SearchResultCache(@Value("${movies.search.cache.max-bytes:16777216}") long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("Search cache size must not be negative, but got: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * @return the key for these criteria against this catalog version, or null when the cache is
+     * disabled or no criterion is given, since the whole catalog needs no search
+     */
+    Key keyFor(String name, Long id, String genre, long catalogVersion) {
+        if (maxBytes == 0) {
+            return null;
+        }
+        String searchName = MovieSearchIndex.normalize(name);
+        String searchGenre = MovieSearchIndex.normalize(genre);
+        if (searchName == null && id == null && searchGenre == null) {
+            return null;
+        }
+        return new Key(searchName, id, searchGenre, catalogVersion);
+    }
+
+    /**
+     * Returns the cached positions for the key, or runs the search and caches its result. When
+     * another thread is already running the search for the same key, waits for its result
+     * instead; if that search fails, every waiter gets its exception and nothing is cached.
+     *
+     * @param search computes the matching positions in ascending order
+     * @return the matching positions, shared with other callers and never to be modified
+     */
+    int[] get(Key key, Supplier<int[]> search) {
+        Segment segment = segments[key.hash >>> SEGMENT_SHIFT];
+        int[] positions = segment.get(key);
+        if (positions != null) {
+            hits.increment();
+            return positions;
+        }
+        CompletableFuture<int[]> flight = new CompletableFuture<>();
+        CompletableFuture<int[]> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+        try {
+            // the previous leader may have cached the result after our lookup above
+            positions = segment.get(key);
+            if (positions != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                positions = search.get();
+                put(segment, key, positions);
+            }
+            flight.complete(positions);
+            return positions;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static int[] await(CompletableFuture<int[]> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void put(Segment segment, Key key, int[] positions) {
+        long weight = weight(positions);
+        if (weight > maxBytes || !segment.putIfCurrent(key, positions, weight)) {
+            return;
+        }
+        // evict from this segment first, then from the others, one lock at a time
+        int first = key.hash >>> SEGMENT_SHIFT;
+        for (int i = 0; i < SEGMENTS && totalBytes.get() > maxBytes; i++) {
+            segments[(first + i) % SEGMENTS].evictWhileOver();
+        }
+    }
+
+    /**
+     * Makes this catalog version the one whose results are cached, dropping every entry of the
+     * previous one. Called whenever a catalog is published.
+     */
+    synchronized void useCatalogVersion(long catalogVersion) {
+        if (catalogVersion != version) {
+            // segments check the version under their lock, so no put of the old version survives the clear
+            version = catalogVersion;
+            for (Segment segment : segments) {
+                segment.clear();
+            }
+        }
+    }
+
+    private static long weight(int[] positions) {
+        return ENTRY_OVERHEAD + 4L * positions.length;
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    long getTotalBytes() {
+        return totalBytes.get();
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return lookups that ran the search
+     */
+    long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return lookups that waited for a concurrent search of the same key instead of running their own
+     */
+    long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Normalized search criteria and the catalog version the result belongs to.
+     */
+    static final class Key {
+        private final String name;
+        private final Long id;
+        private final String genre;
+        private final long catalogVersion;
+        private final int hash;
+
+        private Key(String name, Long id, String genre, long catalogVersion) {
+            this.name = name;
+            this.id = id;
+            this.genre = genre;
+            this.catalogVersion = catalogVersion;
+            int h = Objects.hash(name, id, genre, catalogVersion);
+            this.hash = h * 0x9E3779B9; // spread into the top bits, which pick the segment
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return catalogVersion == other.catalogVersion && hash == other.hash
+                && Objects.equals(name, other.name) && Objects.equals(id, other.id) && Objects.equals(genre, other.genre);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<Key, int[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        synchronized int[] get(Key key) {
+            return entries.get(key);
+        }
+
+        /**
+         * @return false if the key is not of the current catalog version, in which case nothing is cached
+         */
+        synchronized boolean putIfCurrent(Key key, int[] positions, long weight) {
+            if (key.catalogVersion != version) {
+                return false;
+            }
+            int[] previous = entries.put(key, positions);
+            if (previous != null) {
+                totalBytes.addAndGet(-weight(previous));
+            }
+            totalBytes.addAndGet(weight);
+            return true;
+        }
+
+        synchronized void evictWhileOver() {
+            Iterator<Map.Entry<Key, int[]>> eldest = entries.entrySet().iterator();
+            while (totalBytes.get() > maxBytes && eldest.hasNext()) {
+                totalBytes.addAndGet(-weight(eldest.next().getValue()));
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+
+        synchronized void clear() {
+            for (int[] stale : entries.values()) {
+                totalBytes.addAndGet(-weight(stale));
+            }
+            entries.clear();
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.LongIntHashIndex;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The {@link SortOrder}s of one catalog, each built on first use and then shared.
+ * <p>
+ * Orders by rating, year, duration and name depend only on the immutable catalog and are kept
+ * for its lifetime. Orders by review count, average review rating and review score follow the
+ * loaded {@link ReviewIndex}: a request that finds reviews added since its order last caught up
+ * first moves each of those movies to its new rank, which costs the distance moved rather than a
+ * re-sort. When the reviews are reloaded, the orders in use are rebuilt on a background thread
+ * and requests keep being served the previous orders until the new ones are ready.
+ * Concurrent requests for an order that is still being built wait for that single build.
+ */
+final class SortIndex {
+    private static final Logger logger = LogManager.getLogger(SortIndex.class);
+
+    private final MovieCatalog catalog;
+    private final Map<MovieSort, SortOrder> catalogOrders = new ConcurrentHashMap<>();
+    private volatile ReviewOrders reviewOrders = new ReviewOrders(null, null);
+
+    SortIndex(MovieCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * @param reviews source of review counts and averages, or null to treat every movie as unreviewed
+     */
+    SortOrder order(MovieSort sort, ReviewRepository reviews) {
+        if (!sort.getField().usesReviews()) {
+            return catalogOrders.computeIfAbsent(sort, this::timedBuild);
+        }
+        ReviewOrders orders = reviewOrders(reviews == null ? null : reviews.currentIndex());
+        ReviewOrder order = orders.orders.get(sort);
+        if (order == null) {
+            ReviewOrders previous = orders.previous;
+            ReviewOrder rebuilding = previous == null ? null : previous.orders.get(sort);
+            if (rebuilding != null) {
+                return rebuilding.order;
+            }
+            order = orders.orders.computeIfAbsent(sort, key -> new ReviewOrder(key, orders.index));
+        }
+        return order.catchUp();
+    }
+
+    /**
+     * @return every sort built so far, so a reloaded catalog can build the same orders before it is served
+     */
+    Set<MovieSort> builtSorts() {
+        Set<MovieSort> sorts = new HashSet<>(catalogOrders.keySet());
+        ReviewOrders orders = reviewOrders;
+        sorts.addAll(orders.orders.keySet());
+        ReviewOrders previous = orders.previous;
+        if (previous != null) {
+            sorts.addAll(previous.orders.keySet());
+        }
+        return sorts;
+    }
+
+    /**
+     * @return the review orders of this index, starting a background rebuild of the orders in use
+     * when the reviews were reloaded
+     */
+    private ReviewOrders reviewOrders(ReviewIndex index) {
+        ReviewOrders orders = reviewOrders;
+        if (orders.index == index) {
+            return orders;
+        }
+        synchronized (this) {
+            orders = reviewOrders;
+            if (orders.index == index) {
+                return orders;
+            }
+            // an index replaced before any of its orders was built passes on the orders before it
+            ReviewOrders previous = orders.orders.isEmpty() ? orders.previous : orders;
+            ReviewOrders next = new ReviewOrders(index, previous);
+            reviewOrders = next;
+            if (previous != null) {
+                Thread builder = new Thread(() -> rebuild(next, previous.orders.keySet()), "review-sort-builder");
+                builder.setDaemon(true);
+                builder.start();
+            }
+            return next;
+        }
+    }
+
+    private void rebuild(ReviewOrders orders, Set<MovieSort> sorts) {
+        try {
+            for (MovieSort sort : sorts) {
+                orders.orders.computeIfAbsent(sort, key -> new ReviewOrder(key, orders.index));
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to rebuild review sort orders, building them on first use: {}", e.getMessage(), e);
+        } finally {
+            orders.previous = null;
+        }
+    }
+
+    private SortOrder timedBuild(MovieSort sort) {
+        long start = System.nanoTime();
+        SortOrder order = build(sort);
+        logger.info("Built {} sort order over {} movies in {} ms", sort, catalog.size(), (System.nanoTime() - start) / 1_000_000);
+        return order;
+    }
+
+    private SortOrder build(MovieSort sort) {
+        int size = catalog.size();
+        if (sort.getField() == MovieSort.Field.NAME) {
+            String[] names = new String[size];
+            for (int position = 0; position < size; position++) {
+                names[position] = catalog.nameAt(position);
+            }
+            return SortOrder.byText(names, sort.isDescending());
+        }
+        int[] keys = new int[size];
+        for (int position = 0; position < size; position++) {
+            keys[position] = key(sort.getField(), position, null);
+        }
+        return SortOrder.byKey(keys, sort.isDescending());
+    }
+
+    /**
+     * @param reviews source of review keys, or null to treat every movie as unreviewed
+     */
+    private int key(MovieSort.Field field, int position, ReviewIndex reviews) {
+        switch (field) {
+            case RATING:
+                return SortedColumn.ratingKey(catalog.ratingAt(position));
+            case YEAR:
+                return catalog.yearAt(position);
+            case DURATION:
+                return catalog.durationAt(position);
+            case REVIEW_COUNT:
+                return reviews == null ? 0 : reviews.summaryFor(catalog.idAt(position)).getReviewCount();
+            case REVIEW_RATING:
+                return SortedColumn.ratingKey(reviews == null ? 0.0 : reviews.summaryFor(catalog.idAt(position)).getAverageRating());
+            case REVIEW_SCORE:
+                return SortedColumn.ratingKey(reviews == null ? 0.0 : reviews.scoreFor(catalog.idAt(position)));
+            default:
+                throw new IllegalArgumentException("Not an int sort key: " + field);
+        }
+    }
+
+    /**
+     * The review orders built against one loaded review index.
+     */
+    private static final class ReviewOrders {
+        final ReviewIndex index;
+        final Map<MovieSort, ReviewOrder> orders = new ConcurrentHashMap<>();
+        // orders of the reviews loaded before, served while this index's orders are rebuilt
+        volatile ReviewOrders previous;
+
+        ReviewOrders(ReviewIndex index, ReviewOrders previous) {
+            this.index = index;
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * An order by a review key, with the keys it is sorted by and how many added reviews it reflects.
+     */
+    private final class ReviewOrder {
+        final MovieSort sort;
+        final ReviewIndex reviews;
+        final int[] sortKeys;
+        final SortOrder order;
+        private volatile int applied;
+
+        ReviewOrder(MovieSort sort, ReviewIndex reviews) {
+            long start = System.nanoTime();
+            this.sort = sort;
+            this.reviews = reviews;
+            // reviews added during the build are moved again by the first catch-up, which is harmless
+            this.applied = reviews == null ? 0 : reviews.changeCount();
+            int[] keys = new int[catalog.size()];
+            for (int position = 0; position < keys.length; position++) {
+                keys[position] = key(sort.getField(), position, reviews);
+            }
+            this.sortKeys = sort.isDescending() ? SortOrder.complement(keys) : keys;
+            this.order = SortOrder.bySortKey(sortKeys);
+            logger.info("Built {} sort order over {} movies in {} ms", sort, catalog.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+
+        /**
+         * Moves every movie that received a review since the last catch-up to its new rank.
+         */
+        SortOrder catchUp() {
+            if (reviews == null || applied == reviews.changeCount()) {
+                return order;
+            }
+            synchronized (this) {
+                long[] changed = reviews.changesSince(applied);
+                if (changed == null) {
+                    // further behind than the index keeps changes: re-key every movie, moving only those that changed
+                    int caughtUp = reviews.changeCount();
+                    for (int position = 0; position < catalog.size(); position++) {
+                        move(position);
+                    }
+                    applied = caughtUp;
+                    return order;
+                }
+                for (long movieId : changed) {
+                    if (catalog.hasUniqueIds()) {
+                        int position = catalog.positionOf(movieId);
+                        if (position != LongIntHashIndex.NOT_FOUND) {
+                            move(position);
+                        }
+                    } else {
+                        for (int position = 0; position < catalog.size(); position++) {
+                            if (catalog.idAt(position) == movieId) {
+                                move(position);
+                            }
+                        }
+                    }
+                }
+                applied += changed.length;
+            }
+            return order;
+        }
+
+        private void move(int position) {
+            int key = key(sort.getField(), position, reviews);
+            order.move(sortKeys, position, sort.isDescending() ? ~key : key);
+        }
+    }
+}
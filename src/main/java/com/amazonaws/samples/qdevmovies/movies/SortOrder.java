@@ -0,0 +1,240 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A permutation of catalog positions in one sort order, with its inverse.
+ * <p>
+ * {@code positions[rank]} is the movie at a rank and {@code ranks[position]} the rank of a
+ * movie, so ordering any set of movies reduces to comparing ints. Top-N over a filtered set
+ * either walks the permutation until enough matches are seen, or keeps the best ranks in a
+ * bounded heap while iterating the matches, whichever is expected to touch fewer movies.
+ * Neither sorts the catalog per request.
+ */
+final class SortOrder {
+
+    private final int[] positions;
+    private final int[] ranks;
+
+    private SortOrder(int[] positions) {
+        this.positions = positions;
+        this.ranks = new int[positions.length];
+        for (int rank = 0; rank < positions.length; rank++) {
+            ranks[positions[rank]] = rank;
+        }
+    }
+
+    /**
+     * Orders positions by an int key; equal keys keep catalog order in both directions.
+     */
+    static SortOrder byKey(int[] keys, boolean descending) {
+        return bySortKey(descending ? complement(keys) : keys);
+    }
+
+    /**
+     * @return the keys with every bit flipped, which sort in the opposite order
+     */
+    static int[] complement(int[] keys) {
+        int[] complemented = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            // bitwise complement reverses the order of every int without overflow
+            complemented[i] = ~keys[i];
+        }
+        return complemented;
+    }
+
+    /**
+     * Orders positions by ascending key; equal keys keep catalog order.
+     */
+    static SortOrder bySortKey(int[] sortKeys) {
+        SortedColumn column = new SortedColumn(sortKeys);
+        int[] positions = new int[column.size()];
+        for (int rank = 0; rank < positions.length; rank++) {
+            positions[rank] = column.positionAt(rank);
+        }
+        return new SortOrder(positions);
+    }
+
+    /**
+     * Orders positions by text, ignoring case; equal texts keep catalog order in both directions.
+     */
+    static SortOrder byText(String[] texts, boolean descending) {
+        Integer[] boxed = new Integer[texts.length];
+        for (int i = 0; i < boxed.length; i++) {
+            boxed[i] = i;
+        }
+        Comparator<Integer> byText = (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(texts[a], texts[b]);
+        // the sort is stable, so ties stay in ascending position order either way
+        Arrays.sort(boxed, descending ? byText.reversed() : byText);
+        int[] positions = new int[boxed.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = boxed[i];
+        }
+        return new SortOrder(positions);
+    }
+
+    int size() {
+        return positions.length;
+    }
+
+    int positionAt(int rank) {
+        return positions[rank];
+    }
+
+    int rankOf(int position) {
+        return ranks[position];
+    }
+
+    /**
+     * Moves one position of an order built by {@link #byKey(int[], boolean)} to the rank its
+     * new key sorts at, shifting every position in between by one rank, in time proportional
+     * to the distance moved. Callers serialize moves; readers do not lock, so a page read while
+     * a position is moving can miss it or list it twice.
+     *
+     * @param sortKeys the keys this order is ascending by, already complemented for a descending
+     *                 order; the moved position's entry is replaced with {@code sortKey}
+     */
+    void move(int[] sortKeys, int position, int sortKey) {
+        sortKeys[position] = sortKey;
+        int rank = ranks[position];
+        while (rank > 0 && before(sortKeys, position, positions[rank - 1])) {
+            int shifted = positions[rank - 1];
+            positions[rank] = shifted;
+            ranks[shifted] = rank;
+            rank--;
+        }
+        while (rank < positions.length - 1 && before(sortKeys, positions[rank + 1], position)) {
+            int shifted = positions[rank + 1];
+            positions[rank] = shifted;
+            ranks[shifted] = rank;
+            rank++;
+        }
+        positions[rank] = position;
+        ranks[position] = rank;
+    }
+
+    private static boolean before(int[] sortKeys, int a, int b) {
+        return sortKeys[a] < sortKeys[b] || sortKeys[a] == sortKeys[b] && a < b;
+    }
+
+    /**
+     * Returns a page of matches in this order.
+     *
+     * @param matches bitmap of matching positions, or null when every movie matches
+     * @param matchCount number of bits set in {@code matches}
+     * @param afterRank only ranks after this one are returned; -1 to start from the top
+     * @param skip number of leading matches to skip
+     * @param limit maximum number of positions to return
+     * @return matching positions, best rank first
+     */
+    int[] select(long[] matches, int matchCount, int afterRank, int skip, int limit) {
+        int from = afterRank + 1;
+        if (matches == null) {
+            int start = (int) Math.min(positions.length, (long) from + skip);
+            int end = (int) Math.min(positions.length, (long) start + limit);
+            return Arrays.copyOfRange(positions, start, end);
+        }
+        long needed = (long) skip + limit;
+        if (matchCount == 0 || needed == 0) {
+            return new int[0];
+        }
+        // walking visits about needed * size / matchCount ranks; the heap visits every match
+        long walkCost = needed * (positions.length - from) / matchCount;
+        return walkCost <= matchCount
+            ? walk(matches, from, skip, limit)
+            : heap(matches, from, skip, (int) Math.min(needed, matchCount) - skip);
+    }
+
+    private int[] walk(long[] matches, int from, int skip, int limit) {
+        int[] selected = new int[Math.min(limit, 1024)];
+        int count = 0;
+        int toSkip = skip;
+        for (int rank = from; rank < positions.length && count < limit; rank++) {
+            int position = positions[rank];
+            if ((matches[position >>> 6] & (1L << position)) == 0) {
+                continue;
+            }
+            if (toSkip > 0) {
+                toSkip--;
+                continue;
+            }
+            if (count == selected.length) {
+                selected = Arrays.copyOf(selected, (int) Math.min(limit, selected.length * 2L));
+            }
+            selected[count++] = position;
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Keeps the {@code skip + limit} best ranks at or after {@code from} in a max-heap, so
+     * the worst kept rank is replaced in O(log k) whenever a better match turns up.
+     */
+    private int[] heap(long[] matches, int from, int skip, int limit) {
+        if (limit <= 0) {
+            return new int[0];
+        }
+        int capacity = skip + limit;
+        int[] heap = new int[capacity];
+        int size = 0;
+        for (int word = 0; word < matches.length; word++) {
+            long bits = matches[word];
+            while (bits != 0) {
+                int position = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int rank = ranks[position];
+                if (rank < from) {
+                    continue;
+                }
+                if (size < capacity) {
+                    heap[size] = rank;
+                    siftUp(heap, size++);
+                } else if (rank < heap[0]) {
+                    heap[0] = rank;
+                    siftDown(heap, size);
+                }
+            }
+        }
+        int[] best = Arrays.copyOf(heap, size);
+        Arrays.sort(best);
+        int[] selected = new int[Math.max(0, size - skip)];
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = positions[best[skip + i]];
+        }
+        return selected;
+    }
+
+    private static void siftUp(int[] heap, int index) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private static void siftDown(int[] heap, int size) {
+        int value = heap[0];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] > heap[child]) {
+                child++;
+            }
+            if (heap[child] <= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
@@ -0,0 +1,79 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.util.Arrays;
+
+/**
+ * Catalog positions sorted by an int key, for range filters that touch only the matching slice.
+ * <p>
+ * Keys and positions are packed into one {@code long} per movie and sorted as primitives, so
+ * building costs one array sort with no boxing. Equal keys keep catalog order.
+ */
+final class SortedColumn {
+
+    private final int[] positions;
+    private final int[] keys;
+
+    SortedColumn(int[] keysByPosition) {
+        long[] packed = new long[keysByPosition.length];
+        for (int position = 0; position < packed.length; position++) {
+            // the key in the high half orders signed keys correctly; positions are never negative
+            packed[position] = ((long) keysByPosition[position] << 32) | position;
+        }
+        Arrays.sort(packed);
+        this.positions = new int[packed.length];
+        this.keys = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            positions[i] = (int) packed[i];
+            keys[i] = (int) (packed[i] >> 32);
+        }
+    }
+
+    int size() {
+        return positions.length;
+    }
+
+    /**
+     * @return the catalog position at this rank, in ascending key order
+     */
+    int positionAt(int rank) {
+        return positions[rank];
+    }
+
+    /**
+     * @return the first rank whose key is at least {@code key}
+     */
+    int lowerBound(int key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sets the bit of every position whose key lies between {@code minKey} and {@code maxKey}, inclusive.
+     */
+    void markRange(long[] bitmap, int minKey, int maxKey) {
+        if (minKey > maxKey) {
+            return;
+        }
+        int end = maxKey == Integer.MAX_VALUE ? keys.length : lowerBound(maxKey + 1);
+        for (int rank = lowerBound(minKey); rank < end; rank++) {
+            bitmap[positions[rank] >>> 6] |= 1L << positions[rank];
+        }
+    }
+
+    /**
+     * Maps a rating to an int key with the same order, for ratings kept at float precision.
+     */
+    static int ratingKey(double rating) {
+        int bits = Float.floatToIntBits((float) rating);
+        return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+    }
+}
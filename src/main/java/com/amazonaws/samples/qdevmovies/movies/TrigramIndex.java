@@ -0,0 +1,99 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.LongIntHashIndex;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable map from character trigrams to sorted postings lists of document numbers.
+ * <p>
+ * Each text is indexed with a space on either side, so words at the start and end of a text
+ * yield the same boundary trigrams as words in the middle. Any substring query still finds
+ * every document containing it, and fuzzy queries can match on word boundaries.
+ */
+final class TrigramIndex {
+
+    static final int GRAM_LENGTH = 3;
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final LongIntHashIndex gramSlots;
+    private final int[][] postings;
+
+    /**
+     * @param texts already normalized texts; the array index is the document number
+     */
+    TrigramIndex(String[] texts) {
+        Map<Long, PostingsBuilder> gramBuilders = new HashMap<>();
+        for (int document = 0; document < texts.length; document++) {
+            String padded = " " + texts[document] + " ";
+            for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++) {
+                gramBuilders.computeIfAbsent(gramKey(padded, i), key -> new PostingsBuilder()).add(document);
+            }
+        }
+
+        this.gramSlots = new LongIntHashIndex(gramBuilders.size());
+        this.postings = new int[gramBuilders.size()][];
+        int slot = 0;
+        for (Map.Entry<Long, PostingsBuilder> entry : gramBuilders.entrySet()) {
+            gramSlots.put(entry.getKey(), slot);
+            postings[slot++] = entry.getValue().toArray();
+        }
+    }
+
+    /**
+     * @return the documents containing the trigram, in ascending order; never null
+     */
+    int[] postings(long gramKey) {
+        int slot = gramSlots.get(gramKey);
+        return slot == LongIntHashIndex.NOT_FOUND ? NO_POSITIONS : postings[slot];
+    }
+
+    /**
+     * Every text containing the query contains all of its trigrams, so the smallest
+     * trigram postings list is a complete candidate set.
+     *
+     * @param query at least {@link #GRAM_LENGTH} characters
+     */
+    int[] shortestPostings(String query) {
+        int[] shortest = null;
+        for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+            int[] candidates = postings(gramKey(query, i));
+            if (shortest == null || candidates.length < shortest.length) {
+                shortest = candidates;
+            }
+            if (shortest.length == 0) {
+                break;
+            }
+        }
+        return shortest;
+    }
+
+    static long gramKey(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+
+    private static final class PostingsBuilder {
+        private int[] positions = new int[4];
+        private int size;
+
+        void add(int position) {
+            // texts repeating a trigram would otherwise add the same document twice
+            if (size > 0 && positions[size - 1] == position) {
+                return;
+            }
+            if (size == positions.length) {
+                int[] grown = new int[size * 2];
+                System.arraycopy(positions, 0, grown, 0, size);
+                positions = grown;
+            }
+            positions[size++] = position;
+        }
+
+        int[] toArray() {
+            int[] exact = new int[size];
+            System.arraycopy(positions, 0, exact, 0, size);
+            return exact;
+        }
+    }
+}
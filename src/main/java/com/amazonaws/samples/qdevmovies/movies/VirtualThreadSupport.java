@@ -0,0 +1,90 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs request handling on virtual threads when {@code movies.threads.virtual=true} and the
+ * JVM supports them (JDK 21 or later).
+ * <p>
+ * Tomcat then starts one virtual thread per request instead of borrowing one of the
+ * {@code server.tomcat.threads.max} platform threads, and the JSON endpoints write their
+ * streamed bodies on virtual threads too instead of on Spring's bounded async task pool.
+ * A request that blocks no longer holds a pooled thread, so concurrency is bounded by
+ * {@code server.tomcat.max-connections} alone. Controllers, filters and the page cache run
+ * unchanged. The application is still compiled for Java 8, so the virtual thread API is
+ * looked up reflectively; on an older JVM the setting is logged and platform threads are kept.
+ */
+@Component
+public class VirtualThreadSupport implements TomcatProtocolHandlerCustomizer<ProtocolHandler>, WebMvcConfigurer {
+    private static final Logger logger = LogManager.getLogger(VirtualThreadSupport.class);
+
+    private final ExecutorService executor;
+
+    public VirtualThreadSupport(@Value("${movies.threads.virtual:false}") boolean enabled) {
+        ExecutorService virtualThreads = enabled ? virtualThreadPerTaskExecutor("http-vt-") : null;
+        if (enabled && virtualThreads == null) {
+            logger.warn("movies.threads.virtual=true needs JDK 21 or later, but this is Java {}; keeping platform threads",
+                System.getProperty("java.specification.version"));
+        }
+        this.executor = virtualThreads;
+    }
+
+    /**
+     * @return true if requests are handled on virtual threads
+     */
+    public boolean isActive() {
+        return executor != null;
+    }
+
+    @Override
+    public void customize(ProtocolHandler protocolHandler) {
+        if (executor != null) {
+            protocolHandler.setExecutor(executor);
+            logger.info("Handling requests on virtual threads");
+        }
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        if (executor != null) {
+            configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return an executor starting one named virtual thread per task, or null if the JVM has no virtual threads
+     */
+    static ExecutorService virtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.amazonaws.samples.qdevmovies.utils;
+
+public class EtagUtils {
+
+    /**
+     * Checks an If-None-Match header against the current entity tag, using weak comparison
+     * @param ifNoneMatch The If-None-Match request header, may be null
+     * @param etag The quoted entity tag of the current representation, optionally weak
+     * @return true if the header lists the tag or is a wildcard, so a 304 can be sent
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = opaqueTag(candidate.trim());
+            if (tag.equals("*") || tag.equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
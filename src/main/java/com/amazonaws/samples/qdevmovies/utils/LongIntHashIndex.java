@@ -0,0 +1,87 @@
+package com.amazonaws.samples.qdevmovies.utils;
+
+/**
+ * Open-addressing hash index from primitive long keys to non-negative int values.
+ * The table is sized once for the expected number of keys, so building and probing
+ * never box keys or resize. Instances are meant to be filled once and then only read;
+ * publish them through a final or volatile field before sharing across threads.
+ */
+public final class LongIntHashIndex {
+
+    /** Value returned by {@link #get(long)} when the key is absent. */
+    public static final int NOT_FOUND = -1;
+
+    private final long[] keys;
+    // value + 1, so that 0 marks an empty slot and any long key is allowed
+    private final int[] values;
+    private final int mask;
+    private int size;
+
+    /**
+     * @param expectedSize number of distinct keys the index will hold
+     */
+    public LongIntHashIndex(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size must not be negative, but got: " + expectedSize);
+        }
+        // keep the load factor at or below 0.5 so probe sequences stay short
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Associates the key with the value, replacing any previous mapping.
+     * @return the previous value, or {@link #NOT_FOUND}
+     */
+    public int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative, but got: " + value);
+        }
+        int slot = slotOf(key);
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                int previous = values[slot] - 1;
+                values[slot] = value + 1;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size * 2 >= keys.length) {
+            throw new IllegalStateException("Index is full, it was sized for fewer than " + (size + 1) + " keys");
+        }
+        keys[slot] = key;
+        values[slot] = value + 1;
+        size++;
+        return NOT_FOUND;
+    }
+
+    /**
+     * @return the value mapped to the key, or {@link #NOT_FOUND}
+     */
+    public int get(long key) {
+        int slot = slotOf(key);
+        int stored;
+        while ((stored = values[slot]) != 0) {
+            if (keys[slot] == key) {
+                return stored - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != NOT_FOUND;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
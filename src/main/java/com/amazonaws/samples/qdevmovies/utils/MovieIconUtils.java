@@ -1,22 +1,54 @@
 package com.amazonaws.samples.qdevmovies.utils;
 
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 public class MovieIconUtils {
-    
+    private static final Logger logger = LogManager.getLogger(MovieIconUtils.class);
+
+    public static final String DEFAULT_ICON = "🎬";
+    private static final String ICONS_RESOURCE = "movie-icons.json";
+    private static final Map<String, String> ICONS = loadIcons();
+
+    /**
+     * Resolves the icon for a title from the {@code movie-icons.json} table, matching titles case-insensitively.
+     * Movies resolve their icon once when they are created, so this is not called while rendering.
+     * @param movieName The title of the movie
+     * @return the configured icon, or {@link #DEFAULT_ICON}
+     */
     public static String getMovieIcon(String movieName) {
-        switch (movieName.toLowerCase()) {
-            case "the prison escape": return "🔒";
-            case "the family boss": return "👔";
-            case "the masked hero": return "🦇";
-            case "urban stories": return "🌆";
-            case "life journey": return "🏃";
-            case "dream heist": return "💭";
-            case "the virtual world": return "🕶️";
-            case "the wise guys": return "🤵";
-            case "the quest for the ring": return "💍";
-            case "space wars: the beginning": return "🚀";
-            case "the factory owner": return "🏭";
-            case "underground club": return "👊";
-            default: return "🎬";
+        String icon = movieName != null ? ICONS.get(movieName.toLowerCase()) : null;
+        return icon != null ? icon : DEFAULT_ICON;
+    }
+
+    private static Map<String, String> loadIcons() {
+        try (InputStream inputStream = MovieIconUtils.class.getClassLoader().getResourceAsStream(ICONS_RESOURCE)) {
+            if (inputStream == null) {
+                logger.warn("Movie icons file not found in resources, using the default icon for every movie");
+                return Collections.emptyMap();
+            }
+            JSONObject iconsData = new JSONObject(new JSONTokener(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+            Map<String, String> icons = new HashMap<>(iconsData.length() * 2);
+            for (String title : iconsData.keySet()) {
+                icons.put(title.toLowerCase(), iconsData.getString(title));
+            }
+            return Collections.unmodifiableMap(icons);
+        } catch (JSONException e) {
+            logger.error("Failed to parse movie icons JSON: {}", e.getMessage(), e);
+        } catch (IOException e) {
+            logger.error("Failed to read movie icons JSON file: {}", e.getMessage(), e);
         }
+        return Collections.emptyMap();
     }
 }
@@ -0,0 +1,125 @@
+package com.amazonaws.samples.qdevmovies.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Immutable column of strings stored back to back as UTF-8 in large byte chunks.
+ * <p>
+ * Each entry costs its encoded bytes plus one long offset, instead of a {@link String} object
+ * and its backing array, so millions of short texts fit in a few dozen arrays. Values are
+ * decoded into a new {@code String} on every {@link #get(int)}; {@code null} is stored as an
+ * empty string.
+ */
+public final class Utf8Column {
+
+    private static final int CHUNK_BITS = 20;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final byte[][] NO_CHUNKS = new byte[0][];
+
+    private final byte[][] chunks;
+    // offsets[i] is where entry i starts in the logical byte sequence; offsets[size] is its end
+    private final long[] offsets;
+    private final int size;
+
+    private Utf8Column(byte[][] chunks, long[] offsets, int size) {
+        this.chunks = chunks;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @throws IndexOutOfBoundsException if the index is not below {@link #size()}
+     */
+    public String get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+        long start = offsets[index];
+        int length = (int) (offsets[index + 1] - start);
+        if (length == 0) {
+            return "";
+        }
+        int chunk = (int) (start >>> CHUNK_BITS);
+        int offset = (int) start & (CHUNK_SIZE - 1);
+        if (offset + length <= CHUNK_SIZE) {
+            return new String(chunks[chunk], offset, length, StandardCharsets.UTF_8);
+        }
+        // the entry straddles a chunk boundary
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            int count = Math.min(length - copied, CHUNK_SIZE - offset);
+            System.arraycopy(chunks[chunk], offset, bytes, copied, count);
+            copied += count;
+            chunk++;
+            offset = 0;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the number of encoded bytes held, excluding offsets
+     */
+    public long byteSize() {
+        return offsets[size];
+    }
+
+    /**
+     * Appends strings in order and then produces an immutable column.
+     */
+    public static final class Builder {
+        private byte[][] chunks = NO_CHUNKS;
+        private long[] offsets;
+        private int size;
+        private long length;
+
+        /**
+         * @param expectedSize number of entries the column will hold; the builder grows past it if needed
+         */
+        public Builder(int expectedSize) {
+            if (expectedSize < 0) {
+                throw new IllegalArgumentException("Expected size must not be negative, but got: " + expectedSize);
+            }
+            this.offsets = new long[expectedSize + 1];
+        }
+
+        public Builder add(String value) {
+            byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            if (size + 1 == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            int copied = 0;
+            while (copied < bytes.length) {
+                int chunk = (int) (length >>> CHUNK_BITS);
+                int offset = (int) length & (CHUNK_SIZE - 1);
+                if (chunk == chunks.length) {
+                    chunks = Arrays.copyOf(chunks, Math.max(4, chunks.length * 2));
+                }
+                if (chunks[chunk] == null) {
+                    chunks[chunk] = new byte[CHUNK_SIZE];
+                }
+                int count = Math.min(bytes.length - copied, CHUNK_SIZE - offset);
+                System.arraycopy(bytes, copied, chunks[chunk], offset, count);
+                copied += count;
+                length += count;
+            }
+            offsets[++size] = length;
+            return this;
+        }
+
+        public Utf8Column build() {
+            int chunkCount = (int) ((length + CHUNK_SIZE - 1) >>> CHUNK_BITS);
+            byte[][] exactChunks = Arrays.copyOf(chunks, chunkCount);
+            int lastLength = (int) (length - ((long) (chunkCount - 1) << CHUNK_BITS));
+            if (chunkCount > 0 && lastLength < CHUNK_SIZE) {
+                exactChunks[chunkCount - 1] = Arrays.copyOf(exactChunks[chunkCount - 1], lastLength);
+            }
+            return new Utf8Column(exactChunks, Arrays.copyOf(offsets, size + 1), size);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlFilterTest {
+
+    @Test
+    public void testClassifiesDetailsAndSearchPaths() {
+        assertEquals(AdmissionControlFilter.DETAILS, AdmissionControlFilter.endpoint("/movies/12/details"));
+        assertEquals(AdmissionControlFilter.DETAILS, AdmissionControlFilter.endpoint("/api/movies/12"));
+        assertEquals(AdmissionControlFilter.SEARCH, AdmissionControlFilter.endpoint("/movies/search"));
+        assertEquals(AdmissionControlFilter.SEARCH, AdmissionControlFilter.endpoint("/api/movies/search/faceted"));
+        assertNull(AdmissionControlFilter.endpoint("/movies"));
+        assertNull(AdmissionControlFilter.endpoint("/api/movies/batch"));
+        assertNull(AdmissionControlFilter.endpoint("/api/movies/autocomplete"));
+        assertNull(AdmissionControlFilter.endpoint("/movies/12/reviews/details"));
+    }
+
+    @Test
+    public void testShedsRequestsOverLimitWithFastServiceUnavailable() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(CatalogMetrics.NOOP, true, 1, 1, 1_000);
+        MockHttpServletResponse shed = new MockHttpServletResponse();
+        MockHttpServletResponse search = new MockHttpServletResponse();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+
+        // while one details request is in flight, the next is shed but search has its own limit
+        filter.doFilter(get("/movies/1/details"), admitted, (request, response) -> {
+            filter.doFilter(get("/api/movies/2"), shed, (r, s) -> fail("over the limit"));
+            filter.doFilter(get("/api/movies/search"), search, (r, s) -> ((MockHttpServletResponse) s).setStatus(200));
+        });
+
+        assertEquals(200, admitted.getStatus());
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+        assertTrue(shed.getContentType().startsWith("application/json"));
+        assertTrue(shed.getContentAsString().contains("Too many concurrent details requests"));
+        assertEquals(200, search.getStatus());
+
+        ConcurrencyLimit details = filter.getLimit(AdmissionControlFilter.DETAILS);
+        assertEquals(0, details.getInFlight());
+        assertEquals(1, details.getAcceptedCount());
+        assertEquals(1, details.getRejectedCount());
+        MockHttpServletResponse afterwards = new MockHttpServletResponse();
+        filter.doFilter(get("/api/movies/2"), afterwards, (request, response) -> { });
+        assertEquals(200, afterwards.getStatus());
+    }
+
+    private static MockHttpServletRequest get(String path) {
+        return new MockHttpServletRequest("GET", path);
+    }
+}
@@ -0,0 +1,64 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports the retained heap of a synthetic catalog in the previous object layout, a
+ * {@code List<Movie>} plus a {@code HashMap<Long, Movie>} id map, and in {@link ColumnarCatalog}.
+ * The search index is built in neither case, since both layouts share it.
+ * <p>
+ * Run each layout in its own JVM, for example:
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;deps&gt; \
+ *     com.amazonaws.samples.qdevmovies.movies.CatalogFootprintComparison 1000000 columnar
+ * </pre>
+ */
+public class CatalogFootprintComparison {
+
+    public static void main(String[] args) throws Exception {
+        int movieCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        String layout = args.length > 1 ? args[1] : "columnar";
+        Path catalogFile = Paths.get(System.getProperty("java.io.tmpdir"), "movies-" + movieCount + ".json");
+        if (!Files.exists(catalogFile)) {
+            CatalogLoadComparison.writeSyntheticCatalog(catalogFile, movieCount);
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long baseline = usedHeapAfterGc(memory);
+        Object retained;
+        try (InputStream inputStream = Files.newInputStream(catalogFile)) {
+            if ("objects".equals(layout)) {
+                List<Movie> movies = CatalogLoadComparison.loadWithStream(inputStream);
+                Map<Long, Movie> movieMap = new HashMap<>();
+                for (Movie movie : movies) {
+                    movieMap.put(movie.getId(), movie);
+                }
+                retained = new Object[] {movies, movieMap};
+            } else {
+                retained = MovieService.readCatalog(inputStream);
+            }
+        }
+        long used = usedHeapAfterGc(memory) - baseline;
+        System.out.printf("{\"layout\": \"%s\", \"movies\": %d, \"retainedHeapBytes\": %d, \"bytesPerMovie\": %d}%n",
+            layout, movieCount, used, used / movieCount);
+        if (retained.hashCode() == 0) {
+            System.out.println();
+        }
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
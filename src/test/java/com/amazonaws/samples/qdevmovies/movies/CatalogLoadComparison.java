@@ -0,0 +1,112 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Compares load time and peak heap of the streaming {@link MovieJsonReader} against the
+ * previous whole-document {@code org.json} loader on a synthetic catalog.
+ * <p>
+ * Run each loader in its own JVM so heap peaks do not interfere, for example:
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;deps&gt; \
+ *     com.amazonaws.samples.qdevmovies.movies.CatalogLoadComparison 500000 stream
+ * </pre>
+ */
+public class CatalogLoadComparison {
+
+    public static void main(String[] args) throws Exception {
+        int movieCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        String loader = args.length > 1 ? args[1] : "stream";
+        Path catalog = Paths.get(System.getProperty("java.io.tmpdir"), "movies-" + movieCount + ".json");
+        if (!Files.exists(catalog)) {
+            writeSyntheticCatalog(catalog, movieCount);
+        }
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        long baseline = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+                baseline += pool.getUsage().getUsed();
+            }
+        }
+
+        long start = System.nanoTime();
+        List<Movie> movies;
+        try (InputStream inputStream = Files.newInputStream(catalog)) {
+            movies = "dom".equals(loader) ? loadWithDom(inputStream) : loadWithStream(inputStream);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        System.out.printf("{\"loader\": \"%s\", \"movies\": %d, \"fileBytes\": %d, \"loadMillis\": %d, \"peakHeapBytes\": %d}%n",
+            loader, movies.size(), Files.size(catalog), elapsedMillis, peak - baseline);
+    }
+
+    static List<Movie> loadWithStream(InputStream inputStream) throws Exception {
+        List<Movie> movies = new ArrayList<>();
+        try (MovieJsonReader reader = new MovieJsonReader(inputStream)) {
+            while (reader.hasNext()) {
+                movies.add(reader.next());
+            }
+        }
+        return movies;
+    }
+
+    /** The loader MovieService used before streaming: read the whole file, then build a DOM. */
+    static List<Movie> loadWithDom(InputStream inputStream) {
+        Scanner scanner = new Scanner(inputStream, StandardCharsets.UTF_8.name());
+        String jsonContent = scanner.useDelimiter("\\A").next();
+        scanner.close();
+        JSONArray moviesArray = new JSONArray(jsonContent);
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < moviesArray.length(); i++) {
+            JSONObject movieObj = moviesArray.getJSONObject(i);
+            movies.add(new Movie(movieObj.getLong("id"), movieObj.getString("movieName"), movieObj.getString("director"),
+                movieObj.getInt("year"), movieObj.getString("genre"), movieObj.getString("description"),
+                movieObj.getInt("duration"), movieObj.getDouble("imdbRating")));
+        }
+        return movies;
+    }
+
+    static void writeSyntheticCatalog(Path file, int movieCount) throws Exception {
+        String[] genres = {"Drama", "Crime/Drama", "Action/Crime", "Action/Sci-Fi", "Adventure/Fantasy", "Drama/History"};
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writer.write("[\n");
+            for (int i = 1; i <= movieCount; i++) {
+                JSONObject movie = new JSONObject();
+                movie.put("id", i);
+                movie.put("movieName", "Synthetic Movie " + i);
+                movie.put("director", "Director " + (i % 997));
+                movie.put("year", 1950 + i % 75);
+                movie.put("genre", genres[i % genres.length]);
+                movie.put("description", "A generated description for synthetic movie number " + i + " used to size the catalog.");
+                movie.put("duration", 80 + i % 100);
+                movie.put("imdbRating", (i % 9) * 0.5 + 1.0);
+                writer.write(movie.toString());
+                writer.write(i < movieCount ? ",\n" : "\n");
+            }
+            writer.write("]\n");
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogMetricsTest {
+
+    private MeterRegistry registry;
+    private CatalogMetrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new CatalogMetrics(registry);
+    }
+
+    @Test
+    public void testCatalogLoadAndSizeRecorded() {
+        MovieService.builder().metrics(metrics).build();
+        assertEquals(1, registry.get("movies.catalog.load").timer().count());
+        assertEquals(12.0, registry.get("movies.catalog.size").gauge().value());
+    }
+
+    @Test
+    public void testSearchAndLookupRecorded() {
+        MovieService movieService = MovieService.builder().metrics(metrics).build();
+        movieService.searchMovies("the", null, null);
+        movieService.searchMoviesPage(null, null, "drama", 0, 5, null);
+        movieService.getMovieById(1L);
+        movieService.getMovieById(999L);
+
+        assertEquals(1, registry.get("movies.search").tag("operation", "list").timer().count());
+        assertEquals(1, registry.get("movies.search").tag("operation", "page").timer().count());
+        assertEquals(2, registry.get("movies.search.results").summary().count());
+        assertEquals(1, registry.get("movies.lookup").tag("result", "found").timer().count());
+        assertEquals(1, registry.get("movies.lookup").tag("result", "missing").timer().count());
+    }
+
+    @Test
+    public void testReviewLookupRecorded() {
+        ReviewService reviewService = new ReviewService(new ReviewRepository(), metrics);
+        int reviewCount = reviewService.getReviewsForMovie(1L).size();
+        assertEquals(1, registry.get("movies.reviews.lookup").timer().count());
+        assertEquals(reviewCount, registry.get("movies.reviews.lookup.results").summary().totalAmount());
+        assertEquals(12.0, registry.get("movies.reviews.movies").gauge().value());
+    }
+
+    @Test
+    public void testPageCacheCountersReadCache() {
+        RenderedPageCache cache = new RenderedPageCache(1024);
+        metrics.bindPageCache(cache);
+        cache.get("/movies", 1L);
+        assertEquals(1.0, registry.get("movies.page.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(0.0, registry.get("movies.page.cache.requests").tag("result", "hit").functionCounter().count());
+    }
+}
@@ -0,0 +1,149 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogReloadTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testReloadSwapsInChangedSnapshot() throws Exception {
+        Path snapshot = tempDir.resolve("movies.snapshot");
+        CatalogSnapshot.write(ColumnarCatalog.of(movies("Alpha", 300)), snapshot);
+        MovieService service = MovieService.builder().reviews(new ReviewRepository()).snapshot(snapshot.toString()).build();
+        long firstVersion = service.getCatalogVersion();
+        MovieSort byRating = MovieSort.parse("rating");
+        assertEquals(300, service.getAllMovies(byRating).size());
+
+        CatalogSnapshot.write(ColumnarCatalog.of(movies("Beta", 400)), snapshot);
+        CatalogReload reload = service.reloadCatalog();
+
+        assertTrue(reload.isPublished());
+        assertEquals(400, reload.getMovieCount());
+        assertEquals(300, reload.getPreviousMovieCount());
+        assertNotEquals(firstVersion, service.getCatalogVersion());
+        assertEquals(Long.toHexString(service.getCatalogVersion()), reload.getCatalogVersion());
+        assertSame(reload, service.getLastReload());
+        assertEquals(400, service.searchMovies("Beta", null, null).size());
+        assertTrue(service.searchMovies("Alpha", null, null).isEmpty());
+        // the new catalog is indexed before the swap, so fuzzy search works immediately
+        assertEquals("Beta 7", service.searchMoviesFuzzy("Betta 7", 1).get(0).getMovie().getMovieName());
+    }
+
+    @Test
+    public void testReloadOfUnchangedFileKeepsCatalog() throws Exception {
+        Path file = tempDir.resolve("movies.json");
+        try (InputStream bundled = getClass().getClassLoader().getResourceAsStream("movies.json")) {
+            Files.copy(bundled, file);
+        }
+        MovieService service = MovieService.builder().reviews(new ReviewRepository()).catalogFile(file.toString()).build();
+        List<Movie> before = service.getAllMovies();
+
+        CatalogReload reload = service.reloadCatalog();
+
+        assertFalse(reload.isPublished());
+        assertEquals(12, reload.getMovieCount());
+        assertNull(service.getLastReload());
+        assertSame(before, service.getAllMovies());
+    }
+
+    @Test
+    public void testFailedReloadKeepsCatalog() throws Exception {
+        Path file = tempDir.resolve("movies.json");
+        try (InputStream bundled = getClass().getClassLoader().getResourceAsStream("movies.json")) {
+            Files.copy(bundled, file);
+        }
+        MovieService service = MovieService.builder().reviews(new ReviewRepository()).catalogFile(file.toString()).build();
+        long version = service.getCatalogVersion();
+
+        Files.write(file, "[{\"id\": 1, ".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(MovieDataLoadException.class, service::reloadCatalog);
+        assertEquals(version, service.getCatalogVersion());
+        assertEquals(12, service.getAllMovies().size());
+    }
+
+    @Test
+    public void testRequestsSeeOneCatalogAcrossConcurrentReloads() throws Exception {
+        ColumnarCatalog alpha = ColumnarCatalog.of(movies("Alpha", 500));
+        ColumnarCatalog beta = ColumnarCatalog.of(movies("Beta", 700));
+        MovieService service = MovieService.builder().catalog(alpha).build();
+        MovieSort byYear = MovieSort.parse("year,asc");
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+        AtomicInteger requests = new AtomicInteger();
+
+        List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Thread reader = new Thread(() -> {
+                while (running.get() && failure.get() == null) {
+                    FacetedSearchResult result = service.searchMoviesFaceted(null, byYear, 0, 50, null);
+                    String prefix = result.getPage().getMovies().get(0).getMovieName().split(" ")[0];
+                    int expected = prefix.equals("Alpha") ? 500 : 700;
+                    if (result.getTotalMatches() != expected) {
+                        failure.set(prefix + " page with " + result.getTotalMatches() + " total matches");
+                    }
+                    for (Movie movie : result.getPage().getMovies()) {
+                        if (!movie.getMovieName().startsWith(prefix)) {
+                            failure.set("page mixes " + prefix + " with " + movie.getMovieName());
+                        }
+                    }
+                    requests.incrementAndGet();
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        for (int i = 0; i < 20; i++) {
+            service.publish(i % 2 == 0 ? beta : alpha, 0);
+        }
+        running.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        assertTrue(requests.get() > 0);
+    }
+
+    @Test
+    public void testWatchReloadsReplacedSnapshot() throws Exception {
+        Path snapshot = tempDir.resolve("movies.snapshot");
+        CatalogSnapshot.write(ColumnarCatalog.of(movies("Alpha", 10)), snapshot);
+        MovieService service = MovieService.builder().reviews(new ReviewRepository()).snapshot(snapshot.toString()).watch(true).build();
+        service.startWatching();
+        try {
+            CatalogSnapshot.write(ColumnarCatalog.of(movies("Beta", 20)), snapshot);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (service.getAllMovies().size() != 20 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(20, service.getAllMovies().size());
+        } finally {
+            service.stopWatching();
+        }
+    }
+
+    private static List<Movie> movies(String prefix, int count) {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            movies.add(new Movie(i, prefix + " " + i, "Director " + i % 7, 1950 + i % 70, i % 2 == 0 ? "Drama" : "Crime/Drama",
+                "", 90 + i % 60, 1 + (i % 9) * 0.5));
+        }
+        return movies;
+    }
+}
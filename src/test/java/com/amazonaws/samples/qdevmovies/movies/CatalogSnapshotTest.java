@@ -0,0 +1,81 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.LongIntHashIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testMappedCatalogMatchesBundledCatalog() throws IOException {
+        MovieService heapService = new MovieService();
+        Path snapshot = tempDir.resolve("movies.snapshot");
+        CatalogSnapshot.write(ColumnarCatalog.of(heapService.getAllMovies()), snapshot);
+
+        MappedCatalog mapped = CatalogSnapshot.open(snapshot);
+        assertTrue(mapped.isMemoryMapped());
+        assertEquals(heapService.getAllMovies(), mapped.asList());
+        assertEquals(heapService.getCatalogVersion(), mapped.version());
+        assertEquals(MovieCatalog.contentHash(mapped), mapped.version());
+        for (Movie movie : heapService.getAllMovies()) {
+            assertEquals(movie, mapped.movieAt(mapped.positionOf(movie.getId())));
+            assertEquals(movie.getIcon(), mapped.movieAt(mapped.positionOf(movie.getId())).getIcon());
+        }
+        assertEquals(LongIntHashIndex.NOT_FOUND, mapped.positionOf(999L));
+    }
+
+    @Test
+    public void testUnindexedSearchMatchesIndexedSearch() throws IOException {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            movies.add(new Movie(i + 1, "Movie " + i + (i % 7 == 0 ? " Pirate" : ""), "Director " + (i % 13), 1950 + i % 70,
+                i % 3 == 0 ? "Drama" : "Crime/Drama", "Description " + i, 90 + i % 60, 1 + i % 5));
+        }
+        Path snapshot = tempDir.resolve("synthetic.snapshot");
+        CatalogSnapshot.write(ColumnarCatalog.of(movies), snapshot);
+        MappedCatalog mapped = CatalogSnapshot.open(snapshot);
+
+        MovieSearchIndex indexed = new MovieSearchIndex(mapped);
+        MovieSearchIndex unindexed = MovieSearchIndex.unindexed(mapped);
+        String[][] queries = {{"pirate", null}, {"ie 4", "drama"}, {"mo", null}, {null, "DRAMA"}, {null, "crime/drama"},
+            {"pirate", "Comedy"}, {null, null}};
+        for (String[] query : queries) {
+            assertEquals(indexed.search(query[0], null, query[1]), unindexed.search(query[0], null, query[1]),
+                "name=" + query[0] + " genre=" + query[1]);
+            assertEquals(indexed.search(query[0], null, query[1], 10, 5, 20), unindexed.search(query[0], null, query[1], 10, 5, 20));
+        }
+        assertEquals(indexed.search(null, 8L, "drama"), unindexed.search(null, 8L, "drama"));
+        assertEquals(1, unindexed.search(null, 7L, "Drama").size());
+    }
+
+    @Test
+    public void testServiceOverSnapshotAnswersBeforeAndAfterIndexing() throws Exception {
+        MovieService heapService = new MovieService();
+        Path snapshot = tempDir.resolve("service.snapshot");
+        CatalogSnapshot.write(ColumnarCatalog.of(heapService.getAllMovies()), snapshot);
+
+        MovieService mappedService = MovieService.builder().snapshot(snapshot.toString()).build();
+        assertEquals(heapService.searchMovies("the", null, null), mappedService.searchMovies("the", null, null));
+        assertEquals(heapService.getMovieById(1L), mappedService.getMovieById(1L));
+        assertEquals(heapService.getCatalogVersion(), mappedService.getCatalogVersion());
+    }
+
+    @Test
+    public void testRejectsFilesThatAreNotSnapshots() throws IOException {
+        Path notASnapshot = tempDir.resolve("movies.json");
+        Files.write(notASnapshot, new byte[1024]);
+        assertThrows(IOException.class, () -> CatalogSnapshot.open(notASnapshot));
+        assertThrows(MovieDataLoadException.class, () -> MovieService.builder().snapshot(notASnapshot.toString()).build());
+    }
+}
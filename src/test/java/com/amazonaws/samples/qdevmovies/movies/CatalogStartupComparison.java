@@ -0,0 +1,65 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.logging.log4j.LogManager;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Compares time to first answer and retained heap when the catalog is loaded from JSON
+ * against mapping a {@link CatalogSnapshot} of the same synthetic catalog.
+ * <p>
+ * Run each mode in its own JVM, for example:
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;deps&gt; \
+ *     com.amazonaws.samples.qdevmovies.movies.CatalogStartupComparison 1000000 snapshot
+ * </pre>
+ */
+public class CatalogStartupComparison {
+
+    public static void main(String[] args) throws Exception {
+        int movieCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        String mode = args.length > 1 ? args[1] : "snapshot";
+        Path json = Paths.get(System.getProperty("java.io.tmpdir"), "movies-" + movieCount + ".json");
+        if (!Files.exists(json)) {
+            CatalogLoadComparison.writeSyntheticCatalog(json, movieCount);
+        }
+        Path snapshot = Paths.get(System.getProperty("java.io.tmpdir"), "movies-" + movieCount + ".snapshot");
+        if (!Files.exists(snapshot)) {
+            try (InputStream inputStream = Files.newInputStream(json)) {
+                CatalogSnapshot.write(MovieService.readCatalog(inputStream), snapshot);
+            }
+        }
+
+        // logging and meter setup cost the same in both modes, so keep them out of the timings
+        LogManager.getLogger(MovieService.class).info("Starting {} catalog comparison", mode);
+        CatalogMetrics metrics = CatalogMetrics.NOOP;
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long baseline = runtime.totalMemory() - runtime.freeMemory();
+
+        long start = System.nanoTime();
+        MovieService service;
+        if ("json".equals(mode)) {
+            try (InputStream inputStream = Files.newInputStream(json)) {
+                service = MovieService.builder().catalog(MovieService.readCatalog(inputStream)).metrics(metrics).build();
+            }
+        } else {
+            service = MovieService.builder().catalog(CatalogSnapshot.open(snapshot)).metrics(metrics).build();
+        }
+        long readyMillis = (System.nanoTime() - start) / 1_000_000;
+        service.getMovieById((long) movieCount / 2);
+        int matches = service.searchMovies("synthetic movie 4242", null, null).size();
+        long firstAnswerMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.gc();
+        long retained = runtime.totalMemory() - runtime.freeMemory() - baseline;
+        System.out.printf("{\"mode\": \"%s\", \"movies\": %d, \"fileBytes\": %d, \"readyMillis\": %d, "
+                + "\"firstAnswerMillis\": %d, \"matches\": %d, \"retainedHeapBytes\": %d}%n",
+            mode, movieCount, Files.size("json".equals(mode) ? json : snapshot), readyMillis, firstAnswerMillis, matches, retained);
+        System.exit(0);
+    }
+}
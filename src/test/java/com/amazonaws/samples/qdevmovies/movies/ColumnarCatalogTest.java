@@ -0,0 +1,56 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.amazonaws.samples.qdevmovies.utils.LongIntHashIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarCatalogTest {
+
+    @Test
+    public void testViewsEqualSourceMovies() {
+        List<Movie> movies = new ArrayList<>();
+        movies.add(new Movie(7L, "The Prison Escape", "John Director", 1994, "Drama", "Two imprisoned men bond.", 142, 5.0));
+        movies.add(new Movie(3L, "Ünïcode Tïtle 🎬", "John Director", 2001, "Crime/Drama", "", 99, 3.5));
+        movies.add(new Movie(9L, "Space Wars", "Other Director", 1977, "Drama", "A galaxy far away.", 121, 4.5));
+        ColumnarCatalog catalog = ColumnarCatalog.of(movies);
+
+        assertEquals(movies, catalog.asList());
+        assertEquals(3, catalog.size());
+        assertEquals(1, catalog.positionOf(3L));
+        assertEquals(LongIntHashIndex.NOT_FOUND, catalog.positionOf(4L));
+        assertEquals(catalog.genreCodeAt(0), catalog.genreCodeAt(2));
+        assertEquals(2, catalog.genreDictionary().length);
+        assertEquals("🔒", catalog.movieAt(0).getIcon());
+        assertTrue(catalog.hasUniqueIds());
+    }
+
+    @Test
+    public void testDuplicateIdsResolveToFirstPosition() {
+        List<Movie> movies = new ArrayList<>();
+        movies.add(new Movie(1L, "First", "Director", 2000, "Drama", "", 90, 3.0));
+        movies.add(new Movie(1L, "Second", "Director", 2000, "Drama", "", 90, 3.0));
+        ColumnarCatalog catalog = ColumnarCatalog.of(movies);
+        assertFalse(catalog.hasUniqueIds());
+        assertEquals(0, catalog.positionOf(1L));
+    }
+
+    @Test
+    public void testTextSpanningChunkBoundaries() {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 700; i++) {
+            description.append("é");
+        }
+        ColumnarCatalog.Builder builder = new ColumnarCatalog.Builder(0);
+        for (int i = 0; i < 2000; i++) {
+            builder.add(new Movie(i + 1, "Movie " + i, "Director", 2000, "Drama", i + description.toString(), 90, 3.0));
+        }
+        ColumnarCatalog catalog = builder.build();
+        for (int i = 0; i < 2000; i++) {
+            assertEquals(i + description.toString(), catalog.descriptionAt(i));
+        }
+    }
+}
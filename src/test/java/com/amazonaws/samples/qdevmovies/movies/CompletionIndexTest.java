@@ -0,0 +1,92 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompletionIndexTest {
+
+    private static final String[] WORDS = {"the", "dark", "dream", "heist", "harbor", "ring", "quest", "a"};
+
+    @Test
+    public void testCompletionsRankedByRatingThenAlphabetically() {
+        MovieSearchIndex index = new MovieSearchIndex(new MovieService().getAllMovies());
+
+        List<MovieCompletion> completions = index.complete("the ", MovieMatch.TITLE, 3);
+        assertEquals(3, completions.size());
+        assertEquals("The Family Boss", completions.get(0).getText());
+        assertEquals("The Masked Hero", completions.get(1).getText());
+        assertEquals("The Prison Escape", completions.get(2).getText());
+        assertEquals(5.0, completions.get(0).getImdbRating(), 0.0);
+
+        List<MovieCompletion> directors = index.complete("c", null, 5);
+        assertEquals(1, directors.size());
+        assertEquals("Chris Moviemaker", directors.get(0).getText());
+        assertEquals(MovieMatch.DIRECTOR, directors.get(0).getField());
+        assertEquals(3L, directors.get(0).getMovieId()); // The Masked Hero outrates Dream Heist
+
+        assertTrue(index.complete("zz", null, 5).isEmpty());
+        assertTrue(MovieSearchIndex.unindexed(ColumnarCatalog.of(new MovieService().getAllMovies())).complete("the", null, 5).isEmpty());
+    }
+
+    @Test
+    public void testMatchesBruteForceOverLargeCatalog() {
+        Random random = new Random(11);
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 1; i <= 30_000; i++) {
+            // few distinct titles, so duplicates and case variants are common
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + random.nextInt(2000);
+            if (random.nextInt(4) == 0) {
+                title = title.toUpperCase();
+            }
+            String director = "Director " + random.nextInt(300);
+            movies.add(new Movie(i, title, director, 2000, "Drama", "", 100, 1 + random.nextInt(9) * 0.5));
+        }
+        MovieSearchIndex index = new MovieSearchIndex(movies);
+        String[] prefixes = {"t", "the", "the d", "dark heist 1", "h", "a", "a ring 19", "director 1", "d", "zebra", "the dark 1999"};
+        int[] limits = {1, 5, CompletionIndex.MAX_LIMIT};
+        for (String prefix : prefixes) {
+            for (int limit : limits) {
+                assertEquals(bruteForce(movies, prefix, limit), texts(index.complete(prefix, null, limit)), prefix + " / " + limit);
+            }
+        }
+    }
+
+    private static List<String> texts(List<MovieCompletion> completions) {
+        List<String> texts = new ArrayList<>();
+        for (MovieCompletion completion : completions) {
+            texts.add(completion.getField() + ":" + completion.getText().toLowerCase() + ":" + completion.getImdbRating());
+        }
+        return texts;
+    }
+
+    private static List<String> bruteForce(List<Movie> movies, String prefix, int limit) {
+        Map<String, Double> best = new LinkedHashMap<>();
+        for (Movie movie : movies) {
+            best.merge(MovieMatch.TITLE + ":" + movie.getMovieName().toLowerCase(), movie.getImdbRating(), Math::max);
+            best.merge(MovieMatch.DIRECTOR + ":" + movie.getDirector().toLowerCase(), movie.getImdbRating(), Math::max);
+        }
+        List<Map.Entry<String, Double>> matching = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : best.entrySet()) {
+            if (entry.getKey().substring(entry.getKey().indexOf(':') + 1).startsWith(prefix)) {
+                matching.add(entry);
+            }
+        }
+        // rating first, then titles before directors, then alphabetical
+        matching.sort(Comparator.comparingDouble((Map.Entry<String, Double> entry) -> -entry.getValue())
+            .thenComparing(entry -> !entry.getKey().startsWith(MovieMatch.TITLE))
+            .thenComparing(entry -> entry.getKey().substring(entry.getKey().indexOf(':') + 1)));
+        List<String> texts = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : matching.subList(0, Math.min(limit, matching.size()))) {
+            texts.add(entry.getKey() + ":" + entry.getValue());
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,84 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitTest {
+
+    private static final long THRESHOLD = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+    @Test
+    public void testRejectsOverLimitUntilReleased() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(2, 10, THRESHOLD);
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+
+        long start = System.nanoTime();
+        limit.release(start, start + FAST, false);
+        assertTrue(limit.tryAcquire());
+        assertEquals(3, limit.getAcceptedCount());
+        assertEquals(1, limit.getRejectedCount());
+    }
+
+    @Test
+    public void testFastRequestsUnderLoadRaiseLimitUpToMax() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(4, 8, THRESHOLD);
+        long start = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            while (limit.tryAcquire()) {
+                // keep the endpoint full
+            }
+            limit.release(start, start + FAST, false);
+        }
+        assertEquals(8, limit.getLimit());
+
+        // fast requests on an idle endpoint say nothing about its capacity
+        ConcurrencyLimit idle = new ConcurrencyLimit(4, 8, THRESHOLD);
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(idle.tryAcquire());
+            idle.release(start, start + FAST, false);
+        }
+        assertEquals(4, idle.getLimit());
+    }
+
+    @Test
+    public void testSlowOrFailedRequestsCutLimitOncePerRound() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(100, 100, THRESHOLD);
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        // fifty requests admitted together all turn out slow: one cut, not fifty
+        for (int i = 0; i < 50; i++) {
+            limit.release(start, start + SLOW, false);
+        }
+        assertEquals(90, limit.getLimit());
+
+        // a request admitted after the cut is a new signal
+        long later = start + SLOW + 1;
+        assertTrue(limit.tryAcquire());
+        limit.release(later, later + FAST, true);
+        assertEquals(81, limit.getLimit());
+
+        for (int round = 1; round <= 100; round++) {
+            long admitted = later + round * SLOW;
+            assertTrue(limit.tryAcquire());
+            limit.release(admitted, admitted + SLOW - 1, false);
+        }
+        assertEquals(1, limit.getLimit());
+    }
+
+    @Test
+    public void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimit(0, 10, THRESHOLD));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimit(20, 10, THRESHOLD));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimit(1, 10, 0));
+    }
+}
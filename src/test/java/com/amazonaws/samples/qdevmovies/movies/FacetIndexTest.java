@@ -0,0 +1,257 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FacetIndexTest {
+
+    private static final String[] GENRES = {"Drama", "Crime/Drama", "Action/Sci-Fi", "Adventure/Fantasy", "drama/Romance", "Comedy"};
+
+    @Test
+    public void testSplitsCompoundGenresOnBundledCatalog() {
+        MovieService service = new MovieService();
+        MovieFilter filter = new MovieFilter();
+        filter.setGenres(Collections.singletonList("drama"));
+
+        FacetedSearchResult result = service.searchMoviesFaceted(filter, 0, MovieService.DEFAULT_PAGE_SIZE, null);
+
+        // Drama, Crime/Drama x3, Drama/History, Drama/Romance and Drama/Thriller
+        assertEquals(7, result.getTotalMatches());
+        for (Movie movie : result.getPage().getMovies()) {
+            assertTrue(movie.getGenre().contains("Drama"), movie.getGenre());
+        }
+        FacetCount drama = facet(result.getFacets(), FacetIndex.GENRE, "Drama");
+        assertTrue(drama.isSelected());
+        assertEquals(7, drama.getCount());
+        // the genre facet ignores its own selection, so other genres keep their full counts
+        assertEquals(4, facet(result.getFacets(), FacetIndex.GENRE, "Crime").getCount());
+        assertEquals(7, sum(result.getFacets().get(FacetIndex.RATING)));
+    }
+
+    @Test
+    public void testUnfilteredFacetsCountWholeCatalog() {
+        MovieService service = new MovieService();
+        Map<String, List<FacetCount>> facets = service.getFacetCounts(null);
+
+        assertEquals(Arrays.asList(FacetIndex.GENRE, FacetIndex.YEAR, FacetIndex.DURATION, FacetIndex.RATING),
+            new ArrayList<>(facets.keySet()));
+        assertEquals(12, sum(facets.get(FacetIndex.YEAR)));
+        assertEquals(12, sum(facets.get(FacetIndex.DURATION)));
+        assertEquals(12, sum(facets.get(FacetIndex.RATING)));
+        assertEquals("Drama", facets.get(FacetIndex.GENRE).get(0).getLabel());
+        assertEquals(Arrays.asList("Action/Crime", "Action/Sci-Fi", "Adventure/Fantasy", "Adventure/Sci-Fi", "Crime/Drama",
+            "Drama", "Drama/History", "Drama/Romance", "Drama/Thriller"), service.getGenres());
+    }
+
+    @Test
+    public void testUnfilteredFacetsAreComputedOncePerCatalog() {
+        MovieService service = new MovieService();
+        Map<String, List<FacetCount>> facets = service.getFacetCounts(null);
+
+        assertSame(facets, service.getFacetCounts(null));
+        assertEquals(service.searchMoviesFaceted(new MovieFilter(), 0, 1, null).getFacets(), facets);
+    }
+
+    @Test
+    public void testMatchesLinearScanOnSyntheticCatalog() {
+        Random random = new Random(7);
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 1; i <= 3000; i++) {
+            movies.add(new Movie(i, "Movie " + i, "Director", 1950 + random.nextInt(75),
+                GENRES[random.nextInt(GENRES.length)], "", 70 + random.nextInt(130), 1 + random.nextInt(9) * 0.5));
+        }
+        MovieService service = new MovieService(movies);
+
+        for (int q = 0; q < 200; q++) {
+            MovieFilter filter = new MovieFilter();
+            if (random.nextBoolean()) {
+                filter.setName(String.valueOf(1 + random.nextInt(9)));
+            }
+            if (random.nextInt(4) == 0) {
+                filter.setGenre(GENRES[random.nextInt(GENRES.length)]);
+            }
+            if (random.nextBoolean()) {
+                filter.setGenres(Arrays.asList("drama", random.nextBoolean() ? "Sci-Fi" : "Western"));
+            }
+            if (random.nextBoolean()) {
+                filter.setYearFrom(1950 + random.nextInt(40));
+            }
+            if (random.nextBoolean()) {
+                filter.setYearTo(1990 + random.nextInt(40));
+            }
+            if (random.nextBoolean()) {
+                filter.setMinDuration(80 + random.nextInt(40));
+            }
+            if (random.nextBoolean()) {
+                filter.setMaxDuration(120 + random.nextInt(80));
+            }
+            if (random.nextBoolean()) {
+                filter.setMinRating(1 + random.nextInt(5) * 0.5);
+            }
+            if (random.nextBoolean()) {
+                filter.setMaxRating(3 + random.nextInt(5) * 0.5);
+            }
+
+            List<Movie> expected = linearScan(movies, filter);
+            FacetedSearchResult result = service.searchMoviesFaceted(filter, 0, MovieService.MAX_PAGE_SIZE, null);
+            assertEquals(expected.size(), result.getTotalMatches(), filter.toString());
+            assertEquals(expected.subList(0, Math.min(expected.size(), MovieService.MAX_PAGE_SIZE)),
+                result.getPage().getMovies(), filter.toString());
+
+            // selecting a shown rating band returns exactly its count
+            for (FacetCount band : result.getFacets().get(FacetIndex.RATING)) {
+                MovieFilter narrowed = copy(filter);
+                narrowed.setMinRating(Double.valueOf(band.getMin()));
+                narrowed.setMaxRating(Double.valueOf(band.getMax()));
+                assertEquals(linearScan(movies, narrowed).size(), band.getCount(), narrowed.toString());
+            }
+            for (FacetCount decade : result.getFacets().get(FacetIndex.YEAR)) {
+                MovieFilter narrowed = copy(filter);
+                narrowed.setYearFrom(Integer.valueOf(decade.getMin()));
+                narrowed.setYearTo(Integer.valueOf(decade.getMax()));
+                assertEquals(linearScan(movies, narrowed).size(), decade.getCount(), narrowed.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testPagesThroughMatchesWithCursor() {
+        MovieService service = new MovieService();
+        MovieFilter filter = new MovieFilter();
+        filter.setMinRating(4.5);
+
+        FacetedSearchResult first = service.searchMoviesFaceted(filter, 0, 4, null);
+        FacetedSearchResult next = service.searchMoviesFaceted(filter, 0, 4, first.getPage().getNextCursor());
+        FacetedSearchResult second = service.searchMoviesFaceted(filter, 1, 4, null);
+
+        assertEquals(10, first.getTotalMatches());
+        assertEquals(4, first.getPage().getMovies().size());
+        assertEquals(second.getPage().getMovies(), next.getPage().getMovies());
+        assertFalse(next.getPage().getMovies().contains(first.getPage().getMovies().get(0)));
+    }
+
+    @Test
+    public void testRejectsInvertedRanges() {
+        MovieService service = new MovieService();
+        MovieFilter filter = new MovieFilter();
+        filter.setYearFrom(2000);
+        filter.setYearTo(1990);
+        assertThrows(IllegalArgumentException.class, () -> service.searchMoviesFaceted(filter, 0, 10, null));
+    }
+
+    @Test
+    public void testRatingBandsCoverEveryRating() {
+        double[] ratings = {5.0, 4.5, 4.45, 4.0, 3.95, 3.0, 2.95, 2.0, 1.95, 0.0};
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < ratings.length; i++) {
+            movies.add(new Movie(i + 1, "Movie " + i, "Director", 2000, "Drama", "", 100, ratings[i]));
+        }
+        MovieService service = new MovieService(movies);
+
+        List<FacetCount> bands = service.getFacetCounts(null).get(FacetIndex.RATING);
+        assertEquals(ratings.length, sum(bands));
+        assertEquals(Arrays.asList(2, 2, 2, 2, 2), counts(bands));
+        for (FacetCount band : bands) {
+            MovieFilter filter = new MovieFilter();
+            filter.setMinRating(Double.valueOf(band.getMin()));
+            filter.setMaxRating(Double.valueOf(band.getMax()));
+            FacetedSearchResult result = service.searchMoviesFaceted(filter, 0, MovieService.MAX_PAGE_SIZE, null);
+            assertEquals(band.getCount(), result.getTotalMatches(), band.getLabel());
+            assertTrue(facet(result.getFacets(), FacetIndex.RATING, band.getLabel()).isSelected(), band.getLabel());
+        }
+    }
+
+    @Test
+    public void testSortedColumnMarksInclusiveRange() {
+        SortedColumn column = new SortedColumn(new int[]{5, -3, 5, 9, 0});
+        long[] bitmap = new long[1];
+        column.markRange(bitmap, 0, 5);
+        assertEquals(0b10101L, bitmap[0]);
+        assertEquals(1, column.positionAt(0));
+        assertTrue(SortedColumn.ratingKey(4.4) < SortedColumn.ratingKey(4.5));
+        assertTrue(SortedColumn.ratingKey(-1.0) < SortedColumn.ratingKey(0.0));
+    }
+
+    private static List<Movie> linearScan(List<Movie> movies, MovieFilter filter) {
+        List<Movie> results = new ArrayList<>();
+        for (Movie movie : movies) {
+            if (filter.getName() != null && !movie.getMovieName().toLowerCase().contains(filter.getName().toLowerCase())) {
+                continue;
+            }
+            if (filter.getGenre() != null && !movie.getGenre().equalsIgnoreCase(filter.getGenre())) {
+                continue;
+            }
+            if (!filter.getGenres().isEmpty() && !hasAnyComponent(movie.getGenre(), filter.getGenres())) {
+                continue;
+            }
+            if ((filter.getYearFrom() != null && movie.getYear() < filter.getYearFrom())
+                    || (filter.getYearTo() != null && movie.getYear() > filter.getYearTo())
+                    || (filter.getMinDuration() != null && movie.getDuration() < filter.getMinDuration())
+                    || (filter.getMaxDuration() != null && movie.getDuration() > filter.getMaxDuration())
+                    || (filter.getMinRating() != null && movie.getImdbRating() < filter.getMinRating())
+                    || (filter.getMaxRating() != null && movie.getImdbRating() > filter.getMaxRating())) {
+                continue;
+            }
+            results.add(movie);
+        }
+        return results;
+    }
+
+    private static boolean hasAnyComponent(String genre, List<String> components) {
+        for (String part : genre.split("/")) {
+            for (String component : components) {
+                if (part.trim().equalsIgnoreCase(component)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static MovieFilter copy(MovieFilter filter) {
+        MovieFilter copy = new MovieFilter();
+        copy.setName(filter.getName());
+        copy.setGenre(filter.getGenre());
+        copy.setGenres(filter.getGenres());
+        copy.setYearFrom(filter.getYearFrom());
+        copy.setYearTo(filter.getYearTo());
+        copy.setMinDuration(filter.getMinDuration());
+        copy.setMaxDuration(filter.getMaxDuration());
+        copy.setMinRating(filter.getMinRating());
+        copy.setMaxRating(filter.getMaxRating());
+        return copy;
+    }
+
+    private static FacetCount facet(Map<String, List<FacetCount>> facets, String facet, String label) {
+        for (FacetCount count : facets.get(facet)) {
+            if (count.getLabel().equals(label)) {
+                return count;
+            }
+        }
+        throw new AssertionError("No facet value " + label + " in " + facet);
+    }
+
+    private static List<Integer> counts(List<FacetCount> facets) {
+        List<Integer> counts = new ArrayList<>();
+        for (FacetCount facet : facets) {
+            counts.add(facet.getCount());
+        }
+        return counts;
+    }
+
+    private static int sum(List<FacetCount> counts) {
+        int sum = 0;
+        for (FacetCount count : counts) {
+            sum += count.getCount();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,84 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FuzzyMovieIndexTest {
+
+    private final MovieSearchIndex index = new MovieSearchIndex(new MovieService().getAllMovies());
+
+    @Test
+    public void testMisspelledTitleRanksIntendedMovieFirst() {
+        List<MovieMatch> matches = index.fuzzySearch("Draem Hiest", 5);
+        assertFalse(matches.isEmpty());
+        assertEquals("Dream Heist", matches.get(0).getMovie().getMovieName());
+        assertEquals(MovieMatch.TITLE, matches.get(0).getMatchedField());
+        assertTrue(matches.get(0).getScore() < 1.0);
+    }
+
+    @Test
+    public void testExactTitleScoresHighestAndIgnoresPunctuation() {
+        List<MovieMatch> matches = index.fuzzySearch("space wars the beginning", 3);
+        assertEquals("Space Wars: The Beginning", matches.get(0).getMovie().getMovieName());
+        assertEquals(1.0, matches.get(0).getScore(), 1e-9);
+    }
+
+    @Test
+    public void testMatchesDirector() {
+        List<MovieMatch> matches = index.fuzzySearch("Chris Moviemakr", 10);
+        assertEquals(2, matches.size());
+        for (MovieMatch match : matches) {
+            assertEquals("Chris Moviemaker", match.getMovie().getDirector());
+            assertEquals(MovieMatch.DIRECTOR, match.getMatchedField());
+        }
+        // equal scores fall back to rating
+        assertTrue(matches.get(0).getMovie().getImdbRating() >= matches.get(1).getMovie().getImdbRating());
+    }
+
+    @Test
+    public void testScoresAreSortedAndLimited() {
+        List<MovieMatch> matches = index.fuzzySearch("the", 4);
+        assertEquals(4, matches.size());
+        for (int i = 1; i < matches.size(); i++) {
+            assertTrue(matches.get(i - 1).getScore() >= matches.get(i).getScore());
+        }
+    }
+
+    @Test
+    public void testUnrelatedQueryFindsNothing() {
+        assertTrue(index.fuzzySearch("zzzz qqqq", 10).isEmpty());
+        assertTrue(index.fuzzySearch(" !? ", 10).isEmpty());
+    }
+
+    @Test
+    public void testEditDistanceIsBoundedAndCountsTranspositions() {
+        assertEquals(0, FuzzyMovieIndex.editDistance("heist", "heist", 1));
+        assertEquals(1, FuzzyMovieIndex.editDistance("hiest", "heist", 1));
+        assertEquals(1, FuzzyMovieIndex.editDistance("dram", "dream", 1));
+        assertEquals(2, FuzzyMovieIndex.editDistance("kitten", "sitting", 1));
+        assertEquals(3, FuzzyMovieIndex.editDistance("a", "abcdef", 2));
+        assertEquals(0.0, FuzzyMovieIndex.wordSimilarity("io", "it"));
+    }
+
+    @Test
+    public void testCandidateBudgetOnLargeCatalog() {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 1; i <= 20_000; i++) {
+            movies.add(new Movie(i, "The Golden Harbor " + i, "Director " + (i % 100), 2000, "Drama", "", 90, 1 + i % 5));
+        }
+        movies.add(new Movie(20_001, "Crimson Voyage", "Someone Else", 2000, "Drama", "", 90, 3.0));
+        MovieSearchIndex large = new MovieSearchIndex(movies);
+        assertEquals("Crimson Voyage", large.fuzzySearch("crimsen voyge", 1).get(0).getMovie().getMovieName());
+        assertEquals(10, large.fuzzySearch("golden harbr", 10).size());
+        assertTrue(large.fuzzySearch("The Golden Harbor 4242", 1).get(0).getMovie().getMovieName().endsWith(" 4242"));
+    }
+
+    @Test
+    public void testUnindexedCatalogFindsNothing() {
+        assertTrue(MovieSearchIndex.unindexed(ColumnarCatalog.of(new MovieService().getAllMovies())).fuzzySearch("dream", 5).isEmpty());
+    }
+}
@@ -0,0 +1,170 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Closed-loop HTTP load generator used to compare server configurations, for example the
+ * default settings against the {@code prod} profile.
+ * <p>
+ * Each worker thread sends requests back to back over a keep-alive connection, cycling through
+ * the given paths. Requests issued during the warm-up period are not recorded. The report lists
+ * throughput, latency percentiles, errors and mean bytes on the wire per response, and when
+ * some requests failed, the throughput and latency of the successful ones alone:
+ * <pre>
+ * java -cp target/test-classes com.amazonaws.samples.qdevmovies.movies.HttpLoadTest \
+ *     http://localhost:8080 16 30 10 gzip /movies /movies/search?name=the /movies/1/details
+ * </pre>
+ * Arguments are base URL, concurrency, measured seconds, warm-up seconds, {@code gzip} or
+ * {@code identity} for the Accept-Encoding header, then one or more request paths.
+ */
+public class HttpLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 6) {
+            System.err.println("usage: HttpLoadTest <baseUrl> <concurrency> <seconds> <warmupSeconds> <gzip|identity> <path>...");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        int concurrency = Integer.parseInt(args[1]);
+        long measureNanos = Long.parseLong(args[2]) * 1_000_000_000L;
+        long warmupNanos = Long.parseLong(args[3]) * 1_000_000_000L;
+        String encoding = args[4];
+        List<URL> urls = new ArrayList<>();
+        for (int i = 5; i < args.length; i++) {
+            urls.add(new URL(baseUrl + args[i]));
+        }
+
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = measureStart + measureNanos;
+        Worker[] workers = new Worker[concurrency];
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers[i] = new Worker(urls, i, encoding, measureStart, end, done);
+            Thread thread = new Thread(workers[i], "load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        int count = 0;
+        long errors = 0;
+        long bytes = 0;
+        for (Worker worker : workers) {
+            count += worker.count;
+            errors += worker.errors;
+            bytes += worker.bytes;
+        }
+        long[] latencies = new long[count];
+        long[] successLatencies = new long[(int) (count - errors)];
+        int offset = 0;
+        int successOffset = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.latencies, 0, latencies, offset, worker.count);
+            offset += worker.count;
+            System.arraycopy(worker.successLatencies, 0, successLatencies, successOffset, worker.count - (int) worker.errors);
+            successOffset += worker.count - (int) worker.errors;
+        }
+        Arrays.sort(latencies);
+        Arrays.sort(successLatencies);
+
+        double seconds = measureNanos / 1e9;
+        System.out.printf("requests=%d errors=%d throughput=%.0f req/s meanBytes=%d%n",
+            count, errors, count / seconds, count == 0 ? 0 : bytes / count);
+        System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+            percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+            percentile(latencies, 1.0));
+        if (errors > 0) {
+            System.out.printf("successful: throughput=%.0f req/s latency ms: p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+                successLatencies.length / seconds, percentile(successLatencies, 0.50), percentile(successLatencies, 0.90),
+                percentile(successLatencies, 0.99), percentile(successLatencies, 1.0));
+        }
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(quantile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private static final class Worker implements Runnable {
+        private final List<URL> urls;
+        private final String encoding;
+        private final long measureStart;
+        private final long end;
+        private final CountDownLatch done;
+        private final byte[] buffer = new byte[16 * 1024];
+        private int next;
+        private long[] latencies = new long[1 << 16];
+        private long[] successLatencies = new long[1 << 16];
+        private int count;
+        private long errors;
+        private long bytes;
+
+        Worker(List<URL> urls, int offset, String encoding, long measureStart, long end, CountDownLatch done) {
+            this.urls = urls;
+            this.next = offset;
+            this.encoding = encoding;
+            this.measureStart = measureStart;
+            this.end = end;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    URL url = urls.get(next++ % urls.size());
+                    long received = 0;
+                    boolean failed;
+                    try {
+                        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                        connection.setRequestProperty("Accept-Encoding", encoding);
+                        failed = connection.getResponseCode() != HttpURLConnection.HTTP_OK;
+                        // drain fully so the keep-alive connection is reused
+                        try (InputStream body = failed ? connection.getErrorStream() : connection.getInputStream()) {
+                            int read;
+                            while (body != null && (read = body.read(buffer)) != -1) {
+                                received += read;
+                            }
+                        }
+                    } catch (IOException e) {
+                        failed = true;
+                    }
+                    long elapsed = System.nanoTime() - now;
+                    if (now >= measureStart) {
+                        record(elapsed, received, failed);
+                    }
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void record(long elapsedNanos, long received, boolean failed) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = elapsedNanos;
+            bytes += received;
+            if (failed) {
+                errors++;
+            } else {
+                if (count - errors > successLatencies.length) {
+                    successLatencies = Arrays.copyOf(successLatencies, successLatencies.length * 2);
+                }
+                successLatencies[(int) (count - errors - 1)] = elapsedNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovieJsonReaderTest {
+
+    @Test
+    public void testMatchesDomParserOnBundledCatalog() throws Exception {
+        JSONArray expected;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("movies.json")) {
+            expected = new JSONArray(new JSONTokener(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+        }
+        List<Movie> movies;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("movies.json")) {
+            movies = readAll(inputStream);
+        }
+        assertEquals(expected.length(), movies.size());
+        for (int i = 0; i < movies.size(); i++) {
+            JSONObject movieObj = expected.getJSONObject(i);
+            Movie movie = movies.get(i);
+            assertEquals(movieObj.getLong("id"), movie.getId());
+            assertEquals(movieObj.getString("movieName"), movie.getMovieName());
+            assertEquals(movieObj.getString("director"), movie.getDirector());
+            assertEquals(movieObj.getInt("year"), movie.getYear());
+            assertEquals(movieObj.getString("genre"), movie.getGenre());
+            assertEquals(movieObj.getString("description"), movie.getDescription());
+            assertEquals(movieObj.getInt("duration"), movie.getDuration());
+            assertEquals(movieObj.getDouble("imdbRating"), movie.getImdbRating(), 0.0);
+        }
+    }
+
+    @Test
+    public void testEscapesAndUnknownFields() throws Exception {
+        List<Movie> movies = readAll(stream("[{\"extra\": {\"nested\": [1, \"]}\", null]}, \"id\": 7, "
+            + "\"movieName\": \"Tab\\there \\\"quoted\\\" \\u00e9\", \"director\": \"D\", \"year\": \"1999\", "
+            + "\"genre\": \"Drama\", \"description\": \"x\\/y\", \"duration\": 90, \"imdbRating\": 4.5, \"flag\": true}]"));
+        assertEquals(1, movies.size());
+        assertEquals(7L, movies.get(0).getId());
+        assertEquals("Tab\there \"quoted\" \u00e9", movies.get(0).getMovieName());
+        assertEquals(1999, movies.get(0).getYear());
+        assertEquals("x/y", movies.get(0).getDescription());
+    }
+
+    @Test
+    public void testEmptyArray() throws Exception {
+        assertTrue(readAll(stream(" [ ] ")).isEmpty());
+    }
+
+    @Test
+    public void testMissingFieldIsReported() {
+        JSONException e = assertThrows(JSONException.class, () -> readAll(stream("[{\"id\": 1, \"movieName\": \"A\"}]")));
+        assertTrue(e.getMessage().contains("director"));
+    }
+
+    @Test
+    public void testMalformedInputIsReported() {
+        assertThrows(JSONException.class, () -> readAll(stream("{\"id\": 1}")));
+        assertThrows(JSONException.class, () -> readAll(stream("[{\"id\": 1,")));
+        assertThrows(JSONException.class, () -> readAll(stream("[] trailing")));
+        assertThrows(JSONException.class, () -> readAll(stream("[{\"id\": \"one\"}]")));
+    }
+
+    private static List<Movie> readAll(InputStream inputStream) throws Exception {
+        List<Movie> movies = new ArrayList<>();
+        try (MovieJsonReader reader = new MovieJsonReader(inputStream)) {
+            while (reader.hasNext()) {
+                movies.add(reader.next());
+            }
+        }
+        return movies;
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
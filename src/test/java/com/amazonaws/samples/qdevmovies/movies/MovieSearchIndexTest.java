@@ -0,0 +1,124 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovieSearchIndexTest {
+
+    private static final String[] WORDS = {"The", "Dream", "Heist", "Space", "Wars", "Ring", "Boss", "Club", "a", "Io", "Family"};
+    private static final String[] GENRES = {"Drama", "Crime/Drama", "Action/Sci-Fi", "Adventure/Fantasy", "Comedy"};
+
+    @Test
+    public void testMatchesLinearScanOnBundledCatalog() {
+        List<Movie> movies = new MovieService().getAllMovies();
+        MovieSearchIndex index = new MovieSearchIndex(movies);
+        String[] names = {null, "", "  ", "t", "th", "the", "THE ", "Prison", "ream hei", "zzz", ": the", "s"};
+        String[] genres = {null, "", "drama", "CRIME/DRAMA", " Adventure/Sci-Fi ", "Western"};
+        Long[] ids = {null, 1L, 2L, 10L, 999L};
+        for (String name : names) {
+            for (Long id : ids) {
+                for (String genre : genres) {
+                    assertEquals(linearScan(movies, name, id, genre), index.search(name, id, genre),
+                        "name=" + name + ", id=" + id + ", genre=" + genre);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMatchesLinearScanOnSyntheticCatalog() {
+        Random random = new Random(42);
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            // a handful of duplicate ids exercise the scan fallback
+            long id = i % 500 == 0 ? 1 : i;
+            movies.add(new Movie(id, title, "Director", 2000, GENRES[random.nextInt(GENRES.length)], "", 100, 4.0));
+        }
+        MovieSearchIndex index = new MovieSearchIndex(movies);
+        for (int q = 0; q < 300; q++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            int start = random.nextInt(word.length());
+            String name = random.nextInt(5) == 0 ? null : word.substring(start, start + 1 + random.nextInt(word.length() - start)).toUpperCase();
+            Long id = random.nextInt(4) == 0 ? Long.valueOf(1 + random.nextInt(2000)) : null;
+            String genre = random.nextBoolean() ? GENRES[random.nextInt(GENRES.length)] : null;
+            assertEquals(linearScan(movies, name, id, genre), index.search(name, id, genre),
+                "name=" + name + ", id=" + id + ", genre=" + genre);
+        }
+    }
+
+    @Test
+    public void testTitlesThatChangeLengthWhenLowerCasedMatchLinearScan() {
+        // 'İ' lower-cases to two chars and 'ẞ' to 'ß': every path must normalise like the linear scan
+        String[] titles = {"İstanbul Nights", "Cafe İzmir", "Istanbul Express", "STRAẞE DER NACHT", "Strasse", "Kİng Of İce"};
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < titles.length; i++) {
+            movies.add(new Movie(i + 1, titles[i], "Director", 2000, "Drama", "", 100, 4.0));
+        }
+        MovieSearchIndex[] indexes = {new MovieSearchIndex(movies), MovieSearchIndex.unindexed(ColumnarCatalog.of(movies))};
+        String[] names = {"İstanbul", "i̇stanbul", "istanbul", "İZMİR", "izmir", "straße", "STRAẞE", "strasse", "ng of i̇", "İ", "i"};
+        for (MovieSearchIndex index : indexes) {
+            for (String name : names) {
+                assertEquals(linearScan(movies, name, null, null), index.search(name, null, null), "name=" + name);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelScansMatchLinearScan() {
+        Random random = new Random(7);
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 1; i <= 20_000; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            long id = i % 5000 == 0 ? 1 : i;
+            movies.add(new Movie(id, title, "Director", 2000, GENRES[random.nextInt(GENRES.length)], "", 100, 4.0));
+        }
+        // a threshold of one splits every scan, across several chunks of a 20,000-movie catalog
+        ParallelSearch parallel = new ParallelSearch(4, 1);
+        try {
+            MovieSearchIndex[] indexes = {new MovieSearchIndex(movies), MovieSearchIndex.unindexed(ColumnarCatalog.of(movies))};
+            String[] names = {null, "a", "th", "the", "ea", "e", "ring 1", "zz"};
+            String[] genres = {null, "drama", "Comedy"};
+            Long[] ids = {null, 1L, 7L};
+            for (MovieSearchIndex index : indexes) {
+                for (String name : names) {
+                    for (String genre : genres) {
+                        for (Long id : ids) {
+                            String query = "name=" + name + ", id=" + id + ", genre=" + genre;
+                            assertEquals(linearScan(movies, name, id, genre), index.search(name, id, genre, parallel), query);
+                            MovieFilter filter = new MovieFilter();
+                            filter.setName(name);
+                            filter.setId(id);
+                            filter.setGenre(genre);
+                            assertArrayEquals(index.matches(filter), index.matches(filter, parallel), query);
+                        }
+                    }
+                }
+            }
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    private static List<Movie> linearScan(List<Movie> movies, String name, Long id, String genre) {
+        List<Movie> results = new ArrayList<>();
+        for (Movie movie : movies) {
+            if (name != null && !name.trim().isEmpty() && !movie.getMovieName().toLowerCase().contains(name.trim().toLowerCase())) {
+                continue;
+            }
+            if (id != null && movie.getId() != id) {
+                continue;
+            }
+            if (genre != null && !genre.trim().isEmpty() && !movie.getGenre().toLowerCase().equals(genre.trim().toLowerCase())) {
+                continue;
+            }
+            results.add(movie);
+        }
+        return results;
+    }
+}
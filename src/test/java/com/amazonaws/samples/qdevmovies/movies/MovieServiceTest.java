@@ -34,12 +34,32 @@ public class MovieServiceTest {
         assertEquals("Drama", movie.get().getGenre());
     }
 
+    @Test
+    public void testMovieIconsResolvedFromTable() {
+        assertEquals("🔒", movieService.getMovieById(1L).get().getIcon());
+        assertEquals("🚀", movieService.getMovieById(10L).get().getIcon());
+        assertEquals("🎬", new Movie(99L, "Unlisted Title", "Director", 2000, "Drama", "", 90, 3.0).getIcon());
+    }
+
     @Test
     public void testGetMovieByIdNotFound() {
         Optional<Movie> movie = movieService.getMovieById(999L);
         assertFalse(movie.isPresent());
     }
 
+    @Test
+    public void testGetMoviesByIdsKeepsRequestOrderAndMisses() {
+        List<Movie> movies = movieService.getMoviesByIds(new long[] {10, 999, 1, 0, 10});
+        assertEquals(5, movies.size());
+        assertEquals(10L, movies.get(0).getId());
+        assertNull(movies.get(1));
+        assertEquals("The Prison Escape", movies.get(2).getMovieName());
+        assertNull(movies.get(3));
+        assertEquals(10L, movies.get(4).getId());
+        assertTrue(movieService.getMoviesByIds(new long[0]).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> movieService.getMoviesByIds(new long[MovieService.MAX_BATCH_SIZE + 1]));
+    }
+
     @Test
     public void testGetMovieByIdInvalid() {
         Optional<Movie> movie1 = movieService.getMovieById(null);
@@ -161,16 +181,14 @@ public class MovieServiceTest {
 
     @Test
     public void testSearchMoviesWithInvalidId() {
-        List<Movie> results = movieService.searchMovies(null, -1L, null);
-        assertNotNull(results);
-        assertEquals(12, results.size()); // Should return all movies (invalid ID ignored)
+        // ids are positive, so a search for any other id is rejected rather than ignored
+        assertThrows(IllegalArgumentException.class, () -> movieService.searchMovies(null, -1L, null));
     }
 
     @Test
     public void testSearchMoviesWithZeroId() {
-        List<Movie> results = movieService.searchMovies(null, 0L, null);
-        assertNotNull(results);
-        assertEquals(12, results.size()); // Should return all movies (invalid ID ignored)
+        // ids are positive, so a search for any other id is rejected rather than ignored
+        assertThrows(IllegalArgumentException.class, () -> movieService.searchMovies(null, 0L, null));
     }
 
     @Test
@@ -222,4 +240,70 @@ public class MovieServiceTest {
         assertNotNull(results);
         assertTrue(results.isEmpty()); // Should return empty as ID 1 is Drama, not Action/Sci-Fi
     }
-}
\ No newline at end of file
+
+    // Pagination tests
+    @Test
+    public void testGetMoviesPageWithCursor() {
+        MoviePage first = movieService.getMoviesPage(0, 5, null);
+        assertEquals(5, first.getMovies().size());
+        assertEquals(1L, first.getMovies().get(0).getId());
+        assertFalse(first.isLastPage());
+
+        MoviePage second = movieService.getMoviesPage(0, 5, first.getNextCursor());
+        assertEquals(6L, second.getMovies().get(0).getId());
+
+        MoviePage third = movieService.getMoviesPage(0, 5, second.getNextCursor());
+        assertEquals(2, third.getMovies().size());
+        assertTrue(third.isLastPage());
+        assertNull(third.getNextCursor());
+    }
+
+    @Test
+    public void testGetMoviesPageByNumber() {
+        MoviePage page = movieService.getMoviesPage(2, 5, null);
+        assertEquals(2, page.getMovies().size());
+        assertEquals(11L, page.getMovies().get(0).getId());
+        assertTrue(movieService.getMoviesPage(5, 5, null).getMovies().isEmpty());
+    }
+
+    @Test
+    public void testSearchMoviesPageMatchesFullSearch() {
+        List<Movie> expected = movieService.searchMovies("the", null, null);
+        List<Movie> paged = new java.util.ArrayList<>();
+        String cursor = null;
+        do {
+            MoviePage page = movieService.searchMoviesPage("the", null, null, 0, 2, cursor);
+            paged.addAll(page.getMovies());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    public void testCachedSearchMatchesUncachedSearch() {
+        SearchResultCache cache = new SearchResultCache(1 << 20);
+        MovieService cached = MovieService.builder()
+            .catalog(ColumnarCatalog.of(movieService.getAllMovies())).resultCache(cache).build();
+        String[][] queries = {{"the", null}, {" THE ", null}, {null, "drama"}, {"e", "Drama"}, {"zz", null}, {null, null}};
+        for (int round = 0; round < 2; round++) {
+            for (String[] query : queries) {
+                assertEquals(movieService.searchMovies(query[0], null, query[1]), cached.searchMovies(query[0], null, query[1]));
+            }
+            assertEquals(movieService.searchMovies(null, 1L, null), cached.searchMovies(null, 1L, null));
+        }
+        assertEquals(5, cache.getMissCount()); // "the" and " THE " share an entry; no criteria skips the cache
+        assertEquals(7, cache.getHitCount());
+
+        cached.publish(ColumnarCatalog.of(movieService.getAllMovies().subList(0, 3)), 0);
+        assertEquals(1, cached.searchMovies(null, null, "drama").size());
+        assertEquals(6, cache.getMissCount());
+    }
+
+    @Test
+    public void testMoviesPageInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> movieService.getMoviesPage(-1, 5, null));
+        assertThrows(IllegalArgumentException.class, () -> movieService.getMoviesPage(0, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> movieService.getMoviesPage(0, MovieService.MAX_PAGE_SIZE + 1, null));
+        assertThrows(IllegalArgumentException.class, () -> movieService.getMoviesPage(0, 5, "not-a-cursor"));
+    }
+}
@@ -0,0 +1,235 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoviesApiControllerTest {
+
+    private MoviesApiController apiController;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        apiController = new MoviesApiController();
+        inject("movieService", new MovieService());
+        inject("reviewService", new ReviewService());
+        inject("objectMapper", objectMapper);
+    }
+
+    @Test
+    public void testGetMoviesStreamsJsonArray() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = apiController.getMovies(null, null, null, null, null, null);
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getHeaders().getETag());
+        JsonNode movies = objectMapper.readTree(write(response));
+        assertEquals(12, movies.size());
+        assertEquals("The Prison Escape", movies.get(0).get("movieName").asText());
+        assertEquals(3, movies.get(0).get("reviewSummary").get("reviewCount").asInt());
+        assertEquals(5, movies.get(0).get("reviewSummary").get("histogram").size());
+    }
+
+    @Test
+    public void testSearchMoviesStreamsNdjson() throws Exception {
+        ResponseEntity<StreamingResponseBody> response =
+            apiController.searchMovies("the", null, null, null, "application/x-ndjson", null);
+        String[] lines = write(response).trim().split("\n");
+        assertEquals(movieCount("the"), lines.length);
+        for (String line : lines) {
+            assertTrue(objectMapper.readTree(line).get("movieName").asText().toLowerCase().contains("the"));
+        }
+    }
+
+    @Test
+    public void testStreamedMoviesAreFlushedEvery256() throws Exception {
+        List<Movie> catalog = new MovieService().getAllMovies();
+        List<Movie> movies = new ArrayList<>();
+        while (movies.size() < 600) {
+            movies.addAll(catalog);
+        }
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+        apiController.writeMovies(movies, false, outputStream);
+        assertEquals(movies.size(), objectMapper.readTree(outputStream.toByteArray()).size());
+        // two periodic flushes and the one on close
+        assertEquals(3, flushes.get());
+    }
+
+    @Test
+    public void testGetMoviesPage() throws Exception {
+        JsonNode page = objectMapper.readTree(write(apiController.getMovies(0, 5, null, null, null, null)));
+        assertEquals(5, page.get("movies").size());
+        assertFalse(page.get("lastPage").asBoolean());
+    }
+
+    @Test
+    public void testMatchingEtagReturnsNotModified() {
+        ResponseEntity<?> first = apiController.getMovie(1L, null);
+        String etag = first.getHeaders().getETag();
+        assertEquals(200, first.getStatusCodeValue());
+
+        ResponseEntity<?> second = apiController.getMovie(1L, etag);
+        assertEquals(304, second.getStatusCodeValue());
+        assertNull(second.getBody());
+        assertEquals(304, apiController.getMovie(1L, "\"other\", " + etag.substring(2)).getStatusCodeValue());
+        assertEquals(200, apiController.getMovie(2L, etag).getStatusCodeValue());
+    }
+
+    @Test
+    public void testFuzzySearchReturnsScoredMatches() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = apiController.searchMoviesFuzzy("dream hesit", 3, null);
+        assertEquals(200, response.getStatusCodeValue());
+        JsonNode matches = objectMapper.readTree(write(response));
+        assertEquals("Dream Heist", matches.get(0).get("movie").get("movieName").asText());
+        assertEquals("title", matches.get(0).get("matchedField").asText());
+        assertTrue(matches.get(0).get("score").asDouble() > 0);
+        assertEquals(400, apiController.handleInvalidParameters(
+            assertThrows(IllegalArgumentException.class, () -> apiController.searchMoviesFuzzy(" ", 3, null))).getStatusCodeValue());
+    }
+
+    @Test
+    public void testAutocompleteReturnsBestRatedCompletions() {
+        ResponseEntity<java.util.List<MovieCompletion>> response = apiController.autocomplete("  U", null, 5, null);
+        assertEquals(200, response.getStatusCodeValue());
+        assertNotNull(response.getHeaders().getETag());
+        assertEquals(2, response.getBody().size());
+        assertEquals("Underground Club", response.getBody().get(0).getText());
+        assertEquals(12L, response.getBody().get(0).getMovieId());
+        assertEquals("Urban Stories", response.getBody().get(1).getText());
+        assertEquals(304, apiController.autocomplete("  U", null, 5, response.getHeaders().getETag()).getStatusCodeValue());
+
+        assertEquals(400, apiController.handleInvalidParameters(
+            assertThrows(IllegalArgumentException.class, () -> apiController.autocomplete(" ", null, 5, null))).getStatusCodeValue());
+        assertThrows(IllegalArgumentException.class, () -> apiController.autocomplete("u", "genre", 5, null));
+        assertThrows(IllegalArgumentException.class, () -> apiController.autocomplete("u", null, MovieService.MAX_COMPLETION_LIMIT + 1, null));
+    }
+
+    @Test
+    public void testFacetedSearchReturnsPageAndFacets() throws Exception {
+        MovieFilter filter = new MovieFilter();
+        filter.setGenres(java.util.Collections.singletonList("Sci-Fi"));
+        filter.setYearFrom(2000);
+        ResponseEntity<StreamingResponseBody> response = apiController.searchMoviesFaceted(filter, 0, 10, null, null, null);
+        assertEquals(200, response.getStatusCodeValue());
+        JsonNode result = objectMapper.readTree(write(response));
+        assertEquals(1, result.get("totalMatches").asInt());
+        assertEquals("Dream Heist", result.get("page").get("movies").get(0).get("movieName").asText());
+        assertTrue(result.get("facets").get("genre").size() > 1);
+        assertEquals("2010s", result.get("facets").get("year").get(0).get("label").asText());
+        assertEquals(304, apiController.searchMoviesFaceted(filter, 0, 10, null, null,
+            response.getHeaders().getETag()).getStatusCodeValue());
+    }
+
+    @Test
+    public void testSortedPagesFollowRatingOrder() throws Exception {
+        JsonNode first = objectMapper.readTree(write(apiController.getMovies(0, 5, null, "rating", null, null)));
+        JsonNode next = objectMapper.readTree(write(apiController.getMovies(
+            null, 5, first.get("nextCursor").asText(), "rating", null, null)));
+        JsonNode second = objectMapper.readTree(write(apiController.getMovies(1, 5, null, "rating", null, null)));
+
+        assertEquals(second.get("movies"), next.get("movies"));
+        double previous = Double.MAX_VALUE;
+        for (JsonNode movie : first.get("movies")) {
+            assertTrue(movie.get("imdbRating").asDouble() <= previous);
+            previous = movie.get("imdbRating").asDouble();
+        }
+        assertTrue(next.get("movies").get(0).get("imdbRating").asDouble() <= previous);
+        assertEquals(400, apiController.handleInvalidParameters(assertThrows(IllegalArgumentException.class,
+            () -> apiController.searchMovies(null, null, null, "rating,sideways", null, null))).getStatusCodeValue());
+    }
+
+    @Test
+    public void testGetMovieDetails() {
+        ResponseEntity<?> response = apiController.getMovie(1L, null);
+        MovieDetails details = (MovieDetails) response.getBody();
+        assertEquals("The Prison Escape", details.getMovie().getMovieName());
+        assertEquals(3, details.getReviews().size());
+        assertEquals(3, details.getReviewSummary().getReviewCount());
+        assertTrue(details.getReviewRank() >= 1);
+        assertTrue(details.getReviewScore() > 0);
+    }
+
+    @Test
+    public void testGetMovieNotFound() {
+        assertEquals(404, apiController.getMovie(999L, null).getStatusCodeValue());
+    }
+
+    @Test
+    public void testBatchLookupKeepsRequestOrder() throws Exception {
+        JsonNode batch = objectMapper.readTree(write(apiController.getMoviesBatch(new long[] {2, 999, 1}, "full", null)));
+        JsonNode results = batch.get("results");
+        assertEquals(3, results.size());
+        assertEquals(2, results.get(0).get("movie").get("id").asLong());
+        assertFalse(results.get(1).get("found").asBoolean());
+        assertEquals(999, results.get(1).get("id").asLong());
+        assertEquals("The Prison Escape", results.get(2).get("movie").get("movieName").asText());
+        assertEquals(3, results.get(2).get("reviews").size());
+        assertEquals(3, results.get(2).get("reviewSummary").get("reviewCount").asInt());
+        assertEquals(2, batch.get("foundCount").asInt());
+        assertEquals(999, batch.get("missingIds").get(0).asLong());
+
+        JsonNode summaries = objectMapper.readTree(write(apiController.getMoviesBatch(new long[] {1}, "summary", null)));
+        assertTrue(summaries.get("results").get(0).get("reviews").isNull());
+        assertEquals(3, summaries.get("results").get(0).get("reviewSummary").get("reviewCount").asInt());
+        assertThrows(IllegalArgumentException.class, () -> apiController.getMoviesBatch(new long[] {1}, "all", null));
+    }
+
+    private int movieCount(String name) {
+        return new MovieService().searchMovies(name, null, null).size();
+    }
+
+    private static String write(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        response.getBody().writeTo(outputStream);
+        return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testAddReviewReturnsUpdatedStatistics() {
+        ReviewSubmission submission = new ReviewSubmission();
+        submission.setUserName("  NewCritic ");
+        submission.setRating(1.0);
+        submission.setComment("Not my kind of film.");
+
+        ResponseEntity<?> response = apiController.addReview(1L, submission);
+        assertEquals(201, response.getStatusCodeValue());
+        assertEquals("/api/movies/1", response.getHeaders().getLocation().toString());
+        ReviewStats stats = (ReviewStats) response.getBody();
+        assertEquals(4, stats.getSummary().getReviewCount());
+        Review latest = stats.getRecentReviews().get(0);
+        assertEquals("NewCritic", latest.getUserName());
+        assertEquals(ReviewService.DEFAULT_AVATAR, latest.getAvatarEmoji());
+
+        assertEquals(404, apiController.addReview(999L, submission).getStatusCodeValue());
+        submission.setRating(6.0);
+        assertEquals(400, apiController.handleInvalidParameters(
+            assertThrows(IllegalArgumentException.class, () -> apiController.addReview(1L, submission))).getStatusCodeValue());
+        submission.setRating(null);
+        assertThrows(IllegalArgumentException.class, () -> apiController.addReview(1L, submission));
+        submission.setRating(3.0);
+        submission.setComment(" ");
+        assertThrows(IllegalArgumentException.class, () -> apiController.addReview(1L, submission));
+    }
+
+    private void inject(String fieldName, Object value) throws Exception {
+        java.lang.reflect.Field field = MoviesApiController.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(apiController, value);
+    }
+}
@@ -4,6 +4,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.ui.Model;
 import org.springframework.ui.ExtendedModelMap;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -72,6 +75,23 @@ public class MoviesControllerTest {
                 
                 return results;
             }
+
+            @Override
+            public MoviePage getMoviesPage(int page, int size, String cursor) {
+                return new MoviePage(getAllMovies(), page, size, null);
+            }
+
+            @Override
+            public FacetedSearchResult searchMoviesFaceted(MovieFilter filter, MovieSort sort, int page, int size, String cursor) {
+                if (filter == null || filter.hasFacetSelections() || sort != null) {
+                    return super.searchMoviesFaceted(filter, sort, page, size, cursor);
+                }
+                if (filter.getId() != null && filter.getId() <= 0) {
+                    throw new IllegalArgumentException("Movie ID must be a positive number, but got: " + filter.getId());
+                }
+                List<Movie> results = searchMovies(filter.getName(), filter.getId(), filter.getGenre());
+                return new FacetedSearchResult(new MoviePage(results, page, size, null), results.size(), getFacetCounts(null));
+            }
         };
         
         mockReviewService = new ReviewService() {
@@ -97,11 +117,20 @@ public class MoviesControllerTest {
 
     @Test
     public void testGetMovies() {
-        String result = moviesController.getMovies(model);
+        String result = moviesController.getMovies(0, MovieService.DEFAULT_PAGE_SIZE, null, null, model);
         assertNotNull(result);
         assertEquals("movies", result);
     }
 
+    @Test
+    public void testGetMoviesAddsPage() {
+        moviesController.getMovies(0, MovieService.DEFAULT_PAGE_SIZE, null, null, model);
+        MoviePage moviePage = (MoviePage) model.getAttribute("moviePage");
+        assertNotNull(moviePage);
+        assertEquals(3, moviePage.getMovies().size());
+        assertTrue(moviePage.isLastPage());
+    }
+
     @Test
     public void testGetMovieDetails() {
         String result = moviesController.getMovieDetails(1L, model);
@@ -126,7 +155,7 @@ public class MoviesControllerTest {
     // New tests for search functionality
     @Test
     public void testSearchMoviesWithName() {
-        String result = moviesController.searchMovies("Test", null, null, model);
+        String result = moviesController.searchMovies("Test", null, null, 0, MovieService.DEFAULT_PAGE_SIZE, null, null, new MovieFilter(), model);
         
         assertNotNull(result);
         assertEquals("movies", result);
@@ -143,7 +172,7 @@ public class MoviesControllerTest {
 
     @Test
     public void testSearchMoviesWithId() {
-        String result = moviesController.searchMovies(null, 2L, null, model);
+        String result = moviesController.searchMovies(null, 2L, null, 0, MovieService.DEFAULT_PAGE_SIZE, null, null, new MovieFilter(), model);
         
         assertNotNull(result);
         assertEquals("movies", result);
@@ -160,7 +189,7 @@ public class MoviesControllerTest {
 
     @Test
     public void testSearchMoviesWithGenre() {
-        String result = moviesController.searchMovies(null, null, "Comedy", model);
+        String result = moviesController.searchMovies(null, null, "Comedy", 0, MovieService.DEFAULT_PAGE_SIZE, null, null, new MovieFilter(), model);
         
         assertNotNull(result);
         assertEquals("movies", result);
@@ -177,7 +206,7 @@ public class MoviesControllerTest {
 
     @Test
     public void testSearchMoviesWithMultipleCriteria() {
-        String result = moviesController.searchMovies("Action", 2L, "Action", model);
+        String result = moviesController.searchMovies("Action", 2L, "Action", 0, MovieService.DEFAULT_PAGE_SIZE, null, null, new MovieFilter(), model);
         
         assertNotNull(result);
         assertEquals("movies", result);
@@ -196,7 +225,7 @@ public class MoviesControllerTest {
 
     @Test
     public void testSearchMoviesNoResults() {
-        String result = moviesController.searchMovies("NonExistent", null, null, model);
+        String result = moviesController.searchMovies("NonExistent", null, null, 0, MovieService.DEFAULT_PAGE_SIZE, null, null, new MovieFilter(), model);
         
         assertNotNull(result);
         assertEquals("movies", result);
@@ -212,9 +241,75 @@ public class MoviesControllerTest {
         assertTrue(searchMessage.contains("No treasure found"));
     }
 
+    @Test
+    public void testSearchMoviesMisspelledNameOffersClosestMatches() {
+        String result = moviesController.searchMovies("Dreem Heist", null, null, 0, MovieService.DEFAULT_PAGE_SIZE, null, null, new MovieFilter(), model);
+
+        assertEquals("movies", result);
+        @SuppressWarnings("unchecked")
+        List<Movie> movies = (List<Movie>) model.getAttribute("movies");
+        assertEquals("Dream Heist", movies.get(0).getMovieName());
+        assertTrue(((String) model.getAttribute("searchMessage")).contains("closest finds"));
+    }
+
+    @Test
+    public void testSearchMoviesWithFacetsRendersCounts() {
+        MovieFilter filter = new MovieFilter();
+        filter.setMinRating(5.0);
+        String result = moviesController.searchMovies(null, null, null, 0, MovieService.DEFAULT_PAGE_SIZE, null, null, filter, model);
+
+        assertEquals("movies", result);
+        @SuppressWarnings("unchecked")
+        List<Movie> movies = (List<Movie>) model.getAttribute("movies");
+        assertTrue(!movies.isEmpty());
+        for (Movie movie : movies) {
+            assertEquals(5.0, movie.getImdbRating());
+        }
+        assertNotNull(model.getAttribute("facets"));
+        assertEquals(filter, model.getAttribute("facetFilter"));
+        assertTrue(((List<?>) model.getAttribute("genreOptions")).contains("Crime/Drama"));
+    }
+
+    @Test
+    public void testSearchMoviesSortedByYear() {
+        String result = moviesController.searchMovies(null, null, null, 0, MovieService.DEFAULT_PAGE_SIZE, null,
+            "year,asc", new MovieFilter(), model);
+
+        assertEquals("movies", result);
+        assertEquals("year,asc", model.getAttribute("searchSort"));
+        @SuppressWarnings("unchecked")
+        List<Movie> movies = (List<Movie>) model.getAttribute("movies");
+        for (int i = 1; i < movies.size(); i++) {
+            assertTrue(movies.get(i - 1).getYear() <= movies.get(i).getYear());
+        }
+    }
+
+    @Test
+    public void testGetMoviesWithUnknownSort() {
+        String result = moviesController.getMovies(0, MovieService.DEFAULT_PAGE_SIZE, null, "budget", model);
+
+        assertEquals("error", result);
+        assertTrue(((String) model.getAttribute("message")).contains("budget"));
+    }
+
+    @Test
+    public void testErrorViewIsMarkedUncacheable() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies/search");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            String result = moviesController.searchMovies("Test", null, null, 0, MovieService.DEFAULT_PAGE_SIZE, null,
+                "budget", new MovieFilter(), model);
+
+            assertEquals("error", result);
+            assertEquals(Boolean.TRUE, request.getAttribute(RenderedPageCacheFilter.UNCACHEABLE));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
     @Test
     public void testSearchMoviesWithInvalidId() {
-        String result = moviesController.searchMovies(null, -1L, null, model);
+        String result = moviesController.searchMovies(null, -1L, null, 0, MovieService.DEFAULT_PAGE_SIZE, null, null, new MovieFilter(), model);
         
         assertNotNull(result);
         assertEquals("error", result);
@@ -229,7 +324,7 @@ public class MoviesControllerTest {
 
     @Test
     public void testSearchMoviesWithEmptyParameters() {
-        String result = moviesController.searchMovies("", null, "", model);
+        String result = moviesController.searchMovies("", null, "", 0, MovieService.DEFAULT_PAGE_SIZE, null, null, new MovieFilter(), model);
         
         assertNotNull(result);
         assertEquals("movies", result);
@@ -244,7 +339,7 @@ public class MoviesControllerTest {
 
     @Test
     public void testSearchMoviesCaseInsensitive() {
-        String result = moviesController.searchMovies("TEST", null, null, model);
+        String result = moviesController.searchMovies("TEST", null, null, 0, MovieService.DEFAULT_PAGE_SIZE, null, null, new MovieFilter(), model);
         
         assertNotNull(result);
         assertEquals("movies", result);
@@ -258,7 +353,7 @@ public class MoviesControllerTest {
 
     @Test
     public void testSearchMoviesPartialNameMatch() {
-        String result = moviesController.searchMovies("Act", null, null, model);
+        String result = moviesController.searchMovies("Act", null, null, 0, MovieService.DEFAULT_PAGE_SIZE, null, null, new MovieFilter(), model);
         
         assertNotNull(result);
         assertEquals("movies", result);
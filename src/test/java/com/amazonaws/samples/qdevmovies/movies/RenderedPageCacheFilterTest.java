@@ -0,0 +1,188 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderedPageCacheFilterTest {
+
+    @Test
+    public void testServesGzipOnlyWhenAccepted() throws Exception {
+        assertTrue(RenderedPageCacheFilter.acceptsGzip("gzip, deflate, br"));
+        assertTrue(RenderedPageCacheFilter.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+        assertTrue(RenderedPageCacheFilter.acceptsGzip("*"));
+        assertFalse(RenderedPageCacheFilter.acceptsGzip(null));
+        assertFalse(RenderedPageCacheFilter.acceptsGzip("identity"));
+        assertFalse(RenderedPageCacheFilter.acceptsGzip("gzip;q=0"));
+        assertFalse(RenderedPageCacheFilter.acceptsGzip("*;q=0.5, gzip;q=0"));
+        assertFalse(RenderedPageCacheFilter.acceptsGzip("deflate, *;q=0"));
+
+        RenderedPageCacheFilter filter = new RenderedPageCacheFilter(new MovieService(), new ReviewService(),
+            CatalogMetrics.NOOP, true, 1 << 20, 5_000);
+        FilterChain render = (request, response) -> {
+            response.setContentType("text/html;charset=UTF-8");
+            response.getWriter().write("<html>movies</html>");
+        };
+        MockHttpServletResponse rendered = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/movies"), rendered, render);
+        assertEquals("Accept-Encoding", rendered.getHeader("Vary"));
+
+        MockHttpServletRequest refused = new MockHttpServletRequest("GET", "/movies");
+        refused.addHeader("Accept-Encoding", "gzip;q=0, identity");
+        MockHttpServletResponse cached = new MockHttpServletResponse();
+        filter.doFilter(refused, cached, render);
+        assertNull(cached.getHeader("Content-Encoding"));
+        assertEquals("<html>movies</html>", cached.getContentAsString());
+        assertEquals("Accept-Encoding", cached.getHeader("Vary"));
+        assertEquals(1, filter.getCache().getHitCount());
+    }
+
+    @Test
+    public void testErrorPagesAreNotCached() throws Exception {
+        RenderedPageCacheFilter filter = new RenderedPageCacheFilter(new MovieService(), new ReviewService(),
+            CatalogMetrics.NOOP, true, 1 << 20, 5_000);
+        AtomicInteger renders = new AtomicInteger();
+        FilterChain render = (request, response) -> {
+            response.setContentType("text/html;charset=UTF-8");
+            if (renders.incrementAndGet() == 1) {
+                // the first search fails and renders the error view with status 200
+                request.setAttribute(RenderedPageCacheFilter.UNCACHEABLE, Boolean.TRUE);
+                response.getWriter().write("<html>search failed</html>");
+            } else {
+                response.getWriter().write("<html>results</html>");
+            }
+        };
+
+        MockHttpServletResponse failed = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/movies/search"), failed, render);
+        assertEquals("<html>search failed</html>", failed.getContentAsString());
+        assertNull(failed.getHeader("ETag"));
+
+        MockHttpServletResponse retried = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/movies/search"), retried, render);
+        assertEquals("<html>results</html>", retried.getContentAsString());
+        assertEquals(2, renders.get());
+        assertEquals(0, filter.getCache().getHitCount());
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneRender() throws Exception {
+        RenderedPageCacheFilter filter = new RenderedPageCacheFilter(new MovieService(), new ReviewService(),
+            CatalogMetrics.NOOP, true, 1 << 20, 5_000);
+        AtomicInteger renders = new AtomicInteger();
+        AtomicReference<Thread> follower = new AtomicReference<>();
+        MockHttpServletResponse followerResponse = new MockHttpServletResponse();
+        AtomicReference<Throwable> followerFailure = new AtomicReference<>();
+
+        FilterChain render = (request, response) -> {
+            renders.incrementAndGet();
+            // start an identical request and keep rendering until it is waiting for this one
+            Thread thread = new Thread(() -> {
+                try {
+                    filter.doFilter(new MockHttpServletRequest("GET", "/movies/1/details"), followerResponse,
+                        (r, s) -> renders.incrementAndGet());
+                } catch (Throwable e) {
+                    followerFailure.set(e);
+                }
+            });
+            follower.set(thread);
+            thread.start();
+            while (thread.getState() != Thread.State.TIMED_WAITING && thread.isAlive()) {
+                Thread.yield();
+            }
+            response.setContentType("text/html;charset=UTF-8");
+            response.getWriter().write("<html>details</html>");
+        };
+        MockHttpServletResponse leaderResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/movies/1/details"), leaderResponse, render);
+        follower.get().join();
+
+        assertNull(followerFailure.get());
+        assertEquals(1, renders.get());
+        assertEquals("<html>details</html>", leaderResponse.getContentAsString());
+        assertEquals("<html>details</html>", followerResponse.getContentAsString());
+        assertEquals(leaderResponse.getHeader("ETag"), followerResponse.getHeader("ETag"));
+        assertEquals(1, filter.getCache().getCoalescedCount());
+    }
+
+    @Test
+    public void testFollowersGetTheLeadersResponseWhenItIsNotAPage() throws Exception {
+        RenderedPageCacheFilter filter = new RenderedPageCacheFilter(new MovieService(), new ReviewService(),
+            CatalogMetrics.NOOP, true, 1 << 20, 5_000);
+        AtomicInteger renders = new AtomicInteger();
+        AtomicReference<Thread> followerThread = new AtomicReference<>();
+        MockHttpServletResponse followerResponse = new MockHttpServletResponse();
+
+        MockHttpServletResponse leaderResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/movies/search"), leaderResponse, (request, response) -> {
+            renders.incrementAndGet();
+            Thread follower = startFollower(filter, "/movies/search", followerResponse, renders);
+            while (follower.getState() != Thread.State.TIMED_WAITING && follower.isAlive()) {
+                Thread.yield();
+            }
+            // shed by admission control, which answers without rendering
+            ((HttpServletResponse) response).setStatus(503);
+            ((HttpServletResponse) response).setHeader("Retry-After", "1");
+            response.setContentType("text/html;charset=UTF-8");
+            response.getWriter().write("busy");
+            followerThread.set(follower);
+        });
+        followerThread.get().join();
+
+        assertEquals(1, renders.get());
+        assertEquals(503, followerResponse.getStatus());
+        assertEquals("1", followerResponse.getHeader("Retry-After"));
+        assertEquals("busy", followerResponse.getContentAsString());
+        assertEquals(0, filter.getCache().size());
+    }
+
+    @Test
+    public void testFollowersPastTheTimeoutRenderThePageThemselves() throws Exception {
+        RenderedPageCacheFilter filter = new RenderedPageCacheFilter(new MovieService(), new ReviewService(),
+            CatalogMetrics.NOOP, true, 1 << 20, 20);
+        AtomicInteger renders = new AtomicInteger();
+        MockHttpServletResponse followerResponse = new MockHttpServletResponse();
+
+        MockHttpServletResponse leaderResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/movies/2/details"), leaderResponse, (request, response) -> {
+            renders.incrementAndGet();
+            // keep rendering until the follower has given up waiting
+            Thread follower = startFollower(filter, "/movies/2/details", followerResponse, renders);
+            try {
+                follower.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            response.setContentType("text/html;charset=UTF-8");
+            response.getWriter().write("<html>details</html>");
+        });
+
+        assertEquals(2, renders.get());
+        assertEquals("<html>details</html>", leaderResponse.getContentAsString());
+        assertEquals(200, followerResponse.getStatus());
+        assertEquals(0, filter.getCache().getCoalescedCount());
+    }
+
+    /**
+     * Starts an identical request on another thread, counting any render it starts itself.
+     */
+    private static Thread startFollower(RenderedPageCacheFilter filter, String path, MockHttpServletResponse response,
+                                        AtomicInteger renders) {
+        Thread thread = new Thread(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", path), response, (r, s) -> renders.incrementAndGet());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+}
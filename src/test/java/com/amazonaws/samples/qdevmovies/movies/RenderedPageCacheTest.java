@@ -0,0 +1,53 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderedPageCacheTest {
+
+    @Test
+    public void testHitAndMiss() {
+        RenderedPageCache cache = new RenderedPageCache(1024);
+        assertNull(cache.get("/movies", 1L));
+        cache.put("/movies", 1L, page(100));
+        assertNotNull(cache.get("/movies", 1L));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testVersionChangeInvalidatesAllPages() {
+        RenderedPageCache cache = new RenderedPageCache(1024);
+        cache.put("/movies", 1L, page(100));
+        cache.put("/movies/1/details", 1L, page(100));
+        assertNull(cache.get("/movies", 2L));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedWhenOverBudget() {
+        RenderedPageCache cache = new RenderedPageCache(500);
+        cache.put("a", 1L, page(100)); // weighs 200: plain and gzip copies
+        cache.put("b", 1L, page(100));
+        cache.get("a", 1L);
+        cache.put("c", 1L, page(100));
+        assertNotNull(cache.get("a", 1L));
+        assertNull(cache.get("b", 1L));
+        assertNotNull(cache.get("c", 1L));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(400, cache.getTotalBytes());
+    }
+
+    @Test
+    public void testPageLargerThanBudgetIsNotCached() {
+        RenderedPageCache cache = new RenderedPageCache(100);
+        cache.put("big", 1L, page(100));
+        assertEquals(0, cache.size());
+    }
+
+    private static RenderedPageCache.Page page(int bytes) {
+        return new RenderedPageCache.Page("text/html;charset=UTF-8", new byte[bytes], new byte[bytes], "\"etag\"");
+    }
+}
@@ -0,0 +1,203 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testAppendedReviewsAreReplayedInOrder() throws Exception {
+        Path file = tempDir.resolve("reviews.log");
+        List<String> applied = new ArrayList<>();
+        try (ReviewLog log = ReviewLog.open(file, (movieId, review) -> applied.add(movieId + ":" + review.getUserName()))) {
+            log.append(1L, review("A", 4.0)).get(5, TimeUnit.SECONDS);
+            log.append(2L, review("B", 2.5)).get(5, TimeUnit.SECONDS);
+            log.append(1L, review("C", 5.0)).get(5, TimeUnit.SECONDS);
+            assertEquals(3, log.getRecordCount());
+        }
+        assertEquals(3, applied.size()); // applied once durable
+
+        List<String> replayed = new ArrayList<>();
+        List<Review> reviews = new ArrayList<>();
+        try (ReviewLog log = ReviewLog.open(file, (movieId, review) -> {
+            replayed.add(movieId + ":" + review.getUserName());
+            reviews.add(review);
+        })) {
+            assertEquals(3, log.getReplayedCount());
+        }
+        assertEquals(applied, replayed);
+        assertEquals(2.5, reviews.get(1).getRating(), 0.0);
+        assertEquals("🎬", reviews.get(1).getAvatarEmoji());
+    }
+
+    @Test
+    public void testTornTailIsTruncated() throws Exception {
+        Path file = tempDir.resolve("reviews.log");
+        try (ReviewLog log = ReviewLog.open(file, (movieId, review) -> { })) {
+            log.append(1L, review("A", 4.0)).get(5, TimeUnit.SECONDS);
+            log.append(1L, review("B", 3.0)).get(5, TimeUnit.SECONDS);
+        }
+        long intact = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 0, 60, 1, 2, 3}, StandardOpenOption.APPEND); // a record cut short by a crash
+
+        List<String> replayed = new ArrayList<>();
+        try (ReviewLog log = ReviewLog.open(file, (movieId, review) -> replayed.add(review.getUserName()))) {
+            assertEquals(intact, Files.size(file));
+            assertEquals(2, replayed.size());
+            log.append(1L, review("C", 5.0)).get(5, TimeUnit.SECONDS);
+        }
+
+        List<String> afterRepair = new ArrayList<>();
+        ReviewLog.open(file, (movieId, review) -> afterRepair.add(review.getUserName())).close();
+        assertEquals(3, afterRepair.size());
+        assertEquals("C", afterRepair.get(2));
+    }
+
+    @Test
+    public void testCorruptRecordEndsReplay() throws Exception {
+        Path file = tempDir.resolve("reviews.log");
+        try (ReviewLog log = ReviewLog.open(file, (movieId, review) -> { })) {
+            log.append(1L, review("A", 4.0)).get(5, TimeUnit.SECONDS);
+            log.append(1L, review("B", 3.0)).get(5, TimeUnit.SECONDS);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x55; // flip bits in the last comment
+        Files.write(file, bytes);
+
+        List<String> replayed = new ArrayList<>();
+        ReviewLog.open(file, (movieId, review) -> replayed.add(review.getUserName())).close();
+        assertEquals(1, replayed.size());
+        assertEquals("A", replayed.get(0));
+    }
+
+    @Test
+    public void testCompactionMergesIntoSnapshot() throws Exception {
+        Path file = tempDir.resolve("reviews.log");
+        try (ReviewLog log = ReviewLog.open(file, (movieId, review) -> { })) {
+            log.append(1L, review("A", 4.0)).get(5, TimeUnit.SECONDS);
+            log.append(2L, review("B", 3.0)).get(5, TimeUnit.SECONDS);
+            log.append(1L, review("C", 2.0)).get(5, TimeUnit.SECONDS);
+            assertTrue(log.compact());
+            assertFalse(log.compact()); // nothing new since
+            assertEquals(0, Files.size(file));
+            log.append(2L, review("D", 5.0)).get(5, TimeUnit.SECONDS);
+            assertTrue(log.compact());
+            log.append(3L, review("E", 1.0)).get(5, TimeUnit.SECONDS);
+        }
+        assertTrue(Files.exists(tempDir.resolve("reviews.log.snapshot")));
+        assertFalse(Files.exists(tempDir.resolve("reviews.log.old")));
+
+        List<String> replayed = new ArrayList<>();
+        ReviewLog.open(file, (movieId, review) -> replayed.add(movieId + ":" + review.getUserName())).close();
+        // the snapshot groups reviews by movie, keeping each movie's order
+        assertEquals(5, replayed.size());
+        assertEquals(replayed.indexOf("1:A") + 1, replayed.indexOf("1:C"));
+        assertTrue(replayed.indexOf("2:B") < replayed.indexOf("2:D"));
+        assertEquals("3:E", replayed.get(4));
+    }
+
+    @Test
+    public void testCrashBeforeRotatedFileIsDeletedDoesNotDuplicate() throws Exception {
+        Path file = tempDir.resolve("reviews.log");
+        Path rotated = tempDir.resolve("reviews.log.old");
+        try (ReviewLog log = ReviewLog.open(file, (movieId, review) -> { })) {
+            log.append(1L, review("A", 4.0)).get(5, TimeUnit.SECONDS);
+            log.append(1L, review("B", 3.0)).get(5, TimeUnit.SECONDS);
+        }
+        Path copy = tempDir.resolve("copy");
+        Files.copy(file, copy);
+        try (ReviewLog log = ReviewLog.open(file, (movieId, review) -> { })) {
+            assertTrue(log.compact());
+            log.append(1L, review("C", 5.0)).get(5, TimeUnit.SECONDS);
+        }
+        Files.move(copy, rotated, StandardCopyOption.REPLACE_EXISTING); // as if deleting it never happened
+
+        List<String> replayed = new ArrayList<>();
+        try (ReviewLog log = ReviewLog.open(file, (movieId, review) -> replayed.add(review.getUserName()))) {
+            assertEquals(3, replayed.size());
+            assertTrue(log.compact()); // merges the leftover file first
+            assertFalse(Files.exists(rotated));
+        }
+        List<String> afterCompaction = new ArrayList<>();
+        ReviewLog.open(file, (movieId, review) -> afterCompaction.add(review.getUserName())).close();
+        assertEquals(replayed, afterCompaction);
+    }
+
+    @Test
+    public void testCorruptSnapshotFailsToOpen() throws Exception {
+        Path file = tempDir.resolve("reviews.log");
+        try (ReviewLog log = ReviewLog.open(file, (movieId, review) -> { })) {
+            log.append(1L, review("A", 4.0)).get(5, TimeUnit.SECONDS);
+            assertTrue(log.compact());
+        }
+        Path snapshot = tempDir.resolve("reviews.log.snapshot");
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 8] ^= 0x55;
+        Files.write(snapshot, bytes);
+
+        assertThrows(IOException.class, () -> ReviewLog.open(file, (movieId, review) -> { }));
+    }
+
+    @Test
+    public void testConcurrentAppendsShareSyncs() throws Exception {
+        Path file = tempDir.resolve("reviews.log");
+        int threads = 8;
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (ReviewLog log = ReviewLog.open(file, (movieId, review) -> { })) {
+            List<Future<?>> submitters = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long movieId = t;
+                submitters.add(executor.submit(() -> {
+                    List<CompletableFuture<Void>> pending = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        pending.add(log.append(movieId, review("U" + i, 3.0)));
+                    }
+                    CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+                }));
+            }
+            for (Future<?> submitter : submitters) {
+                submitter.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(threads * perThread, log.getRecordCount());
+            assertTrue(log.getSyncCount() < threads * perThread);
+        } finally {
+            executor.shutdown();
+        }
+
+        long[] perMovie = new long[threads];
+        ReviewLog.open(file, (movieId, review) -> perMovie[(int) movieId]++).close();
+        for (long count : perMovie) {
+            assertEquals(perThread, count);
+        }
+    }
+
+    @Test
+    public void testAppendAfterCloseFails() throws Exception {
+        ReviewLog log = ReviewLog.open(tempDir.resolve("reviews.log"), (movieId, review) -> { });
+        log.close();
+        assertTrue(log.append(1L, review("A", 4.0)).isCompletedExceptionally());
+    }
+
+    private static Review review(String userName, double rating) {
+        return new Review(userName, "🎬", rating, "comment by " + userName);
+    }
+}
@@ -0,0 +1,224 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testFindByMovieIdFromClasspath() {
+        ReviewRepository repository = new ReviewRepository();
+        List<Review> reviews = repository.findByMovieId(1L);
+        assertEquals(3, reviews.size());
+        assertEquals("MovieBuff87", reviews.get(0).getUserName());
+        assertSame(reviews, repository.findByMovieId(1L)); // parsed once, not per call
+    }
+
+    @Test
+    public void testFindByMovieIdUnknown() {
+        ReviewRepository repository = new ReviewRepository();
+        assertTrue(repository.findByMovieId(999L).isEmpty());
+        assertEquals(0, repository.getSummary(999L).getReviewCount());
+    }
+
+    @Test
+    public void testSummary() {
+        ReviewSummary summary = new ReviewRepository().getSummary(1L);
+        assertEquals(3, summary.getReviewCount());
+        assertEquals((5.0 + 4.5 + 5.0) / 3, summary.getAverageRating(), 1e-9);
+    }
+
+    @Test
+    public void testBatchLookupsFollowRequestOrder() {
+        ReviewRepository repository = new ReviewRepository();
+        long[] ids = {999L, 1L};
+        List<List<Review>> reviews = repository.findByMovieIds(ids);
+        assertTrue(reviews.get(0).isEmpty());
+        assertSame(repository.findByMovieId(1L), reviews.get(1));
+        List<ReviewSummary> summaries = repository.getSummaries(ids);
+        assertSame(ReviewSummary.EMPTY, summaries.get(0));
+        assertEquals(3, summaries.get(1).getReviewCount());
+    }
+
+    @Test
+    public void testAddUpdatesStatisticsIncrementally() {
+        ReviewRepository repository = new ReviewRepository();
+        List<Review> before = repository.findByMovieId(1L);
+        long version = repository.getVersion();
+
+        repository.add(1L, new Review("Newcomer", "x", 2.0, "not for me"));
+
+        ReviewSummary summary = repository.getSummary(1L);
+        assertEquals(4, summary.getReviewCount());
+        assertEquals((5.0 + 4.5 + 5.0 + 2.0) / 4, summary.getAverageRating(), 1e-9);
+        assertArrayEquals(new int[] {0, 1, 0, 0, 3}, summary.getHistogram());
+        assertEquals("Newcomer", repository.findRecentByMovieId(1L, 2).get(0).getUserName());
+        assertEquals(2, repository.findRecentByMovieId(1L, 2).size());
+        assertEquals(3, before.size()); // earlier views keep their reviews
+        assertEquals(4, repository.findByMovieId(1L).size());
+        assertNotEquals(version, repository.getVersion());
+
+        repository.add(999L, new Review("First", "x", 4.0, "first review"));
+        assertEquals(1, repository.getSummary(999L).getReviewCount());
+        assertEquals("First", repository.findByMovieId(999L).get(0).getUserName());
+    }
+
+    @Test
+    public void testScoreWeighsReviewCount() {
+        ReviewRepository repository = new ReviewRepository();
+        repository.add(1001L, new Review("A", "x", 5.0, "one perfect review"));
+        double oneReview = repository.getScore(1001L);
+        for (int i = 0; i < 20; i++) {
+            repository.add(1002L, new Review("B" + i, "x", 4.9, "consistently great"));
+        }
+        assertTrue(repository.getScore(1002L) > repository.getScore(1001L), "many 4.9 reviews beat one 5.0 review");
+        assertTrue(oneReview < 5.0, "a single review is pulled towards the catalog mean");
+        assertEquals(0.0, repository.getScore(999L), 0.0);
+    }
+
+    @Test
+    public void testRankFollowsReviewScoreOrder() {
+        ReviewRepository repository = new ReviewRepository();
+        ReviewService reviewService = new ReviewService(repository);
+        MovieService movieService = MovieService.builder().catalog(ColumnarCatalog.of(new MovieService().getAllMovies())).reviews(repository).build();
+        List<Movie> ranked = movieService.getAllMovies(MovieSort.parse("reviewScore"));
+        long lastId = ranked.get(ranked.size() - 1).getId();
+        assertEquals(1, reviewService.getReviewStats(ranked.get(0).getId()).getRank());
+        for (int i = 1; i < ranked.size(); i++) {
+            assertTrue(repository.getRank(ranked.get(i).getId()) >= repository.getRank(ranked.get(i - 1).getId()));
+        }
+        assertTrue(repository.getRank(lastId) > 1);
+
+        for (int i = 0; i < 50; i++) {
+            repository.add(lastId, new Review("Fan" + i, "x", 5.0, "underrated"));
+        }
+        ReviewStats stats = reviewService.getReviewStats(lastId);
+        assertEquals(1, stats.getRank());
+        assertEquals("Fan49", stats.getRecentReviews().get(0).getUserName());
+        assertEquals(ReviewStats.RECENT_REVIEWS, stats.getRecentReviews().size());
+        assertEquals(lastId, movieService.getAllMovies(MovieSort.parse("reviewScore")).get(0).getId());
+        assertEquals(0, reviewService.getReviewStats(999L).getRank());
+    }
+
+    @Test
+    public void testKeysNamingTheSameMovieAreMerged() {
+        ReviewIndex index = ReviewIndex.fromJson(new org.json.JSONObject(
+            "{\"1\": [{\"userName\": \"A\", \"avatarEmoji\": \"x\", \"rating\": 4.0, \"comment\": \"first\"}],"
+            + " \"01\": [{\"userName\": \"B\", \"avatarEmoji\": \"x\", \"rating\": 2.0, \"comment\": \"second\"}],"
+            + " \"2\": [{\"userName\": \"C\", \"avatarEmoji\": \"x\", \"rating\": 5.0, \"comment\": \"third\"}]}"));
+
+        assertEquals(Arrays.asList("A", "B"), Arrays.asList(index.reviewsFor(1).get(0).getUserName(), index.reviewsFor(1).get(1).getUserName()));
+        assertEquals(2, index.summaryFor(1).getReviewCount());
+        assertEquals(3.0, index.summaryFor(1).getAverageRating(), 1e-9);
+        assertEquals(2, index.movieCount());
+        assertEquals(2, index.rankedCount());
+        assertEquals(2, index.rankOf(1));
+    }
+
+    @Test
+    public void testReloadFromExternalFile() throws Exception {
+        Path file = tempDir.resolve("reviews.json");
+        write(file, "{\"7\": [{\"userName\": \"A\", \"avatarEmoji\": \"x\", \"rating\": 4.0, \"comment\": \"ok\"}]}");
+        ReviewRepository repository = new ReviewRepository(file.toString(), false);
+        assertEquals(1, repository.findByMovieId(7L).size());
+
+        write(file, "{\"7\": [], \"8\": [{\"userName\": \"B\", \"avatarEmoji\": \"y\", \"rating\": 2.0, \"comment\": \"meh\"}]}");
+        assertTrue(repository.reload());
+        assertTrue(repository.findByMovieId(7L).isEmpty());
+        assertEquals(2.0, repository.getSummary(8L).getAverageRating(), 1e-9);
+    }
+
+    @Test
+    public void testReloadKeepsIndexOnMalformedFile() throws Exception {
+        Path file = tempDir.resolve("reviews.json");
+        write(file, "{\"7\": [{\"userName\": \"A\", \"avatarEmoji\": \"x\", \"rating\": 4.0, \"comment\": \"ok\"}]}");
+        ReviewRepository repository = new ReviewRepository(file.toString(), false);
+
+        write(file, "{\"7\": [");
+        assertFalse(repository.reload());
+        assertEquals(1, repository.findByMovieId(7L).size());
+    }
+
+    @Test
+    public void testLoggedReviewsSurviveRestartAndReload() throws Exception {
+        Path file = tempDir.resolve("reviews.json");
+        Path log = tempDir.resolve("data").resolve("reviews.log");
+        write(file, "{\"7\": [{\"userName\": \"A\", \"avatarEmoji\": \"x\", \"rating\": 4.0, \"comment\": \"ok\"}]}");
+        ReviewRepository repository = new ReviewRepository(file.toString(), false, log.toString(), 0);
+        long version = repository.getVersion();
+        repository.add(7L, new Review("B", "y", 2.0, "meh")).get(5, TimeUnit.SECONDS);
+        repository.add(9L, new Review("C", "z", 5.0, "great")).get(5, TimeUnit.SECONDS);
+        assertEquals(2, repository.findByMovieId(7L).size());
+        assertNotEquals(version, repository.getVersion());
+        assertEquals(2, repository.getLoggedReviewCount());
+
+        write(file, "{\"7\": [], \"8\": [{\"userName\": \"D\", \"avatarEmoji\": \"w\", \"rating\": 3.0, \"comment\": \"fine\"}]}");
+        assertTrue(repository.reload());
+        assertEquals("B", repository.findByMovieId(7L).get(0).getUserName()); // logged reviews replayed on the new source
+        assertEquals(1, repository.findByMovieId(8L).size());
+        assertEquals(1, repository.findByMovieId(9L).size());
+        repository.close();
+
+        ReviewRepository restarted = new ReviewRepository(file.toString(), false, log.toString(), 0);
+        try {
+            assertEquals(1, restarted.findByMovieId(7L).size());
+            assertEquals(5.0, restarted.getSummary(9L).getAverageRating(), 1e-9);
+            assertEquals(1, restarted.getRank(9L));
+        } finally {
+            restarted.close();
+        }
+    }
+
+    @Test
+    public void testConcurrentAddsKeepStatisticsConsistent() throws Exception {
+        ReviewRepository repository = new ReviewRepository();
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        repository.add(100L + (offset + i) % 4, new Review("U" + i, "x", 1 + i % 5, "c"));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        int total = 0;
+        for (long id = 100; id < 104; id++) {
+            ReviewSummary summary = repository.getSummary(id);
+            assertEquals(summary.getReviewCount(), repository.findByMovieId(id).size());
+            assertEquals(summary.getReviewCount(), Arrays.stream(summary.getHistogram()).sum());
+            assertTrue(repository.getRank(id) >= 1);
+            total += summary.getReviewCount();
+        }
+        assertEquals(threads * perThread, total);
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
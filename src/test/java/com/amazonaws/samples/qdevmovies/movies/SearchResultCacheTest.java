@@ -0,0 +1,134 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchResultCacheTest {
+
+    @Test
+    public void testNormalizedCriteriaShareOneEntry() {
+        SearchResultCache cache = cache(1 << 20);
+        AtomicInteger searches = new AtomicInteger();
+        int[] first = cache.get(cache.keyFor(" Heist ", null, "DRAMA", 1), () -> new int[] {searches.incrementAndGet()});
+        int[] second = cache.get(cache.keyFor("heist", null, "drama", 1), () -> new int[] {searches.incrementAndGet()});
+
+        assertSame(first, second);
+        assertEquals(1, searches.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertNotEquals(cache.keyFor("heist", 1L, "drama", 1), cache.keyFor("heist", null, "drama", 1));
+    }
+
+    @Test
+    public void testNoKeyWithoutCriteriaOrWhenDisabled() {
+        assertNull(new SearchResultCache(1 << 20).keyFor(" ", null, "", 1));
+        assertNull(SearchResultCache.DISABLED.keyFor("heist", null, null, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SearchResultCache(-1));
+    }
+
+    @Test
+    public void testNewCatalogVersionInvalidates() {
+        SearchResultCache cache = cache(1 << 20);
+        cache.get(cache.keyFor("heist", null, null, 1), () -> new int[] {1, 2, 3});
+        cache.useCatalogVersion(2);
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalBytes());
+
+        int[] reloaded = cache.get(cache.keyFor("heist", null, null, 2), () -> new int[] {4});
+        assertArrayEquals(new int[] {4}, reloaded);
+        assertEquals(1, cache.size());
+
+        // a search that started before the reload finishes later: its result is returned but not cached
+        int[] stale = cache.get(cache.keyFor("heist", null, null, 1), () -> new int[] {1, 2, 3});
+        assertArrayEquals(new int[] {1, 2, 3}, stale);
+        assertEquals(1, cache.size());
+        assertArrayEquals(new int[] {4}, cache.get(cache.keyFor("heist", null, null, 2), () -> new int[0]));
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedResultsAreEvicted() {
+        // room for about three results of 1,000 positions
+        SearchResultCache cache = cache(3 * (4_000 + 160));
+        for (int i = 0; i < 10; i++) {
+            cache.get(cache.keyFor("title " + i, null, null, 1), () -> new int[1000]);
+            cache.get(cache.keyFor("title 0", null, null, 1), () -> new int[1000]); // kept hot
+        }
+
+        assertTrue(cache.getTotalBytes() <= 3 * (4_000 + 160));
+        assertEquals(7, cache.getEvictionCount());
+        assertEquals(10, cache.getHitCount());
+
+        cache.get(cache.keyFor("huge", null, null, 1), () -> new int[100_000]); // larger than the whole budget
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testConcurrentMissesRunOneSearch() throws Exception {
+        SearchResultCache cache = cache(1 << 20);
+        int threads = 8;
+        CountDownLatch searching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger searches = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> cache.get(cache.keyFor("heist", null, null, 1), () -> {
+                    searches.incrementAndGet();
+                    searching.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return new int[] {42};
+                })));
+            }
+            assertTrue(searching.await(10, TimeUnit.SECONDS));
+            // let the other lookups reach the running search before it completes
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (cache.getCoalescedCount() + cache.getHitCount() < threads - 1 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            int[] first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<int[]> result : results) {
+                assertSame(first, result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, searches.get());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(threads - 1, cache.getCoalescedCount() + cache.getHitCount());
+    }
+
+    @Test
+    public void testFailedSearchIsNotCached() {
+        SearchResultCache cache = cache(1 << 20);
+        SearchResultCache.Key key = cache.keyFor("heist", null, null, 1);
+        assertThrows(IllegalStateException.class, () -> cache.get(key, () -> {
+            throw new IllegalStateException("index unavailable");
+        }));
+
+        assertArrayEquals(new int[] {7}, cache.get(key, () -> new int[] {7}));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    private static SearchResultCache cache(long maxBytes) {
+        SearchResultCache cache = new SearchResultCache(maxBytes);
+        cache.useCatalogVersion(1);
+        return cache;
+    }
+}
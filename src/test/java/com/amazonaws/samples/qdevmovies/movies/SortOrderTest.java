@@ -0,0 +1,230 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SortOrderTest {
+
+    private static final String[] GENRES = {"Drama", "Crime/Drama", "Action/Sci-Fi", "Adventure/Fantasy", "Comedy"};
+
+    @Test
+    public void testParsesFieldAndDirection() {
+        assertNull(MovieSort.parse(" "));
+        assertEquals(new MovieSort(MovieSort.Field.RATING, true), MovieSort.parse("rating"));
+        assertEquals(new MovieSort(MovieSort.Field.NAME, false), MovieSort.parse("name"));
+        assertEquals(new MovieSort(MovieSort.Field.YEAR, false), MovieSort.parse("Year, ASC"));
+        assertEquals("reviewRating,desc", MovieSort.parse("reviewrating").toString());
+        assertThrows(IllegalArgumentException.class, () -> MovieSort.parse("budget"));
+        assertThrows(IllegalArgumentException.class, () -> MovieSort.parse("year,up"));
+        assertThrows(IllegalArgumentException.class, () -> MovieSort.parse("year,asc,desc"));
+    }
+
+    @Test
+    public void testHashCodeIsStableAcrossRuns() {
+        // ETags include it, so it must not depend on identity hashes
+        assertEquals(1, MovieSort.parse("rating,desc").hashCode());
+        assertEquals(6, MovieSort.parse("name,asc").hashCode());
+    }
+
+    @Test
+    public void testSelectMatchesFullSortForEverySkipAndLimit() {
+        int[] keys = new int[200];
+        Random random = new Random(3);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(20);
+        }
+        SortOrder order = SortOrder.byKey(keys, true);
+        for (int every : new int[]{1, 2, 7, 60}) {
+            long[] matches = new long[FacetIndex.words(keys.length)];
+            List<Integer> expected = new ArrayList<>();
+            for (int position = 0; position < keys.length; position += every) {
+                matches[position >>> 6] |= 1L << position;
+                expected.add(position);
+            }
+            expected.sort(Comparator.comparingInt((Integer position) -> -keys[position]));
+            for (int skip = 0; skip <= expected.size(); skip += 3) {
+                for (int limit : new int[]{1, 5, 24, 500}) {
+                    int[] selected = order.select(every == 1 ? null : matches, expected.size(), -1, skip, limit);
+                    List<Integer> page = expected.subList(skip, Math.min(expected.size(), skip + limit));
+                    assertEquals(page, box(selected), "every " + every + " skip " + skip + " limit " + limit);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSortedSearchMatchesFullSortOnSyntheticCatalog() {
+        Random random = new Random(11);
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 1; i <= 3000; i++) {
+            movies.add(new Movie(i, "Movie " + random.nextInt(500), "Director", 1950 + random.nextInt(75),
+                GENRES[random.nextInt(GENRES.length)], "", 70 + random.nextInt(130), 1 + random.nextInt(9) * 0.5));
+        }
+        MovieService service = new MovieService(movies);
+
+        for (int q = 0; q < 120; q++) {
+            MovieSort sort = new MovieSort(
+                MovieSort.Field.values()[random.nextInt(4)], random.nextBoolean());
+            MovieFilter filter = new MovieFilter();
+            if (random.nextBoolean()) {
+                filter.setGenres(Arrays.asList(GENRES[random.nextInt(GENRES.length)].split("/")[0]));
+            }
+            if (random.nextBoolean()) {
+                // from a few matches to most of the catalog, so both the walk and the heap are used
+                int from = 1950 + random.nextInt(75);
+                filter.setYearFrom(from);
+                filter.setYearTo(from + random.nextInt(40));
+            }
+            List<Movie> expected = new ArrayList<>();
+            for (Movie movie : movies) {
+                if (matches(movie, filter)) {
+                    expected.add(movie);
+                }
+            }
+            expected.sort(comparator(sort));
+
+            int size = 1 + random.nextInt(30);
+            FacetedSearchResult first = service.searchMoviesFaceted(filter, sort, 0, size, null);
+            assertEquals(expected.size(), first.getTotalMatches());
+            assertEquals(expected.subList(0, Math.min(size, expected.size())), first.getPage().getMovies(), sort + " " + filter);
+            if (first.getPage().getNextCursor() != null) {
+                List<Movie> second = expected.subList(size, Math.min(2 * size, expected.size()));
+                assertEquals(second, service.searchMoviesFaceted(filter, sort, 1, size, null).getPage().getMovies());
+                assertEquals(second, service.searchMoviesFaceted(filter, sort, 0, size, first.getPage().getNextCursor())
+                    .getPage().getMovies());
+            }
+        }
+        MovieSort byYear = new MovieSort(MovieSort.Field.YEAR, false);
+        List<Movie> expected = new ArrayList<>(movies);
+        expected.sort(comparator(byYear));
+        assertEquals(expected, service.getAllMovies(byYear));
+        assertEquals(expected.subList(24, 48), service.getMoviesPage(1, 24, null, byYear).getMovies());
+    }
+
+    @Test
+    public void testSortsBundledCatalogByReviews() {
+        MovieService service = new MovieService();
+        ReviewRepository reviews = new ReviewRepository();
+        MovieSort byReviews = MovieSort.parse("reviews");
+
+        List<Movie> sorted = service.getAllMovies(byReviews);
+        assertEquals(12, sorted.size());
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(reviews.getSummary(sorted.get(i - 1).getId()).getReviewCount()
+                >= reviews.getSummary(sorted.get(i).getId()).getReviewCount());
+        }
+        List<Movie> dramas = service.searchMovies(null, null, "Drama", MovieSort.parse("name"));
+        assertEquals(service.searchMovies(null, null, "Drama").size(), dramas.size());
+    }
+
+    @Test
+    public void testMovedPositionsMatchRebuiltOrder() {
+        Random random = new Random(5);
+        int[] keys = new int[500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(40);
+        }
+        for (boolean descending : new boolean[]{false, true}) {
+            int[] sortKeys = descending ? SortOrder.complement(keys) : keys.clone();
+            SortOrder order = SortOrder.bySortKey(sortKeys);
+            int[] current = keys.clone();
+            for (int move = 0; move < 2_000; move++) {
+                int position = random.nextInt(current.length);
+                current[position] = random.nextInt(40);
+                order.move(sortKeys, position, descending ? ~current[position] : current[position]);
+            }
+            SortOrder rebuilt = SortOrder.byKey(current, descending);
+            for (int rank = 0; rank < current.length; rank++) {
+                assertEquals(rebuilt.positionAt(rank), order.positionAt(rank), "rank " + rank);
+                assertEquals(rank, order.rankOf(order.positionAt(rank)));
+            }
+        }
+    }
+
+    @Test
+    public void testReviewOrdersFollowAddedReviews() {
+        ReviewRepository reviews = new ReviewRepository();
+        MovieService service = MovieService.builder().catalog(ColumnarCatalog.of(new MovieService().getAllMovies())).reviews(reviews).build();
+        MovieSort byReviews = MovieSort.parse("reviews");
+        List<Movie> before = new ArrayList<>(service.getAllMovies(byReviews));
+        long last = before.get(before.size() - 1).getId();
+
+        for (int i = 0; i < 40; i++) {
+            reviews.add(last, new Review("Fan" + i, "x", 4.0, "more please"));
+        }
+        List<Movie> after = service.getAllMovies(byReviews);
+        assertEquals(last, after.get(0).getId());
+        for (int i = 1; i < after.size(); i++) {
+            assertTrue(reviews.getSummary(after.get(i - 1).getId()).getReviewCount()
+                >= reviews.getSummary(after.get(i).getId()).getReviewCount());
+        }
+        assertEquals(before.get(0).getId(), after.get(1).getId());
+    }
+
+    @Test
+    public void testReviewOrdersCatchUpWhenTheChangesAreNoLongerKept() {
+        ReviewRepository reviews = new ReviewRepository();
+        MovieService service = MovieService.builder().catalog(ColumnarCatalog.of(new MovieService().getAllMovies())).reviews(reviews).build();
+        MovieSort byReviews = MovieSort.parse("reviews");
+        List<Movie> before = new ArrayList<>(service.getAllMovies(byReviews));
+        long last = before.get(before.size() - 1).getId();
+        long secondLast = before.get(before.size() - 2).getId();
+
+        // the second to last movie's reviews drop out of the kept changes before the order catches up
+        for (int i = 0; i < 100; i++) {
+            reviews.add(secondLast, new Review("Fan" + i, "x", 4.0, "more please"));
+        }
+        for (int i = 0; i < ReviewIndex.CHANGE_CAPACITY; i++) {
+            reviews.add(last, new Review("Fan" + i, "x", 4.0, "more please"));
+        }
+        List<Movie> after = service.getAllMovies(byReviews);
+        assertEquals(last, after.get(0).getId());
+        assertEquals(secondLast, after.get(1).getId());
+        assertEquals(before.get(0).getId(), after.get(2).getId());
+    }
+
+    private static boolean matches(Movie movie, MovieFilter filter) {
+        if (!filter.getGenres().isEmpty()
+                && !Arrays.asList(movie.getGenre().split("/")).contains(filter.getGenres().get(0))) {
+            return false;
+        }
+        return filter.getYearFrom() == null
+            || (movie.getYear() >= filter.getYearFrom() && movie.getYear() <= filter.getYearTo());
+    }
+
+    /**
+     * A stable sort with this comparator keeps catalog order among equal keys, as the sort orders do.
+     */
+    private static Comparator<Movie> comparator(MovieSort sort) {
+        Comparator<Movie> comparator;
+        switch (sort.getField()) {
+            case RATING:
+                comparator = Comparator.comparingDouble(Movie::getImdbRating);
+                break;
+            case YEAR:
+                comparator = Comparator.comparingInt(Movie::getYear);
+                break;
+            case DURATION:
+                comparator = Comparator.comparingInt(Movie::getDuration);
+                break;
+            default:
+                comparator = Comparator.comparing(Movie::getMovieName, String.CASE_INSENSITIVE_ORDER);
+        }
+        return sort.isDescending() ? comparator.reversed() : comparator;
+    }
+
+    private static List<Integer> box(int[] values) {
+        List<Integer> boxed = new ArrayList<>();
+        for (int value : values) {
+            boxed.add(value);
+        }
+        return boxed;
+    }
+}
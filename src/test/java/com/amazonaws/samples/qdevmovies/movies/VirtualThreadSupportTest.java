@@ -0,0 +1,45 @@
+package com.amazonaws.samples.qdevmovies.movies;
+
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadSupportTest {
+
+    private static final boolean SUPPORTED = VirtualThreadSupport.virtualThreadPerTaskExecutor("probe-") != null;
+
+    @Test
+    public void testDisabledKeepsTomcatExecutor() {
+        VirtualThreadSupport support = new VirtualThreadSupport(false);
+        Http11NioProtocol protocol = new Http11NioProtocol();
+
+        support.customize(protocol);
+
+        assertFalse(support.isActive());
+        assertNull(protocol.getExecutor());
+    }
+
+    @Test
+    public void testEnabledUsesVirtualThreadsWhenJvmHasThem() throws Exception {
+        VirtualThreadSupport support = new VirtualThreadSupport(true);
+        Http11NioProtocol protocol = new Http11NioProtocol();
+        try {
+            support.customize(protocol);
+
+            assertEquals(SUPPORTED, support.isActive());
+            if (SUPPORTED) {
+                ExecutorService executor = (ExecutorService) protocol.getExecutor();
+                Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+                assertTrue(name.get().startsWith("http-vt-"));
+            } else {
+                assertNull(protocol.getExecutor());
+            }
+        } finally {
+            support.shutdown();
+        }
+    }
+}